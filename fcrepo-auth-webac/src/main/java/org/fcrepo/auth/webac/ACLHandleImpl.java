@@ -20,7 +20,8 @@ public class ACLHandleImpl implements ACLHandle {
 
     private final FedoraResource resource;
 
-    private final List<WebACAuthorization> authorizations;
+    private final AuthorizationIndex authorizationIndex;
+
     /**
      * Default constructor.
      *
@@ -29,7 +30,7 @@ public class ACLHandleImpl implements ACLHandle {
      */
     public ACLHandleImpl(final FedoraResource resource, final List<WebACAuthorization> authorizations) {
         this.resource = resource;
-        this.authorizations = authorizations;
+        this.authorizationIndex = new AuthorizationIndex(authorizations);
     }
 
     @Override
@@ -39,6 +40,13 @@ public class ACLHandleImpl implements ACLHandle {
 
     @Override
     public List<WebACAuthorization> getAuthorizations() {
-        return authorizations;
+        return authorizationIndex.getAuthorizations();
+    }
+
+    /**
+     * @return the authorizations compiled for evaluation, built once for as long as the handle is cached
+     */
+    AuthorizationIndex getAuthorizationIndex() {
+        return authorizationIndex;
     }
 }
@@ -0,0 +1,132 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree.
+ */
+package org.fcrepo.auth.webac;
+
+import static java.util.stream.Collectors.toUnmodifiableList;
+import static java.util.stream.Collectors.toUnmodifiableSet;
+import static org.fcrepo.auth.webac.URIConstants.FOAF_AGENT_VALUE;
+import static org.fcrepo.auth.webac.URIConstants.WEBAC_AUTHENTICATED_AGENT_VALUE;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.fcrepo.kernel.api.auth.WebACAuthorization;
+
+/**
+ * The authorizations of an ACL compiled for evaluation. The modes and agents of each authorization are resolved
+ * once, and the authorizations are indexed by their acl:accessTo and acl:accessToClass values, so that finding the
+ * authorizations which apply to a resource takes a lookup per path and type instead of a scan of every
+ * authorization.
+ */
+final class AuthorizationIndex {
+
+    private final List<WebACAuthorization> authorizations;
+
+    private final Map<String, List<CompiledAuthorization>> byAccessTo = new HashMap<>();
+
+    private final Map<String, List<CompiledAuthorization>> byAccessToClass = new HashMap<>();
+
+    /**
+     * @param authorizations the authorizations of the ACL
+     */
+    AuthorizationIndex(final List<WebACAuthorization> authorizations) {
+        this.authorizations = authorizations;
+        authorizations.forEach(authorization -> {
+            final var compiled = new CompiledAuthorization(authorization);
+            authorization.getAccessToURIs().forEach(uri ->
+                    byAccessTo.computeIfAbsent(uri, key -> new ArrayList<>()).add(compiled));
+            authorization.getAccessToClassURIs().forEach(uri ->
+                    byAccessToClass.computeIfAbsent(uri, key -> new ArrayList<>()).add(compiled));
+        });
+    }
+
+    /**
+     * @return the authorizations of the ACL
+     */
+    List<WebACAuthorization> getAuthorizations() {
+        return authorizations;
+    }
+
+    /**
+     * Find the authorizations which apply to any of the given paths through acl:accessTo, or to any of the given
+     * types through acl:accessToClass.
+     *
+     * @param accessTo the acl:accessTo values to match
+     * @param accessToClass the acl:accessToClass values to match
+     * @return the matching authorizations, each once
+     */
+    Set<CompiledAuthorization> find(final Collection<String> accessTo,
+                                    final Collection<String> accessToClass) {
+        final Set<CompiledAuthorization> matches = new LinkedHashSet<>();
+        accessTo.forEach(uri -> matches.addAll(byAccessTo.getOrDefault(uri, List.of())));
+        accessToClass.forEach(uri -> matches.addAll(byAccessToClass.getOrDefault(uri, List.of())));
+        return matches;
+    }
+
+    /**
+     * An authorization with its modes as strings, and its agents split into those granted roles by name and the
+     * foaf:Agent and acl:AuthenticatedAgent classes.
+     */
+    static final class CompiledAuthorization {
+
+        private final Set<String> modes;
+
+        private final List<String> agents;
+
+        private final List<String> agentClasses;
+
+        private final Set<String> agentGroups;
+
+        private CompiledAuthorization(final WebACAuthorization authorization) {
+            this.modes = authorization.getModes().stream().map(URI::toString).collect(toUnmodifiableSet());
+            this.agents = authorization.getAgents().stream()
+                    .filter(agent -> !isFoafOrAuthenticated(agent))
+                    .collect(toUnmodifiableList());
+            this.agentClasses = authorization.getAgentClasses().stream()
+                    .filter(AuthorizationIndex::isFoafOrAuthenticated)
+                    .collect(toUnmodifiableList());
+            this.agentGroups = authorization.getAgentGroups();
+        }
+
+        /**
+         * @return the acl:mode values
+         */
+        Set<String> getModes() {
+            return modes;
+        }
+
+        /**
+         * @return the acl:agent values, other than foaf:Agent and acl:AuthenticatedAgent
+         */
+        List<String> getAgents() {
+            return agents;
+        }
+
+        /**
+         * @return the acl:agentClass values which are foaf:Agent or acl:AuthenticatedAgent
+         */
+        List<String> getAgentClasses() {
+            return agentClasses;
+        }
+
+        /**
+         * @return the acl:agentGroup values, whose members are resolved when the authorization is evaluated
+         */
+        Set<String> getAgentGroups() {
+            return agentGroups;
+        }
+    }
+
+    static boolean isFoafOrAuthenticated(final String agentClass) {
+        return agentClass.equals(FOAF_AGENT_VALUE) || agentClass.equals(WEBAC_AUTHENTICATED_AGENT_VALUE);
+    }
+}
@@ -20,9 +20,11 @@ import static org.slf4j.LoggerFactory.getLogger;
 
 import java.net.URI;
 import java.security.Principal;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -33,6 +35,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import org.apache.shiro.SecurityUtils;
 import org.apache.shiro.web.subject.WebSubject;
 import org.fcrepo.auth.common.ContainerRolesPrincipalProvider.ContainerRolesPrincipal;
+import org.fcrepo.auth.webac.AuthorizationIndex.CompiledAuthorization;
 import org.fcrepo.config.FedoraPropsConfig;
 import org.fcrepo.http.commons.session.TransactionProvider;
 import org.fcrepo.kernel.api.ContainmentIndex;
@@ -50,6 +53,7 @@ import org.apache.shiro.authc.AuthenticationException;
 import org.apache.shiro.authc.AuthenticationInfo;
 import org.apache.shiro.authc.AuthenticationToken;
 import org.apache.shiro.authz.AuthorizationInfo;
+import org.apache.shiro.authz.Permission;
 import org.apache.shiro.authz.SimpleAuthorizationInfo;
 import org.apache.shiro.realm.AuthorizingRealm;
 import org.apache.shiro.subject.PrincipalCollection;
@@ -73,6 +77,8 @@ public class WebACAuthorizingRealm extends AuthorizingRealm {
 
     public static final String URIS_TO_AUTHORIZE = "URIS_TO_AUTHORIZE";
 
+    private static final String REQUEST_ROLES = WebACAuthorizingRealm.class.getName() + ".requestRoles";
+
     @Inject
     private FedoraPropsConfig fedoraPropsConfig;
 
@@ -125,27 +131,21 @@ public class WebACAuthorizingRealm extends AuthorizingRealm {
 
         final HttpServletRequest request = currentRequest();
 
-        boolean isAdmin = false;
-
-        final Collection<DelegatedHeaderPrincipal> delegatePrincipals =
-                principals.byType(DelegatedHeaderPrincipal.class);
-
         // if the user was assigned the "fedoraAdmin" container role, they get the
         // "fedoraAdmin" application role
         if (principals.byType(ContainerRolesPrincipal.class).contains(adminPrincipal)) {
-            if (delegatePrincipals.size() > 1) {
-                throw new RepositoryConfigurationException("Too many delegates! " + delegatePrincipals);
-            } else if (delegatePrincipals.isEmpty()) {
+            if (principals.byType(DelegatedHeaderPrincipal.class).isEmpty()) {
                 authzInfo.addRole(FEDORA_ADMIN_ROLE);
                 return authzInfo;
             }
-            isAdmin = true;
             // if Admin is delegating, they are a normal user
             authzInfo.addRole(FEDORA_USER_ROLE);
         } else if (principals.byType(ContainerRolesPrincipal.class).contains(userPrincipal)) {
             authzInfo.addRole(FEDORA_USER_ROLE);
         }
 
+        final List<String> agentNames = getAgentNames(principals);
+
         // for non-admins, we must check the ACL for the requested resource
         @SuppressWarnings("unchecked")
         Set<URI> targetURIs = (Set<URI>) request.getAttribute(URIS_TO_AUTHORIZE);
@@ -153,37 +153,88 @@ public class WebACAuthorizingRealm extends AuthorizingRealm {
             targetURIs = new HashSet<>();
         }
         final Map<URI, Map<String, Collection<String>>> rolesForURI = new HashMap<>();
-        final String contextPath = request.getContextPath() + request.getServletPath();
         for (final URI uri : targetURIs) {
-            if (identifierConverter(request).inInternalDomain(uri.toString())) {
-                final FedoraId id = FedoraId.create(uri.toString());
-                log.debug("Getting roles for id {}", id.getFullId());
-                rolesForURI.put(uri, getRolesForId(id));
-            } else {
-                String path = uri.getPath();
-                if (path.startsWith(contextPath)) {
-                    path = path.replaceFirst(contextPath, "");
-                }
-                log.debug("Getting roles for path {}", path);
-                rolesForURI.put(uri, getRolesForPath(path));
+            rolesForURI.put(uri, getRolesForURI(request, uri, null));
+        }
+
+        for (final String agentName : agentNames) {
+            addPermissions(authzInfo, rolesForURI, agentName);
+        }
+
+        return authzInfo;
+
+    }
+
+    /**
+     * Check a {@link WebACPermission} against the roles of its own resource only, rather than against the roles of
+     * every URI the request has gathered for authorization. The roles of each resource are kept for the rest of the
+     * request, and resources which find the same authorizations share a single evaluation of them, so checking every
+     * resource of a subtree evaluates each distinct ACL once.
+     */
+    @Override
+    public boolean isPermitted(final PrincipalCollection principals, final Permission permission) {
+        if (!(permission instanceof WebACPermission)) {
+            return super.isPermitted(principals, permission);
+        }
+        final var webacPermission = (WebACPermission) permission;
+        final List<String> agentNames = getAgentNames(principals);
+        if (agentNames.isEmpty()) {
+            return false;
+        }
+        final HttpServletRequest request = currentRequest();
+
+        RequestRoles requestRoles = (RequestRoles) request.getAttribute(REQUEST_ROLES);
+        if (requestRoles == null) {
+            requestRoles = new RequestRoles();
+            request.setAttribute(REQUEST_ROLES, requestRoles);
+        }
+        final var rolesByAuthorizations = requestRoles.byAuthorizations;
+        final Map<String, Collection<String>> roles = requestRoles.byURI.computeIfAbsent(
+                webacPermission.getResource(), uri -> getRolesForURI(request, uri, rolesByAuthorizations));
+        if (roles == null) {
+            return false;
+        }
+        final String mode = webacPermission.getMode().toString();
+        return agentNames.stream()
+                .map(roles::get)
+                .anyMatch(modes -> modes != null && modes.contains(mode));
+    }
+
+    /**
+     * The agents whose roles apply to the principals, in the order their permissions are granted: the user or the
+     * user an admin delegates to along with acl:AuthenticatedAgent, then any header principals, then foaf:Agent. An
+     * admin who is not delegating is granted the fedoraAdmin role instead, and no agents.
+     */
+    private List<String> getAgentNames(final PrincipalCollection principals) {
+        final Collection<DelegatedHeaderPrincipal> delegatePrincipals =
+                principals.byType(DelegatedHeaderPrincipal.class);
+
+        boolean isAdmin = false;
+        if (principals.byType(ContainerRolesPrincipal.class).contains(adminPrincipal)) {
+            if (delegatePrincipals.size() > 1) {
+                throw new RepositoryConfigurationException("Too many delegates! " + delegatePrincipals);
+            } else if (delegatePrincipals.isEmpty()) {
+                return List.of();
             }
+            isAdmin = true;
         }
 
         for (final Object o : principals.asList()) {
             log.debug("User has principal with name: {}", ((Principal) o).getName());
         }
+        final List<String> agentNames = new ArrayList<>();
         final Principal userPrincipal = principals.oneByType(BasicUserPrincipal.class);
         final Collection<HttpHeaderPrincipal> headerPrincipals = principals.byType(HttpHeaderPrincipal.class);
         // Add permissions for user or delegated user principal
         if (isAdmin && delegatePrincipals.size() == 1) {
             final DelegatedHeaderPrincipal delegatedPrincipal = delegatePrincipals.iterator().next();
             log.debug("Admin user is delegating to {}", delegatedPrincipal);
-            addPermissions(authzInfo, rolesForURI, delegatedPrincipal.getName());
-            addPermissions(authzInfo, rolesForURI, WEBAC_AUTHENTICATED_AGENT_VALUE);
+            agentNames.add(delegatedPrincipal.getName());
+            agentNames.add(WEBAC_AUTHENTICATED_AGENT_VALUE);
         } else if (userPrincipal != null) {
             log.debug("Basic user principal username: {}", userPrincipal.getName());
-            addPermissions(authzInfo, rolesForURI, userPrincipal.getName());
-            addPermissions(authzInfo, rolesForURI, WEBAC_AUTHENTICATED_AGENT_VALUE);
+            agentNames.add(userPrincipal.getName());
+            agentNames.add(WEBAC_AUTHENTICATED_AGENT_VALUE);
         } else {
             log.debug("No basic user principal found");
         }
@@ -191,34 +242,56 @@ public class WebACAuthorizingRealm extends AuthorizingRealm {
         if (headerPrincipals.isEmpty()) {
             log.debug("No header principals found!");
         }
-        headerPrincipals.forEach((headerPrincipal) -> {
-            addPermissions(authzInfo, rolesForURI, headerPrincipal.getName());
-        });
+        headerPrincipals.forEach((headerPrincipal) -> agentNames.add(headerPrincipal.getName()));
 
         // Added FOAF_AGENT permissions for both authenticated and unauthenticated users
-        addPermissions(authzInfo, rolesForURI, FOAF_AGENT_VALUE);
-
-        return authzInfo;
+        agentNames.add(FOAF_AGENT_VALUE);
+        return agentNames;
+    }
 
+    private Map<String, Collection<String>> getRolesForURI(final HttpServletRequest request, final URI uri,
+            final Map<Set<CompiledAuthorization>, Map<String, Collection<String>>> rolesByAuthorizations) {
+        if (identifierConverter(request).inInternalDomain(uri.toString())) {
+            final FedoraId id = FedoraId.create(uri.toString());
+            log.debug("Getting roles for id {}", id.getFullId());
+            return getRolesForId(id, rolesByAuthorizations);
+        }
+        final String contextPath = request.getContextPath() + request.getServletPath();
+        String path = uri.getPath();
+        if (path.startsWith(contextPath)) {
+            path = path.replaceFirst(contextPath, "");
+        }
+        log.debug("Getting roles for path {}", path);
+        return getRolesForPath(path, rolesByAuthorizations);
     }
 
-    private Map<String, Collection<String>> getRolesForPath(final String path) {
+    private Map<String, Collection<String>> getRolesForPath(final String path,
+            final Map<Set<CompiledAuthorization>, Map<String, Collection<String>>> rolesByAuthorizations) {
         final HttpServletRequest request = currentRequest();
 
         final FedoraId id = identifierConverter(request).pathToInternalId(path);
-        return getRolesForId(id);
+        return getRolesForId(id, rolesByAuthorizations);
     }
 
-    private Map<String, Collection<String>> getRolesForId(final FedoraId id) {
+    /**
+     * @param id the id to get the roles of
+     * @param rolesByAuthorizations the roles already found during the request for each set of authorizations, or
+     *        null to evaluate the authorizations afresh
+     * @return the roles for each agent, or null if neither the resource nor a container of it exists
+     */
+    private Map<String, Collection<String>> getRolesForId(final FedoraId id,
+            final Map<Set<CompiledAuthorization>, Map<String, Collection<String>>> rolesByAuthorizations) {
         Map<String, Collection<String>> roles = null;
 
         final var txId = FEDORA_ID_PREFIX + "/" + FCR_TX;
         final FedoraResource fedoraResource = getResourceOrParentFromPath(id);
         if (id.getResourceId().startsWith(txId) && fedoraResource != null) {
-            roles = rolesProvider.getRoles(id, fedoraResource, transaction());
+            roles = rolesByAuthorizations == null ? rolesProvider.getRoles(id, fedoraResource, transaction()) :
+                    rolesProvider.getRoles(id, fedoraResource, transaction(), rolesByAuthorizations);
         } else if (fedoraResource != null) {
             // check ACL for the request URI and get a mapping of agent => modes
-            roles = rolesProvider.getRoles(fedoraResource, transaction());
+            roles = rolesByAuthorizations == null ? rolesProvider.getRoles(fedoraResource, transaction()) :
+                    rolesProvider.getRoles(fedoraResource, transaction(), rolesByAuthorizations);
         }
         return roles;
     }
@@ -279,4 +352,15 @@ public class WebACAuthorizingRealm extends AuthorizingRealm {
         }
     }
 
+    /**
+     * The roles found while authorizing a single request.
+     */
+    private static class RequestRoles {
+
+        private final Map<URI, Map<String, Collection<String>>> byURI = new HashMap<>();
+
+        private final Map<Set<CompiledAuthorization>, Map<String, Collection<String>>> byAuthorizations =
+                new HashMap<>();
+    }
+
 }
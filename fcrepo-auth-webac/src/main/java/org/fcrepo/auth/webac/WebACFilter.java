@@ -851,8 +851,8 @@ public class WebACFilter extends RequestContextFilter {
             return children.noneMatch(resc -> {
                 final URI childURI = URI.create(resc.getFedoraId().getFullId());
                 log.debug("Found embedded resource: {}", resc);
-                // add the contained URI to the list URIs to retrieve ACLs for
-                addURIToAuthorize(request, childURI);
+                // The realm checks the permission against the roles of the child alone, so the child is not added
+                // to the URIs to authorize, which would have every later check evaluate it again.
                 if (!currentUser.isPermitted(new WebACPermission(permission, childURI))) {
                     log.debug("Failed to access embedded resource: {}", childURI);
                     return true;
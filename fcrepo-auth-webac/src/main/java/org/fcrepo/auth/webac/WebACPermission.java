@@ -68,14 +68,14 @@ public class WebACPermission implements Permission {
     /**
      * @return the mode
      */
-    private URI getMode() {
+    URI getMode() {
         return mode;
     }
 
     /**
      * @return the resource
      */
-    private URI getResource() {
+    URI getResource() {
         return resource;
     }
 
@@ -8,7 +8,6 @@ package org.fcrepo.auth.webac;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static java.util.stream.Collectors.toList;
-import static java.util.stream.Collectors.toSet;
 import static java.util.stream.IntStream.range;
 import static java.util.stream.Stream.concat;
 import static java.util.stream.Stream.empty;
@@ -22,7 +21,6 @@ import static org.fcrepo.auth.webac.URIConstants.WEBAC_ACCESSTO_VALUE;
 import static org.fcrepo.auth.webac.URIConstants.WEBAC_AGENT_CLASS_VALUE;
 import static org.fcrepo.auth.webac.URIConstants.WEBAC_AGENT_GROUP_VALUE;
 import static org.fcrepo.auth.webac.URIConstants.WEBAC_AGENT_VALUE;
-import static org.fcrepo.auth.webac.URIConstants.WEBAC_AUTHENTICATED_AGENT_VALUE;
 import static org.fcrepo.auth.webac.URIConstants.WEBAC_AUTHORIZATION_VALUE;
 import static org.fcrepo.auth.webac.URIConstants.WEBAC_DEFAULT_VALUE;
 import static org.fcrepo.auth.webac.URIConstants.WEBAC_MODE_VALUE;
@@ -32,7 +30,11 @@ import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_ID_PREFIX;
 import static org.fcrepo.kernel.api.RdfLexicon.RDF_NAMESPACE;
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.io.IOException;
 import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -42,7 +44,6 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -50,6 +51,7 @@ import java.util.stream.Stream;
 import jakarta.annotation.PostConstruct;
 import jakarta.inject.Inject;
 
+import org.fcrepo.auth.webac.AuthorizationIndex.CompiledAuthorization;
 import org.fcrepo.config.AuthPropsConfig;
 import org.fcrepo.kernel.api.Transaction;
 import org.fcrepo.kernel.api.auth.ACLHandle;
@@ -97,40 +99,77 @@ public class WebACRolesProvider {
     private Cache<String, Optional<ACLHandle>> authHandleCache;
 
     /**
-     * Retrieve an effective ACL using the cache, but do not negatively-cache empty results.
+     * Retrieve an effective ACL using the cache.
      *
-     * Caffeine will cache whatever value is returned by the mapping function, including Optional.empty().
-     * If ACL resolution transiently fails (e.g., during concurrent writes/index lag), caching an empty
-     * value can cause authorization to incorrectly fall back to the classpath/root ACL until the
-     * entry expires or the process restarts.
+     * An empty result, meaning the default authorizations apply, is only cached once the walk up the tree has
+     * reached the repository root. If ACL resolution transiently fails (e.g., during concurrent writes/index lag)
+     * the walk stops short of the root, and caching the empty value could cause authorization to incorrectly fall
+     * back to the classpath/root ACL until the entry expires.
+     *
+     * Inside an open long-running transaction the cache is neither read nor filled, as the ACLs seen there include
+     * the uncommitted changes of the transaction, which must neither apply to other requests nor be hidden from it
+     * by what other requests have cached.
      */
-    private Optional<ACLHandle> getEffectiveAclCached(final FedoraResource resource) {
+    private Optional<ACLHandle> getEffectiveAclCached(final FedoraResource resource, final Transaction transaction) {
+        if (transaction != null && transaction.isOpenLongRunning()) {
+            return getEffectiveAcl(resource, false, false);
+        }
         final var key = resource.getId();
-        LOGGER.info("Getting ACL for {}", key);
         final var cached = authHandleCache.getIfPresent(key);
-        LOGGER.info("Cached: {}", cached);
-        // If present in cache and non-empty, use it.
-        if (cached != null && cached.isPresent()) {
+        if (cached != null) {
             return cached;
         }
 
-        // Compute fresh.
-        final var computed = getEffectiveAcl(resource, false);
-
-        // Only cache positive results.
-        if (computed.isPresent()) {
+        final var computed = getEffectiveAcl(resource, false, true);
+        if (computed.isPresent() || isResolvedToRoot(resource)) {
             authHandleCache.put(key, computed);
-        } else {
-            // Ensure we don't keep a stale negative cache entry.
-            authHandleCache.invalidate(key);
+        }
+        return computed;
+    }
+
+    /**
+     * Retrieve the ACL inherited by the descendants of a resource using the cache. These are kept alongside the
+     * effective ACLs, keyed by the id of the resource followed by a slash, so that they are dropped along with the
+     * effective ACLs of the subtree whenever an ACL in or above it changes.
+     *
+     * @param container the resource whose descendants inherit the ACL
+     * @return the ACL inherited from the resource or its nearest ACL-bearing ancestor
+     */
+    private Optional<ACLHandle> getInheritedAclCached(final FedoraResource container) {
+        final var key = inheritedAclKey(container.getId());
+        final var cached = authHandleCache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
         }
 
+        final var computed = getEffectiveAcl(container, true, true);
+        if (computed.isPresent() || isResolvedToRoot(container)) {
+            authHandleCache.put(key, computed);
+        }
         return computed;
     }
 
+    /**
+     * Whether the search for the ACL of a resource which found none reached the repository root, either because
+     * the resource is the root or because the search reached the root from its container.
+     */
+    private boolean isResolvedToRoot(final FedoraResource resource) {
+        if (FEDORA_ID_PREFIX.equals(resource.getId())) {
+            return true;
+        }
+        final var container = getParentForAcl(resource);
+        return container != null && authHandleCache.getIfPresent(inheritedAclKey(container.getId())) != null;
+    }
+
+    private static String inheritedAclKey(final String resourceId) {
+        return resourceId + "/";
+    }
+
     private String userBaseUri;
     private String groupBaseUri;
 
+    private volatile DefaultAuthorizations defaultAuthorizations;
+
     @PostConstruct
     public void setup() {
         this.userBaseUri = authPropsConfig.getUserAgentBaseUri();
@@ -149,12 +188,30 @@ public class WebACRolesProvider {
     public Map<String, Collection<String>> getRoles(final FedoraId id,
                                                     final FedoraResource fedoraResource,
                                                     final Transaction transaction) {
+        return getRoles(id, fedoraResource, transaction, new HashMap<>());
+    }
+
+    /**
+     * Get the roles assigned to a FedoraId using the default authorization, sharing the roles with other lookups
+     * which find the same authorizations.
+     *
+     * @param id the subject id
+     * @param fedoraResource the parent resource of the id, most likely info:fedora
+     * @param transaction the transaction being acted upon
+     * @param rolesByAuthorizations the roles already found for each set of applicable authorizations
+     * @return a mapping of each principal to a set of its roles, which must not be modified
+     */
+    Map<String, Collection<String>> getRoles(final FedoraId id,
+                                             final FedoraResource fedoraResource,
+                                             final Transaction transaction,
+                                             final Map<Set<CompiledAuthorization>, Map<String, Collection<String>>>
+                                                     rolesByAuthorizations) {
         LOGGER.debug("Getting agent roles for id: {}", id);
         // Construct a list of acceptable acl:accessTo values for the target resource.
         final List<String> resourcePaths = new ArrayList<>();
 
         // See if the root acl has been updated
-        final var effectiveAcl = getEffectiveAclCached(fedoraResource);
+        final var effectiveAcl = getEffectiveAclCached(fedoraResource, transaction);
         effectiveAcl.map(ACLHandle::getResource)
             .filter(effectiveResource -> !effectiveResource.getId().equals(id.getResourceId()))
             .ifPresent(effectiveResource -> {
@@ -166,12 +223,10 @@ public class WebACRolesProvider {
         resourcePaths.add(id.getResourceId());
         resourcePaths.addAll(getAllPathAncestors(id.getResourceId()));
 
-        // Create a function to check acl:accessTo, scoped to the given resourcePaths
-        final Predicate<WebACAuthorization> checkAccessTo = accessTo.apply(resourcePaths);
-
-        final var authorizations = effectiveAcl.map(ACLHandle::getAuthorizations)
-                                               .orElseGet(this::getDefaultAuthorizations);
-        final var effectiveRoles = getEffectiveRoles(authorizations, checkAccessTo, transaction);
+        final var authorizations = effectiveAcl.map(WebACRolesProvider::getAuthorizationIndex)
+                                               .orElseGet(this::getDefaultAuthorizationIndex);
+        final var effectiveRoles = getEffectiveRoles(authorizations, resourcePaths, emptyList(), transaction,
+                rolesByAuthorizations);
 
         LOGGER.debug("Unfiltered ACL: {}", effectiveRoles);
         return effectiveRoles;
@@ -185,10 +240,26 @@ public class WebACRolesProvider {
      * @return a set of roles for each principal
      */
     public Map<String, Collection<String>> getRoles(final FedoraResource resource, final Transaction transaction) {
+        return getRoles(resource, transaction, new HashMap<>());
+    }
+
+    /**
+     * Get the roles assigned to this Node, sharing the roles with other lookups which find the same authorizations.
+     * Resources governed by the same ACL usually find the same authorizations, so checking many of them evaluates
+     * each of their ACLs once.
+     *
+     * @param resource the subject resource
+     * @param transaction the transaction being acted upon
+     * @param rolesByAuthorizations the roles already found for each set of applicable authorizations
+     * @return a set of roles for each principal, which must not be modified
+     */
+    Map<String, Collection<String>> getRoles(final FedoraResource resource, final Transaction transaction,
+                                             final Map<Set<CompiledAuthorization>, Map<String, Collection<String>>>
+                                                     rolesByAuthorizations) {
         LOGGER.debug("Getting agent roles for resource: {}", resource.getId());
 
         // Get the effective ACL by searching the target node and any ancestors.
-        final Optional<ACLHandle> effectiveAcl = getEffectiveAclCached(resource);
+        final Optional<ACLHandle> effectiveAcl = getEffectiveAclCached(resource, transaction);
 
         // Construct a list of acceptable acl:accessTo values for the target resource.
         final List<String> resourcePaths = new ArrayList<>();
@@ -222,25 +293,17 @@ public class WebACRolesProvider {
             resourcePaths.addAll(getAllPathAncestors(resource.getId()));
         }
 
-        // Create a function to check acl:accessTo, scoped to the given resourcePaths
-        final Predicate<WebACAuthorization> checkAccessTo = accessTo.apply(resourcePaths);
+        // Read the effective Acl and its acl:Authorization statements, indexed by acl:accessTo and acl:accessToClass
+        final AuthorizationIndex authorizations = effectiveAcl
+                .map(WebACRolesProvider::getAuthorizationIndex)
+                .orElseGet(this::getDefaultAuthorizationIndex);
 
-        // Create a function to check acl:accessToClass, scoped to the given rdf:type values,
-        // but transform the URIs to Strings first.
-        final Predicate<WebACAuthorization> checkAccessToClass =
-            accessToClass.apply(rdfTypes.stream().map(URI::toString).collect(toList()));
-
-        // Read the effective Acl and return a list of acl:Authorization statements
-        final List<WebACAuthorization> authorizations = effectiveAcl
-                .map(ACLHandle::getAuthorizations)
-                .orElseGet(this::getDefaultAuthorizations);
-
-        // Filter the acl:Authorization statements so that they correspond only to statements that apply to
-        // the target (or acl-bearing ancestor) resource path or rdf:type.
+        // Select the acl:Authorization statements that apply to the target (or acl-bearing ancestor) resource path
+        // or rdf:type, the latter transformed to Strings first.
         // Then, assign all acceptable acl:mode values to the relevant acl:agent values: this creates a UNION
         // of acl:modes for each particular acl:agent.
-        final Map<String, Collection<String>> effectiveRoles =
-            getEffectiveRoles(authorizations, checkAccessTo.or(checkAccessToClass), transaction);
+        final Map<String, Collection<String>> effectiveRoles = getEffectiveRoles(authorizations, resourcePaths,
+                rdfTypes.stream().map(URI::toString).collect(toList()), transaction, rolesByAuthorizations);
 
         LOGGER.debug("Unfiltered ACL: {}", effectiveRoles);
 
@@ -248,34 +311,44 @@ public class WebACRolesProvider {
     }
 
     /**
-     * Get the effective roles for a list of authorizations
+     * Get the effective roles for the authorizations which apply to the given paths or types
      *
-     * @param authorizations The authorizations to get roles for
-     * @param authorizationFilter The filter to apply on the list of roles
+     * @param authorizations The compiled authorizations of the effective ACL
+     * @param accessTo The acl:accessTo values which apply to the resource
+     * @param accessToClass The acl:accessToClass values which apply to the resource
      * @param transaction the transaction being acted upon
+     * @param rolesByAuthorizations the roles already found for each set of applicable authorizations
      * @return a mapping of each principal to a set of its roles
      */
-    private Map<String, Collection<String>> getEffectiveRoles(final List<WebACAuthorization> authorizations,
-                                                              final Predicate<WebACAuthorization> authorizationFilter,
-                                                              final Transaction transaction) {
-        final Predicate<String> isFoafOrAuthenticated = (agentClass) ->
-            agentClass.equals(FOAF_AGENT_VALUE) || agentClass.equals(WEBAC_AUTHENTICATED_AGENT_VALUE);
+    private Map<String, Collection<String>> getEffectiveRoles(final AuthorizationIndex authorizations,
+                                                              final List<String> accessTo,
+                                                              final List<String> accessToClass,
+                                                              final Transaction transaction,
+                                                              final Map<Set<CompiledAuthorization>,
+                                                                      Map<String, Collection<String>>>
+                                                                      rolesByAuthorizations) {
+        final var applicable = authorizations.find(accessTo, accessToClass);
+        final var knownRoles = rolesByAuthorizations.get(applicable);
+        if (knownRoles != null) {
+            return knownRoles;
+        }
+
+        // Each agent group is dereferenced once, however many of the authorizations name it.
+        final Map<String, List<String>> groupMembers = new HashMap<>();
 
         final Map<String, Collection<String>> effectiveRoles = new HashMap<>();
-        authorizations.stream()
-                      .filter(authorizationFilter)
-                      .forEach(auth -> {
-                          final var modes = auth.getModes().stream().map(URI::toString).collect(toSet());
+        applicable.forEach(auth -> {
+                          final var modes = auth.getModes();
                           concat(auth.getAgents().stream(),
-                                 dereferenceAgentGroups(transaction, auth.getAgentGroups()).stream())
-                              .filter(Predicate.not(isFoafOrAuthenticated))
+                                 auth.getAgentGroups().stream()
+                                     .flatMap(agentGroup -> groupMembers.computeIfAbsent(agentGroup,
+                                         key -> dereferenceAgentGroups(transaction, List.of(key))).stream())
+                                     .filter(Predicate.not(AuthorizationIndex::isFoafOrAuthenticated)))
                               .forEach(agent -> {
                                   effectiveRoles.computeIfAbsent(agent, key -> new HashSet<>())
                                                 .addAll(modes);
                               });
                           auth.getAgentClasses()
-                              .stream()
-                              .filter(isFoafOrAuthenticated)
                               .forEach(agentClass -> {
                                   effectiveRoles.computeIfAbsent(agentClass, key -> new HashSet<>())
                                                 .addAll(modes);
@@ -284,6 +357,13 @@ public class WebACRolesProvider {
         return effectiveRoles;
     }
 
+    private static AuthorizationIndex getAuthorizationIndex(final ACLHandle aclHandle) {
+        if (aclHandle instanceof ACLHandleImpl) {
+            return ((ACLHandleImpl) aclHandle).getAuthorizationIndex();
+        }
+        return new AuthorizationIndex(aclHandle.getAuthorizations());
+    }
+
     /**
      * Given a path (e.g. /a/b/c/d) retrieve a list of all ancestor paths.
      * In this case, that would be a list of "/a/b/c", "/a/b", "/a" and "/".
@@ -298,22 +378,6 @@ public class WebACRolesProvider {
                 .collect(toList());
     }
 
-    /**
-     *  This is a function for generating a Predicate that filters WebACAuthorizations according
-     *  to whether the given acl:accessToClass values contain any of the rdf:type values provided
-     *  when creating the predicate.
-     */
-    private static final Function<List<String>, Predicate<WebACAuthorization>> accessToClass = uris -> auth ->
-        uris.stream().anyMatch(uri -> auth.getAccessToClassURIs().contains(uri));
-
-    /**
-     *  This is a function for generating a Predicate that filters WebACAuthorizations according
-     *  to whether the given acl:accessTo values contain any of the target resource values provided
-     *  when creating the predicate.
-     */
-    private static final Function<List<String>, Predicate<WebACAuthorization>> accessTo = uris -> auth ->
-        uris.stream().anyMatch(uri -> auth.getAccessToURIs().contains(uri));
-
     /**
      *  This maps a Collection of acl:agentGroup values to a List of agents.
      *  Any out-of-domain URIs are silently ignored.
@@ -477,10 +541,14 @@ public class WebACRolesProvider {
      * This way, if the effective ACL is pointed to from a parent resource, the child will inherit
      * any permissions that correspond to access to that parent. This ACL resource may or may not exist,
      * and it may be external to the fedora repository.
+     * When the cache is used, the ACLs inherited from each ancestor are cached, so the walk stops at the first
+     * ancestor already seen.
      * @param resource the Fedora resource
      * @param ancestorAcl the flag for looking up ACL from ancestor hierarchy resources
+     * @param useCache whether the ACLs inherited from ancestors may be read from and added to the cache
      */
-    Optional<ACLHandle> getEffectiveAcl(final FedoraResource resource, final boolean ancestorAcl) {
+    Optional<ACLHandle> getEffectiveAcl(final FedoraResource resource, final boolean ancestorAcl,
+                                        final boolean useCache) {
 
         final FedoraResource aclResource = resource.getAcl();
 
@@ -493,20 +561,60 @@ public class WebACRolesProvider {
             }
         }
 
-        FedoraResource container = resource.getContainer();
+        final FedoraResource container = getParentForAcl(resource);
+        if (container == null) {
+            LOGGER.debug("No ACLs defined on this node or in parent hierarchy");
+            return Optional.empty();
+        } else {
+            LOGGER.trace("Checking parent resource for ACL. No ACL found at {}", resource.getId());
+            return useCache ? getInheritedAclCached(container) : getEffectiveAcl(container, true, false);
+        }
+    }
+
+    /**
+     * Get the resource whose ACL is inherited by a resource without one of its own.
+     *
+     * @param resource the Fedora resource
+     * @return the container of the resource, or the resource it describes when not contained by anything
+     */
+    private static FedoraResource getParentForAcl(final FedoraResource resource) {
+        final FedoraResource container = resource.getContainer();
         // The resource is not ldp:contained by anything, so checked its described resource.
         if (container == null && (resource instanceof NonRdfSourceDescription || resource instanceof TimeMap)) {
             final var described = resource.getDescribedResource();
             if (!Objects.equals(resource, described)) {
-                container = described;
+                return described;
             }
         }
-        if (container == null) {
-            LOGGER.debug("No ACLs defined on this node or in parent hierarchy");
-            return Optional.empty();
-        } else {
-            LOGGER.trace("Checking parent resource for ACL. No ACL found at {}", resource.getId());
-            return getEffectiveAcl(container, true);
+        return container;
+    }
+
+    /**
+     * Get the compiled authorizations of the default root ACL, parsing the root ACL again only when the configured
+     * file, or its modification time, has changed since it was last parsed.
+     */
+    private AuthorizationIndex getDefaultAuthorizationIndex() {
+        final var path = authPropsConfig.getRootAuthAclPath();
+        final var lastModified = getLastModified(path);
+        final var current = defaultAuthorizations;
+        if (current != null && Objects.equals(current.path, path)
+                && Objects.equals(current.lastModified, lastModified)) {
+            return current.authorizations;
+        }
+
+        final var authorizations = new AuthorizationIndex(getDefaultAuthorizations());
+        defaultAuthorizations = new DefaultAuthorizations(path, lastModified, authorizations);
+        return authorizations;
+    }
+
+    private static FileTime getLastModified(final Path path) {
+        if (path == null || !Files.isRegularFile(path)) {
+            return null;
+        }
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (final IOException e) {
+            return null;
         }
     }
 
@@ -559,6 +667,7 @@ public class WebACRolesProvider {
     public void setUserBaseUri(final String userBaseUri) {
         this.userBaseUri = userBaseUri;
         authHandleCache.invalidateAll();
+        defaultAuthorizations = null;
     }
 
     /**
@@ -567,5 +676,25 @@ public class WebACRolesProvider {
     public void setGroupBaseUri(final String groupBaseUri) {
         this.groupBaseUri = groupBaseUri;
         authHandleCache.invalidateAll();
+        defaultAuthorizations = null;
+    }
+
+    /**
+     * The compiled default root ACL, with the file and modification time it was parsed from.
+     */
+    private static class DefaultAuthorizations {
+
+        private final Path path;
+
+        private final FileTime lastModified;
+
+        private final AuthorizationIndex authorizations;
+
+        private DefaultAuthorizations(final Path path, final FileTime lastModified,
+                                      final AuthorizationIndex authorizations) {
+            this.path = path;
+            this.lastModified = lastModified;
+            this.authorizations = authorizations;
+        }
     }
 }
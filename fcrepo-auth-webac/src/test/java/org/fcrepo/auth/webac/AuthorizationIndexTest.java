@@ -0,0 +1,59 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree.
+ */
+package org.fcrepo.auth.webac;
+
+import static java.util.Collections.emptyList;
+import static org.fcrepo.auth.webac.URIConstants.FOAF_AGENT_VALUE;
+import static org.fcrepo.auth.webac.URIConstants.WEBAC_MODE_READ;
+import static org.fcrepo.auth.webac.URIConstants.WEBAC_MODE_READ_VALUE;
+import static org.fcrepo.auth.webac.URIConstants.WEBAC_MODE_WRITE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the lookup of authorizations by acl:accessTo and acl:accessToClass.
+ */
+public class AuthorizationIndexTest {
+
+    private final String ACCESS_TO1 = "/foo";
+    private final String ACCESS_TO2 = "/bar";
+    private final String ACCESS_TO_CLASS1 = "ex:Image";
+
+    @Test
+    public void testFindByAccessToAndClass() {
+        final var byPath = new WebACAuthorizationImpl(List.of("me"), emptyList(), List.of(WEBAC_MODE_READ),
+                List.of(ACCESS_TO1, ACCESS_TO2), List.of(ACCESS_TO_CLASS1), emptyList(), emptyList());
+        final var byClass = new WebACAuthorizationImpl(List.of("you"), emptyList(), List.of(WEBAC_MODE_WRITE),
+                emptyList(), List.of(ACCESS_TO_CLASS1), emptyList(), emptyList());
+        final var index = new AuthorizationIndex(List.of(byPath, byClass));
+
+        assertEquals(1, index.find(List.of(ACCESS_TO1), emptyList()).size());
+        assertEquals(2, index.find(List.of("/baz"), List.of(ACCESS_TO_CLASS1)).size());
+        assertEquals(2, index.find(List.of(ACCESS_TO1, ACCESS_TO2), List.of(ACCESS_TO_CLASS1)).size(),
+                "Each authorization should be found once however many of its values match");
+        assertTrue(index.find(List.of("/baz"), List.of("ex:Archive")).isEmpty());
+        assertEquals(List.of(byPath, byClass), index.getAuthorizations());
+    }
+
+    @Test
+    public void testCompiledAgents() {
+        final var auth = new WebACAuthorizationImpl(List.of("me", FOAF_AGENT_VALUE),
+                List.of(FOAF_AGENT_VALUE, "ex:Other"), List.of(WEBAC_MODE_READ), List.of(ACCESS_TO1), emptyList(),
+                List.of("/group"), emptyList());
+        final var compiled = new AuthorizationIndex(List.of(auth)).find(List.of(ACCESS_TO1), emptyList())
+                .iterator().next();
+
+        assertEquals(List.of("me"), compiled.getAgents());
+        assertEquals(List.of(FOAF_AGENT_VALUE), compiled.getAgentClasses());
+        assertEquals(Set.of(WEBAC_MODE_READ_VALUE), compiled.getModes());
+        assertEquals(Set.of("/group"), compiled.getAgentGroups());
+    }
+}
@@ -24,6 +24,8 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.util.ReflectionTestUtils.setField;
 
@@ -715,6 +717,68 @@ public class WebACRolesProviderTest {
         assertTrue(roles.get("Bob").contains(WEBAC_MODE_WRITE_VALUE), "The agent should be able to write");
     }
 
+    @Test
+    public void testNoAclResolvedToRootIsCached() {
+        final var mockSiblingResource = mock(FedoraResource.class);
+
+        when(mockParentResource.getId()).thenReturn(FEDORA_ID_PREFIX);
+        when(mockParentResource.getAcl()).thenReturn(null);
+        when(mockParentResource.getContainer()).thenReturn(null);
+        when(mockResource.getId()).thenReturn(addPrefix("/inherits/a"));
+        when(mockResource.getAcl()).thenReturn(null);
+        when(mockResource.getContainer()).thenReturn(mockParentResource);
+        when(mockSiblingResource.getId()).thenReturn(addPrefix("/inherits/b"));
+        when(mockSiblingResource.getAcl()).thenReturn(null);
+        when(mockSiblingResource.getContainer()).thenReturn(mockParentResource);
+        when(mockSiblingResource.getDescribedResource()).thenReturn(mockSiblingResource);
+        when(mockSiblingResource.getDescription()).thenReturn(mockSiblingResource);
+
+        assertOnlyDefaultAgentInRoles(roleProvider.getRoles(mockResource, mockTransaction));
+        assertOnlyDefaultAgentInRoles(roleProvider.getRoles(mockResource, mockTransaction));
+        assertOnlyDefaultAgentInRoles(roleProvider.getRoles(mockSiblingResource, mockTransaction));
+
+        // The resource is answered from the cache, and its sibling stops at the root it shares with it
+        verify(mockResource, times(1)).getAcl();
+        verify(mockSiblingResource, times(1)).getAcl();
+        verify(mockParentResource, times(1)).getAcl();
+    }
+
+    @Test
+    public void testNoAclNotResolvedToRootIsNotCached() {
+        when(mockParentResource.getId()).thenReturn(addPrefix("/orphaned"));
+        when(mockParentResource.getAcl()).thenReturn(null);
+        when(mockParentResource.getContainer()).thenReturn(null);
+        when(mockResource.getId()).thenReturn(addPrefix("/orphaned/a"));
+        when(mockResource.getAcl()).thenReturn(null);
+        when(mockResource.getContainer()).thenReturn(mockParentResource);
+
+        assertOnlyDefaultAgentInRoles(roleProvider.getRoles(mockResource, mockTransaction));
+        assertOnlyDefaultAgentInRoles(roleProvider.getRoles(mockResource, mockTransaction));
+
+        verify(mockResource, times(2)).getAcl();
+        assertTrue(authHandleCache.asMap().isEmpty(), "Nothing should be cached short of the root");
+    }
+
+    @Test
+    public void testNoAclInOpenTransactionIsNotCached() {
+        when(mockParentResource.getId()).thenReturn(FEDORA_ID_PREFIX);
+        when(mockParentResource.getAcl()).thenReturn(null);
+        when(mockParentResource.getContainer()).thenReturn(null);
+        when(mockResource.getId()).thenReturn(addPrefix("/deleted-acl/a"));
+        when(mockResource.getAcl()).thenReturn(null);
+        when(mockResource.getContainer()).thenReturn(mockParentResource);
+        when(mockTransaction.isOpenLongRunning()).thenReturn(true);
+
+        // The ACL may only be gone in the transaction, which could still roll back
+        assertOnlyDefaultAgentInRoles(roleProvider.getRoles(mockResource, mockTransaction));
+        assertTrue(authHandleCache.asMap().isEmpty(), "Nothing read in an open transaction should be cached");
+
+        when(mockTransaction.isOpenLongRunning()).thenReturn(false);
+        assertOnlyDefaultAgentInRoles(roleProvider.getRoles(mockResource, mockTransaction));
+        verify(mockResource, times(2)).getAcl();
+        assertTrue(authHandleCache.asMap().containsKey(addPrefix("/deleted-acl/a")));
+    }
+
     private static RdfStream getRdfStreamFromResource(final String resourcePath, final Lang lang) {
         final Model model = createDefaultModel();
 
@@ -12,6 +12,7 @@ import static org.fcrepo.auth.webac.URIConstants.WEBAC_MODE_WRITE_VALUE;
 import static org.fcrepo.auth.webac.WebACAuthorizingRealm.URIS_TO_AUTHORIZE;
 import static org.fcrepo.http.commons.session.TransactionConstants.ATOMIC_ID_HEADER;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -116,6 +117,10 @@ public class WebAcAuthorizationRealmTest {
                 requestUri
         );
         when(request.getAttribute(URIS_TO_AUTHORIZE)).thenReturn(urisToAuthorize);
+        doRequestUriStubbings();
+    }
+
+    private void doRequestUriStubbings() throws PathNotFoundException {
         when(request.getScheme()).thenReturn(requestUri.getScheme());
         when(request.getServerName()).thenReturn(requestUri.getHost());
         when(request.getServerPort()).thenReturn(requestUri.getPort());
@@ -217,6 +222,29 @@ public class WebAcAuthorizationRealmTest {
                 .anyMatch(p -> p.implies(new WebACPermission(WEBAC_MODE_WRITE, requestUri))));
     }
 
+    @Test
+    public void testIsPermittedChecksOnlyThePermissionResource() throws PathNotFoundException {
+        doPrincipalStubbings();
+        doRequestUriStubbings();
+        final Map<String, Collection<String>> roles = new HashMap<>();
+        roles.put("testUser", Set.of(WEBAC_MODE_READ_VALUE));
+        when(rolesProvider.getRoles(eq(resource), any(Transaction.class), any())).thenReturn(roles);
+        assertTrue(webACAuthorizingRealm.isPermitted(principalCollection,
+                new WebACPermission(WEBAC_MODE_READ, requestUri)));
+        assertFalse(webACAuthorizingRealm.isPermitted(principalCollection,
+                new WebACPermission(WEBAC_MODE_WRITE, requestUri)));
+    }
+
+    @Test
+    public void testIsPermittedAdminWithoutDelegate() {
+        principalCollection = new SimplePrincipalCollection();
+        principalCollection.add(new BasicUserPrincipal("admin"), "testRealm");
+        principalCollection.add(new ContainerRolesPrincipalProvider.ContainerRolesPrincipal("fedoraAdmin"),
+                "testRealm");
+        assertFalse(webACAuthorizingRealm.isPermitted(principalCollection,
+                new WebACPermission(WEBAC_MODE_READ, requestUri)));
+    }
+
     @Test
     public void testTransactionReturnsReadOnlyWhenNoAtomicIdHeader() throws Exception {
         // Ensure we have a proper web request bound (setUpShiro already bound the subject)
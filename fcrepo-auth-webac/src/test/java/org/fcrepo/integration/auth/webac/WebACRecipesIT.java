@@ -41,7 +41,9 @@ import java.io.UnsupportedEncodingException;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.regex.Pattern;
@@ -2388,6 +2390,78 @@ public class WebACRecipesIT extends AbstractResourceIT {
         assertEquals(FORBIDDEN.getStatusCode(), getStatus(delete));
     }
 
+    @Test
+    public void testDeepTreeAuthorization() throws Exception {
+        final String targetResource = "/rest/" + getRandomUniqueId();
+        final String username = "user88";
+        final String targetUri = ingestObj(targetResource);
+        final String readwriteString = "@prefix acl: <http://www.w3.org/ns/auth/acl#> .\n" +
+                "<#readauthz> a acl:Authorization ;\n" +
+                "   acl:agent \"" + username + "\" ;\n" +
+                "   acl:mode acl:Read, acl:Write ;\n" +
+                "   acl:accessTo <" + targetResource + "> ;\n" +
+                "   acl:default <" + targetResource + "> .";
+        ingestAclString(targetUri, readwriteString, "fedoraAdmin");
+
+        // Build a tree four levels deep with three children per container, all governed by the target's ACL.
+        final List<String> leaves = ingestTree(targetResource, 4, 3);
+
+        final HttpGet getEmbedded = new HttpGet(targetUri);
+        setAuth(getEmbedded, username);
+        getEmbedded.addHeader("Prefer", "return=representation; include=\"" + EMBED_CONTAINED + "\"");
+        long start = System.nanoTime();
+        assertEquals(OK.getStatusCode(), getStatus(getEmbedded));
+        logger.info("Authorized embedded GET of {} in {} ms", targetResource, (System.nanoTime() - start) / 1000000);
+
+        // Deny the user the last leaf, so a recursive delete must visit the whole tree before it is refused.
+        final String deniedLeaf = leaves.get(leaves.size() - 1);
+        final String noAccessString = "@prefix acl: <http://www.w3.org/ns/auth/acl#> .\n" +
+                "<#readauthz> a acl:Authorization ;\n" +
+                "   acl:agent \"fedoraAdmin\" ;\n" +
+                "   acl:mode acl:Read, acl:Write ;\n" +
+                "   acl:accessTo <" + deniedLeaf + "> .";
+        ingestAclString(serverAddress + deniedLeaf, noAccessString, "fedoraAdmin");
+
+        final var deniedDelete = new HttpDelete(targetUri);
+        setAuth(deniedDelete, username);
+        start = System.nanoTime();
+        assertEquals(FORBIDDEN.getStatusCode(), getStatus(deniedDelete));
+        logger.info("Refused recursive DELETE of {} in {} ms", targetResource, (System.nanoTime() - start) / 1000000);
+
+        final var deleteAcl = new HttpDelete(serverAddress + deniedLeaf + "/" + FCR_ACL);
+        setAuth(deleteAcl, "fedoraAdmin");
+        assertEquals(NO_CONTENT.getStatusCode(), getStatus(deleteAcl));
+
+        final var delete = new HttpDelete(targetUri);
+        setAuth(delete, username);
+        start = System.nanoTime();
+        assertEquals(NO_CONTENT.getStatusCode(), getStatus(delete));
+        logger.info("Authorized recursive DELETE of {} in {} ms", targetResource,
+                (System.nanoTime() - start) / 1000000);
+    }
+
+    /**
+     * Ingest a tree of containers below a parent.
+     *
+     * @param parent the path of the parent
+     * @param depth the number of levels to create below the parent
+     * @param width the number of children of each container
+     * @return the paths of the deepest containers
+     */
+    private List<String> ingestTree(final String parent, final int depth, final int width) throws IOException {
+        final List<String> leaves = new ArrayList<>();
+        for (int i = 0; i < width; i++) {
+            final String child = parent + "/" + getRandomUniqueId();
+            ingestObj(child);
+            if (depth > 1) {
+                leaves.addAll(ingestTree(child, depth - 1, width));
+            } else {
+                leaves.add(child);
+            }
+        }
+        return leaves;
+    }
+
     @Test
     public void testTransactionExceptions() throws Exception {
         // Ensure both admin and users get 409 for invalid transaction ids.
@@ -73,6 +73,9 @@ public class DatabaseConfig extends BasePropsConfig {
     @Value("${fcrepo.db.custom.properties:#{null}}")
     private String customDbProperties;
 
+    @Value("${fcrepo.db.membership.fetch.size:0}")
+    private int membershipFetchSize;
+
     private static final Map<String, String> DB_DRIVER_MAP = Map.of(
             "h2", "org.h2.Driver",
             "postgresql", "org.postgresql.Driver",
@@ -134,6 +137,11 @@ public class DatabaseConfig extends BasePropsConfig {
         if (driver.equalsIgnoreCase("mariadb")) {
             config.addDataSourceProperty("useServerPrepStmts", "false");
         }
+        if (membershipFetchSize > 0 && getDbType().equals("mysql")) {
+            // MySQL Connector/J reads the whole result, whatever the fetch size, unless it may use a cursor
+            LOGGER.info("Enabling cursor fetching to stream membership {} rows at a time", membershipFetchSize);
+            config.addDataSourceProperty("useCursorFetch", "true");
+        }
         config.setDriverClassName(driver);
         config.setJdbcUrl(dbUrl);
         config.setUsername(dbUser);
@@ -53,6 +53,8 @@ public class FedoraPropsConfig extends BasePropsConfig {
     public static final String FCREPO_JMS_ENABLED = "fcrepo.jms.enabled";
     private static final String FCREPO_EVENT_THREADS = "fcrepo.event.threads";
     public static final String FCREPO_TRANSACTION_ON_CONFLICT = "fcrepo.response.include.transaction";
+    public static final String FCREPO_DB_RESOURCE_LOCKS_ENABLED = "fcrepo.db.resource.locks.enabled";
+    public static final String FCREPO_FIXITY_AUDIT_ENABLED = "fcrepo.fixity.audit.enabled";
 
     private static final String DATA_DIR_DEFAULT_VALUE = "data";
     private static final String LOG_DIR_DEFAULT_VALUE = "logs";
@@ -97,6 +99,9 @@ public class FedoraPropsConfig extends BasePropsConfig {
             "#{fedoraPropsConfig.fedoraLogs.resolve('velocity.log').toString()}}")
     private Path velocityLog;
 
+    @Value("${fcrepo.html.triple.limit:10000}")
+    private int htmlTripleLimit;
+
     @Value("${" + FCREPO_REBUILD_VALIDATION + ":true}")
     private boolean rebuildValidation;
 
@@ -131,6 +136,12 @@ public class FedoraPropsConfig extends BasePropsConfig {
     @Value("${" + FCREPO_EVENT_THREADS + ":1}")
     private int eventBusThreads;
 
+    @Value("${fcrepo.event.batch.enabled:false}")
+    private boolean eventBatchEnabled;
+
+    @Value("${fcrepo.event.emit.threads:1}")
+    private int eventEmitThreads;
+
     @Value("${fcrepo.cache.db.containment.size.entries:1024}")
     private long containmentCacheSize;
 
@@ -149,6 +160,49 @@ public class FedoraPropsConfig extends BasePropsConfig {
     @Value("${fcrepo.cache.webac.acl.timeout.minutes:10}")
     private long webacCacheTimeout;
 
+    @Value("${fcrepo.db.membership.fetch.size:0}")
+    private int membershipFetchSize;
+
+    @Value("${fcrepo.db.containment.ancestors.enabled:false}")
+    private boolean containmentAncestorsEnabled;
+
+    @Value("${" + FCREPO_DB_RESOURCE_LOCKS_ENABLED + ":false}")
+    private boolean dbResourceLocksEnabled;
+
+    @Value("${fcrepo.db.resource.locks.pool.size:4}")
+    private int dbResourceLocksPoolSize;
+
+    @Value("${fcrepo.db.write.batch.size:100}")
+    private int dbWriteBatchSize;
+
+    @Value("${fcrepo.delete.parallelism:1}")
+    private int deleteParallelism;
+
+    @Value("${fcrepo.fixity.audit.interval.days:30}")
+    private long fixityAuditIntervalDays;
+
+    @Value("${fcrepo.fixity.audit.delay.minutes:60}")
+    private long fixityAuditDelayMinutes;
+
+    @Value("${fcrepo.fixity.audit.chunk.size:100}")
+    private int fixityAuditChunkSize;
+
+    @Value("${fcrepo.fixity.audit.max.mb.per.second:20}")
+    private long fixityAuditMaxMbPerSecond;
+
+    @Value("${fcrepo.search.count.strategy:exact}")
+    private String searchCountStrategyStr;
+    private SearchCountStrategy searchCountStrategy;
+
+    @Value("${fcrepo.cache.search.count.size.entries:1024}")
+    private long searchCountCacheSize;
+
+    @Value("${fcrepo.cache.search.count.timeout.seconds:30}")
+    private long searchCountCacheTimeout;
+
+    @Value("${fcrepo.search.stats.counters.enabled:false}")
+    private boolean searchStatsCountersEnabled;
+
     @Value("${fcrepo.banner.enabled:true}")
     private boolean bannerEnabled;
 
@@ -182,6 +236,7 @@ public class FedoraPropsConfig extends BasePropsConfig {
         serverManagedPropsMode = ServerManagedPropsMode.fromString(serverManagedPropsModeStr);
         sessionTimeout = Duration.ofMillis(sessionTimeoutLong);
         jmsDestinationType = JmsDestination.fromString(jmsDestinationTypeStr);
+        searchCountStrategy = SearchCountStrategy.fromString(searchCountStrategyStr);
 
         checkRebuildProps();
         checkDeprecatedProperties();
@@ -320,6 +375,23 @@ public class FedoraPropsConfig extends BasePropsConfig {
         return velocityLog;
     }
 
+    /**
+     * @return The maximum number of triples read to render the HTML view of a resource
+     */
+    public int getHtmlTripleLimit() {
+        if (htmlTripleLimit < 1) {
+            return 1;
+        }
+        return htmlTripleLimit;
+    }
+
+    /**
+     * @param htmlTripleLimit The maximum number of triples read to render the HTML view of a resource
+     */
+    public void setHtmlTripleLimit(final int htmlTripleLimit) {
+        this.htmlTripleLimit = htmlTripleLimit;
+    }
+
     /**
      * @return true if the rebuild object validation should run
      */
@@ -422,6 +494,38 @@ public class FedoraPropsConfig extends BasePropsConfig {
         return eventBusThreads;
     }
 
+    /**
+     * @return Whether the events of a transaction are posted to the event bus together, so that the JMS publisher
+     *         sends them in a single JMS transaction
+     */
+    public boolean isEventBatchEnabled() {
+        return eventBatchEnabled;
+    }
+
+    /**
+     * @param eventBatchEnabled Whether the events of a transaction are posted to the event bus together
+     */
+    public void setEventBatchEnabled(final boolean eventBatchEnabled) {
+        this.eventBatchEnabled = eventBatchEnabled;
+    }
+
+    /**
+     * @return The number of threads building the events of a large transaction when it is committed
+     */
+    public int getEventEmitThreads() {
+        if (eventEmitThreads < 1) {
+            return 1;
+        }
+        return eventEmitThreads;
+    }
+
+    /**
+     * @param eventEmitThreads The number of threads building the events of a large transaction
+     */
+    public void setEventEmitThreads(final int eventEmitThreads) {
+        this.eventEmitThreads = eventEmitThreads;
+    }
+
     /**
      * @return The number of entries in the containment cache.
      */
@@ -478,6 +582,223 @@ public class FedoraPropsConfig extends BasePropsConfig {
         return webacCacheTimeout;
     }
 
+    /**
+     * Streaming membership relies on the driver fetching rows from the cursor in batches. PostgreSQL and the MariaDB
+     * driver do so as configured. MySQL Connector/J only does so with useCursorFetch=true, which is added to the
+     * connection properties for MySQL when a fetch size is set.
+     *
+     * @return The number of membership rows to fetch at a time when streaming membership through a database cursor,
+     *         or 0 to retrieve membership in pages instead.
+     */
+    public int getMembershipFetchSize() {
+        return membershipFetchSize;
+    }
+
+    /**
+     * @param membershipFetchSize The number of membership rows to fetch at a time from a database cursor
+     */
+    public void setMembershipFetchSize(final int membershipFetchSize) {
+        this.membershipFetchSize = membershipFetchSize;
+    }
+
+    /**
+     * @return whether the path prefixes of contained resources are indexed, so checks for resources below a path
+     *         don't need a LIKE query against the containment table.
+     */
+    public boolean isContainmentAncestorsEnabled() {
+        return containmentAncestorsEnabled;
+    }
+
+    /**
+     * @param containmentAncestorsEnabled whether to index the path prefixes of contained resources
+     */
+    public void setContainmentAncestorsEnabled(final boolean containmentAncestorsEnabled) {
+        this.containmentAncestorsEnabled = containmentAncestorsEnabled;
+    }
+
+    /**
+     * @return whether resource locks are held in the database, so they are shared by all the nodes using it, instead
+     *         of in memory.
+     */
+    public boolean isDbResourceLocksEnabled() {
+        return dbResourceLocksEnabled;
+    }
+
+    /**
+     * @param dbResourceLocksEnabled whether to hold resource locks in the database
+     */
+    public void setDbResourceLocksEnabled(final boolean dbResourceLocksEnabled) {
+        this.dbResourceLocksEnabled = dbResourceLocksEnabled;
+    }
+
+    /**
+     * @return The maximum number of database connections kept for acquiring and releasing resource locks, apart from
+     *         the connections used for everything else
+     */
+    public int getDbResourceLocksPoolSize() {
+        return dbResourceLocksPoolSize;
+    }
+
+    /**
+     * @param dbResourceLocksPoolSize The maximum number of database connections used for resource locks
+     */
+    public void setDbResourceLocksPoolSize(final int dbResourceLocksPoolSize) {
+        this.dbResourceLocksPoolSize = dbResourceLocksPoolSize;
+    }
+
+    /**
+     * @return The number of transaction operations to buffer and write to the database in a single batch, or 1 to
+     *         write each operation as it is made.
+     */
+    public int getDbWriteBatchSize() {
+        return dbWriteBatchSize;
+    }
+
+    /**
+     * @param dbWriteBatchSize The number of transaction operations to write to the database in a single batch
+     */
+    public void setDbWriteBatchSize(final int dbWriteBatchSize) {
+        this.dbWriteBatchSize = dbWriteBatchSize;
+    }
+
+    /**
+     * @return The number of threads used to load the contained resources of a resource being deleted or purged,
+     *         or 1 to load them one at a time as they are deleted.
+     */
+    public int getDeleteParallelism() {
+        if (deleteParallelism < 1) {
+            return 1;
+        }
+        return deleteParallelism;
+    }
+
+    /**
+     * @param deleteParallelism The number of threads used to load contained resources during a delete or purge
+     */
+    public void setDeleteParallelism(final int deleteParallelism) {
+        this.deleteParallelism = deleteParallelism;
+    }
+
+    /**
+     * @return How long after a binary's fixity was last verified by the fixity auditor it is verified again
+     */
+    public Duration getFixityAuditInterval() {
+        return Duration.ofDays(fixityAuditIntervalDays);
+    }
+
+    /**
+     * @param fixityAuditInterval How long after a binary's fixity was verified it is verified again
+     */
+    public void setFixityAuditInterval(final Duration fixityAuditInterval) {
+        this.fixityAuditIntervalDays = fixityAuditInterval.toDays();
+    }
+
+    /**
+     * @return How long the fixity auditor waits after finishing a pass before looking for binaries due again
+     */
+    public Duration getFixityAuditDelay() {
+        return Duration.ofMinutes(fixityAuditDelayMinutes);
+    }
+
+    /**
+     * @param fixityAuditDelay How long the fixity auditor waits between passes
+     */
+    public void setFixityAuditDelay(final Duration fixityAuditDelay) {
+        this.fixityAuditDelayMinutes = fixityAuditDelay.toMinutes();
+    }
+
+    /**
+     * @return The number of resources the fixity auditor loads from the database at a time
+     */
+    public int getFixityAuditChunkSize() {
+        if (fixityAuditChunkSize < 1) {
+            return 1;
+        }
+        return fixityAuditChunkSize;
+    }
+
+    /**
+     * @param fixityAuditChunkSize The number of resources the fixity auditor loads at a time
+     */
+    public void setFixityAuditChunkSize(final int fixityAuditChunkSize) {
+        this.fixityAuditChunkSize = fixityAuditChunkSize;
+    }
+
+    /**
+     * @return The maximum number of bytes per second the fixity auditor reads, or 0 for no limit
+     */
+    public long getFixityAuditMaxBytesPerSecond() {
+        if (fixityAuditMaxMbPerSecond < 1) {
+            return 0;
+        }
+        return fixityAuditMaxMbPerSecond * 1024 * 1024;
+    }
+
+    /**
+     * @param fixityAuditMaxMbPerSecond The maximum number of megabytes per second the fixity auditor reads, or 0
+     *                                  for no limit
+     */
+    public void setFixityAuditMaxMbPerSecond(final long fixityAuditMaxMbPerSecond) {
+        this.fixityAuditMaxMbPerSecond = fixityAuditMaxMbPerSecond;
+    }
+
+    /**
+     * @return How the total number of results of a search is counted
+     */
+    public SearchCountStrategy getSearchCountStrategy() {
+        return searchCountStrategy;
+    }
+
+    /**
+     * @param searchCountStrategy How the total number of results of a search is counted
+     */
+    public void setSearchCountStrategy(final SearchCountStrategy searchCountStrategy) {
+        this.searchCountStrategy = searchCountStrategy;
+    }
+
+    /**
+     * @return The maximum number of search result counts to cache when using the cached count strategy
+     */
+    public long getSearchCountCacheSize() {
+        return searchCountCacheSize;
+    }
+
+    /**
+     * @param searchCountCacheSize The maximum number of search result counts to cache
+     */
+    public void setSearchCountCacheSize(final long searchCountCacheSize) {
+        this.searchCountCacheSize = searchCountCacheSize;
+    }
+
+    /**
+     * @return The number of seconds a cached search result count is reused for
+     */
+    public long getSearchCountCacheTimeout() {
+        return searchCountCacheTimeout;
+    }
+
+    /**
+     * @param searchCountCacheTimeout The number of seconds a cached search result count is reused for
+     */
+    public void setSearchCountCacheTimeout(final long searchCountCacheTimeout) {
+        this.searchCountCacheTimeout = searchCountCacheTimeout;
+    }
+
+    /**
+     * @return whether the search index keeps running totals of its resources by mime type and rdf type, so repository
+     *         statistics don't need to group the whole index.
+     */
+    public boolean isSearchStatsCountersEnabled() {
+        return searchStatsCountersEnabled;
+    }
+
+    /**
+     * @param searchStatsCountersEnabled whether the search index keeps running totals of its resources
+     */
+    public void setSearchStatsCountersEnabled(final boolean searchStatsCountersEnabled) {
+        this.searchStatsCountersEnabled = searchStatsCountersEnabled;
+    }
+
     /**
      * @return whether the repository registration banner should be displayed
      */
@@ -141,6 +141,12 @@ public class OcflPropsConfig extends BasePropsConfig {
     @Value("${fcrepo.ocfl.show_path:false}")
     private boolean showPath;
 
+    @Value("${fcrepo.ocfl.commit.threads:1}")
+    private int commitThreads;
+
+    @Value("${fcrepo.ocfl.zero.copy.enabled:false}")
+    private boolean zeroCopyEnabled;
+
     private DigestAlgorithm FCREPO_DIGEST_ALGORITHM;
 
     /**
@@ -563,4 +569,34 @@ public class OcflPropsConfig extends BasePropsConfig {
     public boolean isShowPath() {
         return showPath;
     }
+
+    /**
+     * @return the number of threads used to commit the OCFL objects of transactions, or 1 to commit each
+     *         transaction's objects one at a time
+     */
+    public int getCommitThreads() {
+        return Math.max(commitThreads, 1);
+    }
+
+    /**
+     * @param commitThreads the number of threads used to commit the OCFL objects of transactions
+     */
+    public void setCommitThreads(final int commitThreads) {
+        this.commitThreads = commitThreads;
+    }
+
+    /**
+     * @return true if binaries stored in a filesystem OCFL repository are sent to clients straight from their
+     *         content files, without verifying their fixity as they are read
+     */
+    public boolean isZeroCopyEnabled() {
+        return zeroCopyEnabled;
+    }
+
+    /**
+     * @param zeroCopyEnabled true if binaries are sent to clients straight from their content files
+     */
+    public void setZeroCopyEnabled(final boolean zeroCopyEnabled) {
+        this.zeroCopyEnabled = zeroCopyEnabled;
+    }
 }
@@ -0,0 +1,51 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree.
+ */
+package org.fcrepo.config;
+
+/**
+ * How the total number of results of a search is counted
+ */
+public enum SearchCountStrategy {
+
+    /**
+     * Count every matching row.
+     */
+    EXACT("exact"),
+    /**
+     * Use the row estimate of the database query planner or table statistics, falling back to an exact count on
+     * databases which cannot estimate.
+     */
+    ESTIMATED("estimated"),
+    /**
+     * Count every matching row and reuse the count for searches with the same conditions for a short time.
+     */
+    CACHED("cached");
+
+    private final String value;
+
+    SearchCountStrategy(final String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public static SearchCountStrategy fromString(final String value) {
+        for (final var strategy : values()) {
+            if (strategy.value.equalsIgnoreCase(value)) {
+                return strategy;
+            }
+        }
+        throw new IllegalArgumentException("Unknown search count strategy: " + value);
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+
+}
@@ -20,6 +20,14 @@ CREATE INDEX IF NOT EXISTS containment_idx2
 CREATE INDEX IF NOT EXISTS containment_idx3
     ON containment (fedora_id, end_time);
 
+-- Create indexes to page through the children of a parent in fedora_id order, MySQL and MariaDB get this from the
+-- primary key being part of containment_idx1 and containment_idx2.
+CREATE INDEX IF NOT EXISTS containment_idx4
+    ON containment (parent, end_time, fedora_id);
+
+CREATE INDEX IF NOT EXISTS containment_idx6
+    ON containment (parent, fedora_id);
+
 -- Holds operations to add or delete records from the RESOURCES_TABLE.
 CREATE TABLE IF NOT EXISTS containment_transactions (
     fedora_id varchar(503) NOT NULL,
@@ -41,3 +49,18 @@ CREATE INDEX IF NOT EXISTS containment_transactions_idx2
 -- Create an index to speed finding records related to a transaction.
 CREATE INDEX IF NOT EXISTS containment_transactions_idx3
     ON containment_transactions (transaction_id);
+
+-- Holds every path prefix of each resource in the containment table, used to find ghost nodes without a LIKE scan.
+-- Only maintained when fcrepo.db.containment.ancestors.enabled is true.
+CREATE TABLE IF NOT EXISTS containment_ancestors (
+    ancestor varchar(503) NOT NULL,
+    fedora_id varchar(503) NOT NULL
+);
+
+-- Create an index to speed searches for resources below a path.
+CREATE INDEX IF NOT EXISTS containment_ancestors_idx1
+    ON containment_ancestors (ancestor);
+
+-- Create an index to speed removing the prefixes of a resource.
+CREATE INDEX IF NOT EXISTS containment_ancestors_idx2
+    ON containment_ancestors (fedora_id);
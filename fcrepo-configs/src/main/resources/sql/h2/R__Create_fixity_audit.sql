@@ -0,0 +1,13 @@
+-- DDL for setting up the fixity audit table in H2, MariaDB 10.5, and PostgreSQL 12.3
+
+-- Holds the outcome of the last fixity check of each binary by the background fixity auditor.
+CREATE TABLE IF NOT EXISTS fixity_audit (
+    fedora_id varchar(503) NOT NULL PRIMARY KEY,
+    verified TIMESTAMP NOT NULL,
+    result varchar(16) NOT NULL,
+    details varchar(1024) NULL
+);
+
+-- Create an index to speed counting the binaries which failed their last check.
+CREATE INDEX IF NOT EXISTS fixity_audit_idx1
+    ON fixity_audit (result);
@@ -42,3 +42,18 @@ CREATE INDEX IF NOT EXISTS containment_transactions_idx2
 -- Create an index to speed finding records related to a transaction.
 CREATE INDEX IF NOT EXISTS containment_transactions_idx3
     ON containment_transactions (transaction_id);
+
+-- Holds every path prefix of each resource in the containment table, used to find ghost nodes without a LIKE scan.
+-- Only maintained when fcrepo.db.containment.ancestors.enabled is true.
+CREATE TABLE IF NOT EXISTS containment_ancestors (
+    ancestor varchar(503) NOT NULL,
+    fedora_id varchar(503) NOT NULL
+);
+
+-- Create an index to speed searches for resources below a path.
+CREATE INDEX IF NOT EXISTS containment_ancestors_idx1
+    ON containment_ancestors (ancestor);
+
+-- Create an index to speed removing the prefixes of a resource.
+CREATE INDEX IF NOT EXISTS containment_ancestors_idx2
+    ON containment_ancestors (fedora_id);
@@ -71,3 +71,28 @@ SET @sqlstmt := IF (@exist > 0, 'SELECT ''INFO: Index already exists.''',
     'CREATE INDEX containment_transactions_idx3 ON containment_transactions (transaction_id)');
 PREPARE stmt FROM @sqlstmt;
 EXECUTE stmt;
+
+-- Holds every path prefix of each resource in the containment table, used to find ghost nodes without a LIKE scan.
+-- Only maintained when fcrepo.db.containment.ancestors.enabled is true.
+CREATE TABLE IF NOT EXISTS containment_ancestors (
+    ancestor varchar(503) NOT NULL,
+    fedora_id varchar(503) NOT NULL
+);
+
+-- Create an index to speed searches for resources below a path.
+SET @exist := (SELECT COUNT(*) FROM information_schema.statistics
+    WHERE table_name = 'containment_ancestors' AND index_name = 'containment_ancestors_idx1'
+    AND table_schema = database());
+SET @sqlstmt := IF (@exist > 0, 'SELECT ''INFO: Index already exists.''',
+    'CREATE INDEX containment_ancestors_idx1 ON containment_ancestors (ancestor)');
+PREPARE stmt FROM @sqlstmt;
+EXECUTE stmt;
+
+-- Create an index to speed removing the prefixes of a resource.
+SET @exist := (SELECT COUNT(*) FROM information_schema.statistics
+    WHERE table_name = 'containment_ancestors' AND index_name = 'containment_ancestors_idx2'
+    AND table_schema = database());
+SET @sqlstmt := IF (@exist > 0, 'SELECT ''INFO: Index already exists.''',
+    'CREATE INDEX containment_ancestors_idx2 ON containment_ancestors (fedora_id)');
+PREPARE stmt FROM @sqlstmt;
+EXECUTE stmt;
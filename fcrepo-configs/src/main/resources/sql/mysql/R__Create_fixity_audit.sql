@@ -0,0 +1,18 @@
+-- DDL for setting up the fixity audit table in MySQL 8
+-- MySQL 8 will only supports varchar up to 503 characters
+
+-- Holds the outcome of the last fixity check of each binary by the background fixity auditor.
+CREATE TABLE IF NOT EXISTS fixity_audit (
+    fedora_id varchar(503) NOT NULL PRIMARY KEY,
+    verified datetime NOT NULL,
+    result varchar(16) NOT NULL,
+    details varchar(1024) NULL
+);
+
+-- Create an index to speed counting the binaries which failed their last check.
+SET @exist := (SELECT COUNT(*) FROM information_schema.statistics
+    WHERE table_name = 'fixity_audit' AND index_name = 'fixity_audit_idx1' AND table_schema = database());
+SET @sqlstmt := IF (@exist > 0, 'SELECT ''INFO: Index already exists.''',
+    'CREATE INDEX fixity_audit_idx1 ON fixity_audit (result)');
+PREPARE stmt FROM @sqlstmt;
+EXECUTE stmt;
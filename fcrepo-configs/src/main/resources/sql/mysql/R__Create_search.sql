@@ -93,3 +93,14 @@ SET @sqlstmt := IF (@exist > 0, 'SELECT ''INFO: Index already exists.''',
     'CREATE INDEX search_resource_rdf_type_tx_idx2 ON search_resource_rdf_type_transactions (transaction_id, rdf_type_uri)');
 PREPARE stmt FROM @sqlstmt;
 EXECUTE stmt;
+
+-- Holds the number and total size of the indexed resources overall, per mime type of binaries and per rdf type, so
+-- repository statistics can be read without grouping the whole index. A transaction adds its changes to the counts
+-- just before it commits. Only maintained when fcrepo.search.stats.counters.enabled is true.
+CREATE TABLE IF NOT EXISTS search_stats (
+    stat_type varchar(16) NOT NULL,
+    stat_key varchar(228) NOT NULL,
+    resource_count bigint NOT NULL,
+    byte_count bigint NOT NULL,
+    PRIMARY KEY (stat_type, stat_key)
+);
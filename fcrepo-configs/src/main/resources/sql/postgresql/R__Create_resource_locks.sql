@@ -0,0 +1,14 @@
+-- DDL for setting up the resource lock table in H2, MariaDB 10.5, and PostgreSQL 12.3
+
+-- Holds the locks on resources held by transactions when locks are shared between nodes through the database.
+CREATE TABLE IF NOT EXISTS resource_locks (
+    fedora_id varchar(503) NOT NULL,
+    transaction_id varchar(255) NOT NULL,
+    exclusive_lock boolean NOT NULL,
+    expires timestamp NOT NULL,
+    PRIMARY KEY (fedora_id, transaction_id)
+);
+
+-- Create an index to speed finding the locks held by a transaction.
+CREATE INDEX IF NOT EXISTS resource_locks_idx1
+    ON resource_locks (transaction_id);
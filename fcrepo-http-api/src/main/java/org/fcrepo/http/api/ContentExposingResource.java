@@ -87,6 +87,7 @@ import jakarta.ws.rs.core.Link;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 
 import org.fcrepo.config.DigestAlgorithm;
 import org.fcrepo.config.OcflPropsConfig;
@@ -97,6 +98,8 @@ import org.fcrepo.http.commons.domain.MultiPrefer;
 import org.fcrepo.http.commons.domain.PreferTag;
 import org.fcrepo.http.commons.domain.Range;
 import org.fcrepo.http.commons.domain.ldp.LdpPreferTag;
+import org.fcrepo.http.commons.responses.ByteRangesStreamingOutput;
+import org.fcrepo.http.commons.responses.FileChannelStreamingOutput;
 import org.fcrepo.http.commons.responses.RdfNamespacedStream;
 import org.fcrepo.kernel.api.RdfStream;
 import org.fcrepo.kernel.api.Transaction;
@@ -164,6 +167,21 @@ public abstract class ContentExposingResource extends FedoraBaseResource {
 
     public static final String HTTP_HEADER_OVERWRITE_TOMBSTONE = "Overwrite-Tombstone";
 
+    /**
+     * The number of children shown on each page of the HTML view of a container.
+     */
+    public static final int HTML_CHILDREN_LIMIT = 100;
+
+    /**
+     * Query parameter with the URI of the child to resume after when the children are limited.
+     */
+    public static final String CHILDREN_AFTER_PARAM = "children_after";
+
+    /**
+     * The most ranges sent as parts of a multipart/byteranges response, more are answered with the whole content.
+     */
+    private static final int MAX_BYTE_RANGES = 64;
+
     private static final String HTTP_OCFL_PATH = "Fedora-Ocfl-Path";
 
     private static final String FCR_PREFIX = "fcr:";
@@ -228,8 +246,22 @@ public abstract class ContentExposingResource extends FedoraBaseResource {
      * @throws IOException in case of error extracting content
      */
     protected Response getContent(final int limit, final FedoraResource resource) throws IOException {
+        return getContent(limit, null, resource);
+    }
+
+    /**
+     * This method returns an HTTP response with content body appropriate to the following arguments.
+     *
+     * @param limit is the number of child resources returned in the response, -1 for all
+     * @param after is the id of the child resource to resume after, when they are limited, null for the first
+     * @param resource the fedora resource
+     * @return HTTP response
+     * @throws IOException in case of error extracting content
+     */
+    protected Response getContent(final int limit, final String after, final FedoraResource resource)
+            throws IOException {
         final RdfStream rdfStream = httpRdfService.bodyToExternalStream(getUri(resource).toString(),
-                getResourceTriples(limit, resource), identifierConverter());
+                getResourceTriples(limit, after, resource), identifierConverter());
         final var outputStream = new RdfNamespacedStream(
                     rdfStream, namespaceRegistry.getNamespaces());
         setVaryAndPreferenceAppliedHeaders(servletResponse, prefer, resource);
@@ -261,24 +293,30 @@ public abstract class ContentExposingResource extends FedoraBaseResource {
     }
 
     protected RdfStream getResourceTriples(final FedoraResource resource) {
-        return getResourceTriples(-1, resource);
+        return getResourceTriples(-1, null, resource);
     }
 
     /**
      * This method returns a stream of RDF triples associated with this target resource
      *
      * @param limit is the number of child resources returned in the response, -1 for all
+     * @param after is the id of the child resource to resume after, when they are limited, null for the first
      * @param resource the fedora resource
      * @return {@link RdfStream}
      */
-    private RdfStream getResourceTriples(final int limit, final FedoraResource resource) {
+    private RdfStream getResourceTriples(final int limit, final String after, final FedoraResource resource) {
         final LdpPreferTag ldpPreferences = getLdpPreferTag();
 
         final List<Stream<Triple>> embedStreams = new ArrayList<>();
 
         try {
-            embedStreams.add(resourceTripleService.getResourceTriples(
-                    transaction(), resource, ldpPreferences, limit));
+            if (limit == -1 || after == null) {
+                embedStreams.add(resourceTripleService.getResourceTriples(
+                        transaction(), resource, ldpPreferences, limit));
+            } else {
+                embedStreams.add(resourceTripleService.getResourceTriples(
+                        transaction(), resource, ldpPreferences, limit, after));
+            }
         } catch (ItemNotFoundException e) {
             if (resource instanceof Tombstone && ((Tombstone) resource).getDeletedObject().isMemento()) {
                 // There is a version created when the object is deleted.
@@ -346,48 +384,114 @@ public abstract class ContentExposingResource extends FedoraBaseResource {
             cc.setMaxAge(0);
             cc.setMustRevalidate(true);
             final Response.ResponseBuilder builder;
+            final String mediaType = getBinaryResourceMediaType(resource).toString();
+            String responseType = mediaType;
 
             if (rangeValue != null && rangeValue.startsWith("bytes")) {
 
-                final Range range = Range.convert(rangeValue);
+                final List<Range> ranges = Range.convertAll(rangeValue);
 
                 final long contentSize = binary.getContentSize();
 
-                final var rangeOfLength = range.rangeOfLength(contentSize);
+                final var rangesOfLength = Range.coalesce(ranges, contentSize);
 
-                final String contentRangeValue =
-                        String.format("bytes %s-%s/%s", rangeOfLength.startAsString(),
+                if (rangesOfLength.isEmpty()) {
+                    final String contentRangeValue;
+                    if (ranges.size() == 1) {
+                        final var rangeOfLength = ranges.get(0).rangeOfLength(contentSize);
+                        contentRangeValue = String.format("bytes %s-%s/%s", rangeOfLength.startAsString(),
                                 rangeOfLength.endAsString(), contentSize);
-
-                if (
-                    !rangeOfLength.isSatisfiable()
-                ) {
+                    } else {
+                        contentRangeValue = "bytes */" + contentSize;
+                    }
 
                     builder = status(REQUESTED_RANGE_NOT_SATISFIABLE)
                             .header("Content-Range", contentRangeValue);
-                } else {
-                    final var rangeContent = binary.getRange(rangeOfLength.start(), rangeOfLength.end());
+                } else if (rangesOfLength.size() == 1) {
+                    final var rangeOfLength = rangesOfLength.get(0);
+                    final String contentRangeValue =
+                            String.format("bytes %s-%s/%s", rangeOfLength.startAsString(),
+                                    rangeOfLength.endAsString(), contentSize);
+
+                    final var contentFile = binary.getContentFile();
+                    final Object rangeContent = contentFile.isPresent()
+                            ? new FileChannelStreamingOutput(contentFile.get(), rangeOfLength.start(),
+                                    rangeOfLength.size(), getRangeContent(binary, rangeOfLength))
+                            : binary.getRange(rangeOfLength.start(), rangeOfLength.end());
 
                     builder = status(PARTIAL_CONTENT).entity(rangeContent)
                             .header("Content-Range", contentRangeValue)
                             .header(CONTENT_LENGTH, rangeOfLength.size());
+                } else if (rangesOfLength.size() > MAX_BYTE_RANGES) {
+                    // RFC 7233 section 6.1: a request for many small ranges may be answered with the whole
+                    // representation, so the part headers written for a request stay bounded
+                    LOGGER.debug("Ignoring {} ranges of {}, sending the whole content", rangesOfLength.size(),
+                            binary.getFedoraId());
+                    builder = getFullContent(binary);
+                } else {
+                    // Each part is opened only as the body is written
+                    final var contentFile = binary.getContentFile();
+                    final var byteRanges = new ByteRangesStreamingOutput(mediaType, contentSize, rangesOfLength,
+                            rangeOfLength -> contentFile.isPresent()
+                                    ? new FileChannelStreamingOutput(contentFile.get(), rangeOfLength.start(),
+                                            rangeOfLength.size(), getRangeContent(binary, rangeOfLength))
+                                    : getRangeContent(binary, rangeOfLength));
+                    responseType = byteRanges.getMediaType();
+
+                    builder = status(PARTIAL_CONTENT).entity(byteRanges)
+                            .header(CONTENT_LENGTH, byteRanges.getContentLength());
                 }
 
             } else {
-                final InputStream content = binary.getContent();
-                builder = ok(content);
+                builder = getFullContent(binary);
             }
 
 
             // we set the content-type explicitly to avoid content-negotiation from getting in the way
             // getBinaryResourceMediaType will try to use the mime type on the resource, falling back on
             // 'application/octet-stream' if the mime type is syntactically invalid
-            return builder.type(getBinaryResourceMediaType(resource).toString())
+            return builder.type(responseType)
                     .cacheControl(cc)
                     .build();
 
         }
 
+    /**
+     * Get a response with the whole content of a binary.
+     *
+     * @param binary the binary
+     * @return the response builder
+     */
+    private static Response.ResponseBuilder getFullContent(final Binary binary) {
+        // Content in a plain file is sent from the file, the rest is copied from its stream
+        final var contentFile = binary.getContentFile();
+        if (contentFile.isPresent()) {
+            final StreamingOutput fallback = output -> {
+                try (final InputStream content = binary.getContent()) {
+                    content.transferTo(output);
+                }
+            };
+            return ok(new FileChannelStreamingOutput(contentFile.get(), 0, binary.getContentSize(), fallback));
+        }
+        final InputStream content = binary.getContent();
+        return ok(content);
+    }
+
+    /**
+     * Get the writer of a range of the content of a binary, which only opens the content when it is written.
+     *
+     * @param binary the binary
+     * @param rangeOfLength the range of its content
+     * @return the writer of the range
+     */
+    private static StreamingOutput getRangeContent(final Binary binary, final Range.RangeOfLength rangeOfLength) {
+        return output -> {
+            try (final InputStream content = binary.getRange(rangeOfLength.start(), rangeOfLength.end())) {
+                content.transferTo(output);
+            }
+        };
+    }
+
     protected URI getUri(final FedoraResource resource) {
         try {
             final String uri = identifierConverter()
@@ -966,10 +1070,13 @@ public abstract class ContentExposingResource extends FedoraBaseResource {
     protected int getChildrenLimit() {
         final List<String> acceptHeaders = headers.getRequestHeader(ACCEPT);
         if (acceptHeaders != null && !acceptHeaders.isEmpty()) {
-            final List<String> accept = Arrays.asList(acceptHeaders.getFirst().split(","));
-            if (accept.contains(TEXT_HTML)) {
-                // Magic number '100' is tied to common-metadata.vsl display of ellipses
-                return 100;
+            // Compare the media types without their parameters, such as a quality factor
+            final boolean acceptsHtml = Arrays.stream(acceptHeaders.getFirst().split(","))
+                    .map(accept -> accept.split(";")[0].trim())
+                    .anyMatch(TEXT_HTML::equalsIgnoreCase);
+            if (acceptsHtml) {
+                // One more than a page, so the HTML view can tell whether a next page follows
+                return HTML_CHILDREN_LIMIT + 1;
             }
         }
 
@@ -986,6 +1093,26 @@ public abstract class ContentExposingResource extends FedoraBaseResource {
         return -1;
     }
 
+    /**
+     * Find the child to resume after, to page through the children when they are limited. Pages are found by the
+     * last child of the previous page rather than by a count of children to skip, so the index seeks straight to
+     * them however deep into the children they are.
+     *
+     * @return the id of the child to resume after, or null to start from the first child.
+     */
+    protected String getChildrenAfter() {
+        final String after = uriInfo.getQueryParameters().getFirst(CHILDREN_AFTER_PARAM);
+        if (isBlank(after)) {
+            return null;
+        }
+        if (!identifierConverter().inExternalDomain(after)) {
+            LOGGER.warn("Invalid '{}' parameter value: {}", CHILDREN_AFTER_PARAM, after);
+            throw new ClientErrorException("Invalid '" + CHILDREN_AFTER_PARAM + "' parameter value: " + after,
+                    SC_BAD_REQUEST);
+        }
+        return identifierConverter().toInternalId(after);
+    }
+
     /**
      * Check if a path has a segment prefixed with fcr: that is not fcr:metadata or fcr:acl
      *
@@ -358,7 +358,8 @@ public class FedoraLdp extends ContentExposingResource {
             return getBinaryContent(rangeValue, binary);
         }
 
-        return getContent(getChildrenLimit(), fedoraResource);
+        final int childrenLimit = getChildrenLimit();
+        return getContent(childrenLimit, childrenLimit == -1 ? null : getChildrenAfter(), fedoraResource);
     }
 
     /**
@@ -7,15 +7,24 @@ package org.fcrepo.http.api;
 
 import static jakarta.ws.rs.core.MediaType.APPLICATION_JSON;
 import static jakarta.ws.rs.core.Response.ok;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.joining;
 import static org.fcrepo.http.commons.domain.RDFMediaType.TEXT_HTML_WITH_CHARSET;
 import static org.fcrepo.http.commons.domain.RDFMediaType.TEXT_PLAIN_WITH_CHARSET;
 import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_ID_PREFIX;
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import jakarta.ws.rs.BadRequestException;
 import jakarta.ws.rs.DefaultValue;
@@ -24,7 +33,9 @@ import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.micrometer.core.annotation.Timed;
 import org.apache.commons.lang3.StringUtils;
 import org.fcrepo.http.commons.api.rdf.HttpIdentifierConverter;
@@ -34,6 +45,7 @@ import org.fcrepo.search.api.InvalidQueryException;
 import org.fcrepo.search.api.SearchIndex;
 import org.fcrepo.search.api.SearchParameters;
 import org.fcrepo.search.api.SearchResult;
+import org.fcrepo.search.api.SearchStream;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -50,6 +62,14 @@ public class FedoraSearch extends FedoraBaseResource {
 
     private static final Logger LOGGER = getLogger(FedoraSearch.class);
 
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    private static final String APPLICATION_NDJSON_WITH_CHARSET = APPLICATION_NDJSON + ";charset=utf-8";
+
+    private static final String TEXT_CSV = "text/csv";
+
+    private static final String TEXT_CSV_WITH_CHARSET = TEXT_CSV + ";charset=utf-8";
+
     @Autowired
     @Qualifier("searchIndex")
     private SearchIndex searchIndex;
@@ -71,6 +91,8 @@ public class FedoraSearch extends FedoraBaseResource {
      * @param order      The order: ie "asc" or "desc"
      * @param orderBy    The field by which to order the results
      * @param includeTotalResultCount A flag for including total result count (false by default)
+     * @param cursor     The cursor of the page to return, "*" for the first page. When present the offset is ignored
+     *                   and the cursor of the following page is returned with the results.
      * @return A response object with the search results
      */
     @GET
@@ -84,48 +106,13 @@ public class FedoraSearch extends FedoraBaseResource {
                              @DefaultValue("asc") @QueryParam("order") final String order,
                              @QueryParam("order_by") final String orderBy,
                              @DefaultValue("false") @QueryParam("include_total_result_count")
-                                         final boolean includeTotalResultCount) {
+                                         final boolean includeTotalResultCount,
+                             @QueryParam("cursor") final String cursor) {
 
         LOGGER.info("GET on search with conditions: {}, and fields: {}", conditions, fields);
         try {
-            final var conditionList = new ArrayList<Condition>();
-            for (final String condition : conditions) {
-                final var parsedCondition = parse(condition, identifierConverter());
-                conditionList.add(parsedCondition);
-            }
-
-            List<Condition.Field> parsedFields = null;
-            if (StringUtils.isBlank(fields) || fields.equals("*")) {
-                parsedFields = Arrays.asList(Condition.Field.values());
-            } else {
-                parsedFields = new ArrayList<>();
-                for (final String field : fields.split(",")) {
-                    try {
-                        parsedFields.add(Condition.Field.fromString(field));
-                    } catch (final Exception e) {
-                        throw new InvalidQueryException("The field \"" + field + "\" is not a valid output field.");
-                    }
-                }
-            }
-
-            final Condition.Field orderByField;
-            try {
-                if (!StringUtils.isBlank(orderBy)) {
-                    orderByField = Condition.Field.fromString(orderBy);
-                } else {
-                    orderByField = null;
-                }
-            } catch (final Exception e) {
-                throw new InvalidQueryException("The order_by field must contain a valid value such as " +
-                        StringUtils.join(Condition.Field.values(), ","));
-            }
-
-            if (!(order.equalsIgnoreCase("asc") || order.equalsIgnoreCase("desc"))) {
-                throw new InvalidQueryException("The order field is invalid:  valid values are \"asc\" and \"desc\"");
-            }
-
-            final var params = new SearchParameters(parsedFields, conditionList, maxResults, offset, orderByField,
-                    order, includeTotalResultCount);
+            final var params = buildParameters(conditions, fields, maxResults, offset, order, orderBy,
+                    includeTotalResultCount, StringUtils.isBlank(cursor) ? null : cursor);
             final Response.ResponseBuilder builder = ok();
             final var result = this.searchIndex.doSearch(params);
             final var translatedResults = translateResults(result);
@@ -137,17 +124,193 @@ public class FedoraSearch extends FedoraBaseResource {
         }
     }
 
-    private SearchResult translateResults(final SearchResult result) {
-        result.getItems().forEach(item -> {
-            final var key = Condition.Field.FEDORA_ID.toString();
-            final var fedoraId = item.get(key);
-            if (fedoraId != null) {
-                item.put(key, identifierConverter().toExternalId(fedoraId.toString()));
+    /**
+     * Export every result of a simple search as newline delimited JSON, one object per result. The results are
+     * written as they are read from the search index rather than held in memory.
+     *
+     * @param conditions The conditions constraining the query
+     * @param fields     The fields to return in results
+     * @param order      The order: ie "asc" or "desc"
+     * @param orderBy    The field by which to order the results
+     * @return A response streaming the search results
+     */
+    @GET
+    @Produces({APPLICATION_NDJSON + ";qs=0.5"})
+    public Response doExportNdjson(@QueryParam(value = "condition") final List<String> conditions,
+                                   @QueryParam(value = "fields") final String fields,
+                                   @DefaultValue("asc") @QueryParam("order") final String order,
+                                   @QueryParam("order_by") final String orderBy) {
+        LOGGER.info("GET on search export with conditions: {}, and fields: {}", conditions, fields);
+        final var params = buildExportParameters(conditions, fields, order, orderBy);
+        final var mapper = new ObjectMapper();
+        return ok(exportResults(streamSearch(params), null, (writer, item) -> {
+            final Map<String, Object> row = new LinkedHashMap<>();
+            params.getFields().forEach(field -> row.put(field.toString(), item.get(field.toString())));
+            writer.write(mapper.writeValueAsString(row));
+            writer.write("\n");
+        })).type(APPLICATION_NDJSON_WITH_CHARSET).build();
+    }
+
+    /**
+     * Export every result of a simple search as CSV, with a header row naming the fields. Multiple rdf types of a
+     * result are separated by spaces. The results are written as they are read from the search index rather than
+     * held in memory.
+     *
+     * @param conditions The conditions constraining the query
+     * @param fields     The fields to return in results
+     * @param order      The order: ie "asc" or "desc"
+     * @param orderBy    The field by which to order the results
+     * @return A response streaming the search results
+     */
+    @GET
+    @Produces({TEXT_CSV + ";qs=0.5"})
+    public Response doExportCsv(@QueryParam(value = "condition") final List<String> conditions,
+                                @QueryParam(value = "fields") final String fields,
+                                @DefaultValue("asc") @QueryParam("order") final String order,
+                                @QueryParam("order_by") final String orderBy) {
+        LOGGER.info("GET on search export with conditions: {}, and fields: {}", conditions, fields);
+        final var params = buildExportParameters(conditions, fields, order, orderBy);
+        final var header = params.getFields().stream().map(Condition.Field::toString).collect(joining(",")) +
+                "\r\n";
+        return ok(exportResults(streamSearch(params), header, (writer, item) -> {
+            writer.write(params.getFields().stream()
+                    .map(field -> toCsvValue(item.get(field.toString())))
+                    .collect(joining(",")));
+            writer.write("\r\n");
+        })).type(TEXT_CSV_WITH_CHARSET).build();
+    }
+
+    private SearchParameters buildExportParameters(final List<String> conditions, final String fields,
+                                                   final String order, final String orderBy) {
+        try {
+            return buildParameters(conditions, fields, -1, 0, order, orderBy, false, null);
+        } catch (final InvalidConditionExpressionException | InvalidQueryException ex) {
+            throw new BadRequestException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Build and check the query of an export, so an invalid query is rejected before the response is started.
+     *
+     * @param params the search parameters
+     * @return the search, ready to read its results
+     */
+    private SearchStream streamSearch(final SearchParameters params) {
+        try {
+            return searchIndex.streamSearch(params);
+        } catch (final InvalidQueryException ex) {
+            throw new BadRequestException(ex.getMessage(), ex);
+        }
+    }
+
+    private SearchParameters buildParameters(final List<String> conditions, final String fields,
+                                             final int maxResults, final int offset, final String order,
+                                             final String orderBy, final boolean includeTotalResultCount,
+                                             final String cursor)
+            throws InvalidConditionExpressionException, InvalidQueryException {
+        final var conditionList = new ArrayList<Condition>();
+        for (final String condition : conditions) {
+            final var parsedCondition = parse(condition, identifierConverter());
+            conditionList.add(parsedCondition);
+        }
+
+        List<Condition.Field> parsedFields = null;
+        if (StringUtils.isBlank(fields) || fields.equals("*")) {
+            parsedFields = Arrays.asList(Condition.Field.values());
+        } else {
+            parsedFields = new ArrayList<>();
+            for (final String field : fields.split(",")) {
+                try {
+                    parsedFields.add(Condition.Field.fromString(field));
+                } catch (final Exception e) {
+                    throw new InvalidQueryException("The field \"" + field + "\" is not a valid output field.");
+                }
+            }
+        }
+
+        final Condition.Field orderByField;
+        try {
+            if (!StringUtils.isBlank(orderBy)) {
+                orderByField = Condition.Field.fromString(orderBy);
+            } else {
+                orderByField = null;
+            }
+        } catch (final Exception e) {
+            throw new InvalidQueryException("The order_by field must contain a valid value such as " +
+                    StringUtils.join(Condition.Field.values(), ","));
+        }
+
+        if (!(order.equalsIgnoreCase("asc") || order.equalsIgnoreCase("desc"))) {
+            throw new InvalidQueryException("The order field is invalid:  valid values are \"asc\" and \"desc\"");
+        }
+
+        return new SearchParameters(parsedFields, conditionList, maxResults, offset, orderByField,
+                order, includeTotalResultCount, cursor);
+    }
+
+    /**
+     * Stream the results of a search to the response as they are read from the search index.
+     *
+     * @param search the search, already checked
+     * @param header text to write before the first result, may be null
+     * @param itemWriter writes a single result
+     * @return the streaming output
+     */
+    private StreamingOutput exportResults(final SearchStream search, final String header,
+                                          final ItemWriter itemWriter) {
+        return out -> {
+            final var writer = new BufferedWriter(new OutputStreamWriter(out, UTF_8));
+            if (header != null) {
+                writer.write(header);
             }
-        });
+            try {
+                search.forEach(item -> {
+                    try {
+                        itemWriter.write(writer, translateItem(item));
+                    } catch (final IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (final UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.flush();
+        };
+    }
+
+    private static String toCsvValue(final Object value) {
+        if (value == null) {
+            return "";
+        }
+        final var str = value instanceof String[] ? String.join(" ", (String[]) value) : value.toString();
+        if (StringUtils.containsAny(str, ',', '"', '\r', '\n')) {
+            return '"' + str.replace("\"", "\"\"") + '"';
+        }
+        return str;
+    }
+
+    private SearchResult translateResults(final SearchResult result) {
+        result.getItems().forEach(this::translateItem);
         return result;
     }
 
+    private Map<String, Object> translateItem(final Map<String, Object> item) {
+        final var key = Condition.Field.FEDORA_ID.toString();
+        final var fedoraId = item.get(key);
+        if (fedoraId != null) {
+            item.put(key, identifierConverter().toExternalId(fedoraId.toString()));
+        }
+        return item;
+    }
+
+    /**
+     * Writes a single exported search result.
+     */
+    @FunctionalInterface
+    private interface ItemWriter {
+        void write(Writer writer, Map<String, Object> item) throws IOException;
+    }
+
     /**
      * Parses the url decoded value of a single parameter passed by the
      * http layer into a {@link Condition}.
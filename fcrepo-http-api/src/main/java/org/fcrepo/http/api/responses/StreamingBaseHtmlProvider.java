@@ -9,12 +9,15 @@ import static com.google.common.collect.ImmutableMap.builder;
 import static java.util.stream.Stream.of;
 import static jakarta.ws.rs.core.MediaType.TEXT_HTML_TYPE;
 import static org.apache.jena.graph.Node.ANY;
+import static org.apache.jena.rdf.model.ModelFactory.createDefaultModel;
 import static org.apache.jena.sparql.util.graph.GraphUtils.multiValueURI;
 import static org.apache.jena.vocabulary.RDF.type;
+import static org.fcrepo.http.api.ContentExposingResource.CHILDREN_AFTER_PARAM;
+import static org.fcrepo.http.api.ContentExposingResource.HTML_CHILDREN_LIMIT;
 import static org.fcrepo.http.commons.domain.RDFMediaType.TEXT_HTML_WITH_CHARSET;
 import static org.fcrepo.http.commons.session.TransactionConstants.ATOMIC_ID_HEADER;
-import static org.fcrepo.kernel.api.RdfCollectors.toModel;
 import static org.fcrepo.kernel.api.RdfLexicon.ARCHIVAL_GROUP;
+import static org.fcrepo.kernel.api.RdfLexicon.CONTAINS;
 import static org.fcrepo.kernel.api.RdfLexicon.NON_RDF_SOURCE;
 import static org.fcrepo.kernel.api.RdfLexicon.RDF_SOURCE;
 import static org.fcrepo.kernel.api.RdfLexicon.REPOSITORY_ROOT;
@@ -32,6 +35,7 @@ import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -66,6 +70,7 @@ import org.fcrepo.kernel.api.models.FedoraResource;
 import org.fcrepo.kernel.api.models.ResourceFactory;
 
 import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
 import org.apache.jena.rdf.model.Model;
 import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
@@ -112,6 +117,8 @@ public class StreamingBaseHtmlProvider implements MessageBodyWriter<RdfNamespace
 
     private boolean autoVersioningEnabled;
 
+    private int tripleLimit;
+
     private Map<URI, HttpIdentifierConverter> identifierConverters = new HashMap<>();
 
     private Transaction readOnlyTx;
@@ -159,6 +166,7 @@ public class StreamingBaseHtmlProvider implements MessageBodyWriter<RdfNamespace
         final Properties properties = new Properties();
         final var velocityLog = fedoraPropsConfig.getVelocityLog().toString();
         autoVersioningEnabled = ocflPropsConfig.isAutoVersioningEnabled();
+        tripleLimit = fedoraPropsConfig.getHtmlTripleLimit();
         LOGGER.debug("Setting Velocity runtime log: {}", velocityLog);
         properties.setProperty("runtime.log", velocityLog);
 
@@ -198,12 +206,49 @@ public class StreamingBaseHtmlProvider implements MessageBodyWriter<RdfNamespace
 
         final Node subject = ViewHelpers.getContentNode(nsStream.stream.topic());
 
-        final Model model = nsStream.stream.collect(toModel());
+        // Only one page of children is rendered, and membership and user triples are not limited, so stop keeping
+        // those once there are enough that rendering them would hold too much. One child past the page is read to
+        // tell whether a next page follows. Once both are full, nothing more from the stream would be rendered, so
+        // it is not read any further.
+        final Model model = createDefaultModel();
+        final Node contains = CONTAINS.asNode();
+        int children = 0;
+        String lastChild = null;
+        int otherTriples = 0;
+        boolean truncated = false;
+        try {
+            final Iterator<Triple> triples = nsStream.stream.iterator();
+            while (triples.hasNext() && (children <= HTML_CHILDREN_LIMIT || !truncated)) {
+                final Triple triple = triples.next();
+                if (triple.predicateMatches(contains)) {
+                    // Children past the page are left to the following pages, which resume after the last one kept
+                    if (children < HTML_CHILDREN_LIMIT) {
+                        model.getGraph().add(triple);
+                        lastChild = triple.getObject().getURI();
+                    }
+                    children++;
+                } else if (otherTriples < tripleLimit) {
+                    model.getGraph().add(triple);
+                    otherTriples++;
+                } else {
+                    truncated = true;
+                }
+            }
+        } finally {
+            nsStream.close();
+        }
+        if (truncated) {
+            LOGGER.debug("Rendering only the first {} triples other than children of {}", tripleLimit, subject);
+        }
         model.setNsPrefixes(nsStream.namespaces);
 
         final Template nodeTypeTemplate = getTemplate(model, subject, Arrays.asList(annotations));
 
         final Context context = getContext(model, subject);
+        context.put("truncated", truncated);
+        context.put("tripleLimit", tripleLimit);
+        context.put("childrenAfter", request.getParameter(CHILDREN_AFTER_PARAM) != null);
+        context.put("childrenNext", children > HTML_CHILDREN_LIMIT ? lastChild : null);
 
         final FedoraId fedoraID = FedoraId.create(identifierConverter().toInternalId(subject.toString()));
         try {
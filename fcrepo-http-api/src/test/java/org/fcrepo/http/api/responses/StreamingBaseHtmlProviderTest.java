@@ -8,17 +8,22 @@ package org.fcrepo.http.api.responses;
 import static org.apache.jena.graph.NodeFactory.createLiteralString;
 import static org.apache.jena.graph.NodeFactory.createURI;
 import static org.apache.jena.vocabulary.RDF.type;
+import static org.fcrepo.http.api.ContentExposingResource.CHILDREN_AFTER_PARAM;
+import static org.fcrepo.http.api.ContentExposingResource.HTML_CHILDREN_LIMIT;
 import static org.fcrepo.http.commons.session.TransactionConstants.ATOMIC_ID_HEADER;
 import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_ID_PREFIX;
+import static org.fcrepo.kernel.api.RdfLexicon.CONTAINS;
 import static org.fcrepo.kernel.api.RdfLexicon.FEDORA_BINARY;
 import static org.fcrepo.kernel.api.RdfLexicon.FEDORA_CONTAINER;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.util.ReflectionTestUtils.setField;
 
@@ -42,10 +47,13 @@ import java.lang.reflect.Type;
 import java.net.URI;
 import java.nio.file.Path;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import com.google.common.collect.ImmutableMap;
 import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Model;
 import org.apache.velocity.Template;
 import org.apache.velocity.context.Context;
 import org.fcrepo.config.FedoraPropsConfig;
@@ -62,6 +70,7 @@ import org.fcrepo.kernel.api.rdf.DefaultRdfStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -145,6 +154,7 @@ public class StreamingBaseHtmlProviderTest {
                 eq(FedoraId.create(internal_id2)))).thenReturn(mockResource2);
 
         when(mockFedoraPropsConfig.getVelocityLog()).thenReturn(Path.of("/logs"));
+        when(mockFedoraPropsConfig.getHtmlTripleLimit()).thenReturn(10000);
         final var ocflProps = new OcflPropsConfig();
         ocflProps.setAutoVersioningEnabled(true);
         setField(testProvider, "ocflPropsConfig", ocflProps);
@@ -260,4 +270,121 @@ public class StreamingBaseHtmlProviderTest {
         final byte[] results = outStream.toByteArray();
         assertTrue(results.length > 0, "Got no output from serialization!");
     }
+
+    @Test
+    public void testWriteToStopsAtTripleLimit() throws WebApplicationException,
+            IllegalArgumentException, IOException {
+        final Template mockTemplate = mock(Template.class);
+        setField(testProvider, "templatesMap", ImmutableMap.of("some:file", mockTemplate));
+        setField(testProvider, "tripleLimit", 1);
+        final HtmlTemplate mockAnnotation = mock(HtmlTemplate.class);
+        when(mockAnnotation.value()).thenReturn("some:file");
+
+        testProvider.writeTo(testData, RdfNamespacedStream.class, mock(Type.class),
+                new Annotation[]{mockAnnotation}, MediaType.valueOf("text/html"),
+                new MultivaluedHashMap<>(), new ByteArrayOutputStream());
+
+        final ArgumentCaptor<Context> contextCaptor = ArgumentCaptor.forClass(Context.class);
+        verify(mockTemplate).merge(contextCaptor.capture(), isA(Writer.class));
+        final Context context = contextCaptor.getValue();
+        assertEquals(true, context.get("truncated"));
+        assertEquals(1, ((Model) context.get("model")).size());
+        assertEquals(false, context.get("childrenAfter"));
+        assertNull(context.get("childrenNext"));
+    }
+
+    @Test
+    public void testWriteToKeepsChildrenPastTripleLimit() throws WebApplicationException,
+            IllegalArgumentException, IOException {
+        final Template mockTemplate = mock(Template.class);
+        setField(testProvider, "templatesMap", ImmutableMap.of("some:file", mockTemplate));
+        setField(testProvider, "tripleLimit", 1);
+        final HtmlTemplate mockAnnotation = mock(HtmlTemplate.class);
+        when(mockAnnotation.value()).thenReturn("some:file");
+        when(mockRequest.getParameter(CHILDREN_AFTER_PARAM)).thenReturn("http://localhost:8080/rest/subject/child");
+
+        final var subject = createURI("http://localhost:8080/rest/subject");
+        final Stream<Triple> triples = Stream.concat(
+                of(Triple.create(subject, createURI("test:predicate"), createLiteralString("one")),
+                        Triple.create(subject, createURI("test:predicate"), createLiteralString("two"))),
+                IntStream.range(0, 3).mapToObj(i -> Triple.create(subject, CONTAINS.asNode(),
+                        createURI("http://localhost:8080/rest/subject/child" + i))));
+        @SuppressWarnings("resource")
+        final var data = new RdfNamespacedStream(new DefaultRdfStream(subject, triples), Map.of());
+
+        testProvider.writeTo(data, RdfNamespacedStream.class, mock(Type.class),
+                new Annotation[]{mockAnnotation}, MediaType.valueOf("text/html"),
+                new MultivaluedHashMap<>(), new ByteArrayOutputStream());
+
+        final ArgumentCaptor<Context> contextCaptor = ArgumentCaptor.forClass(Context.class);
+        verify(mockTemplate).merge(contextCaptor.capture(), isA(Writer.class));
+        final Context context = contextCaptor.getValue();
+        assertEquals(true, context.get("truncated"));
+        final Model model = (Model) context.get("model");
+        assertEquals(4, model.size());
+        assertEquals(3, model.getGraph().find(subject, CONTAINS.asNode(), null).toList().size());
+        assertEquals(true, context.get("childrenAfter"));
+        assertNull(context.get("childrenNext"));
+    }
+
+    @Test
+    public void testWriteToStopsReadingPastPageOfChildren() throws WebApplicationException,
+            IllegalArgumentException, IOException {
+        final Template mockTemplate = mock(Template.class);
+        setField(testProvider, "templatesMap", ImmutableMap.of("some:file", mockTemplate));
+        setField(testProvider, "tripleLimit", 1);
+        final HtmlTemplate mockAnnotation = mock(HtmlTemplate.class);
+        when(mockAnnotation.value()).thenReturn("some:file");
+
+        // More children than a page, as when a larger Limit was requested
+        final var subject = createURI("http://localhost:8080/rest/subject");
+        final var read = new AtomicInteger();
+        final Stream<Triple> triples = Stream.concat(
+                of(Triple.create(subject, createURI("test:predicate"), createLiteralString("one")),
+                        Triple.create(subject, createURI("test:predicate"), createLiteralString("two"))),
+                IntStream.range(0, HTML_CHILDREN_LIMIT * 2).mapToObj(i -> Triple.create(subject,
+                        CONTAINS.asNode(), createURI("http://localhost:8080/rest/subject/child" + i))))
+                .peek(triple -> read.incrementAndGet());
+        @SuppressWarnings("resource")
+        final var data = new RdfNamespacedStream(new DefaultRdfStream(subject, triples), Map.of());
+
+        testProvider.writeTo(data, RdfNamespacedStream.class, mock(Type.class),
+                new Annotation[]{mockAnnotation}, MediaType.valueOf("text/html"),
+                new MultivaluedHashMap<>(), new ByteArrayOutputStream());
+
+        final ArgumentCaptor<Context> contextCaptor = ArgumentCaptor.forClass(Context.class);
+        verify(mockTemplate).merge(contextCaptor.capture(), isA(Writer.class));
+        final Model model = (Model) contextCaptor.getValue().get("model");
+        assertEquals(HTML_CHILDREN_LIMIT, model.getGraph().find(subject, CONTAINS.asNode(), null).toList().size());
+        // One child past the page is read to tell that a next page follows
+        assertEquals(2 + HTML_CHILDREN_LIMIT + 1, read.get());
+        assertEquals("http://localhost:8080/rest/subject/child" + (HTML_CHILDREN_LIMIT - 1),
+                contextCaptor.getValue().get("childrenNext"));
+    }
+
+    @Test
+    public void testWriteToHasNoNextPageAfterFullLastPage() throws WebApplicationException,
+            IllegalArgumentException, IOException {
+        final Template mockTemplate = mock(Template.class);
+        setField(testProvider, "templatesMap", ImmutableMap.of("some:file", mockTemplate));
+        final HtmlTemplate mockAnnotation = mock(HtmlTemplate.class);
+        when(mockAnnotation.value()).thenReturn("some:file");
+
+        // Exactly a page of children, with nothing after them
+        final var subject = createURI("http://localhost:8080/rest/subject");
+        final Stream<Triple> triples = IntStream.range(0, HTML_CHILDREN_LIMIT).mapToObj(i -> Triple.create(subject,
+                CONTAINS.asNode(), createURI("http://localhost:8080/rest/subject/child" + i)));
+        @SuppressWarnings("resource")
+        final var data = new RdfNamespacedStream(new DefaultRdfStream(subject, triples), Map.of());
+
+        testProvider.writeTo(data, RdfNamespacedStream.class, mock(Type.class),
+                new Annotation[]{mockAnnotation}, MediaType.valueOf("text/html"),
+                new MultivaluedHashMap<>(), new ByteArrayOutputStream());
+
+        final ArgumentCaptor<Context> contextCaptor = ArgumentCaptor.forClass(Context.class);
+        verify(mockTemplate).merge(contextCaptor.capture(), isA(Writer.class));
+        final Model model = (Model) contextCaptor.getValue().get("model");
+        assertEquals(HTML_CHILDREN_LIMIT, model.getGraph().find(subject, CONTAINS.asNode(), null).toList().size());
+        assertNull(contextCaptor.getValue().get("childrenNext"));
+    }
 }
@@ -134,12 +134,14 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.Phaser;
 import java.util.concurrent.TimeUnit;
 
@@ -2332,6 +2334,62 @@ public class FedoraLdpIT extends AbstractResourceIT {
         assertRangeNotSatisfiable(id, "ds1", "bytes=-");
     }
 
+    @Test
+    public void testGetMultipleRanges() throws IOException {
+        final String id = getRandomUniqueId();
+        createObjectAndClose(id);
+        createDatastream(id, "ds1", "0123456789");
+
+        final HttpGet get = getDSMethod(id, "ds1");
+        get.setHeader("Range", "bytes=6-7,0-1,1-2");
+        try (final CloseableHttpResponse response = execute(get)) {
+            assertEquals(PARTIAL_CONTENT.getStatusCode(), getStatus(response));
+            final String contentType = response.getFirstHeader(CONTENT_TYPE).getValue();
+            assertTrue(contentType.startsWith("multipart/byteranges; boundary="));
+            final String boundary = contentType.substring(contentType.indexOf('=') + 1);
+            final String body = IOUtils.toString(response.getEntity().getContent(), UTF_8);
+            assertEquals(String.valueOf(body.length()), response.getFirstHeader(CONTENT_LENGTH).getValue());
+            assertTrue(body.contains("Content-Range: bytes 0-2/10\r\n\r\n012\r\n--" + boundary));
+            assertTrue(body.contains("Content-Range: bytes 6-7/10\r\n\r\n67\r\n--" + boundary + "--"));
+        }
+
+        final HttpGet get2 = getDSMethod(id, "ds1");
+        get2.setHeader("Range", "bytes=0-1,2-3");
+        try (final CloseableHttpResponse response = execute(get2)) {
+            assertEquals(PARTIAL_CONTENT.getStatusCode(), getStatus(response));
+            assertEquals("bytes 0-3/10", response.getFirstHeader("Content-Range").getValue());
+            assertBodyMatches(response, "0123");
+        }
+
+        final HttpGet get3 = getDSMethod(id, "ds1");
+        get3.setHeader("Range", "bytes=20-30,40-");
+        try (final CloseableHttpResponse response = execute(get3)) {
+            assertEquals(REQUESTED_RANGE_NOT_SATISFIABLE.getStatusCode(), getStatus(response));
+            assertEquals("bytes */10", response.getFirstHeader("Content-Range").getValue());
+        }
+    }
+
+    @Test
+    public void testGetTooManyRanges() throws IOException {
+        final String id = getRandomUniqueId();
+        createObjectAndClose(id);
+        final String content = "0123456789".repeat(20);
+        createDatastream(id, "ds1", content);
+
+        // More separate ranges than are sent as parts get the whole content
+        final List<String> ranges = new ArrayList<>();
+        for (int i = 0; i < content.length(); i += 2) {
+            ranges.add(i + "-" + i);
+        }
+        final HttpGet get = getDSMethod(id, "ds1");
+        get.setHeader("Range", "bytes=" + String.join(",", ranges));
+        try (final CloseableHttpResponse response = execute(get)) {
+            assertEquals(OK.getStatusCode(), getStatus(response));
+            assertFalse(response.containsHeader("Content-Range"));
+            assertBodyMatches(response, content);
+        }
+    }
+
     private void assertRangeNotSatisfiable(final String id, final String ds, final String range) throws IOException {
         final HttpGet get = getDSMethod(id, ds);
         get.setHeader("Range", range);
@@ -2563,6 +2621,86 @@ public class FedoraLdpIT extends AbstractResourceIT {
         }
     }
 
+    @Test
+    public void testGetObjectGraphWithChildrenAfter() throws IOException {
+        final String id = getRandomUniqueId();
+        final String location = getLocation(createObject(id));
+
+        final int CHILDREN_TOTAL = 20;
+        for (int x = 0; x < CHILDREN_TOTAL; ++x) {
+            createObjectAndClose(id + "/child-" + x);
+        }
+
+        // Two pages hold every child once, the second resumes after the last child of the first
+        final int CHILDREN_LIMIT = 12;
+        final Set<String> children = new HashSet<>();
+        String after = null;
+        for (final int expected : new int[]{CHILDREN_LIMIT, CHILDREN_TOTAL - CHILDREN_LIMIT}) {
+            final HttpGet httpGet = new HttpGet(after == null ? location
+                    : location + "?children_after=" + URLEncoder.encode(after, UTF_8));
+            httpGet.setHeader("Limit", Integer.toString(CHILDREN_LIMIT));
+            try (final CloseableHttpResponse response = execute(httpGet);
+                    final CloseableDataset dataset = getDataset(response)) {
+                final List<String> page = new ArrayList<>();
+                dataset.asDatasetGraph().find(ANY, createURI(location), CONTAINS.asNode(), ANY)
+                        .forEachRemaining(quad -> page.add(quad.getObject().getURI()));
+                assertEquals(expected, page.size());
+                children.addAll(page);
+                after = page.stream().max(String::compareTo).orElseThrow();
+            }
+        }
+        assertEquals(CHILDREN_TOTAL, children.size());
+    }
+
+    @Test
+    public void testGetObjectGraphWithBadChildrenAfter() throws IOException {
+        final String id = getRandomUniqueId();
+        final String location = getLocation(createObject(id));
+
+        final HttpGet httpGet = new HttpGet(location + "?children_after="
+                + URLEncoder.encode("http://example.org/elsewhere", UTF_8));
+        httpGet.setHeader("Limit", "12");
+        try (final CloseableHttpResponse response = execute(httpGet)) {
+            assertEquals(SC_BAD_REQUEST, response.getStatusLine().getStatusCode());
+        }
+    }
+
+    @Test
+    public void testGetObjectGraphHtmlChildPages() throws IOException {
+        final String id = getRandomUniqueId();
+        final String location = getLocation(createObject(id));
+
+        // One more child than fit on the first page of the HTML view
+        final List<String> children = new ArrayList<>();
+        for (int x = 0; x <= 100; ++x) {
+            createObjectAndClose(id + "/child-" + x);
+            children.add(location + "/child-" + x);
+        }
+        // Children are paged in the order of their ids
+        children.sort(String::compareTo);
+        final String nextLink = "?children_after=" + URLEncoder.encode(children.get(99), UTF_8);
+
+        final HttpGet firstPage = new HttpGet(location);
+        firstPage.addHeader(ACCEPT, "text/html");
+        try (final CloseableHttpResponse response = execute(firstPage)) {
+            assertEquals(OK.getStatusCode(), getStatus(response));
+            final String content = EntityUtils.toString(response.getEntity());
+            assertTrue(content.contains("href=\"" + nextLink + "\">Next"), "Missing link to next page");
+            assertFalse(content.contains(">First<"), "Unexpected link to first page");
+            assertFalse(content.contains(children.get(100) + "\""), "Unexpected child of next page");
+        }
+
+        final HttpGet lastPage = new HttpGet(location + nextLink);
+        lastPage.addHeader(ACCEPT, "text/html");
+        try (final CloseableHttpResponse response = execute(lastPage)) {
+            assertEquals(OK.getStatusCode(), getStatus(response));
+            final String content = EntityUtils.toString(response.getEntity());
+            assertTrue(content.contains(children.get(100) + "\""), "Missing child of last page");
+            assertTrue(content.contains("href=\"?\">First"), "Missing link to first page");
+            assertFalse(content.contains(">Next<"), "Unexpected link to next page");
+        }
+    }
+
 
 
     @Test
@@ -11,6 +11,7 @@ import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPatch;
 import org.apache.http.entity.StringEntity;
+import org.apache.http.util.EntityUtils;
 import org.fcrepo.kernel.api.RdfLexicon;
 import org.fcrepo.search.api.Condition;
 import org.fcrepo.search.api.SearchResult;
@@ -393,6 +394,88 @@ public class FedoraSearchIT extends AbstractResourceIT {
         }
     }
 
+    @Test
+    public void testCursorPaging() throws Exception {
+        final var prefix = getRandomUniqueId();
+        final var resources = createResources(prefix, 5);
+        final var condition = FEDORA_ID + "=" + prefix + "*";
+        final List<Object> returnedIds = new ArrayList<>();
+        String cursor = "*";
+        while (cursor != null) {
+            final String searchUrl = getSearchEndpoint() + "condition=" + encode(condition) +
+                    "&max_results=2&order_by=fedora_id&cursor=" + encode(cursor);
+            try (final CloseableHttpResponse response = execute(new HttpGet(searchUrl))) {
+                assertEquals(OK.getStatusCode(), getStatus(response));
+                final SearchResult result = objectMapper.readValue(response.getEntity().getContent(),
+                        SearchResult.class);
+                result.getItems().forEach(x -> returnedIds.add(x.get("fedora_id")));
+                cursor = result.getPagination().getNextCursor();
+            }
+        }
+        assertEquals(resources, returnedIds);
+
+        final String badCursorUrl = getSearchEndpoint() + "condition=" + encode(condition) +
+                "&max_results=2&order_by=created&cursor=nonsense";
+        try (final CloseableHttpResponse response = execute(new HttpGet(badCursorUrl))) {
+            assertEquals(BAD_REQUEST.getStatusCode(), getStatus(response));
+        }
+    }
+
+    @Test
+    public void testExportNdjson() throws Exception {
+        final var prefix = getRandomUniqueId();
+        final var resources = createResources(prefix, 3);
+        final var condition = FEDORA_ID + "=" + prefix + "*";
+        final var get = new HttpGet(getSearchEndpoint() + "condition=" + encode(condition) +
+                "&fields=fedora_id,rdf_type&order_by=fedora_id&order=desc");
+        get.setHeader("Accept", "application/x-ndjson");
+        try (final CloseableHttpResponse response = execute(get)) {
+            assertEquals(OK.getStatusCode(), getStatus(response));
+            assertTrue(response.getFirstHeader("Content-Type").getValue().startsWith("application/x-ndjson"));
+            final var lines = EntityUtils.toString(response.getEntity()).split("\n");
+            assertEquals(3, lines.length);
+            final List<Object> returnedIds = new ArrayList<>();
+            for (final String line : lines) {
+                final Map<?, ?> item = objectMapper.readValue(line, Map.class);
+                assertTrue(((List<?>) item.get("rdf_type")).size() > 0);
+                returnedIds.add(item.get("fedora_id"));
+            }
+            final var expected = new ArrayList<>(resources);
+            Collections.reverse(expected);
+            assertEquals(expected, returnedIds);
+        }
+    }
+
+    @Test
+    public void testExportCsv() throws Exception {
+        final var prefix = getRandomUniqueId();
+        final var resources = createResources(prefix, 2);
+        final var condition = FEDORA_ID + "=" + prefix + "*";
+        final var get = new HttpGet(getSearchEndpoint() + "condition=" + encode(condition) +
+                "&fields=fedora_id,content_size&order_by=fedora_id");
+        get.setHeader("Accept", "text/csv");
+        try (final CloseableHttpResponse response = execute(get)) {
+            assertEquals(OK.getStatusCode(), getStatus(response));
+            final var lines = EntityUtils.toString(response.getEntity()).split("\r\n");
+            assertEquals(List.of("fedora_id,content_size", resources.get(0) + ",0", resources.get(1) + ",0"),
+                    List.of(lines));
+        }
+
+        final var badGet = new HttpGet(getSearchEndpoint() + "condition=" + encode("modified>yesterday"));
+        badGet.setHeader("Accept", "text/csv");
+        try (final CloseableHttpResponse response = execute(badGet)) {
+            assertEquals(BAD_REQUEST.getStatusCode(), getStatus(response));
+        }
+
+        // Only rejected when the query is built, which still happens before the response is started
+        final var badOrderGet = new HttpGet(getSearchEndpoint() + "condition=" + encode(condition) +
+                "&order_by=rdf_type");
+        badOrderGet.setHeader("Accept", "text/csv");
+        try (final CloseableHttpResponse response = execute(badOrderGet)) {
+            assertEquals(BAD_REQUEST.getStatusCode(), getStatus(response));
+        }
+    }
+
     @Test
     public void testDoNotIncludeTotalCount() throws Exception {
         final var prefix = getRandomUniqueId();
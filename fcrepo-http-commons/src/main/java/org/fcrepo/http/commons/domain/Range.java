@@ -8,6 +8,9 @@ package org.fcrepo.http.commons.domain;
 import static java.lang.Long.parseLong;
 import static java.util.regex.Pattern.compile;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -26,6 +29,9 @@ public class Range {
     private static final Pattern rangePattern =
         compile("^bytes\\s*=\\s*(\\d*)\\s*-\\s*(\\d*)");
 
+    private static final Pattern rangeSetPattern =
+        compile("^bytes\\s*=(.*)");
+
     /**
      * Unbounded Range
      */
@@ -122,6 +128,60 @@ public class Range {
         return new Range(start, end);
     }
 
+    /**
+     * Convert an HTTP Range header, which may hold several comma separated byte ranges, to Range objects
+     * @param source the source
+     * @return range objects, in the order of the header, a single unbounded range if the header is not a byte range
+     */
+    public static List<Range> convertAll(final String source) {
+
+        final Matcher matcher = rangeSetPattern.matcher(source);
+
+        if (!matcher.matches()) {
+            return List.of(new Range());
+        }
+
+        final List<Range> ranges = new ArrayList<>();
+        for (final String spec : matcher.group(1).split(",")) {
+            // Empty elements are allowed in HTTP lists and are ignored
+            if (!spec.isBlank()) {
+                ranges.add(convert("bytes=" + spec.trim()));
+            }
+        }
+        return ranges.isEmpty() ? List.of(new Range()) : ranges;
+    }
+
+    /**
+     * Resolve byte ranges against the length of the content, dropping the unsatisfiable ones and merging the ones
+     * which overlap or are adjacent, so no byte is sent twice.
+     * @param ranges the requested ranges
+     * @param length the length of the content
+     * @return the satisfiable ranges ordered by their start, empty if none of the ranges are satisfiable
+     */
+    public static List<RangeOfLength> coalesce(final List<Range> ranges, final long length) {
+        final List<RangeOfLength> satisfiable = new ArrayList<>();
+        for (final Range range : ranges) {
+            final RangeOfLength rangeOfLength = range.rangeOfLength(length);
+            if (rangeOfLength.isSatisfiable()) {
+                satisfiable.add(rangeOfLength);
+            }
+        }
+        satisfiable.sort(Comparator.comparingLong(RangeOfLength::start));
+
+        final List<RangeOfLength> coalesced = new ArrayList<>();
+        for (final RangeOfLength rangeOfLength : satisfiable) {
+            final int last = coalesced.size() - 1;
+            if (last >= 0 && rangeOfLength.start() <= coalesced.get(last).end() + 1) {
+                final RangeOfLength previous = coalesced.get(last);
+                coalesced.set(last, new RangeOfLength(previous.start(),
+                        Math.max(previous.end(), rangeOfLength.end()), length));
+            } else {
+                coalesced.add(rangeOfLength);
+            }
+        }
+        return coalesced;
+    }
+
     /**
      * Create a range object with start and end bytes based on the length of the content.
      * @param length the length of the content
@@ -142,7 +202,8 @@ public class Range {
 
         final long start;
         if (start() == -1) {
-            start = length - size();
+            // RFC 7233 section 2.1: a suffix longer than the content selects the whole content
+            start = Math.max(0, length - size());
         } else {
             start = start();
         }
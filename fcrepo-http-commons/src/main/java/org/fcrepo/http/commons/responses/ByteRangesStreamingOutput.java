@@ -0,0 +1,93 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree.
+ */
+package org.fcrepo.http.commons.responses;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import jakarta.ws.rs.core.StreamingOutput;
+
+import org.fcrepo.http.commons.domain.Range.RangeOfLength;
+
+/**
+ * Writes several ranges of a binary as a multipart/byteranges body, as described in RFC 7233 appendix A.
+ * <p>
+ * The content of each part is only opened when the body is written and is streamed straight to the output, so no
+ * part is held in memory. The length of the body is known up front, as the headers of the parts have a fixed size.
+ */
+public class ByteRangesStreamingOutput implements StreamingOutput {
+
+    private static final String CRLF = "\r\n";
+
+    private final String contentType;
+
+    private final long length;
+
+    private final List<RangeOfLength> ranges;
+
+    private final Function<RangeOfLength, StreamingOutput> partContent;
+
+    private final String boundary = UUID.randomUUID().toString();
+
+    /**
+     * @param contentType the media type of the binary, repeated in each part
+     * @param length the length of the binary
+     * @param ranges the ranges to write, which should not overlap
+     * @param partContent provides the writer of the content of a range
+     */
+    public ByteRangesStreamingOutput(final String contentType, final long length, final List<RangeOfLength> ranges,
+                                     final Function<RangeOfLength, StreamingOutput> partContent) {
+        this.contentType = contentType;
+        this.length = length;
+        this.ranges = ranges;
+        this.partContent = partContent;
+    }
+
+    /**
+     * @return the media type of the body, with its boundary
+     */
+    public String getMediaType() {
+        return "multipart/byteranges; boundary=" + boundary;
+    }
+
+    /**
+     * @return the number of bytes of the body
+     */
+    public long getContentLength() {
+        long contentLength = closeDelimiter().length;
+        for (final RangeOfLength range : ranges) {
+            contentLength += partHeader(range).length + range.size() + CRLF.length();
+        }
+        return contentLength;
+    }
+
+    @Override
+    public void write(final OutputStream output) throws IOException {
+        for (final RangeOfLength range : ranges) {
+            output.write(partHeader(range));
+            partContent.apply(range).write(output);
+            output.write(CRLF.getBytes(US_ASCII));
+        }
+        output.write(closeDelimiter());
+        output.flush();
+    }
+
+    private byte[] partHeader(final RangeOfLength range) {
+        return ("--" + boundary + CRLF +
+                "Content-Type: " + contentType + CRLF +
+                "Content-Range: bytes " + range.start() + "-" + range.end() + "/" + length + CRLF +
+                CRLF).getBytes(US_ASCII);
+    }
+
+    private byte[] closeDelimiter() {
+        return ("--" + boundary + "--" + CRLF).getBytes(US_ASCII);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree.
+ */
+package org.fcrepo.http.commons.responses;
+
+import static org.fcrepo.http.commons.responses.RdfStreamStreamingOutput.nodeAsTerm;
+import static org.fcrepo.kernel.api.RdfLexicon.RDF_NAMESPACE;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+
+/**
+ * Writes triples as expanded JSON-LD as they are read, without collecting them into a model first. This is only used
+ * for responses with more triples than {@link RdfStreamStreamingOutput#READ_AHEAD_LIMIT}, smaller ones are
+ * converted as a whole.
+ * <p>
+ * Consecutive triples with the same subject are written as one node object, the way Fedora produces them. A JSON
+ * object can only have each key once, so when a subject, or a property of the current subject, comes back after
+ * others it starts another node object with the same {@code @id}, which JSON-LD processors merge. The output holds
+ * the same statements as converting the whole graph with {@code JsonLd.fromRdf()} without native types, but in the
+ * order of the stream, and without converting RDF lists to {@code @list}.
+ */
+class ExpandedJsonLdStreamWriter {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private static final String RDF_TYPE = RDF_NAMESPACE + "type";
+
+    private static final String XSD_STRING = XSDDatatype.XSDstring.getURI();
+
+    private final JsonGenerator generator;
+
+    private Node currentSubject;
+
+    private String currentKey;
+
+    private final Set<String> keysWritten = new HashSet<>();
+
+    /**
+     * @param output the stream to write to
+     * @throws IOException if the generator cannot be created
+     */
+    ExpandedJsonLdStreamWriter(final OutputStream output) throws IOException {
+        this.generator = JSON_FACTORY.createGenerator(output);
+    }
+
+    /**
+     * Write the triples as a JSON-LD document.
+     *
+     * @param triples the triples
+     * @throws IOException if writing fails
+     */
+    void write(final Iterator<Triple> triples) throws IOException {
+        generator.writeStartArray();
+        while (triples.hasNext()) {
+            writeTriple(triples.next());
+        }
+        if (currentSubject != null) {
+            endNode();
+        }
+        generator.writeEndArray();
+        generator.flush();
+    }
+
+    private void writeTriple(final Triple triple) throws IOException {
+        final Node object = triple.getObject();
+        final boolean isType = RDF_TYPE.equals(triple.getPredicate().getURI()) && !object.isLiteral();
+        final String key = isType ? "@type" : triple.getPredicate().getURI();
+
+        if (!triple.getSubject().equals(currentSubject) || (!key.equals(currentKey) && keysWritten.contains(key))) {
+            if (currentSubject != null) {
+                endNode();
+            }
+            startNode(triple.getSubject());
+        }
+        if (!key.equals(currentKey)) {
+            if (currentKey != null) {
+                generator.writeEndArray();
+            }
+            generator.writeArrayFieldStart(key);
+            currentKey = key;
+            keysWritten.add(key);
+        }
+
+        if (isType) {
+            generator.writeString(nodeAsTerm(object));
+        } else {
+            writeObject(object);
+        }
+    }
+
+    private void startNode(final Node subject) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("@id", nodeAsTerm(subject));
+        currentSubject = subject;
+    }
+
+    private void endNode() throws IOException {
+        if (currentKey != null) {
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+        currentSubject = null;
+        currentKey = null;
+        keysWritten.clear();
+    }
+
+    private void writeObject(final Node object) throws IOException {
+        generator.writeStartObject();
+        if (object.isLiteral()) {
+            generator.writeStringField("@value", object.getLiteralLexicalForm());
+            final String lang = object.getLiteralLanguage();
+            if (lang != null && !lang.isEmpty()) {
+                generator.writeStringField("@language", lang);
+            } else if (!XSD_STRING.equals(object.getLiteralDatatypeURI())) {
+                generator.writeStringField("@type", object.getLiteralDatatypeURI());
+            }
+        } else {
+            generator.writeStringField("@id", nodeAsTerm(object));
+        }
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree.
+ */
+package org.fcrepo.http.commons.responses;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+import jakarta.ws.rs.core.StreamingOutput;
+
+import org.slf4j.Logger;
+
+/**
+ * Writes a range of bytes of a file with {@link FileChannel#transferTo(long, long, WritableByteChannel)}, so the
+ * operating system can send the file without copying it through the heap when the output is itself a channel.
+ *
+ * The file is only opened when the body is written, after the response headers are decided, so it may be gone by
+ * then. The same bytes are then written from the fallback instead.
+ */
+public class FileChannelStreamingOutput implements StreamingOutput {
+
+    private static final Logger LOGGER = getLogger(FileChannelStreamingOutput.class);
+
+    private final Path file;
+
+    private final long start;
+
+    private final long length;
+
+    private final StreamingOutput fallback;
+
+    /**
+     * @param file the file to write
+     * @param start the position of the first byte to write
+     * @param length the number of bytes to write
+     * @param fallback writes the same bytes if the file no longer exists
+     */
+    public FileChannelStreamingOutput(final Path file, final long start, final long length,
+                                      final StreamingOutput fallback) {
+        this.file = file;
+        this.start = start;
+        this.length = length;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public void write(final OutputStream output) throws IOException {
+        // The target is not closed, the contract of StreamingOutput is to leave the output open
+        final WritableByteChannel target = output instanceof WritableByteChannel
+                ? (WritableByteChannel) output : Channels.newChannel(output);
+        final FileChannel channel;
+        try {
+            channel = FileChannel.open(file, READ);
+        } catch (final NoSuchFileException e) {
+            LOGGER.debug("File {} is gone, writing its content from the fallback", file);
+            fallback.write(output);
+            return;
+        }
+        try (channel) {
+            final long end = start + length;
+            long position = start;
+            while (position < end) {
+                final long transferred = channel.transferTo(position, end - position, target);
+                if (transferred <= 0) {
+                    throw new EOFException("File " + file + " ended at byte " + position + " of " + end);
+                }
+                position += transferred;
+            }
+        }
+    }
+}
@@ -81,6 +81,11 @@ public class RdfStreamProvider implements MessageBodyWriter<RdfNamespacedStream>
                 .forEach(entry -> namespaces.put(entry.getKey(), entry.getValue()));
         final RdfStreamStreamingOutput streamOutput = new RdfStreamStreamingOutput(nsStream.stream,
                 namespaces, mediaType);
-        streamOutput.write(entityStream);
+        try {
+            streamOutput.write(entityStream);
+        } finally {
+            // Release whatever backs the stream, such as a database cursor, even if it was not read to the end
+            nsStream.close();
+        }
     }
 }
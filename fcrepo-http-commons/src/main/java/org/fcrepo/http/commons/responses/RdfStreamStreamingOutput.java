@@ -25,6 +25,7 @@ import com.apicatalog.jsonld.JsonLdError;
 import com.apicatalog.jsonld.JsonLdVersion;
 import com.apicatalog.jsonld.document.JsonDocument;
 import com.apicatalog.rdf.api.RdfConsumerException;
+import com.google.common.collect.Iterators;
 import com.google.common.util.concurrent.AbstractFuture;
 import jakarta.json.JsonValue;
 import org.apache.jena.graph.Node;
@@ -38,9 +39,12 @@ import org.apache.jena.riot.RiotException;
 import org.apache.jena.riot.system.StreamRDF;
 import org.slf4j.Logger;
 import org.fcrepo.kernel.api.RdfStream;
+import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -71,6 +75,13 @@ public class RdfStreamStreamingOutput extends AbstractFuture<Void> implements
 
     private static final String RDF_TYPE = RDF_NAMESPACE + "type";
 
+    /**
+     * The number of triples read ahead of writing a response. Block-streamed formats declare the prefixes of the
+     * namespaces used by these triples first, and expanded JSON-LD that fits is converted as a whole, so each subject
+     * is one node object and RDF lists are folded into {@code @list}. Triples past this are written as they are read.
+     */
+    static final int READ_AHEAD_LIMIT = 10000;
+
     private final Lang format;
 
     private final MediaType mediaType;
@@ -136,6 +147,9 @@ public class RdfStreamStreamingOutput extends AbstractFuture<Void> implements
             } else {
                 serializeBlockStreamed(rdfStream, output, format, nsPrefixes);
             }
+        // Expanded JSON-LD has no context to derive from the model, so one too large to convert can be streamed
+        } else if (JSONLD.equals(dataFormat) && EXPANDED.equals(getFormatFromMediaType(dataMediaType))) {
+            serializeJsonLdExpanded(rdfStream, output, dataMediaType);
         // For formats that require analysis of the entire model and cannot be streamed directly (rdfxml, n3)
         } else {
             LOGGER.debug("Non-stream serialization of {}", dataFormat.toString());
@@ -158,15 +172,15 @@ public class RdfStreamStreamingOutput extends AbstractFuture<Void> implements
 
         final StreamRDF stream = new SynchonizedStreamRDFWrapper(getWriterStream(output, format.getLang()));
         stream.start();
-        // Must read the rdf stream before writing out ns prefixes, otherwise the prefixes come after the triples
-        final List<Triple> tripleList = rdfStream.peek(t -> {
-            // Collect the namespaces present in the RDF stream, using the same
-            // criteria for where to look that jena's model.listNameSpaces() does
-            namespacesPresent.add(t.getPredicate().getNameSpace());
-            if (RDF_TYPE.equals(t.getPredicate().getURI()) && t.getObject().isURI()) {
-                namespacesPresent.add(t.getObject().getNameSpace());
-            }
-        }).toList();
+        // Read the start of the rdf stream before writing out ns prefixes, otherwise the prefixes come after the
+        // triples. Most resources fit entirely, and get only the prefixes they use, declared up front.
+        final Iterator<Triple> triples = rdfStream.iterator();
+        final List<Triple> tripleList = new ArrayList<>();
+        while (triples.hasNext() && tripleList.size() < READ_AHEAD_LIMIT) {
+            final Triple t = triples.next();
+            addNamespaces(t, namespacesPresent);
+            tripleList.add(t);
+        }
 
         nsPrefixes.forEach((prefix, uri) -> {
             // Only add namespace prefixes if the namespace is present in the rdf stream
@@ -175,9 +189,65 @@ public class RdfStreamStreamingOutput extends AbstractFuture<Void> implements
             }
         });
         tripleList.forEach(stream::triple);
+        tripleList.clear();
+
+        // Write the rest as it is read, declaring the prefix of a namespace before the first triple using it
+        final Set<String> namespacesAdded = new HashSet<>();
+        triples.forEachRemaining(t -> {
+            addNamespaces(t, namespacesAdded);
+            namespacesAdded.forEach(ns -> {
+                if (namespacesPresent.add(ns)) {
+                    nsPrefixes.forEach((prefix, uri) -> {
+                        if (uri.equals(ns)) {
+                            stream.prefix(prefix, uri);
+                        }
+                    });
+                }
+            });
+            namespacesAdded.clear();
+            stream.triple(t);
+        });
         stream.finish();
     }
 
+    /**
+     * Collect the namespaces of a triple, using the same criteria for where to look that jena's
+     * model.listNameSpaces() does
+     *
+     * @param t the triple
+     * @param namespaces the namespaces to add to
+     */
+    private static void addNamespaces(final Triple t, final Set<String> namespaces) {
+        namespaces.add(t.getPredicate().getNameSpace());
+        if (RDF_TYPE.equals(t.getPredicate().getURI()) && t.getObject().isURI()) {
+            namespaces.add(t.getObject().getNameSpace());
+        }
+    }
+
+    private static void serializeJsonLdExpanded(final RdfStream rdfStream, final OutputStream output,
+                                                final MediaType dataMediaType) {
+        final Iterator<Triple> triples = rdfStream.iterator();
+        final List<Triple> tripleList = new ArrayList<>();
+        while (triples.hasNext() && tripleList.size() <= READ_AHEAD_LIMIT) {
+            tripleList.add(triples.next());
+        }
+
+        if (tripleList.size() <= READ_AHEAD_LIMIT) {
+            LOGGER.debug("Non-stream serialization of expanded JSON-LD");
+            final Model model = tripleList.stream().collect(toModel());
+            tripleList.clear();
+            writeJsonLd(output, model, dataMediaType);
+            return;
+        }
+
+        LOGGER.debug("Stream-based serialization of expanded JSON-LD");
+        try {
+            new ExpandedJsonLdStreamWriter(output).write(Iterators.concat(tripleList.iterator(), triples));
+        } catch (final IOException e) {
+            throw new WebApplicationException(e);
+        }
+    }
+
     private static void serializeNonStreamed(final RdfStream rdfStream, final OutputStream output,
                                              final Lang dataFormat, final MediaType dataMediaType,
                                              final Map<String, String> nsPrefixes) {
@@ -283,7 +353,6 @@ public class RdfStreamStreamingOutput extends AbstractFuture<Void> implements
      *  @param node Jena Node
      * @return String representation of Node
      */
-    private
     static String nodeAsTerm(final Node node) {
         if (node.isURI()) {
             return node.getURI();
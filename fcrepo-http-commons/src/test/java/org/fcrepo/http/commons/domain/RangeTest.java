@@ -9,6 +9,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 
 /**
@@ -144,6 +146,18 @@ public class RangeTest {
         assertEquals(500, rangeOfLength2.size());
     }
 
+    @Test
+    public void testSuffixLongerThanContent() {
+        final var rangeOfLength = Range.convert("bytes=-500").rangeOfLength(100);
+        assertEquals(0, rangeOfLength.start());
+        assertEquals(99, rangeOfLength.end());
+        assertEquals(100, rangeOfLength.size());
+        assertTrue(rangeOfLength.isSatisfiable());
+
+        assertTrue(Range.convert("bytes=-101").rangeOfLength(100).isSatisfiable());
+        assertFalse(Range.convert("bytes=-0").rangeOfLength(100).isSatisfiable());
+    }
+
     @Test
     public void testZeroRange() {
         final Range range = Range.convert("bytes=0-0");
@@ -153,4 +167,68 @@ public class RangeTest {
         assertEquals(1, rangeOfLength.size());
         assertTrue(rangeOfLength.isSatisfiable());
     }
+
+    @Test
+    public void testMultipleRangeParsing() {
+        final List<Range> ranges = Range.convertAll("bytes=0-10, 20-, -5");
+
+        assertEquals(3, ranges.size());
+        assertEquals(0L, ranges.get(0).start());
+        assertEquals(10L, ranges.get(0).end());
+        assertEquals(20L, ranges.get(1).start());
+        assertEquals(-1L, ranges.get(1).end());
+        assertEquals(-1L, ranges.get(2).start());
+        assertEquals(5L, ranges.get(2).end());
+    }
+
+    @Test
+    public void testGarbageMultipleRangeParsing() {
+        final List<Range> ranges = Range.convertAll("something-thats-not-a-range");
+
+        assertEquals(1, ranges.size());
+        assertFalse(ranges.get(0).hasRange());
+    }
+
+    @Test
+    public void testCoalesceOverlappingAndAdjacentRanges() {
+        final var ranges = Range.coalesce(Range.convertAll("bytes=50-60,0-10,5-20,21-30,-10"), 100);
+
+        assertEquals(3, ranges.size());
+        assertEquals(0, ranges.get(0).start());
+        assertEquals(30, ranges.get(0).end());
+        assertEquals(50, ranges.get(1).start());
+        assertEquals(60, ranges.get(1).end());
+        assertEquals(90, ranges.get(2).start());
+        assertEquals(99, ranges.get(2).end());
+    }
+
+    @Test
+    public void testCoalesceDropsUnsatisfiableRanges() {
+        final var ranges = Range.coalesce(Range.convertAll("bytes=200-300,0-0"), 100);
+
+        assertEquals(1, ranges.size());
+        assertEquals(0, ranges.get(0).start());
+        assertEquals(0, ranges.get(0).end());
+
+        assertTrue(Range.coalesce(Range.convertAll("bytes=200-300,150-"), 100).isEmpty());
+    }
+
+    @Test
+    public void testCoalesceSuffixLongerThanContentWithOtherRanges() {
+        final var ranges = Range.coalesce(Range.convertAll("bytes=10-20,-500,50-60"), 100);
+
+        assertEquals(1, ranges.size());
+        assertEquals(0, ranges.get(0).start());
+        assertEquals(99, ranges.get(0).end());
+        assertEquals(100, ranges.get(0).size());
+    }
+
+    @Test
+    public void testCoalesceSuffixLongerThanContentWithUnsatisfiableRange() {
+        final var ranges = Range.coalesce(Range.convertAll("bytes=200-300,-101"), 100);
+
+        assertEquals(1, ranges.size());
+        assertEquals(0, ranges.get(0).start());
+        assertEquals(99, ranges.get(0).end());
+    }
 }
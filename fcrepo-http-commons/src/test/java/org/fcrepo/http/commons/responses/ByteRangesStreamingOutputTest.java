@@ -0,0 +1,46 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree.
+ */
+package org.fcrepo.http.commons.responses;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+
+import org.fcrepo.http.commons.domain.Range;
+import org.junit.jupiter.api.Test;
+
+public class ByteRangesStreamingOutputTest {
+
+    private static final String CONTENT = "0123456789abcdefghij";
+
+    @Test
+    public void testWriteParts() throws Exception {
+        final var ranges = Range.coalesce(Range.convertAll("bytes=2-4,10-11"), CONTENT.length());
+        final var byteRanges = new ByteRangesStreamingOutput("text/plain", CONTENT.length(), ranges,
+                range -> output -> output.write(
+                        CONTENT.substring((int) range.start(), (int) range.end() + 1).getBytes(US_ASCII)));
+
+        final var output = new ByteArrayOutputStream();
+        byteRanges.write(output);
+
+        final String boundary = byteRanges.getMediaType().substring(byteRanges.getMediaType().indexOf('=') + 1);
+        assertTrue(byteRanges.getMediaType().startsWith("multipart/byteranges; boundary="));
+        assertEquals("--" + boundary + "\r\n" +
+                "Content-Type: text/plain\r\n" +
+                "Content-Range: bytes 2-4/20\r\n" +
+                "\r\n" +
+                "234\r\n" +
+                "--" + boundary + "\r\n" +
+                "Content-Type: text/plain\r\n" +
+                "Content-Range: bytes 10-11/20\r\n" +
+                "\r\n" +
+                "ab\r\n" +
+                "--" + boundary + "--\r\n", output.toString(US_ASCII));
+        assertEquals(output.size(), byteRanges.getContentLength());
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree.
+ */
+package org.fcrepo.http.commons.responses;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import jakarta.ws.rs.core.StreamingOutput;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FileChannelStreamingOutputTest {
+
+    private static final String CONTENT = "0123456789abcdefghij";
+
+    @TempDir
+    public Path tempDir;
+
+    private Path file;
+
+    private final StreamingOutput unusedFallback = output -> {
+        throw new AssertionError("The fallback must not be written while the file exists");
+    };
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        file = Files.writeString(tempDir.resolve("content"), CONTENT, UTF_8);
+    }
+
+    @Test
+    public void testWriteWholeFile() throws Exception {
+        final var output = new ByteArrayOutputStream();
+        new FileChannelStreamingOutput(file, 0, CONTENT.length(), unusedFallback).write(output);
+        assertEquals(CONTENT, output.toString(UTF_8));
+    }
+
+    @Test
+    public void testWriteRange() throws Exception {
+        final var output = new ByteArrayOutputStream();
+        new FileChannelStreamingOutput(file, 5, 10, unusedFallback).write(output);
+        assertEquals("56789abcde", output.toString(UTF_8));
+    }
+
+    @Test
+    public void testWriteBeyondEndOfFile() {
+        final var output = new ByteArrayOutputStream();
+        assertThrows(EOFException.class,
+                () -> new FileChannelStreamingOutput(file, 10, CONTENT.length(), unusedFallback).write(output));
+    }
+
+    @Test
+    public void testWriteFallbackWhenFileIsGone() throws Exception {
+        Files.delete(file);
+        final var output = new ByteArrayOutputStream();
+        new FileChannelStreamingOutput(file, 0, CONTENT.length(),
+                out -> out.write(CONTENT.getBytes(UTF_8))).write(output);
+        assertEquals(CONTENT, output.toString(UTF_8));
+    }
+}
@@ -6,6 +6,7 @@
 package org.fcrepo.http.commons.responses;
 
 import static java.util.stream.Stream.of;
+import static org.fcrepo.http.commons.responses.RdfStreamStreamingOutput.READ_AHEAD_LIMIT;
 import static com.google.common.util.concurrent.Futures.addCallback;
 import static jakarta.ws.rs.core.MediaType.valueOf;
 import static jakarta.json.Json.createReader;
@@ -19,6 +20,7 @@ import static org.apache.jena.rdf.model.ResourceFactory.createProperty;
 import static org.apache.jena.rdf.model.ResourceFactory.createResource;
 import static org.apache.jena.rdf.model.ResourceFactory.createTypedLiteral;
 import static org.fcrepo.http.commons.domain.RDFMediaType.TURTLE_TYPE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -32,7 +34,11 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import jakarta.json.JsonArray;
@@ -48,6 +54,7 @@ import com.google.common.util.concurrent.MoreExecutors;
 
 import org.apache.jena.graph.NodeFactory;
 import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Statement;
 import org.apache.jena.riot.Lang;
 import org.apache.jena.riot.RDFParser;
 import org.apache.jena.riot.RiotException;
@@ -120,6 +127,46 @@ public class RdfStreamStreamingOutputTest {
         }
     }
 
+    @Test
+    public void testWriteTurtleBeyondPrefixScanLimit() throws IOException {
+        final Map<String, String> namespaces = Map.of("a", "info:", "late", "http://example.org/late#");
+        final Triple lateTriple = create(createURI("info:testSubject"),
+                createURI("http://example.org/late#predicate"), createURI("info:testObject"));
+        final Stream<Triple> triples = Stream.concat(IntStream.range(0, READ_AHEAD_LIMIT + 10)
+                .mapToObj(i -> create(createURI("info:testSubject"), createURI("info:testPredicate"),
+                        createTypedLiteral(i).asNode())), of(lateTriple));
+        try (final RdfStream input = new DefaultRdfStream(triple.getSubject(), triples);
+                final ByteArrayOutputStream output = new ByteArrayOutputStream()) {
+            new RdfStreamStreamingOutput(input, namespaces, TURTLE_TYPE).write(output);
+            final String s = output.toString(StandardCharsets.UTF_8);
+            assertTrue(s.replaceAll("\\s+", " ").contains("PREFIX late: <http://example.org/late#>"));
+
+            final Model result = createDefaultModel();
+            RDFParser.create().fromString(s).lang(Lang.TURTLE).parse(result);
+            assertEquals(READ_AHEAD_LIMIT + 11, result.size());
+            assertTrue(result.contains(result.asStatement(lateTriple)), "Didn't find the last triple!");
+        }
+    }
+
+    @Test
+    public void testWriteTurtleBeforeWholeStreamIsRead() throws IOException {
+        final AtomicInteger bytesWritten = new AtomicInteger(-1);
+        try (final ByteArrayOutputStream output = new ByteArrayOutputStream()) {
+            final Stream<Triple> triples = IntStream.range(0, READ_AHEAD_LIMIT * 3)
+                    .mapToObj(i -> {
+                        if (i == READ_AHEAD_LIMIT * 2) {
+                            bytesWritten.set(output.size());
+                        }
+                        return create(createURI("info:testSubject" + i), createURI("info:testPredicate"),
+                                createTypedLiteral(i).asNode());
+                    });
+            try (final RdfStream input = new DefaultRdfStream(triple.getSubject(), triples)) {
+                new RdfStreamStreamingOutput(input, testNamespaces, TURTLE_TYPE).write(output);
+            }
+        }
+        assertTrue(bytesWritten.get() > 0, "Nothing was written before the whole stream was read");
+    }
+
     @Test
     public void testWriteWithTypedObject() throws IOException {
         assertOutputContainsTriple(create(createURI("info:testSubject"),
@@ -215,6 +262,69 @@ public class RdfStreamStreamingOutputTest {
         jsonLdTest("http://manu.sporny.org/", "compacted.jsonld", "compacted-expected.jsonld", mediaType);
     }
 
+    @Test
+    public void testJsonLdExpandedInterleavedTriples() throws IOException {
+        final var subject1 = createURI("info:subject1");
+        final var subject2 = createURI("info:subject2");
+        final var predicate1 = createURI("info:predicate1");
+        final var predicate2 = createURI("info:predicate2");
+        final var type = createURI("http://www.w3.org/1999/02/22-rdf-syntax-ns#type");
+        final var blank = createResource().asNode();
+        // Subjects and properties come back after others, so they cannot all go in one JSON object when streamed
+        final List<Triple> triples = List.of(create(subject1, predicate1, createURI("info:object1")),
+                create(subject1, type, createURI("info:Type")),
+                create(subject1, predicate1, createLiteralLang("french string", "fr")),
+                create(subject2, predicate2, blank),
+                create(blank, predicate1, createTypedLiteral(0).asNode()),
+                create(subject1, predicate2, NodeFactory.createLiteralString("plain string")));
+
+        // A small response is converted as a whole, so each subject is a single node object
+        final String output = writeJsonLdExpanded(triples.stream());
+        assertJsonLdMatches(triples, output);
+        try (final JsonReader reader = createReader(new ByteArrayInputStream(
+                output.getBytes(StandardCharsets.UTF_8)))) {
+            assertEquals(1, reader.readArray().stream()
+                    .filter(node -> "info:subject1".equals(node.asJsonObject().getString("@id")))
+                    .count());
+        }
+
+        // Past the limit the same triples are written as they are read
+        final List<Triple> manyTriples = Stream.concat(IntStream.range(0, READ_AHEAD_LIMIT)
+                .mapToObj(i -> create(createURI("info:subject" + i), predicate1, createTypedLiteral(i).asNode())),
+                triples.stream()).collect(Collectors.toList());
+        assertJsonLdMatches(manyTriples, writeJsonLdExpanded(manyTriples.stream()));
+    }
+
+    @Test
+    public void testJsonLdExpandedList() throws IOException {
+        final Model model = createDefaultModel();
+        final var subject = model.createResource("info:subject");
+        subject.addProperty(createProperty("info:predicate"), model.createList(
+                model.createLiteral("first"), model.createLiteral("second")));
+
+        final String output = writeJsonLdExpanded(model.listStatements().toList().stream()
+                .map(Statement::asTriple));
+        assertTrue(output.contains("\"@list\""), "RDF list is not folded into @list: " + output);
+    }
+
+    private String writeJsonLdExpanded(final Stream<Triple> triples) throws IOException {
+        final MediaType mediaType = new MediaType("application", "ld+json",
+                Map.of("profile", "http://www.w3.org/ns/json-ld#expanded"));
+        try (final RdfStream input = new DefaultRdfStream(createURI("info:subject1"), triples);
+                final ByteArrayOutputStream output = new ByteArrayOutputStream()) {
+            new RdfStreamStreamingOutput(input, testNamespaces, mediaType).write(output);
+            return output.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void assertJsonLdMatches(final List<Triple> triples, final String output) {
+        final Model expected = createDefaultModel();
+        triples.forEach(t -> expected.add(expected.asStatement(t)));
+        final Model result = createDefaultModel();
+        RDFParser.create().fromString(output).lang(Lang.JSONLD11).parse(result);
+        assertTrue(expected.isIsomorphicWith(result), "Expanded JSON-LD does not match the triples");
+    }
+
     /**
      * Test JSON-LD serialization.
      * @param id The node ID
@@ -19,6 +19,7 @@ import java.io.InputStream;
 import java.lang.reflect.Field;
 import java.net.URI;
 import jakarta.servlet.ServletContext;
+import jakarta.ws.rs.core.MultivaluedHashMap;
 import jakarta.ws.rs.core.UriBuilder;
 import jakarta.ws.rs.core.UriInfo;
 
@@ -57,6 +58,7 @@ public abstract class TestHelpers {
         when(ui.getBaseUri()).thenReturn(create("http://localhost/fcrepo"));
         when(ui.getBaseUriBuilder()).thenAnswer(answer);
         when(ui.getAbsolutePathBuilder()).thenAnswer(answer);
+        when(ui.getQueryParameters()).thenReturn(new MultivaluedHashMap<>());
 
         return ui;
     }
@@ -7,6 +7,10 @@ package org.fcrepo.jms;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import jakarta.inject.Inject;
@@ -20,14 +24,23 @@ import jakarta.jms.Session;
 import com.google.common.eventbus.AllowConcurrentEvents;
 import org.apache.activemq.ActiveMQConnectionFactory;
 import org.fcrepo.kernel.api.observer.Event;
+import org.fcrepo.kernel.api.observer.EventBatch;
 import org.slf4j.Logger;
 
 import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
 /**
  * Machinery to publish JMS messages when an EventBus
  * message is received.
+ * <p>
+ * JMS sessions may only be used by one thread at a time, so every event bus thread publishes through a session and
+ * producer of its own, created the first time it publishes. When the publisher is transacted, the sessions are
+ * transacted, and all the events of an {@link EventBatch} are sent in a single JMS transaction.
  *
  * @author barmintor
  * @author awoods
@@ -46,12 +59,29 @@ public abstract class AbstractJMSPublisher {
 
     private Connection connection;
 
+    /**
+     * Session used to create the destination, it is never used to publish.
+     */
     protected Session jmsSession;
 
-    private MessageProducer producer;
+    private Destination destination;
+
+    private boolean transacted;
+
+    private final ThreadLocal<Channel> threadChannel = new ThreadLocal<>();
+
+    private final Set<Channel> channels = ConcurrentHashMap.newKeySet();
 
     private static final Logger LOGGER = getLogger(AbstractJMSPublisher.class);
 
+    private static final String METRIC_NAME = "fcrepo.jms";
+
+    private static final Timer sendTimer = Metrics.timer(METRIC_NAME + ".send", "batch", "false");
+
+    private static final Timer batchSendTimer = Metrics.timer(METRIC_NAME + ".send", "batch", "true");
+
+    private static final DistributionSummary batchSizeSummary = Metrics.summary(METRIC_NAME + ".batch.size");
+
     protected abstract Destination createDestination() throws JMSException;
 
     /**
@@ -65,12 +95,68 @@ public abstract class AbstractJMSPublisher {
     @AllowConcurrentEvents
     public void publishJCREvent(final Event event) throws JMSException {
         LOGGER.debug("Received an event from the internal bus. {}", event);
-        final Message tm =
-                eventFactory.getMessage(event, jmsSession);
-        LOGGER.trace("Transformed the event to a JMS message.");
-        producer.send(tm);
+        final var sample = Timer.start();
+        send(List.of(event));
+        sample.stop(sendTimer);
+    }
 
-        LOGGER.debug("Put event: {} onto JMS.", tm.getJMSMessageID());
+    /**
+     * When the events of a transaction are received together, push them onto the queue together, in a single JMS
+     * transaction if the publisher is transacted.
+     *
+     * @param batch the events of a fedora transaction
+     * @throws JMSException if JMS exception occurred
+     */
+    @Subscribe
+    @AllowConcurrentEvents
+    public void publishJCREvents(final EventBatch batch) throws JMSException {
+        LOGGER.debug("Received a batch of events from the internal bus. {}", batch);
+        final var sample = Timer.start();
+        send(batch.getEvents());
+        sample.stop(batchSendTimer);
+        batchSizeSummary.record(batch.getEvents().size());
+    }
+
+    private void send(final List<Event> events) throws JMSException {
+        final var channel = getChannel();
+        try {
+            for (final Event event : events) {
+                final Message tm = eventFactory.getMessage(event, channel.session);
+                LOGGER.trace("Transformed the event to a JMS message.");
+                channel.producer.send(tm);
+                LOGGER.debug("Put event: {} onto JMS.", tm.getJMSMessageID());
+            }
+            if (transacted) {
+                channel.session.commit();
+            }
+        } catch (final JMSException | RuntimeException e) {
+            // Discard the session, rolling back anything not committed, the next event gets a new one
+            closeChannel(channel);
+            throw e;
+        }
+    }
+
+    private Channel getChannel() throws JMSException {
+        var channel = threadChannel.get();
+        if (channel == null) {
+            final Session session = connection.createSession(transacted,
+                    transacted ? Session.SESSION_TRANSACTED : Session.AUTO_ACKNOWLEDGE);
+            channel = new Channel(session, session.createProducer(destination));
+            threadChannel.set(channel);
+            channels.add(channel);
+        }
+        return channel;
+    }
+
+    private void closeChannel(final Channel channel) {
+        threadChannel.remove();
+        channels.remove(channel);
+        try {
+            channel.producer.close();
+            channel.session.close();
+        } catch (final JMSException e) {
+            LOGGER.warn("Failed to close JMS session", e);
+        }
     }
 
     /**
@@ -85,7 +171,7 @@ public abstract class AbstractJMSPublisher {
         connection = connectionFactory.createConnection();
         connection.start();
         jmsSession = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
-        producer = jmsSession.createProducer(createDestination());
+        destination = createDestination();
         eventBus.register(this);
     }
 
@@ -98,9 +184,31 @@ public abstract class AbstractJMSPublisher {
     public void releaseConnections() throws JMSException {
         LOGGER.debug("Tearing down: {}", this.getClass().getCanonicalName());
 
-        producer.close();
+        eventBus.unregister(this);
+        channels.forEach(this::closeChannel);
         jmsSession.close();
         connection.close();
-        eventBus.unregister(this);
+    }
+
+    /**
+     * @param transacted whether events are published in JMS transactions, each batch of events in one transaction
+     */
+    public void setTransacted(final boolean transacted) {
+        this.transacted = transacted;
+    }
+
+    /**
+     * A session and the producer publishing through it, used by a single thread.
+     */
+    private static class Channel {
+
+        private final Session session;
+
+        private final MessageProducer producer;
+
+        private Channel(final Session session, final MessageProducer producer) {
+            this.session = session;
+            this.producer = producer;
+        }
     }
 }
@@ -6,14 +6,20 @@
 package org.fcrepo.jms;
 
 import static jakarta.jms.Session.AUTO_ACKNOWLEDGE;
+import static jakarta.jms.Session.SESSION_TRANSACTED;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.util.ReflectionTestUtils.setField;
 
+import java.util.List;
+
 import jakarta.jms.Connection;
 import jakarta.jms.JMSException;
 import jakarta.jms.Message;
@@ -22,6 +28,7 @@ import jakarta.jms.MessageProducer;
 import org.apache.activemq.ActiveMQConnectionFactory;
 
 import org.fcrepo.kernel.api.observer.Event;
+import org.fcrepo.kernel.api.observer.EventBatch;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -58,6 +65,9 @@ abstract class AbstractJMSPublisherTest {
     @Mock
     private jakarta.jms.Session mockJmsSession;
 
+    @Mock
+    private jakarta.jms.Session mockPublishSession;
+
     @Mock
     private Connection mockConn;
 
@@ -65,7 +75,6 @@ abstract class AbstractJMSPublisherTest {
     public void setUp() {
         testJMSPublisher = getPublisher();
         setField(testJMSPublisher, "eventFactory", mockEventFactory);
-        setField(testJMSPublisher, "producer", mockProducer);
         setField(testJMSPublisher, "connectionFactory", mockConnections);
         setField(testJMSPublisher, "eventBus", mockBus);
     }
@@ -81,22 +90,74 @@ abstract class AbstractJMSPublisherTest {
 
     @Test
     public void testPublishJCREvent() throws JMSException {
+        connect(false);
         final Message mockMsg = mock(Message.class);
         final Event mockEvent = mock(Event.class);
-        when(mockEventFactory.getMessage(eq(mockEvent), isNull())).thenReturn(mockMsg);
+        when(mockEventFactory.getMessage(eq(mockEvent), eq(mockPublishSession))).thenReturn(mockMsg);
         testJMSPublisher.publishJCREvent(mockEvent);
-        verify(mockProducer).send(mockMsg);
+        testJMSPublisher.publishJCREvent(mockEvent);
+        verify(mockProducer, times(2)).send(mockMsg);
+        // the publishing thread's session is reused
+        verify(mockConn, times(2)).createSession(false, AUTO_ACKNOWLEDGE);
+    }
+
+    @Test
+    public void testPublishJCREventsInOneTransaction() throws JMSException {
+        connect(true);
+        final Message mockMsg1 = mock(Message.class);
+        final Message mockMsg2 = mock(Message.class);
+        final Event mockEvent1 = mock(Event.class);
+        final Event mockEvent2 = mock(Event.class);
+        when(mockEventFactory.getMessage(eq(mockEvent1), eq(mockPublishSession))).thenReturn(mockMsg1);
+        when(mockEventFactory.getMessage(eq(mockEvent2), eq(mockPublishSession))).thenReturn(mockMsg2);
+        testJMSPublisher.publishJCREvents(new EventBatch("tx", List.of(mockEvent1, mockEvent2)));
+        verify(mockProducer).send(mockMsg1);
+        verify(mockProducer).send(mockMsg2);
+        verify(mockPublishSession).commit();
+    }
+
+    @Test
+    public void testPublishFailureDiscardsSession() throws JMSException {
+        connect(true);
+        final Message mockMsg = mock(Message.class);
+        final Event mockEvent = mock(Event.class);
+        when(mockEventFactory.getMessage(eq(mockEvent), eq(mockPublishSession))).thenReturn(mockMsg);
+        doThrow(new JMSException("failed")).doNothing().when(mockProducer).send(mockMsg);
+        final var batch = new EventBatch("tx", List.of(mockEvent));
+        assertThrows(JMSException.class, () -> testJMSPublisher.publishJCREvents(batch));
+        verify(mockPublishSession, never()).commit();
+        verify(mockPublishSession).close();
+
+        testJMSPublisher.publishJCREvents(batch);
+        verify(mockConn, times(2)).createSession(true, SESSION_TRANSACTED);
+        verify(mockPublishSession).commit();
     }
 
     @Test
     public void testReleaseConnections() throws JMSException  {
-        setField(testJMSPublisher, "connection", mockConn);
-        setField(testJMSPublisher, "jmsSession", mockJmsSession);
+        connect(false);
+        final Event mockEvent = mock(Event.class);
+        when(mockEventFactory.getMessage(eq(mockEvent), eq(mockPublishSession))).thenReturn(mock(Message.class));
+        testJMSPublisher.publishJCREvent(mockEvent);
         testJMSPublisher.releaseConnections();
         verify(mockProducer).close();
+        verify(mockPublishSession).close();
         verify(mockJmsSession).close();
         verify(mockConn).close();
         verify(mockBus).unregister(testJMSPublisher);
     }
 
+    private void connect(final boolean transacted) throws JMSException {
+        testJMSPublisher.setTransacted(transacted);
+        when(mockConnections.createConnection()).thenReturn(mockConn);
+        if (transacted) {
+            when(mockConn.createSession(false, AUTO_ACKNOWLEDGE)).thenReturn(mockJmsSession);
+            when(mockConn.createSession(true, SESSION_TRANSACTED)).thenReturn(mockPublishSession);
+        } else {
+            when(mockConn.createSession(false, AUTO_ACKNOWLEDGE)).thenReturn(mockJmsSession, mockPublishSession);
+        }
+        when(mockPublishSession.createProducer(any())).thenReturn(mockProducer);
+        testJMSPublisher.acquireConnections();
+    }
+
 }
@@ -9,6 +9,8 @@ import org.fcrepo.kernel.api.identifiers.FedoraId;
 import jakarta.annotation.Nonnull;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.Set;
 import java.util.stream.Stream;
 
 /**
@@ -29,6 +31,17 @@ public interface ContainmentIndex {
      */
     Stream<String> getContains(Transaction tx, FedoraId fedoraId);
 
+    /**
+     * Return a stream of fedora identifiers contained by the specified fedora resource for the current state of the
+     * repository, starting after the given identifier in identifier order.
+     *
+     * @param tx The transaction, or null if no transaction
+     * @param fedoraId The ID of the containing fedora resource
+     * @param after The contained identifier to resume after, or null to start from the first
+     * @return A stream of contained identifiers
+     */
+    Stream<String> getContains(Transaction tx, FedoraId fedoraId, String after);
+
     /**
      * Return a stream of fedora identifiers contained by the specified fedora resource that have deleted
      * relationships.
@@ -120,6 +133,17 @@ public interface ContainmentIndex {
      */
     boolean resourceExists(final Transaction tx, final FedoraId fedoraId, final boolean includeDeleted);
 
+    /**
+     * Check which of a set of resources exist in the containment index, resolved together rather than one at a time.
+     *
+     * @param tx The transaction, or null if no transaction
+     * @param fedoraIds The resources' FedoraIds.
+     * @param includeDeleted Include deleted resources in the search.
+     * @return The subset of fedoraIds which are in the index.
+     */
+    Set<FedoraId> resourcesExist(final Transaction tx, final Collection<FedoraId> fedoraIds,
+                                 final boolean includeDeleted);
+
     /**
      * Find the ID for the container of the provided resource by iterating up the path until you find a real resource.
      * @param tx The transaction, or null if no transaction
@@ -177,4 +177,13 @@ public interface Transaction {
      */
     void suppressEvents();
 
+    /**
+     * Registers an action to run once the transaction has been committed or rolled back, and the database
+     * transaction that happened in has completed, such as dropping cached state which readers outside of the
+     * transaction may have filled while it was open.
+     *
+     * @param action the action to run
+     */
+    void afterCompletion(final Runnable action);
+
 }
@@ -8,6 +8,7 @@ package org.fcrepo.kernel.api.cache;
 
 import java.net.URI;
 import java.util.List;
+import java.util.Optional;
 import java.util.function.Supplier;
 
 import org.fcrepo.kernel.api.RdfStream;
@@ -37,6 +38,17 @@ public interface UserTypesCache {
                            final String sessionId,
                            final Supplier<RdfStream> rdfProvider);
 
+    /**
+     * Gets the user RDF types for the specified resource if they are in the session's cache or the global cache,
+     * without loading the resource's RDF if they are not.
+     *
+     * @param resourceId the id of the resource
+     * @param sessionId the id of the current session
+     * @return the resource's user RDF types, or empty if they are not cached
+     */
+    Optional<List<URI>> getCachedUserTypes(final FedoraId resourceId,
+                                           final String sessionId);
+
     /**
      * Extracts the user RDF types from the RDF and caches them in the session level cache.
      *
@@ -6,6 +6,8 @@
 
 package org.fcrepo.kernel.api.lock;
 
+import java.time.Instant;
+
 import org.fcrepo.kernel.api.exception.ConcurrentUpdateException;
 import org.fcrepo.kernel.api.identifiers.FedoraId;
 
@@ -37,6 +39,32 @@ public interface ResourceLockManager {
      */
     void acquireNonExclusive(final String txId, final FedoraId resourceId);
 
+    /**
+     * Acquires an exclusive lock on the resource for a transaction which expires at the given time. Lock managers
+     * whose locks don't expire on their own may ignore the expiry.
+     *
+     * @param txId the transaction id to associate the lock to
+     * @param resourceId the resource to lock
+     * @param expires when the transaction expires, after which the lock may be considered abandoned
+     * @throws ConcurrentUpdateException when lock cannot be acquired
+     */
+    default void acquireExclusive(final String txId, final FedoraId resourceId, final Instant expires) {
+        acquireExclusive(txId, resourceId);
+    }
+
+    /**
+     * Acquires a non-exclusive lock on the resource for a transaction which expires at the given time. Lock managers
+     * whose locks don't expire on their own may ignore the expiry.
+     *
+     * @param txId the transaction id to associate the lock to
+     * @param resourceId the resource to lock
+     * @param expires when the transaction expires, after which the lock may be considered abandoned
+     * @throws ConcurrentUpdateException when lock cannot be acquired
+     */
+    default void acquireNonExclusive(final String txId, final FedoraId resourceId, final Instant expires) {
+        acquireNonExclusive(txId, resourceId);
+    }
+
     /**
      * Releases all of the locks held by the transaction
      *
@@ -44,4 +72,15 @@ public interface ResourceLockManager {
      */
     void releaseAll(final String txId);
 
+    /**
+     * Extends the locks held by the transaction until the time it now expires. Lock managers whose locks don't
+     * expire on their own need not do anything.
+     *
+     * @param txId the transaction id
+     * @param expires when the locks may be considered abandoned if they have not been released or renewed
+     */
+    default void renewAll(final String txId, final Instant expires) {
+        // locks held until released
+    }
+
 }
@@ -7,7 +7,9 @@ package org.fcrepo.kernel.api.models;
 
 import java.io.InputStream;
 import java.net.URI;
+import java.nio.file.Path;
 import java.util.Collection;
+import java.util.Optional;
 
 /**
  * @author cabeer
@@ -27,6 +29,12 @@ public interface Binary extends FedoraResource {
      */
     InputStream getRange(final long start, final long end);
 
+    /**
+     * @return The file holding the content associated with this datastream, if the content can be read directly
+     *         from it, or empty if the content must be read through {@link #getContent()}.
+     */
+    Optional<Path> getContentFile();
+
     /**
      * @return The size in bytes of content associated with this datastream.
      */
@@ -0,0 +1,47 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree.
+ */
+package org.fcrepo.kernel.api.observer;
+
+import java.util.List;
+
+/**
+ * The events of a single transaction, posted to the event bus together in place of the individual events when
+ * event batching is enabled.
+ */
+public class EventBatch {
+
+    private final String transactionId;
+
+    private final List<Event> events;
+
+    /**
+     * @param transactionId the id of the transaction the events were emitted by
+     * @param events the events, in the order they were emitted
+     */
+    public EventBatch(final String transactionId, final List<Event> events) {
+        this.transactionId = transactionId;
+        this.events = List.copyOf(events);
+    }
+
+    /**
+     * @return the id of the transaction the events were emitted by
+     */
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    /**
+     * @return the events of the transaction
+     */
+    public List<Event> getEvents() {
+        return events;
+    }
+
+    @Override
+    public String toString() {
+        return "EventBatch{transactionId='" + transactionId + "', events=" + events.size() + "}";
+    }
+}
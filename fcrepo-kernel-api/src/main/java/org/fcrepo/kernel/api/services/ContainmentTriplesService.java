@@ -28,6 +28,16 @@ public interface ContainmentTriplesService {
      */
     Stream<Triple> get(Transaction tx, FedoraResource resource);
 
+    /**
+     * Retrieve the containment triples, starting after a contained resource in the order of the contained resources.
+     *
+     * @param tx The transaction or null if none.
+     * @param resource The fedora container resource in which children resources are contained.
+     * @param after The id of the contained resource to resume after, or null to start from the first.
+     * @return A stream of containment triples for the resource.
+     */
+    Stream<Triple> get(Transaction tx, FedoraResource resource, String after);
+
     /**
      * Retrieve containment triples which have the provided resource as the object
      *
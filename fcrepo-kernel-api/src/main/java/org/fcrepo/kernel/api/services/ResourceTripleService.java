@@ -29,4 +29,16 @@ public interface ResourceTripleService {
      */
     Stream<Triple> getResourceTriples(final Transaction tx, final FedoraResource resource,
                                       final LdpTriplePreferences preferences, final int limit);
+
+    /**
+     * Return the triples for the resource based on the Prefer: header preferences, with a page of its children
+     * @param tx The transaction or null if none.
+     * @param resource the resource to get triples for.
+     * @param preferences the preferences asked for.
+     * @param limit limit on the number of children to display.
+     * @param after the id of the child to resume after, or null to start from the first child.
+     * @return a stream of triples.
+     */
+    Stream<Triple> getResourceTriples(final Transaction tx, final FedoraResource resource,
+                                      final LdpTriplePreferences preferences, final int limit, final String after);
 }
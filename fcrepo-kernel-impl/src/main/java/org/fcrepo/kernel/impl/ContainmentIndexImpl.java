@@ -11,21 +11,32 @@ import static org.slf4j.LoggerFactory.getLogger;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Queue;
+import java.util.Set;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.inject.Inject;
 import javax.sql.DataSource;
 
@@ -35,6 +46,7 @@ import org.fcrepo.kernel.api.ContainmentIndex;
 import org.fcrepo.kernel.api.Transaction;
 import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
 import org.fcrepo.kernel.api.identifiers.FedoraId;
+import org.fcrepo.kernel.impl.util.DbWriteBuffer;
 
 import org.slf4j.Logger;
 import org.springframework.beans.factory.config.BeanDefinition;
@@ -62,6 +74,11 @@ public class ContainmentIndexImpl implements ContainmentIndex {
 
     private int containsLimit = 50000;
 
+    /*
+     * Maximum number of ids to include in the IN clause of a single batch lookup.
+     */
+    private static final int BATCH_LOOKUP_LIMIT = 1000;
+
     @Inject
     private DataSource dataSource;
 
@@ -73,6 +90,10 @@ public class ContainmentIndexImpl implements ContainmentIndex {
 
     private static final String TRANSACTION_OPERATIONS_TABLE = "containment_transactions";
 
+    private static final String ANCESTORS_TABLE = "containment_ancestors";
+
+    private static final String ANCESTOR_COLUMN = "ancestor";
+
     public static final String FEDORA_ID_COLUMN = "fedora_id";
 
     private static final String PARENT_COLUMN = "parent";
@@ -88,19 +109,20 @@ public class ContainmentIndexImpl implements ContainmentIndex {
     private static final String UPDATED_COLUMN = "updated";
 
     /*
-     * Select children of a resource that are not marked as deleted.
+     * Select children of a resource that are not marked as deleted. Paging is done by seeking past the last
+     * fedora_id returned rather than with an OFFSET, so each page costs the same regardless of its depth.
      */
     private static final String SELECT_CHILDREN = "SELECT " + FEDORA_ID_COLUMN +
             " FROM " + RESOURCES_TABLE + " WHERE " + PARENT_COLUMN + " = :parent AND " + END_TIME_COLUMN + " IS NULL" +
-            " ORDER BY " + FEDORA_ID_COLUMN + " LIMIT :containsLimit OFFSET :offSet";
+            " AND " + FEDORA_ID_COLUMN + " > :lastId ORDER BY " + FEDORA_ID_COLUMN + " LIMIT :containsLimit";
 
     /*
      * Select children of a memento of a resource.
      */
     private static final String SELECT_CHILDREN_OF_MEMENTO = "SELECT " + FEDORA_ID_COLUMN +
             " FROM " + RESOURCES_TABLE + " WHERE " + PARENT_COLUMN + " = :parent AND " + START_TIME_COLUMN +
-            " <= :asOfTime AND (" + END_TIME_COLUMN + " > :asOfTime OR " + END_TIME_COLUMN + " IS NULL) ORDER BY " +
-            FEDORA_ID_COLUMN + " LIMIT :containsLimit OFFSET :offSet";
+            " <= :asOfTime AND (" + END_TIME_COLUMN + " > :asOfTime OR " + END_TIME_COLUMN + " IS NULL) AND " +
+            FEDORA_ID_COLUMN + " > :lastId ORDER BY " + FEDORA_ID_COLUMN + " LIMIT :containsLimit";
 
     /*
      * Select children of a parent from resources table and from the transaction table with an 'add' operation,
@@ -108,22 +130,23 @@ public class ContainmentIndexImpl implements ContainmentIndex {
      */
     private static final String SELECT_CHILDREN_IN_TRANSACTION = "SELECT x." + FEDORA_ID_COLUMN + " FROM" +
             " (SELECT " + FEDORA_ID_COLUMN + " FROM " + RESOURCES_TABLE + " WHERE " + PARENT_COLUMN + " = :parent" +
-            " AND " + END_TIME_COLUMN + " IS NULL " +
+            " AND " + END_TIME_COLUMN + " IS NULL AND " + FEDORA_ID_COLUMN + " > :lastId" +
             " UNION SELECT " + FEDORA_ID_COLUMN + " FROM " + TRANSACTION_OPERATIONS_TABLE +
             " WHERE " + PARENT_COLUMN + " = :parent AND " + TRANSACTION_ID_COLUMN + " = :transactionId" +
-            " AND " + OPERATION_COLUMN + " = 'add') x" +
+            " AND " + OPERATION_COLUMN + " = 'add' AND " + FEDORA_ID_COLUMN + " > :lastId) x" +
             " WHERE NOT EXISTS " +
             " (SELECT 1 FROM " + TRANSACTION_OPERATIONS_TABLE +
             " WHERE " + PARENT_COLUMN + " = :parent AND " + FEDORA_ID_COLUMN + " = x." + FEDORA_ID_COLUMN +
             " AND " + TRANSACTION_ID_COLUMN + " = :transactionId AND " + OPERATION_COLUMN + " IN ('delete', 'purge'))" +
-            " ORDER BY x." + FEDORA_ID_COLUMN + " LIMIT :containsLimit OFFSET :offSet";
+            " ORDER BY x." + FEDORA_ID_COLUMN + " LIMIT :containsLimit";
 
     /*
      * Select all children of a resource that are marked for deletion.
      */
     private static final String SELECT_DELETED_CHILDREN = "SELECT " + FEDORA_ID_COLUMN +
             " FROM " + RESOURCES_TABLE + " WHERE " + PARENT_COLUMN + " = :parent AND " + END_TIME_COLUMN +
-            " IS NOT NULL ORDER BY " + FEDORA_ID_COLUMN + " LIMIT :containsLimit OFFSET :offSet";
+            " IS NOT NULL AND " + FEDORA_ID_COLUMN + " > :lastId ORDER BY " + FEDORA_ID_COLUMN +
+            " LIMIT :containsLimit";
 
     /*
      * Select children of a resource plus children 'delete'd in the non-committed transaction, but excluding any
@@ -131,14 +154,15 @@ public class ContainmentIndexImpl implements ContainmentIndex {
      */
     private static final String SELECT_DELETED_CHILDREN_IN_TRANSACTION = "SELECT x." + FEDORA_ID_COLUMN +
             " FROM (SELECT " + FEDORA_ID_COLUMN + " FROM " + RESOURCES_TABLE +
-            " WHERE " + PARENT_COLUMN + " = :parent AND " + END_TIME_COLUMN + " IS NOT NULL UNION" +
+            " WHERE " + PARENT_COLUMN + " = :parent AND " + END_TIME_COLUMN + " IS NOT NULL AND " +
+            FEDORA_ID_COLUMN + " > :lastId UNION" +
             " SELECT " + FEDORA_ID_COLUMN + " FROM " + TRANSACTION_OPERATIONS_TABLE + " WHERE " +
             PARENT_COLUMN + " = :parent AND " + TRANSACTION_ID_COLUMN + " = :transactionId AND " +
-            OPERATION_COLUMN + " = 'delete') x" +
+            OPERATION_COLUMN + " = 'delete' AND " + FEDORA_ID_COLUMN + " > :lastId) x" +
             " WHERE NOT EXISTS " +
             "(SELECT 1 FROM " + TRANSACTION_OPERATIONS_TABLE + " WHERE " + PARENT_COLUMN + " = :parent AND " +
             FEDORA_ID_COLUMN + " = x." + FEDORA_ID_COLUMN + " AND " + TRANSACTION_ID_COLUMN + " = :transactionId AND " +
-            OPERATION_COLUMN + " = 'add') ORDER BY x." + FEDORA_ID_COLUMN + " LIMIT :containsLimit OFFSET :offSet";
+            OPERATION_COLUMN + " = 'add') ORDER BY x." + FEDORA_ID_COLUMN + " LIMIT :containsLimit";
 
     /*
      * Upsert a parent child relationship to the transaction operation table.
@@ -354,12 +378,49 @@ public class ContainmentIndexImpl implements ContainmentIndex {
             " WHERE " + FEDORA_ID_COLUMN + " = :child AND " + TRANSACTION_ID_COLUMN + " = :transactionId" +
             " AND " + OPERATION_COLUMN + " IN ('delete', 'purge'))";
 
+    /*
+     * Query which of a set of resources exist in the main table and are not deleted.
+     */
+    private static final String RESOURCES_EXIST = "SELECT " + FEDORA_ID_COLUMN + " FROM " + RESOURCES_TABLE +
+            " WHERE " + FEDORA_ID_COLUMN + " IN (:children) AND " + END_TIME_COLUMN + " IS NULL";
+
+    /*
+     * Which of a set of resources exist in the main table or in the transaction operations table with an 'add'
+     * operation and do not also exist with a 'delete' or 'purge' operation.
+     */
+    private static final String RESOURCES_EXIST_IN_TRANSACTION = "SELECT x." + FEDORA_ID_COLUMN + " FROM" +
+            " (SELECT " + FEDORA_ID_COLUMN + " FROM " + RESOURCES_TABLE + " WHERE " + FEDORA_ID_COLUMN +
+            " IN (:children) AND " + END_TIME_COLUMN + " IS NULL UNION SELECT " + FEDORA_ID_COLUMN + " FROM " +
+            TRANSACTION_OPERATIONS_TABLE + " WHERE " + FEDORA_ID_COLUMN + " IN (:children) AND " +
+            TRANSACTION_ID_COLUMN + " = :transactionId AND " + OPERATION_COLUMN + " = 'add') x WHERE NOT EXISTS " +
+            " (SELECT 1 FROM " + TRANSACTION_OPERATIONS_TABLE + " t WHERE t." + FEDORA_ID_COLUMN + " = x." +
+            FEDORA_ID_COLUMN + " AND t." + TRANSACTION_ID_COLUMN + " = :transactionId AND t." + OPERATION_COLUMN +
+            " IN ('delete', 'purge'))";
+
     /*
      * Query if a resource exists in the main table even if it is deleted.
      */
     private static final String RESOURCE_OR_TOMBSTONE_EXISTS = "SELECT " + FEDORA_ID_COLUMN + " FROM " +
             RESOURCES_TABLE + " WHERE " + FEDORA_ID_COLUMN + " = :child";
 
+    /*
+     * Query which of a set of resources exist in the main table even if they are deleted.
+     */
+    private static final String RESOURCES_OR_TOMBSTONES_EXIST = "SELECT " + FEDORA_ID_COLUMN + " FROM " +
+            RESOURCES_TABLE + " WHERE " + FEDORA_ID_COLUMN + " IN (:children)";
+
+    /*
+     * Which of a set of resources exist in the main table even if deleted or in the transaction operations table with
+     * an 'add' operation and do not also exist with a 'delete' or 'purge' operation.
+     */
+    private static final String RESOURCES_OR_TOMBSTONES_EXIST_IN_TRANSACTION = "SELECT x." + FEDORA_ID_COLUMN +
+            " FROM (SELECT " + FEDORA_ID_COLUMN + " FROM " + RESOURCES_TABLE + " WHERE " + FEDORA_ID_COLUMN +
+            " IN (:children) UNION SELECT " + FEDORA_ID_COLUMN + " FROM " + TRANSACTION_OPERATIONS_TABLE +
+            " WHERE " + FEDORA_ID_COLUMN + " IN (:children) AND " + TRANSACTION_ID_COLUMN + " = :transactionId AND " +
+            OPERATION_COLUMN + " = 'add') x WHERE NOT EXISTS (SELECT 1 FROM " + TRANSACTION_OPERATIONS_TABLE +
+            " t WHERE t." + FEDORA_ID_COLUMN + " = x." + FEDORA_ID_COLUMN + " AND t." + TRANSACTION_ID_COLUMN +
+            " = :transactionId AND t." + OPERATION_COLUMN + " IN ('delete', 'purge'))";
+
     /*
      * Resource exists as a record in the main table even if deleted or in the transaction operations table with an
      * 'add' operation and not also exists as a 'delete' operation.
@@ -481,6 +542,13 @@ public class ContainmentIndexImpl implements ContainmentIndex {
             TRANSACTION_OPERATIONS_TABLE + " WHERE " + TRANSACTION_ID_COLUMN + " = :transactionId AND " +
             OPERATION_COLUMN + " = 'delete'";
 
+    /*
+     * Get all resources purged in this transaction
+     */
+    private static final String GET_PURGED_RESOURCES = "SELECT " + FEDORA_ID_COLUMN + " FROM " +
+            TRANSACTION_OPERATIONS_TABLE + " WHERE " + TRANSACTION_ID_COLUMN + " = :transactionId AND " +
+            OPERATION_COLUMN + " = 'purge'";
+
     /*
      * Get all resources added in this transaction
      */
@@ -488,6 +556,48 @@ public class ContainmentIndexImpl implements ContainmentIndex {
             TRANSACTION_OPERATIONS_TABLE + " WHERE " + TRANSACTION_ID_COLUMN + " = :transactionId AND " +
             OPERATION_COLUMN + " = 'add'";
 
+    /*
+     * Any record tracked in the ancestors table is either active or a tombstone, so a single row with this path as
+     * its ancestor means there is a ghost node.
+     */
+    private static final String SELECT_DESCENDANT = "SELECT " + FEDORA_ID_COLUMN + " FROM " + ANCESTORS_TABLE +
+            " WHERE " + ANCESTOR_COLUMN + " = :ancestor LIMIT 1";
+
+    private static final String SELECT_DESCENDANT_IN_TRANSACTION = "SELECT x." + FEDORA_ID_COLUMN + " FROM (SELECT " +
+            FEDORA_ID_COLUMN + " FROM " + ANCESTORS_TABLE + " WHERE " + ANCESTOR_COLUMN + " = :ancestor" +
+            " UNION SELECT " + FEDORA_ID_COLUMN + " FROM " + TRANSACTION_OPERATIONS_TABLE + " WHERE " +
+            FEDORA_ID_COLUMN + " LIKE :resourceId AND " + TRANSACTION_ID_COLUMN + " = :transactionId AND " +
+            OPERATION_COLUMN + " = 'add') x WHERE NOT EXISTS (SELECT 1 FROM " + TRANSACTION_OPERATIONS_TABLE +
+            " WHERE " + FEDORA_ID_COLUMN + " LIKE :resourceId AND " + TRANSACTION_ID_COLUMN + " = :transactionId AND " +
+            OPERATION_COLUMN + " = 'delete') LIMIT 1";
+
+    private static final String INSERT_ANCESTOR = "INSERT INTO " + ANCESTORS_TABLE + " (" + ANCESTOR_COLUMN + ", " +
+            FEDORA_ID_COLUMN + ") VALUES (:ancestor, :child)";
+
+    private static final String DELETE_ANCESTORS = "DELETE FROM " + ANCESTORS_TABLE + " WHERE " + FEDORA_ID_COLUMN +
+            " IN (:children)";
+
+    private static final String SELECT_ANY_ANCESTOR = "SELECT " + ANCESTOR_COLUMN + " FROM " + ANCESTORS_TABLE +
+            " LIMIT 1";
+
+    /*
+     * Row of the ancestors table written once it has been filled for every resource of the main table, so a fill
+     * which was interrupted is started again rather than taken for complete. It never matches a real path.
+     */
+    private static final String ANCESTORS_COMPLETE_MARKER = "fcrepo:containment-ancestors-complete";
+
+    private static final String SELECT_ANCESTORS_COMPLETE = "SELECT " + ANCESTOR_COLUMN + " FROM " +
+            ANCESTORS_TABLE + " WHERE " + ANCESTOR_COLUMN + " = :ancestor LIMIT 1";
+
+    /*
+     * Page through every resource in the main table, used to fill the ancestors table.
+     */
+    private static final String SELECT_ALL_RESOURCES = "SELECT " + FEDORA_ID_COLUMN + " FROM " + RESOURCES_TABLE +
+            " WHERE " + FEDORA_ID_COLUMN + " > :lastId ORDER BY " + FEDORA_ID_COLUMN + " LIMIT :containsLimit";
+
+    private static final String SELECT_EXISTING_RESOURCES = "SELECT " + FEDORA_ID_COLUMN + " FROM " +
+            RESOURCES_TABLE + " WHERE " + FEDORA_ID_COLUMN + " IN (:resourceIds)";
+
     @Inject
     private FedoraPropsConfig fedoraPropsConfig;
 
@@ -495,6 +605,17 @@ public class ContainmentIndexImpl implements ContainmentIndex {
 
     private Cache<String, Boolean> resourceExistsCache;
 
+    private boolean useAncestors;
+
+    /*
+     * Whether the ancestors table holds every resource, until then ghost nodes are found with the LIKE queries.
+     */
+    private volatile boolean ancestorsComplete;
+
+    private ExecutorService ancestorsExecutor;
+
+    private DbWriteBuffer writeBuffer;
+
     /**
      * Connect to the database
      */
@@ -502,6 +623,7 @@ public class ContainmentIndexImpl implements ContainmentIndex {
     private void setup() {
         jdbcTemplate = getNamedParameterJdbcTemplate();
         dbPlatform = DbPlatform.fromDataSource(dataSource);
+        writeBuffer = new DbWriteBuffer(jdbcTemplate, fedoraPropsConfig.getDbWriteBatchSize());
         this.getContainedByCache = Caffeine.newBuilder()
                 .maximumSize(fedoraPropsConfig.getContainmentCacheSize())
                 .expireAfterAccess(fedoraPropsConfig.getContainmentCacheTimeout(), TimeUnit.MINUTES)
@@ -510,6 +632,84 @@ public class ContainmentIndexImpl implements ContainmentIndex {
                 .maximumSize(fedoraPropsConfig.getContainmentCacheSize())
                 .expireAfterAccess(fedoraPropsConfig.getContainmentCacheTimeout(), TimeUnit.MINUTES)
                 .build();
+        ancestorsExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            final var thread = new Thread(runnable, "fcrepo-containment-ancestors");
+            thread.setDaemon(true);
+            return thread;
+        });
+        setupAncestors();
+    }
+
+    /**
+     * Stop filling the ancestors table, it is filled again from the start on the next startup.
+     */
+    @PreDestroy
+    public void shutdown() {
+        ancestorsExecutor.shutdownNow();
+    }
+
+    /**
+     * Fill the ancestors table from the main table in the background if it has been enabled and was not completely
+     * filled before, or empty it if it has been disabled so it is not out of date if enabled again later.
+     * @return completes once the ancestors table is ready
+     */
+    CompletableFuture<Void> setupAncestors() {
+        useAncestors = fedoraPropsConfig.isContainmentAncestorsEnabled();
+        ancestorsComplete = useAncestors && !jdbcTemplate.queryForList(SELECT_ANCESTORS_COMPLETE,
+                Map.of("ancestor", ANCESTORS_COMPLETE_MARKER), String.class).isEmpty();
+        if (useAncestors && !ancestorsComplete) {
+            return CompletableFuture.runAsync(this::populateAncestors, ancestorsExecutor);
+        } else if (!useAncestors && !jdbcTemplate.queryForList(SELECT_ANY_ANCESTOR, Collections.emptyMap(),
+                String.class).isEmpty()) {
+            LOGGER.info("Containment ancestors are disabled, emptying the containment ancestors table");
+            jdbcTemplate.update(TRUNCATE_TABLE + ANCESTORS_TABLE, Collections.emptyMap());
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Fill the ancestors table one page of the main table at a time. Resources committed meanwhile maintain their
+     * own rows, and the rows of each page are replaced rather than added, so a fill which was interrupted, or runs on
+     * another node at the same time, does not leave duplicates or stale rows behind.
+     */
+    private void populateAncestors() {
+        LOGGER.info("Populating the containment ancestors table");
+        final MapSqlParameterSource parameterSource = new MapSqlParameterSource();
+        parameterSource.addValue("containsLimit", containsLimit);
+        String lastId = "";
+        long count = 0;
+        List<String> page;
+        do {
+            if (Thread.currentThread().isInterrupted()) {
+                LOGGER.info("Stopped populating the containment ancestors table after {} resources", count);
+                return;
+            }
+            parameterSource.addValue("lastId", lastId);
+            page = jdbcTemplate.queryForList(SELECT_ALL_RESOURCES, parameterSource, String.class);
+            if (!page.isEmpty()) {
+                replaceAncestors(page);
+                // Drop the rows of resources purged since the page was read
+                final Set<String> existing = new HashSet<>();
+                for (int i = 0; i < page.size(); i += BATCH_LOOKUP_LIMIT) {
+                    existing.addAll(jdbcTemplate.queryForList(SELECT_EXISTING_RESOURCES, Map.of("resourceIds",
+                            page.subList(i, Math.min(i + BATCH_LOOKUP_LIMIT, page.size()))), String.class));
+                }
+                removeAncestors(page.stream().filter(id -> !existing.contains(id)).collect(Collectors.toList()));
+                count += page.size();
+                lastId = page.get(page.size() - 1);
+            }
+        } while (page.size() == containsLimit);
+        markAncestorsComplete();
+        LOGGER.info("Populated the containment ancestors table for {} resources", count);
+    }
+
+    private void markAncestorsComplete() {
+        if (jdbcTemplate.queryForList(SELECT_ANCESTORS_COMPLETE, Map.of("ancestor", ANCESTORS_COMPLETE_MARKER),
+                String.class).isEmpty()) {
+            jdbcTemplate.update(INSERT_ANCESTOR, Map.of("ancestor", ANCESTORS_COMPLETE_MARKER,
+                    "child", ANCESTORS_COMPLETE_MARKER));
+        }
+        ancestorsComplete = true;
     }
 
     private NamedParameterJdbcTemplate getNamedParameterJdbcTemplate() {
@@ -522,12 +722,19 @@ public class ContainmentIndexImpl implements ContainmentIndex {
 
     @Override
     public Stream<String> getContains(@Nonnull final Transaction tx, final FedoraId fedoraId) {
+        return getContains(tx, fedoraId, null);
+    }
+
+    @Override
+    public Stream<String> getContains(@Nonnull final Transaction tx, final FedoraId fedoraId, final String after) {
+        flushOperations(tx);
         final String resourceId = fedoraId.isMemento() ? fedoraId.getBaseId() : fedoraId.getFullId();
         final Instant asOfTime = fedoraId.isMemento() ? fedoraId.getMementoInstant() : null;
         final MapSqlParameterSource parameterSource = new MapSqlParameterSource();
         parameterSource.addValue("parent", resourceId);
 
-        LOGGER.debug("getContains for {} in transaction {} and instant {}", resourceId, tx, asOfTime);
+        LOGGER.debug("getContains for {} in transaction {} and instant {} after {}", resourceId, tx, asOfTime,
+                after);
 
         final String query;
         if (asOfTime == null) {
@@ -544,11 +751,12 @@ public class ContainmentIndexImpl implements ContainmentIndex {
             query = SELECT_CHILDREN_OF_MEMENTO;
         }
 
-        return StreamSupport.stream(new ContainmentIterator(query, parameterSource), false);
+        return StreamSupport.stream(new ContainmentIterator(query, parameterSource, after), false);
     }
 
     @Override
     public Stream<String> getContainsDeleted(@Nonnull final Transaction tx, final FedoraId fedoraId) {
+        flushOperations(tx);
         final String resourceId = fedoraId.getFullId();
         final MapSqlParameterSource parameterSource = new MapSqlParameterSource();
         parameterSource.addValue("parent", resourceId);
@@ -568,6 +776,7 @@ public class ContainmentIndexImpl implements ContainmentIndex {
 
     @Override
     public String getContainedBy(@Nonnull final Transaction tx, final FedoraId resource) {
+        flushOperations(tx);
         final String resourceID = resource.getFullId();
         final String parentID;
         if (tx.isOpenLongRunning()) {
@@ -582,6 +791,74 @@ public class ContainmentIndexImpl implements ContainmentIndex {
         return parentID;
     }
 
+    /**
+     * Run a lookup over a set of ids in chunks small enough for the IN clause of a single query.
+     * @param ids the ids to look up
+     * @param lookup the lookup for a chunk of ids
+     * @param <T> the type of value found for each id
+     * @return the combined results of all the chunks
+     */
+    private <T> Map<String, T> batchLookup(final Set<? extends String> ids,
+                                           final Function<List<String>, Map<String, T>> lookup) {
+        final Map<String, T> results = new HashMap<>();
+        final List<String> idList = new ArrayList<>(ids);
+        for (int i = 0; i < idList.size(); i += BATCH_LOOKUP_LIMIT) {
+            results.putAll(lookup.apply(idList.subList(i, Math.min(i + BATCH_LOOKUP_LIMIT, idList.size()))));
+        }
+        return results;
+    }
+
+    /**
+     * Replace the ancestors table rows for these resources, if it is in use.
+     * @param resourceIds the ids of the resources added to the main table
+     */
+    private void replaceAncestors(final List<String> resourceIds) {
+        if (useAncestors) {
+            removeAncestors(resourceIds);
+            addAncestors(resourceIds);
+        }
+    }
+
+    /**
+     * Remove the ancestors table rows for these resources, if it is in use.
+     * @param resourceIds the ids of the resources removed from the main table
+     */
+    private void removeAncestors(final List<String> resourceIds) {
+        if (useAncestors) {
+            for (int i = 0; i < resourceIds.size(); i += BATCH_LOOKUP_LIMIT) {
+                jdbcTemplate.update(DELETE_ANCESTORS, Map.of("children",
+                        resourceIds.subList(i, Math.min(i + BATCH_LOOKUP_LIMIT, resourceIds.size()))));
+            }
+        }
+    }
+
+    private void addAncestors(final List<String> resourceIds) {
+        final List<MapSqlParameterSource> rows = new ArrayList<>();
+        for (final String resourceId : resourceIds) {
+            for (final String ancestor : getAncestorPaths(resourceId)) {
+                rows.add(new MapSqlParameterSource("ancestor", ancestor).addValue("child", resourceId));
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ANCESTOR, rows.toArray(new MapSqlParameterSource[0]));
+        }
+    }
+
+    /**
+     * Get every path below the repository root which is a prefix of this id.
+     * @param resourceId the full id of the resource
+     * @return the ancestor paths, ie. info:fedora/a and info:fedora/a/b for info:fedora/a/b/c
+     */
+    static List<String> getAncestorPaths(final String resourceId) {
+        final List<String> ancestors = new ArrayList<>();
+        int slash = resourceId.indexOf('/', FEDORA_ID_PREFIX.length() + 1);
+        while (slash > 0) {
+            ancestors.add(resourceId.substring(0, slash));
+            slash = resourceId.indexOf('/', slash + 1);
+        }
+        return ancestors;
+    }
+
     @Override
     public void addContainedBy(@Nonnull final Transaction tx, final FedoraId parent, final FedoraId child) {
         addContainedBy(tx, parent, child, Instant.now(), null);
@@ -621,6 +898,7 @@ public class ContainmentIndexImpl implements ContainmentIndex {
             final String childID = child.getFullId();
 
             if (!tx.isShortLived()) {
+                flushOperations(tx);
                 final MapSqlParameterSource parameterSource = new MapSqlParameterSource();
                 parameterSource.addValue("parent", parentID);
                 parameterSource.addValue("child", childID);
@@ -645,6 +923,7 @@ public class ContainmentIndexImpl implements ContainmentIndex {
             final String resourceID = resource.getFullId();
 
             if (!tx.isShortLived()) {
+                flushOperations(tx);
                 final MapSqlParameterSource parameterSource = new MapSqlParameterSource();
                 parameterSource.addValue("child", resourceID);
                 parameterSource.addValue("transactionId", tx.getId());
@@ -689,6 +968,7 @@ public class ContainmentIndexImpl implements ContainmentIndex {
                     final MapSqlParameterSource parameterSource = new MapSqlParameterSource();
                     parameterSource.addValue("child", resourceID);
                     jdbcTemplate.update(DIRECT_PURGE, parameterSource);
+                    removeAncestors(List.of(resourceID));
                 }
             }
         });
@@ -716,7 +996,17 @@ public class ContainmentIndexImpl implements ContainmentIndex {
         }
         parameterSource.addValue("endTime", formatInstant(endTime));
         parameterSource.addValue("operation", operation);
-        jdbcTemplate.update(UPSERT_MAPPING.get(dbPlatform), parameterSource);
+        writeBuffer.add(tx.getId(), UPSERT_MAPPING.get(dbPlatform), parameterSource);
+    }
+
+    /**
+     * Write any buffered operations for the transaction, so they are seen by the queries which follow.
+     * @param tx the transaction
+     */
+    private void flushOperations(final Transaction tx) {
+        if (!tx.isShortLived()) {
+            writeBuffer.flush(tx.getId());
+        }
     }
 
     /**
@@ -746,6 +1036,9 @@ public class ContainmentIndexImpl implements ContainmentIndex {
         }
 
         jdbcTemplate.update(query, parameterSource);
+        if (startTime != null) {
+            replaceAncestors(List.of(resourceId));
+        }
         updateParentTimestamp(parentId, startTime, endTime);
         resourceExistsCache.invalidate(resourceId);
     }
@@ -763,6 +1056,7 @@ public class ContainmentIndexImpl implements ContainmentIndex {
         if (!tx.isShortLived()) {
             tx.ensureCommitting();
             try {
+                writeBuffer.flush(tx.getId());
                 final MapSqlParameterSource parameterSource = new MapSqlParameterSource();
                 parameterSource.addValue("transactionId", tx.getId());
                 final List<String> changedParents = jdbcTemplate.queryForList(GET_UPDATED_RESOURCES, parameterSource,
@@ -771,9 +1065,13 @@ public class ContainmentIndexImpl implements ContainmentIndex {
                         String.class);
                 final List<String> addedResources = jdbcTemplate.queryForList(GET_ADDED_RESOURCES, parameterSource,
                         String.class);
+                final List<String> purgedResources = useAncestors ? jdbcTemplate.queryForList(GET_PURGED_RESOURCES,
+                        parameterSource, String.class) : List.of();
                 final int purged = jdbcTemplate.update(COMMIT_PURGE_RECORDS_MAP.get(dbPlatform), parameterSource);
                 final int deleted = jdbcTemplate.update(COMMIT_DELETE_RECORDS.get(dbPlatform), parameterSource);
                 final int added = jdbcTemplate.update(COMMIT_ADD_RECORDS_MAP.get(dbPlatform), parameterSource);
+                removeAncestors(purgedResources);
+                replaceAncestors(addedResources);
                 for (final var parent : changedParents) {
                     final var updated = jdbcTemplate.queryForObject(SELECT_LAST_UPDATED_IN_TX,
                             Map.of("resourceId", parent, "transactionId", tx.getId()), Timestamp.class);
@@ -800,6 +1098,7 @@ public class ContainmentIndexImpl implements ContainmentIndex {
     @Override
     public void rollbackTransaction(final Transaction tx) {
         if (!tx.isShortLived()) {
+            writeBuffer.discard(tx.getId());
             final MapSqlParameterSource parameterSource = new MapSqlParameterSource();
             parameterSource.addValue("transactionId", tx.getId());
             jdbcTemplate.update(DELETE_ENTIRE_TRANSACTION, parameterSource);
@@ -808,12 +1107,14 @@ public class ContainmentIndexImpl implements ContainmentIndex {
 
     @Override
     public void clearAllTransactions() {
+        writeBuffer.discardAll();
         jdbcTemplate.update(TRUNCATE_TABLE + TRANSACTION_OPERATIONS_TABLE, Collections.emptyMap());
     }
 
     @Override
     public boolean resourceExists(@Nonnull final Transaction tx, final FedoraId fedoraId,
                                   final boolean includeDeleted) {
+        flushOperations(tx);
         // Get the containing ID because fcr:metadata will not exist here but MUST exist if the containing resource does
         final String resourceId = fedoraId.getBaseId();
         LOGGER.debug("Checking if {} exists in transaction {}", resourceId, tx);
@@ -841,6 +1142,58 @@ public class ContainmentIndexImpl implements ContainmentIndex {
         }
     }
 
+    @Override
+    public Set<FedoraId> resourcesExist(@Nonnull final Transaction tx, final Collection<FedoraId> fedoraIds,
+                                        final boolean includeDeleted) {
+        flushOperations(tx);
+        // Get the containing ID because fcr:metadata will not exist here but MUST exist if the containing resource does
+        final Set<String> resourceIds = fedoraIds.stream()
+                .filter(id -> !id.isRepositoryRoot())
+                .map(FedoraId::getBaseId)
+                .collect(Collectors.toSet());
+        LOGGER.debug("Checking if {} resources exist in transaction {}", resourceIds.size(), tx);
+        final Set<String> existing = new HashSet<>();
+        if (tx.isOpenLongRunning()) {
+            final var queryToUse = includeDeleted ? RESOURCES_OR_TOMBSTONES_EXIST_IN_TRANSACTION :
+                    RESOURCES_EXIST_IN_TRANSACTION;
+            existing.addAll(batchLookup(resourceIds, ids -> toPresenceMap(jdbcTemplate.queryForList(queryToUse,
+                    Map.of("children", ids, "transactionId", tx.getId()), String.class))).keySet());
+        } else if (includeDeleted) {
+            // Only trust true values from the cache, false values might change once deleted resources are included.
+            final Set<String> unknown = new HashSet<>();
+            for (final String resourceId : resourceIds) {
+                if (Boolean.TRUE.equals(resourceExistsCache.getIfPresent(resourceId))) {
+                    existing.add(resourceId);
+                } else {
+                    unknown.add(resourceId);
+                }
+            }
+            existing.addAll(batchLookup(unknown, ids -> toPresenceMap(jdbcTemplate.queryForList(
+                    RESOURCES_OR_TOMBSTONES_EXIST, Map.of("children", ids), String.class))).keySet());
+        } else {
+            resourceExistsCache.getAll(resourceIds, missing -> {
+                final Map<String, Boolean> found = batchLookup(missing, ids -> toPresenceMap(
+                        jdbcTemplate.queryForList(RESOURCES_EXIST, Map.of("children", ids), String.class)));
+                // Cache the resources which do not exist as well, same as resourceExists
+                missing.forEach(id -> found.putIfAbsent(id, false));
+                return found;
+            }).forEach((id, exists) -> {
+                if (exists) {
+                    existing.add(id);
+                }
+            });
+        }
+        return fedoraIds.stream()
+                .filter(id -> id.isRepositoryRoot() || existing.contains(id.getBaseId()))
+                .collect(Collectors.toSet());
+    }
+
+    private static Map<String, Boolean> toPresenceMap(final List<String> ids) {
+        final Map<String, Boolean> found = new HashMap<>();
+        ids.forEach(id -> found.put(id, true));
+        return found;
+    }
+
     @Override
     public FedoraId getContainerIdByPath(final Transaction tx, final FedoraId fedoraId, final boolean checkDeleted) {
         if (fedoraId.isRepositoryRoot()) {
@@ -851,25 +1204,34 @@ public class ContainmentIndexImpl implements ContainmentIndex {
         if (parent != null) {
             return FedoraId.create(parent);
         }
+        // Check all the ancestor paths at once, then pick the closest one which exists.
+        final List<FedoraId> ancestors = new ArrayList<>();
         String fullId = fedoraId.getFullId();
         while (fullId.contains("/")) {
             fullId = fedoraId.getResourceId().substring(0, fullId.lastIndexOf("/"));
             if (fullId.equals(FEDORA_ID_PREFIX)) {
-                return FedoraId.getRepositoryRootId();
-            }
-            final FedoraId testID = FedoraId.create(fullId);
-            if (resourceExists(tx, testID, checkDeleted)) {
-                return testID;
+                break;
             }
+            ancestors.add(FedoraId.create(fullId));
         }
-        return FedoraId.getRepositoryRootId();
+        final Set<FedoraId> existing = resourcesExist(tx, ancestors, checkDeleted);
+        return ancestors.stream()
+                .filter(existing::contains)
+                .findFirst()
+                .orElse(FedoraId.getRepositoryRootId());
     }
 
     @Override
     public void reset() {
         try {
+            writeBuffer.discardAll();
             jdbcTemplate.update(TRUNCATE_TABLE + RESOURCES_TABLE, Collections.emptyMap());
             jdbcTemplate.update(TRUNCATE_TABLE + TRANSACTION_OPERATIONS_TABLE, Collections.emptyMap());
+            jdbcTemplate.update(TRUNCATE_TABLE + ANCESTORS_TABLE, Collections.emptyMap());
+            if (useAncestors) {
+                // The main table is empty, so the ancestors table is complete
+                markAncestorsComplete();
+            }
             this.getContainedByCache.invalidateAll();
         } catch (final Exception e) {
             throw new RepositoryRuntimeException("Failed to truncate containment tables", e);
@@ -878,6 +1240,7 @@ public class ContainmentIndexImpl implements ContainmentIndex {
 
     @Override
     public boolean hasResourcesStartingWith(final Transaction tx, final FedoraId fedoraId) {
+        flushOperations(tx);
         final MapSqlParameterSource parameterSource = new MapSqlParameterSource();
         String resourceId = fedoraId.getFullId();
         if (resourceId.contains("_")) {
@@ -888,7 +1251,17 @@ public class ContainmentIndexImpl implements ContainmentIndex {
         }
         parameterSource.addValue("resourceId", resourceId + "/%");
         final boolean matchingIds;
-        if (tx.isOpenLongRunning()) {
+        if (useAncestors && ancestorsComplete && !fedoraId.isRepositoryRoot()) {
+            parameterSource.addValue("ancestor", fedoraId.getFullId());
+            if (tx.isOpenLongRunning()) {
+                parameterSource.addValue("transactionId", tx.getId());
+                matchingIds = !jdbcTemplate.queryForList(SELECT_DESCENDANT_IN_TRANSACTION, parameterSource,
+                        String.class).isEmpty();
+            } else {
+                matchingIds = !jdbcTemplate.queryForList(SELECT_DESCENDANT, parameterSource, String.class)
+                        .isEmpty();
+            }
+        } else if (tx.isOpenLongRunning()) {
             parameterSource.addValue("transactionId", tx.getId());
             matchingIds = !jdbcTemplate.queryForList(SELECT_ID_LIKE_IN_TRANSACTION, parameterSource, String.class)
                 .isEmpty();
@@ -900,6 +1273,7 @@ public class ContainmentIndexImpl implements ContainmentIndex {
 
     @Override
     public Instant containmentLastUpdated(final Transaction tx, final FedoraId fedoraId) {
+        flushOperations(tx);
         final MapSqlParameterSource parameterSource = new MapSqlParameterSource();
         parameterSource.addValue("resourceId", fedoraId.getFullId());
         final String queryToUse;
@@ -966,19 +1340,30 @@ public class ContainmentIndexImpl implements ContainmentIndex {
     /**
      * Private class to back a stream with a paged DB query.
      *
+     * Pages are retrieved by keyset, each query resumes after the last fedora_id of the previous page, the first
+     * after the fedora_id it was started from. This relies on the queries being ordered by fedora_id, which is
+     * unique within each result set.
+     *
      * If this needs to be run in parallel we will have to override trySplit() and determine a good method to split on.
      */
     private class ContainmentIterator extends Spliterators.AbstractSpliterator<String> {
         final Queue<String> children = new ConcurrentLinkedQueue<>();
-        int numOffsets = 0;
+        String lastId;
+        boolean exhausted = false;
         final String queryToUse;
         final MapSqlParameterSource parameterSource;
 
         public ContainmentIterator(final String query, final MapSqlParameterSource parameters) {
+            this(query, parameters, null);
+        }
+
+        public ContainmentIterator(final String query, final MapSqlParameterSource parameters, final String after) {
             super(Long.MAX_VALUE, Spliterator.ORDERED);
             queryToUse = query;
             parameterSource = parameters;
             parameterSource.addValue("containsLimit", containsLimit);
+            // All fedora ids sort after the empty string, so without one to resume after it starts from the beginning.
+            lastId = after == null ? "" : after;
         }
 
         @Override
@@ -986,13 +1371,20 @@ public class ContainmentIndexImpl implements ContainmentIndex {
             try {
                 action.accept(children.remove());
             } catch (final NoSuchElementException e) {
-                parameterSource.addValue("offSet", numOffsets * containsLimit);
-                numOffsets += 1;
-                children.addAll(jdbcTemplate.queryForList(queryToUse, parameterSource, String.class));
-                if (children.size() == 0) {
+                if (exhausted) {
+                    return false;
+                }
+                parameterSource.addValue("lastId", lastId);
+                final List<String> page = jdbcTemplate.queryForList(queryToUse, parameterSource, String.class);
+                if (page.isEmpty()) {
                     // no more elements.
+                    exhausted = true;
                     return false;
                 }
+                // A short page is the last page, no need to ask the database again.
+                exhausted = page.size() < containsLimit;
+                lastId = page.get(page.size() - 1);
+                children.addAll(page);
                 action.accept(children.remove());
             }
             return true;
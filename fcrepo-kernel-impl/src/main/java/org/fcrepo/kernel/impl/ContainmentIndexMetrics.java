@@ -19,6 +19,8 @@ import org.springframework.context.annotation.Role;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.Set;
 import java.util.stream.Stream;
 
 /**
@@ -55,6 +57,8 @@ public class ContainmentIndexMetrics implements ContainmentIndex {
             DB, CONTAINMENT, OPERATION, "rollbackTransaction");
     private static final Timer resourceExistsTimer = Metrics.timer(METRIC_NAME,
             DB, CONTAINMENT, OPERATION, "resourceExists");
+    private static final Timer resourcesExistTimer = Metrics.timer(METRIC_NAME,
+            DB, CONTAINMENT, OPERATION, "resourcesExist");
     private static final Timer getContainerIdByPathTimer = Metrics.timer(METRIC_NAME,
             DB, CONTAINMENT, OPERATION, "getContainerIdByPath");
     private static final Timer resetTimer = Metrics.timer(METRIC_NAME,
@@ -77,6 +81,13 @@ public class ContainmentIndexMetrics implements ContainmentIndex {
         });
     }
 
+    @Override
+    public Stream<String> getContains(final Transaction tx, final FedoraId fedoraId, final String after) {
+        return MetricsHelper.time(getContainsTimer, () -> {
+            return containmentIndexImpl.getContains(tx, fedoraId, after);
+        });
+    }
+
     @Override
     public Stream<String> getContainsDeleted(final Transaction tx, final FedoraId fedoraId) {
         return MetricsHelper.time(getContainsDeletedTimer, () -> {
@@ -153,6 +164,13 @@ public class ContainmentIndexMetrics implements ContainmentIndex {
         });
     }
 
+    @Override
+    public Set<FedoraId> resourcesExist(final Transaction tx, final Collection<FedoraId> fedoraIds,
+                                        final boolean includeDeleted) {
+        return MetricsHelper.time(resourcesExistTimer, () ->
+                containmentIndexImpl.resourcesExist(tx, fedoraIds, includeDeleted));
+    }
+
     @Override
     public FedoraId getContainerIdByPath(final Transaction tx, final FedoraId fedoraId, final boolean checkDeleted) {
         return MetricsHelper.time(getContainerIdByPathTimer, () -> {
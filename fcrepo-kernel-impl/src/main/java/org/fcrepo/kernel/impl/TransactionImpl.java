@@ -11,6 +11,7 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Phaser;
 
 import org.fcrepo.common.db.DbTransactionExecutor;
@@ -32,6 +33,8 @@ import org.fcrepo.search.api.SearchIndex;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * The Fedora Transaction implementation
@@ -64,6 +67,8 @@ public class TransactionImpl implements Transaction {
 
     private boolean suppressEvents = false;
 
+    private final List<Runnable> completionActions = new CopyOnWriteArrayList<>();
+
     protected TransactionImpl(final String id,
                               final TransactionManagerImpl txManager,
                               final Duration sessionTimeout) {
@@ -109,6 +114,7 @@ public class TransactionImpl implements Transaction {
                 this.getEventAccumulator().clearEvents(this);
             }
 
+            runCompletionActions();
             releaseLocks();
             log.debug("Committed transaction {}", id);
         } catch (final Exception ex) {
@@ -167,6 +173,7 @@ public class TransactionImpl implements Transaction {
 
         updateState(TransactionState.ROLLEDBACK);
 
+        runCompletionActions();
         releaseLocks();
     }
 
@@ -260,6 +267,7 @@ public class TransactionImpl implements Transaction {
         failIfCommitted();
         failIfNotOpen();
         this.expiration = Instant.now().plus(amountToAdd);
+        getResourceLockManger().renewAll(getId(), this.expiration);
         return this.expiration;
     }
 
@@ -282,12 +290,12 @@ public class TransactionImpl implements Transaction {
 
     @Override
     public void lockResource(final FedoraId resourceId) {
-        getResourceLockManger().acquireExclusive(getId(), resourceId);
+        getResourceLockManger().acquireExclusive(getId(), resourceId, getExpires());
     }
 
     @Override
     public void lockResourceNonExclusive(final FedoraId resourceId) {
-        getResourceLockManger().acquireNonExclusive(getId(), resourceId);
+        getResourceLockManger().acquireNonExclusive(getId(), resourceId, getExpires());
     }
 
     /**
@@ -298,7 +306,7 @@ public class TransactionImpl implements Transaction {
      */
     @Override
     public void lockResourceAndGhostNodes(final FedoraId resourceId) {
-        getResourceLockManger().acquireExclusive(getId(), resourceId);
+        getResourceLockManger().acquireExclusive(getId(), resourceId, getExpires());
         final var resourceIdStr = resourceId.getResourceId();
         final String estimateParentPath = resourceIdStr.indexOf('/') > -1 ?
                 resourceIdStr.substring(0,resourceIdStr.lastIndexOf('/')) : resourceIdStr;
@@ -312,7 +320,7 @@ public class TransactionImpl implements Transaction {
             FedoraId tempParent = actualParent;
             for (final String part : ghostPaths) {
                 tempParent = tempParent.resolve(part);
-                getResourceLockManger().acquireExclusive(getId(), tempParent);
+                getResourceLockManger().acquireExclusive(getId(), tempParent, getExpires());
             }
         }
     }
@@ -339,6 +347,19 @@ public class TransactionImpl implements Transaction {
         this.suppressEvents = true;
     }
 
+    @Override
+    public void afterCompletion(final Runnable action) {
+        completionActions.add(action);
+    }
+
+    private void runCompletionActions() {
+        final var actions = List.copyOf(completionActions);
+        completionActions.clear();
+        afterDbTransaction(() -> actions.forEach(action -> {
+            execQuietly("Failed to run completion action of transaction " + id, action::run);
+        }));
+    }
+
     private void doCommitShortLived() {
         // short-lived txs do not write to tx tables and do not need to commit db indexes.
         this.getPersistentSession().prepare();
@@ -395,12 +416,35 @@ public class TransactionImpl implements Transaction {
         }
     }
 
+    /**
+     * Release the resource locks of the transaction. When called within a database transaction, the locks are held
+     * until it completes, so the next transaction to lock one of the resources reads the committed changes.
+     */
     private void releaseLocks() {
-        execQuietly("Failed to release resource locks cleanly. You may need to restart Fedora.", () -> {
-            getResourceLockManger().releaseAll(getId());
+        afterDbTransaction(() -> {
+            execQuietly("Failed to release resource locks cleanly. You may need to restart Fedora.", () -> {
+                getResourceLockManger().releaseAll(getId());
+            });
         });
     }
 
+    /**
+     * Run an action once the database transaction the caller is in has completed, or straight away if it is not
+     * in one.
+     */
+    private static void afterDbTransaction(final Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(final int status) {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
     /**
      * Executes the closure, capturing all exceptions, and logging them as errors.
      *
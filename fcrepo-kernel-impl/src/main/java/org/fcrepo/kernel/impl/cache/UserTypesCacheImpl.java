@@ -12,6 +12,7 @@ import static org.apache.jena.vocabulary.RDF.type;
 import java.net.URI;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
@@ -72,6 +73,22 @@ public class UserTypesCacheImpl implements UserTypesCache {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<List<URI>> getCachedUserTypes(final FedoraId resourceId,
+                                                  final String sessionId) {
+        if (isNotReadOnlySession(sessionId)) {
+            final var sessionCache = sessionCaches.get(sessionId);
+            final var userTypes = sessionCache == null ? null : sessionCache.getIfPresent(resourceId);
+            if (userTypes != null) {
+                return Optional.of(userTypes);
+            }
+        }
+        return Optional.ofNullable(globalCache.getIfPresent(resourceId));
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,281 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree.
+ */
+package org.fcrepo.kernel.impl.lock;
+
+import static org.fcrepo.kernel.api.lock.ResourceLockType.EXCLUSIVE;
+import static org.fcrepo.kernel.api.lock.ResourceLockType.NONEXCLUSIVE;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import javax.sql.DataSource;
+
+import org.fcrepo.config.ConditionOnPropertyTrue;
+import org.fcrepo.config.FedoraPropsConfig;
+import org.fcrepo.kernel.api.exception.ConcurrentUpdateException;
+import org.fcrepo.kernel.api.identifiers.FedoraId;
+import org.fcrepo.kernel.api.lock.ResourceLockManager;
+import org.fcrepo.kernel.api.lock.ResourceLockType;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Role;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Resource lock manager which holds the locks in the database, so that all the nodes of a repository using the same
+ * database see each other's locks. It is used instead of the {@link InMemoryResourceLockManager} when
+ * fcrepo.db.resource.locks.enabled is true.
+ * <p>
+ * A lock is acquired by first committing a row for it, and then checking for rows of other transactions which
+ * conflict with it. If there are any, the row is removed again and the lock is refused. As every transaction commits
+ * its row before it checks, of two transactions asking for conflicting locks at the same time at least one sees the
+ * other, so they can't both succeed, but they may both be refused.
+ * <p>
+ * Locks are mostly acquired by requests which already hold a connection for their database transaction, and their
+ * rows must be committed regardless of it. They are therefore written through a small pool of connections of their
+ * own, sized by fcrepo.db.resource.locks.pool.size, with each statement committed as it runs. Taking them from the
+ * main pool instead would let requests holding all of its connections wait on each other for one more.
+ * <p>
+ * Every lock expires along with the transaction holding it, which gives its expiry when it acquires a lock and
+ * renews its locks whenever it is renewed itself. The locks of a node which stopped without releasing them are
+ * ignored, and removed, once they have expired.
+ */
+@Component
+@Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+@Conditional(DbResourceLockManager.DbResourceLocksEnabled.class)
+public class DbResourceLockManager implements ResourceLockManager {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DbResourceLockManager.class);
+
+    static class DbResourceLocksEnabled extends ConditionOnPropertyTrue {
+        DbResourceLocksEnabled() {
+            super(FedoraPropsConfig.FCREPO_DB_RESOURCE_LOCKS_ENABLED, false);
+        }
+    }
+
+    private static final String LOCKS_TABLE = "resource_locks";
+
+    private static final String FEDORA_ID_PARAM = "fedoraId";
+    private static final String TRANSACTION_ID_PARAM = "transactionId";
+    private static final String EXCLUSIVE_PARAM = "exclusive";
+    private static final String EXPIRES_PARAM = "expires";
+    private static final String NOW_PARAM = "now";
+
+    private static final String DELETE_EXPIRED = "DELETE FROM " + LOCKS_TABLE + " WHERE fedora_id = :" +
+            FEDORA_ID_PARAM + " AND expires < :" + NOW_PARAM;
+
+    private static final String INSERT_LOCK = "INSERT INTO " + LOCKS_TABLE +
+            " (fedora_id, transaction_id, exclusive_lock, expires) VALUES (:" + FEDORA_ID_PARAM + ", :" +
+            TRANSACTION_ID_PARAM + ", :" + EXCLUSIVE_PARAM + ", :" + EXPIRES_PARAM + ")";
+
+    private static final String UPDATE_LOCK_TYPE = "UPDATE " + LOCKS_TABLE + " SET exclusive_lock = :" +
+            EXCLUSIVE_PARAM + " WHERE fedora_id = :" + FEDORA_ID_PARAM + " AND transaction_id = :" +
+            TRANSACTION_ID_PARAM;
+
+    private static final String DELETE_LOCK = "DELETE FROM " + LOCKS_TABLE + " WHERE fedora_id = :" +
+            FEDORA_ID_PARAM + " AND transaction_id = :" + TRANSACTION_ID_PARAM;
+
+    private static final String SELECT_CONFLICTING = "SELECT transaction_id FROM " + LOCKS_TABLE +
+            " WHERE fedora_id = :" + FEDORA_ID_PARAM + " AND transaction_id <> :" + TRANSACTION_ID_PARAM +
+            " AND expires >= :" + NOW_PARAM;
+
+    private static final String AND_EXCLUSIVE = " AND exclusive_lock = :" + EXCLUSIVE_PARAM;
+
+    private static final String RENEW_LOCKS = "UPDATE " + LOCKS_TABLE + " SET expires = :" + EXPIRES_PARAM +
+            " WHERE transaction_id = :" + TRANSACTION_ID_PARAM;
+
+    private static final String RELEASE_LOCKS = "DELETE FROM " + LOCKS_TABLE + " WHERE transaction_id = :" +
+            TRANSACTION_ID_PARAM;
+
+    @Inject
+    private DataSource dataSource;
+
+    @Inject
+    private FedoraPropsConfig fedoraPropsConfig;
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * The connections the locks are written with, outside of any database transaction of the caller.
+     */
+    private DataSource lockDataSource;
+
+    /**
+     * The locks held by the transactions of this node, so a transaction can check for a lock it already holds
+     * without querying the database.
+     */
+    private final Map<String, TransactionLocks> transactionLocks = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void setup() {
+        lockDataSource = createLockDataSource();
+        jdbcTemplate = new NamedParameterJdbcTemplate(lockDataSource);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (lockDataSource instanceof HikariDataSource) {
+            ((HikariDataSource) lockDataSource).close();
+        }
+    }
+
+    /**
+     * Create a pool for the locks configured like the main pool. Any other data source is only wrapped, so that
+     * statements run on it do not join the database transaction of the caller.
+     */
+    private DataSource createLockDataSource() {
+        if (dataSource instanceof HikariDataSource) {
+            final var config = new HikariConfig();
+            ((HikariDataSource) dataSource).copyStateTo(config);
+            config.setPoolName("fcrepo-resource-locks");
+            config.setMaximumPoolSize(Math.max(1, fedoraPropsConfig.getDbResourceLocksPoolSize()));
+            config.setMinimumIdle(1);
+            config.setAutoCommit(true);
+            return new HikariDataSource(config);
+        }
+        return new DelegatingDataSource(dataSource);
+    }
+
+    @Override
+    public void acquireExclusive(final String txId, final FedoraId resourceId) {
+        acquireInternal(txId, resourceId, EXCLUSIVE, null);
+    }
+
+    @Override
+    public void acquireNonExclusive(final String txId, final FedoraId resourceId) {
+        acquireInternal(txId, resourceId, NONEXCLUSIVE, null);
+    }
+
+    @Override
+    public void acquireExclusive(final String txId, final FedoraId resourceId, final Instant expires) {
+        acquireInternal(txId, resourceId, EXCLUSIVE, expires);
+    }
+
+    @Override
+    public void acquireNonExclusive(final String txId, final FedoraId resourceId, final Instant expires) {
+        acquireInternal(txId, resourceId, NONEXCLUSIVE, expires);
+    }
+
+    private void acquireInternal(final String txId, final FedoraId resourceId, final ResourceLockType lockType,
+                                 final Instant expires) {
+        final var txLocks = transactionLocks.computeIfAbsent(txId, k -> new TransactionLocks());
+        // the locks of one transaction are acquired one at a time, so its rows are never changed concurrently
+        synchronized (txLocks) {
+            if (expires != null) {
+                txLocks.expires = expires;
+            }
+            final var held = txLocks.locks.get(resourceId);
+            if (held == EXCLUSIVE || held == lockType) {
+                LOG.debug("Transaction {} already holds lock on resource {}", txId, resourceId);
+                return;
+            }
+
+            final var now = Instant.now();
+            final var params = new MapSqlParameterSource()
+                    .addValue(FEDORA_ID_PARAM, resourceId.getResourceId())
+                    .addValue(TRANSACTION_ID_PARAM, txId)
+                    .addValue(EXCLUSIVE_PARAM, lockType == EXCLUSIVE)
+                    .addValue(EXPIRES_PARAM, Timestamp.from(txLocks.expires(now, fedoraPropsConfig)))
+                    .addValue(NOW_PARAM, Timestamp.from(now));
+
+            jdbcTemplate.update(DELETE_EXPIRED, params);
+            jdbcTemplate.update(held == null ? INSERT_LOCK : UPDATE_LOCK_TYPE, params);
+
+            final var conflicting = jdbcTemplate.queryForList(
+                    lockType == EXCLUSIVE ? SELECT_CONFLICTING : SELECT_CONFLICTING + AND_EXCLUSIVE,
+                    new MapSqlParameterSource(params.getValues()).addValue(EXCLUSIVE_PARAM, true), String.class);
+            if (!conflicting.isEmpty()) {
+                if (held == null) {
+                    jdbcTemplate.update(DELETE_LOCK, params);
+                } else {
+                    jdbcTemplate.update(UPDATE_LOCK_TYPE,
+                            new MapSqlParameterSource(params.getValues()).addValue(EXCLUSIVE_PARAM, false));
+                }
+                throw new ConcurrentUpdateException(resourceId.getResourceId(), txId, conflicting.get(0));
+            }
+
+            LOG.debug("Transaction {} acquired lock {} on resource {}", txId, lockType, resourceId);
+            txLocks.locks.put(resourceId, lockType);
+        }
+    }
+
+    @Override
+    public void releaseAll(final String txId) {
+        final var txLocks = transactionLocks.remove(txId);
+        if (txLocks != null && !txLocks.locks.isEmpty()) {
+            synchronized (txLocks) {
+                LOG.debug("Releasing locks for transaction {}", txId);
+                jdbcTemplate.update(RELEASE_LOCKS, Map.of(TRANSACTION_ID_PARAM, txId));
+            }
+        }
+    }
+
+    @Override
+    public void renewAll(final String txId, final Instant expires) {
+        final var txLocks = transactionLocks.computeIfAbsent(txId, k -> new TransactionLocks());
+        synchronized (txLocks) {
+            txLocks.expires = expires;
+            if (!txLocks.locks.isEmpty()) {
+                jdbcTemplate.update(RENEW_LOCKS, Map.of(TRANSACTION_ID_PARAM, txId,
+                        EXPIRES_PARAM, Timestamp.from(expires)));
+            }
+        }
+    }
+
+    /**
+     * @param dataSource the data source holding the lock table, whose configuration the pool of the locks copies
+     */
+    public void setDataSource(final DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * @param fedoraPropsConfig the configuration providing the size of the pool of the locks and the session
+     *                          timeout, used as the lifetime of locks acquired without the expiry of their transaction
+     */
+    public void setFedoraPropsConfig(final FedoraPropsConfig fedoraPropsConfig) {
+        this.fedoraPropsConfig = fedoraPropsConfig;
+    }
+
+    /**
+     * The locks held by a transaction of this node, and when they expire.
+     */
+    private static class TransactionLocks {
+
+        private final Map<FedoraId, ResourceLockType> locks = new ConcurrentHashMap<>();
+
+        /**
+         * When the transaction expires, as last given when it acquired a lock or was renewed, or null if it never
+         * was.
+         */
+        private Instant expires;
+
+        /**
+         * A lock expires with its transaction. Only when the expiry of the transaction is not known is the lock
+         * given the lifetime of a new transaction, one session timeout.
+         */
+        private Instant expires(final Instant now, final FedoraPropsConfig config) {
+            if (expires != null) {
+                return expires;
+            }
+            return now.plus(config.getSessionTimeout());
+        }
+    }
+}
@@ -8,55 +8,74 @@ package org.fcrepo.kernel.impl.lock;
 import static org.fcrepo.kernel.api.lock.ResourceLockType.EXCLUSIVE;
 import static org.fcrepo.kernel.api.lock.ResourceLockType.NONEXCLUSIVE;
 
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.Objects;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
 
+import org.fcrepo.config.ConditionOnPropertyFalse;
+import org.fcrepo.config.FedoraPropsConfig;
 import org.fcrepo.kernel.api.exception.ConcurrentUpdateException;
 import org.fcrepo.kernel.api.identifiers.FedoraId;
-import org.fcrepo.kernel.api.lock.ResourceLock;
 import org.fcrepo.kernel.api.lock.ResourceLockManager;
 import org.fcrepo.kernel.api.lock.ResourceLockType;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Conditional;
 import org.springframework.context.annotation.Role;
 import org.springframework.stereotype.Component;
 
-import com.github.benmanes.caffeine.cache.Caffeine;
-import com.google.common.collect.Sets;
-
 /**
- * In memory resource lock manager
+ * In memory resource lock manager, used unless the locks are held in the database by the
+ * {@link DbResourceLockManager}.
  *
  * @author pwinckles
  */
 @Component
 @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+@Conditional(InMemoryResourceLockManager.DbResourceLocksDisabled.class)
 public class InMemoryResourceLockManager implements ResourceLockManager {
 
     private static final Logger LOG = LoggerFactory.getLogger(InMemoryResourceLockManager.class);
 
-    private final Map<String, Set<ResourceLock>> transactionLocks;
-    private final Map<FedoraId, Set<ResourceLock>> resourceLocks;
+    static class DbResourceLocksDisabled extends ConditionOnPropertyFalse {
+        DbResourceLocksDisabled() {
+            super(FedoraPropsConfig.FCREPO_DB_RESOURCE_LOCKS_ENABLED, false);
+        }
+    }
+
+    /**
+     * The number of internal locks, must be a power of two.
+     */
+    private static final int STRIPES = 1024;
 
     /**
-     * The internal lock is used so that internal to this class there is only one thread at a time acquiring or
-     * releasing locks on a specific resource.
+     * The locks held by each transaction, by resource, so a transaction can check for a lock it already holds
+     * without synchronizing.
      */
-    private final Map<String, Object> internalResourceLocks;
+    private final Map<String, Map<FedoraId, ResourceLockType>> transactionLocks;
+
+    /**
+     * The transactions holding a lock on each resource. The map of a resource is only read or changed while holding
+     * the internal lock of the resource.
+     */
+    private final Map<FedoraId, Map<String, ResourceLockType>> resourceLocks;
+
+    /**
+     * The internal locks are used so that internal to this class there is only one thread at a time acquiring or
+     * releasing locks on a specific resource. Each resource maps to a fixed internal lock by its hash, so no lock
+     * objects are created or expired as resources are locked.
+     */
+    private final Object[] internalLocks;
 
     public InMemoryResourceLockManager() {
         transactionLocks = new ConcurrentHashMap<>();
         resourceLocks = new ConcurrentHashMap<>();
-        internalResourceLocks = Caffeine.newBuilder()
-                .expireAfterAccess(10, TimeUnit.MINUTES)
-                .<String, Object>build()
-                .asMap();
+        internalLocks = new Object[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            internalLocks[i] = new Object();
+        }
     }
 
     @Override
@@ -70,41 +89,35 @@ public class InMemoryResourceLockManager implements ResourceLockManager {
     }
 
     private void acquireInternal(final String txId, final FedoraId resourceId, final ResourceLockType lockType) {
-        final var resourceLock = new ResourceLockImpl(lockType, txId, resourceId);
-
-        if (transactionHoldsAdequateLock(resourceLock)) {
+        if (transactionHoldsAdequateLock(transactionLocks.get(txId), resourceId, lockType)) {
             return;
         }
 
-        synchronized (acquireInternalLock(resourceId)) {
-            if (transactionHoldsAdequateLock(resourceLock)) {
+        synchronized (internalLock(resourceId)) {
+            final var txLocks = transactionLocks.computeIfAbsent(txId, key -> new ConcurrentHashMap<>());
+            if (transactionHoldsAdequateLock(txLocks, resourceId, lockType)) {
                 return;
             }
 
-            final var locks = resourceLocks.get(resourceId);
+            final var holders = resourceLocks.get(resourceId);
 
-            if (locks != null) {
-                for (final var lock : locks) {
-                    // Throw an exception if either:
-                    // 1. We need an exclusive lock, but another tx already holds any kind of lock
-                    // 2. We need a non-exclusive lock, but another tx holds an exclusive lock
-                    if ((lockType == EXCLUSIVE && !lock.getTransactionId().equals(txId))
-                            || lock.hasLockType(EXCLUSIVE)) {
-                        throw new ConcurrentUpdateException(resourceId.getResourceId(), txId, lock.getTransactionId());
+            if (holders != null) {
+                for (final var holder : holders.entrySet()) {
+                    // Throw an exception if another tx holds a lock, and either:
+                    // 1. We need an exclusive lock
+                    // 2. We need a non-exclusive lock, but the other tx holds an exclusive lock
+                    if (!holder.getKey().equals(txId) && (lockType == EXCLUSIVE || holder.getValue() == EXCLUSIVE)) {
+                        throw new ConcurrentUpdateException(resourceId.getResourceId(), txId, holder.getKey());
                     }
                 }
             }
 
             LOG.debug("Transaction {} acquiring lock on {}", txId, resourceId.getResourceId());
 
-            // This does not need to be a synchronized collection because we already synchronize internally on the
-            // resource id, so it's not possible to modify concurrently.
-            //
-            // Because we're using set to store the resource locks and the resource's identity is based on its
-            // transaction id and resource id, then a tx will only ever have at most one lock per resource.
-            // This works because we do not release locks individually, but rather all at once.
-            resourceLocks.computeIfAbsent(resourceId, key -> new HashSet<>()).add(resourceLock);
-            transactionLocks.computeIfAbsent(txId, key -> Sets.newConcurrentHashSet()).add(resourceLock);
+            // A tx holds at most one lock per resource, a non-exclusive lock is replaced when upgraded to an
+            // exclusive one. This works because we do not release locks individually, but rather all at once.
+            resourceLocks.computeIfAbsent(resourceId, key -> new HashMap<>(2)).put(txId, lockType);
+            txLocks.put(resourceId, lockType);
         }
     }
 
@@ -112,41 +125,46 @@ public class InMemoryResourceLockManager implements ResourceLockManager {
     public void releaseAll(final String txId) {
         final var txLocks = transactionLocks.remove(txId);
         if (txLocks != null) {
-            txLocks.forEach(lock -> {
-                LOG.debug("Transaction {} releasing lock on {}", txId, lock);
-                synchronized (acquireInternalLock(lock.getResourceId())) {
-                    final var locks = resourceLocks.get(lock.getResourceId());
-                    locks.remove(lock);
-                    if (locks.isEmpty()) {
-                        resourceLocks.remove(lock.getResourceId());
+            txLocks.keySet().forEach(resourceId -> {
+                LOG.debug("Transaction {} releasing lock on {}", txId, resourceId);
+                synchronized (internalLock(resourceId)) {
+                    final var holders = resourceLocks.get(resourceId);
+                    if (holders != null) {
+                        holders.remove(txId);
+                        if (holders.isEmpty()) {
+                            resourceLocks.remove(resourceId);
+                        }
                     }
                 }
             });
         }
     }
 
-    private Object acquireInternalLock(final FedoraId resourceId) {
-        return internalResourceLocks.computeIfAbsent(resourceId.getResourceId(), key -> new Object());
+    private Object internalLock(final FedoraId resourceId) {
+        final int hash = resourceId.hashCode();
+        // spread the high bits of the hash over the low bits used to pick the lock
+        return internalLocks[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
     }
 
     /**
      * Returns true if the transaction already holds an adequate lock on the resource. This means that it holds an
      * exclusive lock if an exclusive lock is requested, or any lock if a non-exclusive lock is requested.
      *
-     * @param requested the requested resource lock
+     * @param txLocks the locks held by the transaction, may be null
+     * @param resourceId the resource to lock
+     * @param lockType the requested lock type
      * @return true if the transaction already holds an adequate lock
      */
-    private boolean transactionHoldsAdequateLock(final ResourceLock requested) {
-        final var locks = transactionLocks.get(requested.getTransactionId());
-
-        if (locks == null) {
+    private static boolean transactionHoldsAdequateLock(final Map<FedoraId, ResourceLockType> txLocks,
+                                                        final FedoraId resourceId,
+                                                        final ResourceLockType lockType) {
+        if (txLocks == null) {
             return false;
         }
 
-        final var held = locks.stream().filter(l -> Objects.equals(requested, l)).findFirst();
+        final var held = txLocks.get(resourceId);
 
-        return held.map(l -> l.isAdequate(requested.getLockType()))
-                .orElse(false);
+        return held != null && (held == EXCLUSIVE || lockType == NONEXCLUSIVE);
     }
 
 }
@@ -26,10 +26,10 @@ import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.nio.file.Path;
 import java.util.Collection;
-import java.util.List;
+import java.util.Optional;
 
-import static org.fcrepo.kernel.api.RdfLexicon.FEDORA_BINARY;
 import static org.fcrepo.kernel.api.models.ExternalContent.PROXY;
 
 
@@ -40,8 +40,6 @@ import static org.fcrepo.kernel.api.models.ExternalContent.PROXY;
  */
 public class BinaryImpl extends FedoraResourceImpl implements Binary {
 
-    private static final URI FEDORA_BINARY_URI = URI.create(FEDORA_BINARY.getURI());
-
     private String externalHandling;
 
     private String externalUrl;
@@ -108,6 +106,21 @@ public class BinaryImpl extends FedoraResourceImpl implements Binary {
         }
     }
 
+    @Override
+    public Optional<Path> getContentFile() {
+        if (isProxy() || isRedirect()) {
+            return Optional.empty();
+        }
+        try {
+            return getSession().getBinaryContentFile(getFedoraId().asResourceId(), getMementoDatetime());
+        } catch (final PersistentItemNotFoundException e) {
+            throw new ItemNotFoundException("Unable to find content for " + getId()
+                    + " version " + getMementoDatetime(), e);
+        } catch (final PersistentStorageException e) {
+            throw new RepositoryRuntimeException(e.getMessage(), e);
+        }
+    }
+
     @Override
     public long getContentSize() {
         return contentSize;
@@ -202,19 +215,6 @@ public class BinaryImpl extends FedoraResourceImpl implements Binary {
         this.digests = digests;
     }
 
-    @Override
-    public List<URI> getSystemTypes(final boolean forRdf) {
-        var types = resolveSystemTypes(forRdf);
-
-        if (types == null) {
-            types = super.getSystemTypes(forRdf);
-            // Add fedora:Binary type.
-            types.add(FEDORA_BINARY_URI);
-        }
-
-        return types;
-    }
-
     @Override
     public RdfStream getTriples() {
         return getDescription().getTriples();
@@ -13,15 +13,8 @@ import org.fcrepo.kernel.api.models.FedoraResource;
 import org.fcrepo.kernel.api.models.ResourceFactory;
 import org.fcrepo.persistence.api.PersistentStorageSessionManager;
 
-import java.net.URI;
-import java.util.List;
 import java.util.stream.Stream;
 
-import static org.fcrepo.kernel.api.RdfLexicon.CONTAINER;
-import static org.fcrepo.kernel.api.RdfLexicon.FEDORA_CONTAINER;
-import static org.fcrepo.kernel.api.RdfLexicon.RDF_SOURCE;
-
-
 /**
  * Implementation of an LDP Container resource
  *
@@ -29,10 +22,6 @@ import static org.fcrepo.kernel.api.RdfLexicon.RDF_SOURCE;
  */
 public class ContainerImpl extends FedoraResourceImpl implements Container {
 
-    private static final URI RDF_SOURCE_URI = URI.create(RDF_SOURCE.toString());
-    private static final URI CONTAINER_URI = URI.create(CONTAINER.toString());
-    private static final URI FEDORA_CONTAINER_URI = URI.create(FEDORA_CONTAINER.toString());
-
     /**
      * Construct the container
      *
@@ -55,20 +44,6 @@ public class ContainerImpl extends FedoraResourceImpl implements Container {
         return this;
     }
 
-    @Override
-    public List<URI> getSystemTypes(final boolean forRdf) {
-        var types = resolveSystemTypes(forRdf);
-
-        if (types == null) {
-            types = super.getSystemTypes(forRdf);
-            types.add(RDF_SOURCE_URI);
-            types.add(CONTAINER_URI);
-            types.add(FEDORA_CONTAINER_URI);
-        }
-
-        return types;
-    }
-
     @Override
     public Stream<FedoraResource> getChildren(final Boolean recursive) {
         return resourceFactory.getChildren(transaction, fedoraId);
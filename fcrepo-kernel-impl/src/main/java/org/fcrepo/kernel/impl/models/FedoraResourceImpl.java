@@ -8,8 +8,18 @@ package org.fcrepo.kernel.impl.models;
 import static org.apache.jena.graph.NodeFactory.createURI;
 import static org.apache.jena.vocabulary.RDF.type;
 import static org.fcrepo.kernel.api.RdfLexicon.ARCHIVAL_GROUP;
+import static org.fcrepo.kernel.api.RdfLexicon.BASIC_CONTAINER;
+import static org.fcrepo.kernel.api.RdfLexicon.CONTAINER;
+import static org.fcrepo.kernel.api.RdfLexicon.DIRECT_CONTAINER;
+import static org.fcrepo.kernel.api.RdfLexicon.FEDORA_BINARY;
+import static org.fcrepo.kernel.api.RdfLexicon.FEDORA_CONTAINER;
+import static org.fcrepo.kernel.api.RdfLexicon.FEDORA_NON_RDF_SOURCE_DESCRIPTION_URI;
 import static org.fcrepo.kernel.api.RdfLexicon.FEDORA_RESOURCE;
+import static org.fcrepo.kernel.api.RdfLexicon.FEDORA_WEBAC_ACL_URI;
+import static org.fcrepo.kernel.api.RdfLexicon.INDIRECT_CONTAINER;
 import static org.fcrepo.kernel.api.RdfLexicon.MEMENTO_TYPE;
+import static org.fcrepo.kernel.api.RdfLexicon.NON_RDF_SOURCE;
+import static org.fcrepo.kernel.api.RdfLexicon.RDF_SOURCE;
 import static org.fcrepo.kernel.api.RdfLexicon.REPOSITORY_ROOT;
 import static org.fcrepo.kernel.api.RdfLexicon.RESOURCE;
 import static org.fcrepo.kernel.api.RdfLexicon.VERSIONED_RESOURCE;
@@ -25,6 +35,7 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Stream;
 
@@ -62,6 +73,23 @@ public class FedoraResourceImpl implements FedoraResource {
     private static final URI VERSIONING_TIMEGATE_URI = create(VERSIONING_TIMEGATE_TYPE);
     private static final URI REPOSITORY_ROOT_URI = create(REPOSITORY_ROOT.getURI());
 
+    private static final URI RDF_SOURCE_URI = create(RDF_SOURCE.toString());
+
+    private static final List<URI> CONTAINER_TYPES = List.of(RDF_SOURCE_URI, create(CONTAINER.toString()),
+            create(FEDORA_CONTAINER.getURI()));
+
+    /*
+     * The system types a resource has because of its interaction model, besides the interaction model itself.
+     */
+    private static final Map<String, List<URI>> INTERACTION_MODEL_TYPES = Map.of(
+            BASIC_CONTAINER.toString(), CONTAINER_TYPES,
+            DIRECT_CONTAINER.toString(), CONTAINER_TYPES,
+            INDIRECT_CONTAINER.toString(), CONTAINER_TYPES,
+            FEDORA_WEBAC_ACL_URI, CONTAINER_TYPES,
+            NON_RDF_SOURCE.toString(), List.of(create(FEDORA_BINARY.getURI())),
+            FEDORA_NON_RDF_SOURCE_DESCRIPTION_URI, List.of(RDF_SOURCE_URI)
+    );
+
     private final PersistentStorageSessionManager pSessionManager;
 
     protected final ResourceFactory resourceFactory;
@@ -243,26 +271,7 @@ public class FedoraResourceImpl implements FedoraResource {
         var types = resolveSystemTypes(forRdf);
 
         if (types == null) {
-            types = new ArrayList<>();
-            types.add(create(interactionModel));
-            // ldp:Resource is on all resources
-            types.add(RESOURCE_URI);
-            types.add(FEDORA_RESOURCE_URI);
-            if (getFedoraId().isRepositoryRoot()) {
-                types.add(REPOSITORY_ROOT_URI);
-            }
-            if (!forRdf) {
-                // These types are not exposed as RDF triples.
-                if (isArchivalGroup) {
-                    types.add(ARCHIVAL_GROUP_URI);
-                }
-                if (isMemento) {
-                    types.add(MEMENTO_URI);
-                } else {
-                    types.add(VERSIONED_RESOURCE_URI);
-                    types.add(VERSIONING_TIMEGATE_URI);
-                }
-            }
+            types = getSystemTypes(getFedoraId(), interactionModel, isArchivalGroup, isMemento, forRdf);
 
             if (forRdf) {
                 systemTypesForRdf = types;
@@ -274,6 +283,44 @@ public class FedoraResourceImpl implements FedoraResource {
         return types;
     }
 
+    /**
+     * Get the types other than user types of a resource, starting with its interaction model. Used to tell the
+     * types of a resource without loading it.
+     *
+     * @param fedoraId the id of the resource
+     * @param interactionModel the interaction model of the resource
+     * @param isArchivalGroup whether the resource is an archival group
+     * @param isMemento whether the resource is a memento
+     * @param forRdf whether to only get the types exposed as RDF triples
+     * @return the system types
+     */
+    public static List<URI> getSystemTypes(final FedoraId fedoraId, final String interactionModel,
+                                           final boolean isArchivalGroup, final boolean isMemento,
+                                           final boolean forRdf) {
+        final List<URI> types = new ArrayList<>();
+        types.add(create(interactionModel));
+        // ldp:Resource is on all resources
+        types.add(RESOURCE_URI);
+        types.add(FEDORA_RESOURCE_URI);
+        if (fedoraId.isRepositoryRoot()) {
+            types.add(REPOSITORY_ROOT_URI);
+        }
+        if (!forRdf) {
+            // These types are not exposed as RDF triples.
+            if (isArchivalGroup) {
+                types.add(ARCHIVAL_GROUP_URI);
+            }
+            if (isMemento) {
+                types.add(MEMENTO_URI);
+            } else {
+                types.add(VERSIONED_RESOURCE_URI);
+                types.add(VERSIONING_TIMEGATE_URI);
+            }
+        }
+        types.addAll(INTERACTION_MODEL_TYPES.getOrDefault(interactionModel, List.of()));
+        return types;
+    }
+
     @Override
     public List<URI> getUserTypes() {
         if (userTypes == null) {
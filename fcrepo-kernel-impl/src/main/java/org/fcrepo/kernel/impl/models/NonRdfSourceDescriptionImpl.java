@@ -19,12 +19,9 @@ import org.fcrepo.kernel.api.models.ResourceFactory;
 import org.fcrepo.kernel.api.rdf.DefaultRdfStream;
 import org.fcrepo.persistence.api.PersistentStorageSessionManager;
 
-import java.net.URI;
-import java.util.List;
 import java.util.stream.Stream;
 
 import static org.apache.jena.graph.NodeFactory.createURI;
-import static org.fcrepo.kernel.api.RdfLexicon.RDF_SOURCE;
 
 /**
  * Implementation of a non-rdf source description
@@ -33,8 +30,6 @@ import static org.fcrepo.kernel.api.RdfLexicon.RDF_SOURCE;
  */
 public class NonRdfSourceDescriptionImpl extends FedoraResourceImpl implements NonRdfSourceDescription {
 
-    private static final URI RDF_SOURCE_URI = URI.create(RDF_SOURCE.getURI());
-
     /**
      * Construct a description resource
      *
@@ -71,19 +66,6 @@ public class NonRdfSourceDescriptionImpl extends FedoraResourceImpl implements N
         }
     }
 
-    @Override
-    public List<URI> getSystemTypes(final boolean forRdf) {
-        var types = resolveSystemTypes(forRdf);
-
-        if (types == null) {
-            types = super.getSystemTypes(forRdf);
-            // NonRdfSource gets the ldp:Resource and adds ldp:RDFSource types.
-            types.add(RDF_SOURCE_URI);
-        }
-
-        return types;
-    }
-
     @Override
     public RdfStream getTriples() {
         // Remap the subject to the described resource
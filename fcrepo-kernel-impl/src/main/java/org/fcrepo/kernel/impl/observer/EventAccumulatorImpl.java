@@ -7,22 +7,44 @@
 package org.fcrepo.kernel.impl.observer;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static org.fcrepo.kernel.api.RdfLexicon.BASIC_CONTAINER;
+import static org.fcrepo.kernel.api.RdfLexicon.DIRECT_CONTAINER;
+import static org.fcrepo.kernel.api.RdfLexicon.INDIRECT_CONTAINER;
+import static org.fcrepo.kernel.api.RdfLexicon.NON_RDF_SOURCE;
 
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.inject.Inject;
 
 import org.fcrepo.config.AuthPropsConfig;
+import org.fcrepo.config.FedoraPropsConfig;
 import org.fcrepo.kernel.api.Transaction;
+import org.fcrepo.kernel.api.cache.UserTypesCache;
 import org.fcrepo.kernel.api.identifiers.FedoraId;
 import org.fcrepo.kernel.api.models.ResourceFactory;
+import org.fcrepo.kernel.api.observer.Event;
 import org.fcrepo.kernel.api.observer.EventAccumulator;
+import org.fcrepo.kernel.api.observer.EventBatch;
+import org.fcrepo.kernel.api.operations.CreateResourceOperation;
 import org.fcrepo.kernel.api.operations.ResourceOperation;
+import org.fcrepo.kernel.api.operations.ResourceOperationType;
+import org.fcrepo.kernel.impl.models.FedoraResourceImpl;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,6 +52,7 @@ import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Role;
 import org.springframework.stereotype.Component;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.MultimapBuilder;
 import com.google.common.eventbus.EventBus;
@@ -43,19 +66,57 @@ public class EventAccumulatorImpl implements EventAccumulator {
 
     private final static Logger LOG = LoggerFactory.getLogger(EventAccumulatorImpl.class);
 
+    /**
+     * The number of resources whose events are built together when they are built in parallel.
+     */
+    private static final int EMIT_CHUNK_SIZE = 500;
+
     private final Map<String, Multimap<FedoraId, EventBuilder>> transactionEventMap;
 
+    /**
+     * The types of the resources with events in each transaction, as they were when their last operation was
+     * recorded. Resources without types here have them loaded when the events are emitted.
+     */
+    private final Map<String, Map<FedoraId, Set<String>>> transactionTypesMap;
+
     @Inject
     private ResourceFactory resourceFactory;
 
+    @Inject
+    private UserTypesCache userTypesCache;
+
     @Inject
     private EventBus eventBus;
 
     @Inject
     private AuthPropsConfig authPropsConfig;
 
+    @Inject
+    private FedoraPropsConfig fedoraPropsConfig;
+
+    /**
+     * Builds the events of large transactions in parallel, null when they are built one at a time.
+     */
+    private ExecutorService emitPool;
+
     public EventAccumulatorImpl() {
         this.transactionEventMap = new ConcurrentHashMap<>();
+        this.transactionTypesMap = new ConcurrentHashMap<>();
+    }
+
+    @PostConstruct
+    public void setUp() {
+        final int threads = fedoraPropsConfig.getEventEmitThreads();
+        if (threads > 1) {
+            emitPool = Executors.newFixedThreadPool(threads);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (emitPool != null) {
+            emitPool.shutdown();
+        }
     }
 
     @Override
@@ -70,6 +131,50 @@ public class EventAccumulatorImpl implements EventAccumulator {
         final var eventBuilder = ResourceOperationEventBuilder.fromResourceOperation(
                 fedoraId, operation, authPropsConfig.getUserAgentBaseUri());
         events.put(fedoraId, eventBuilder);
+
+        if (operation.getType() == ResourceOperationType.FOLLOW) {
+            // A new reference to a resource does not change its types
+            return;
+        }
+        final var types = transactionTypesMap.computeIfAbsent(transactionId, key -> new HashMap<>());
+        // The types of a binary come from its description, so a change to either may change the types of both
+        types.remove(fedoraId.asBaseId());
+        types.remove(fedoraId.asBaseId().asDescription());
+        captureResourceTypes(transaction, fedoraId, operation).ifPresent(t -> types.put(fedoraId, t));
+    }
+
+    /**
+     * Get the types of the resource an operation was just persisted for. The types of a created resource are
+     * told from the interaction model of the operation and the user types cached when it was created. Otherwise the
+     * resource is read within the transaction, where its headers and user types are already cached by the
+     * operation, so this does not go back to storage the way loading it after the commit does.
+     */
+    private Optional<Set<String>> captureResourceTypes(final Transaction transaction, final FedoraId fedoraId,
+                                                       final ResourceOperation operation) {
+        if (operation.getType() == ResourceOperationType.DELETE || operation.getType() == ResourceOperationType.PURGE) {
+            // What remains of the resource is only known once the transaction is committed
+            return Optional.empty();
+        }
+        if (operation instanceof CreateResourceOperation) {
+            final var systemTypes = createdSystemTypes(fedoraId, (CreateResourceOperation) operation);
+            if (systemTypes != null) {
+                // The user types of a binary are those of its description
+                final var userTypesId = NON_RDF_SOURCE.toString().equals(systemTypes.get(0)) ?
+                        fedoraId.asDescription() : fedoraId;
+                final var userTypes = userTypesCache.getCachedUserTypes(userTypesId, transaction.getId());
+                if (userTypes.isPresent()) {
+                    final var types = new HashSet<>(systemTypes);
+                    types.addAll(toTypeStrings(userTypes.get()));
+                    return Optional.of(types);
+                }
+            }
+        }
+        try {
+            return Optional.of(toTypeStrings(resourceFactory.getResource(transaction, fedoraId).getTypes()));
+        } catch (final Exception e) {
+            LOG.debug("Could not capture resource types for {}, they will be loaded on commit", fedoraId, e);
+            return Optional.empty();
+        }
     }
 
     @Override
@@ -77,27 +182,36 @@ public class EventAccumulatorImpl implements EventAccumulator {
         LOG.debug("Emitting events for transaction {}", transaction.getId());
 
         final var eventMap = transactionEventMap.remove(transaction.getId());
+        final var typesMap = transactionTypesMap.remove(transaction.getId());
 
         if (eventMap != null) {
-            eventMap.keySet().forEach(fedoraId -> {
-                final var events = eventMap.get(fedoraId);
-
-                try {
-                    final var mergedBuilder = events.stream()
-                            .reduce(EventBuilder::merge).get();
-
-                    final var event = mergedBuilder
-                            .withResourceTypes(loadResourceTypes(transaction, fedoraId))
-                            .withBaseUrl(baseUrl)
-                            .withUserAgent(userAgent)
-                            .build();
+            final List<FedoraId> fedoraIds = new ArrayList<>(eventMap.keySet());
+            final Map<FedoraId, Set<String>> resourceTypes = typesMap == null ? Map.of() : typesMap;
+            final List<Event> builtEvents;
+            if (emitPool == null || fedoraIds.size() <= EMIT_CHUNK_SIZE) {
+                builtEvents = buildEvents(transaction, fedoraIds, eventMap, resourceTypes, baseUrl, userAgent);
+            } else {
+                // Resources whose types were not captured are loaded from storage, so build in parallel
+                final var chunks = Lists.partition(fedoraIds, EMIT_CHUNK_SIZE).stream()
+                        .map(chunk -> CompletableFuture.supplyAsync(() -> buildEvents(transaction, chunk, eventMap,
+                                resourceTypes, baseUrl, userAgent), emitPool))
+                        .collect(Collectors.toList());
+                builtEvents = new ArrayList<>(fedoraIds.size());
+                chunks.forEach(chunk -> builtEvents.addAll(join(chunk)));
+            }
 
+            if (fedoraPropsConfig.isEventBatchEnabled()) {
+                if (!builtEvents.isEmpty()) {
+                    final var eventBatch = new EventBatch(transaction.getId(), builtEvents);
+                    LOG.debug("Emitting events: {}", eventBatch);
+                    eventBus.post(eventBatch);
+                }
+            } else {
+                builtEvents.forEach(event -> {
                     LOG.debug("Emitting event: {}", event);
                     eventBus.post(event);
-                } catch (final Exception e) {
-                    LOG.error("Failed to emit events: {}", events, e);
-                }
-            });
+                });
+            }
         }
     }
 
@@ -105,13 +219,76 @@ public class EventAccumulatorImpl implements EventAccumulator {
     public void clearEvents(final Transaction transaction) {
         LOG.trace("Clearing events for transaction {}", transaction.getId());
         transactionEventMap.remove(transaction.getId());
+        transactionTypesMap.remove(transaction.getId());
+    }
+
+    private List<Event> buildEvents(final Transaction transaction,
+                                    final List<FedoraId> fedoraIds,
+                                    final Multimap<FedoraId, EventBuilder> eventMap,
+                                    final Map<FedoraId, Set<String>> resourceTypes,
+                                    final String baseUrl,
+                                    final String userAgent) {
+        final List<Event> built = new ArrayList<>(fedoraIds.size());
+        fedoraIds.forEach(fedoraId -> {
+            final var events = eventMap.get(fedoraId);
+
+            try {
+                final var mergedBuilder = events.stream()
+                        .reduce(EventBuilder::merge).get();
+
+                final var types = resourceTypes.get(fedoraId);
+                built.add(mergedBuilder
+                        .withResourceTypes(types != null ? types : loadResourceTypes(transaction, fedoraId))
+                        .withBaseUrl(baseUrl)
+                        .withUserAgent(userAgent)
+                        .build());
+            } catch (final Exception e) {
+                LOG.error("Failed to emit events: {}", events, e);
+            }
+        });
+        return built;
+    }
+
+    private static List<Event> join(final CompletableFuture<List<Event>> future) {
+        try {
+            return future.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * The types other than user types which a resource created by an operation has, starting with its interaction
+     * model, as given by the resource models. Null if they can't be told from the operation.
+     */
+    private static List<String> createdSystemTypes(final FedoraId fedoraId,
+                                                   final CreateResourceOperation operation) {
+        final var interactionModel = operation.getInteractionModel();
+        final boolean isBinary = NON_RDF_SOURCE.toString().equals(interactionModel);
+        final boolean isContainer = BASIC_CONTAINER.toString().equals(interactionModel)
+                || DIRECT_CONTAINER.toString().equals(interactionModel)
+                || INDIRECT_CONTAINER.toString().equals(interactionModel);
+        if ((!isBinary && !isContainer) || fedoraId.isDescription() || fedoraId.isMemento()) {
+            return null;
+        }
+        return FedoraResourceImpl.getSystemTypes(fedoraId, interactionModel, operation.isArchivalGroup(), false,
+                false).stream()
+                .map(URI::toString)
+                .collect(Collectors.toList());
+    }
+
+    private static Set<String> toTypeStrings(final List<URI> types) {
+        return types.stream()
+                .map(URI::toString)
+                .collect(Collectors.toSet());
     }
 
     private Set<String> loadResourceTypes(final Transaction transaction, final FedoraId fedoraId) {
         try {
-            return resourceFactory.getResource(transaction, fedoraId).getTypes().stream()
-                    .map(URI::toString)
-                    .collect(Collectors.toSet());
+            return toTypeStrings(resourceFactory.getResource(transaction, fedoraId).getTypes());
         } catch (final Exception e) {
             LOG.debug("Could not load resource types for {}", fedoraId, e);
             // This can happen if the resource no longer exists
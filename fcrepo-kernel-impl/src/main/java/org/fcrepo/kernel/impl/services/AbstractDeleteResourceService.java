@@ -6,10 +6,22 @@
 package org.fcrepo.kernel.impl.services;
 
 import static java.lang.String.format;
+import static java.net.URI.create;
+import static org.fcrepo.kernel.api.RdfLexicon.ARCHIVAL_GROUP;
 
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Stream;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.inject.Inject;
 
 import org.fcrepo.kernel.api.Transaction;
@@ -41,6 +53,13 @@ abstract public class AbstractDeleteResourceService extends AbstractService {
 
     private final static Logger log = LoggerFactory.getLogger(AbstractDeleteResourceService.class);
 
+    private static final URI ARCHIVAL_GROUP_URI = create(ARCHIVAL_GROUP.getURI());
+
+    /**
+     * The number of contained resources loaded ahead of the resources being deleted.
+     */
+    private static final int CHILD_PAGE_SIZE = 100;
+
     @Inject
     protected ResourceFactory resourceFactory;
 
@@ -50,6 +69,29 @@ abstract public class AbstractDeleteResourceService extends AbstractService {
     @Inject
     private Cache<String, Optional<ACLHandle>> authHandleCache;
 
+    private ExecutorService resolverPool;
+
+    /**
+     * Start the pool which loads contained resources, if more than one thread is configured.
+     */
+    @PostConstruct
+    public void setUp() {
+        final int parallelism = fedoraPropsConfig.getDeleteParallelism();
+        if (parallelism > 1) {
+            resolverPool = Executors.newWorkStealingPool(parallelism);
+        }
+    }
+
+    /**
+     * Stop the pool which loads contained resources.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (resolverPool != null) {
+            resolverPool.shutdownNow();
+        }
+    }
+
     /**
      * The starts the service, does initial checks and setups for processing.
      * @param tx the transaction.
@@ -90,23 +132,13 @@ abstract public class AbstractDeleteResourceService extends AbstractService {
 
         if (fedoraResource instanceof Container) {
             final Stream<String> children = getContained(tx, fedoraResource);
-            children.forEach(childResourceId -> {
-                try {
-
-                    final FedoraResource res = resourceFactory.getResource(tx, FedoraId.create(childResourceId));
-                    if (res instanceof Tombstone) {
-                        deleteDepthFirst(tx, pSession, ((Tombstone) res).getDeletedObject(), userPrincipal);
-                    } else {
-                        deleteDepthFirst(tx, pSession, res, userPrincipal);
-                    }
-                } catch (final PathNotFoundException ex) {
-                    log.error("Path not found for {}: {}", fedoraId.getFullId(), ex.getMessage());
-                    throw new PathNotFoundRuntimeException(ex.getMessage(), ex);
-                } catch (final PersistentStorageException ex) {
-                    throw new RepositoryRuntimeException(format("failed to delete resource %s", fedoraId.getFullId()),
-                            ex);
-                }
-            });
+            if (resolverPool == null || isInArchivalGroup(fedoraResource)) {
+                // Members of an archival group share a storage object, so they are loaded one at a time.
+                children.forEach(childResourceId -> deleteChild(tx, pSession, fedoraId,
+                        resolveChild(tx, fedoraId, childResourceId), userPrincipal));
+            } else {
+                deleteChildrenInPages(tx, pSession, fedoraId, children, userPrincipal);
+            }
         } else if (fedoraResource instanceof Binary) {
             doAction(tx, pSession, fedoraResource.getDescription().getFedoraId(), userPrincipal);
         }
@@ -116,18 +148,112 @@ abstract public class AbstractDeleteResourceService extends AbstractService {
             final FedoraResource acl = fedoraResource.getAcl();
             if (acl != null) {
                 doAction(tx, pSession, acl.getFedoraId(), userPrincipal);
-                // Flush ACL cache on any ACL creation/update/deletion.
-                authHandleCache.invalidateAll();
+                // Flush cached ACLs of the subtree governed by the ACL on any ACL creation/update/deletion.
+                invalidateAclSubtree(tx, authHandleCache, acl.getFedoraId());
             }
         } else {
-            // Flush ACL cache on any ACL creation/update/deletion.
-            authHandleCache.invalidateAll();
+            // Flush cached ACLs of the subtree governed by the ACL on any ACL creation/update/deletion.
+            invalidateAclSubtree(tx, authHandleCache, fedoraId);
         }
 
         //delete/purge the resource itself
         doAction(tx, pSession, fedoraId, userPrincipal);
     }
 
+    /**
+     * Delete/purge the contained resources of a container, loading each page of them on the resolver pool while the
+     * previous page is deleted/purged. The deletes/purges themselves are made in order on the calling thread, which
+     * holds the database transaction of the request.
+     * @param tx the transaction
+     * @param pSession the persistent storage session
+     * @param fedoraId the id of the container
+     * @param children the ids of the contained resources
+     * @param userPrincipal the user performing the action.
+     */
+    private void deleteChildrenInPages(final Transaction tx, final PersistentStorageSession pSession,
+                                       final FedoraId fedoraId, final Stream<String> children,
+                                       final String userPrincipal) {
+        final Iterator<String> childIds = children.iterator();
+        List<CompletableFuture<FedoraResource>> page = resolvePage(tx, fedoraId, childIds);
+        while (!page.isEmpty()) {
+            final List<CompletableFuture<FedoraResource>> nextPage = resolvePage(tx, fedoraId, childIds);
+            try {
+                for (final CompletableFuture<FedoraResource> child : page) {
+                    deleteChild(tx, pSession, fedoraId, join(child), userPrincipal);
+                }
+            } catch (final RuntimeException ex) {
+                // Stop loading the resources which will not be deleted/purged now.
+                page.forEach(future -> future.cancel(false));
+                nextPage.forEach(future -> future.cancel(false));
+                throw ex;
+            }
+            page = nextPage;
+        }
+    }
+
+    private void deleteChild(final Transaction tx, final PersistentStorageSession pSession, final FedoraId fedoraId,
+                             final FedoraResource child, final String userPrincipal) {
+        try {
+            deleteDepthFirst(tx, pSession, child, userPrincipal);
+        } catch (final PersistentStorageException ex) {
+            throw new RepositoryRuntimeException(format("failed to delete resource %s", fedoraId.getFullId()), ex);
+        }
+    }
+
+    private static FedoraResource join(final CompletableFuture<FedoraResource> child) {
+        try {
+            return child.join();
+        } catch (final CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Start loading the next page of contained resources on the resolver pool.
+     * @param tx the transaction
+     * @param fedoraId the id of the container
+     * @param childIds the remaining ids of the contained resources
+     * @return the resources being loaded, empty if there are no more
+     */
+    private List<CompletableFuture<FedoraResource>> resolvePage(final Transaction tx, final FedoraId fedoraId,
+                                                               final Iterator<String> childIds) {
+        final List<CompletableFuture<FedoraResource>> page = new ArrayList<>(CHILD_PAGE_SIZE);
+        while (page.size() < CHILD_PAGE_SIZE && childIds.hasNext()) {
+            final String childResourceId = childIds.next();
+            page.add(CompletableFuture.supplyAsync(() -> resolveChild(tx, fedoraId, childResourceId), resolverPool));
+        }
+        return page;
+    }
+
+    /**
+     * Load a contained resource, or the resource a tombstone stands in for.
+     * @param tx the transaction
+     * @param fedoraId the id of the container
+     * @param childResourceId the id of the contained resource
+     * @return the resource to delete/purge
+     */
+    private FedoraResource resolveChild(final Transaction tx, final FedoraId fedoraId,
+                                        final String childResourceId) {
+        try {
+            final FedoraResource res = resourceFactory.getResource(tx, FedoraId.create(childResourceId));
+            if (res instanceof Tombstone) {
+                return ((Tombstone) res).getDeletedObject();
+            }
+            return res;
+        } catch (final PathNotFoundException ex) {
+            log.error("Path not found for {}: {}", fedoraId.getFullId(), ex.getMessage());
+            throw new PathNotFoundRuntimeException(ex.getMessage(), ex);
+        }
+    }
+
+    private static boolean isInArchivalGroup(final FedoraResource fedoraResource) {
+        return fedoraResource.getArchivalGroupId().isPresent() ||
+                fedoraResource.getSystemTypes(false).contains(ARCHIVAL_GROUP_URI);
+    }
+
     /**
      * Get the contained resources to act upon.
      * @param tx the transaction this occurs in.
@@ -5,6 +5,8 @@
  */
 package org.fcrepo.kernel.impl.services;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
 import org.apache.jena.graph.Graph;
 import org.apache.jena.graph.Node;
 import org.apache.jena.rdf.model.Model;
@@ -15,6 +17,7 @@ import org.fcrepo.config.FedoraPropsConfig;
 import org.fcrepo.kernel.api.ContainmentIndex;
 import org.fcrepo.kernel.api.RdfLexicon;
 import org.fcrepo.kernel.api.Transaction;
+import org.fcrepo.kernel.api.auth.ACLHandle;
 import org.fcrepo.kernel.api.cache.UserTypesCache;
 import org.fcrepo.kernel.api.exception.ACLAuthorizationConstraintViolationException;
 import org.fcrepo.kernel.api.exception.MalformedRdfException;
@@ -31,9 +34,12 @@ import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 
+import com.github.benmanes.caffeine.cache.Cache;
+
 import jakarta.inject.Inject;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -70,6 +76,9 @@ public abstract class AbstractService {
 
     private static final Logger log = getLogger(ReplacePropertiesServiceImpl.class);
 
+    private static final DistributionSummary aclChangeEvictions = Metrics.summary("fcrepo.webac.cache",
+            "operation", "aclChangeEvictions");
+
     private static final Node WEBAC_ACCESS_TO_URI = createURI(WEBAC_ACCESS_TO);
 
     private static final Node WEBAC_ACCESS_TO_CLASS_URI = createURI(WEBAC_ACCESS_TO_CLASS);
@@ -269,6 +278,39 @@ public abstract class AbstractService {
         this.eventAccumulator.recordEventForOperation(transaction, fedoraId, operation);
     }
 
+    /**
+     * Drop the cached effective ACLs of a resource and all of its descendants, which are the resources whose
+     * effective ACL may change when the ACL of the resource is created, updated or deleted. The cached ACLs of
+     * the rest of the repository are kept. They are dropped again once the transaction has committed or rolled
+     * back, as requests outside of it may have cached the ACLs from before the change in the meantime.
+     *
+     * @param transaction the transaction changing the ACL
+     * @param authHandleCache the cache of effective ACLs, keyed by resource id
+     * @param resourceId the id of the resource, or of its ACL
+     */
+    protected static void invalidateAclSubtree(final Transaction transaction,
+                                               final Cache<String, Optional<ACLHandle>> authHandleCache,
+                                               final FedoraId resourceId) {
+        evictAclSubtree(authHandleCache, resourceId);
+        transaction.afterCompletion(() -> evictAclSubtree(authHandleCache, resourceId));
+    }
+
+    private static void evictAclSubtree(final Cache<String, Optional<ACLHandle>> authHandleCache,
+                                        final FedoraId resourceId) {
+        final var baseId = resourceId.asBaseId().getResourceId();
+        final var descendantPrefix = baseId + "/";
+        final var evicted = new AtomicInteger();
+        authHandleCache.asMap().keySet().removeIf(key -> {
+            if (key.equals(baseId) || key.startsWith(descendantPrefix)) {
+                evicted.incrementAndGet();
+                return true;
+            }
+            return false;
+        });
+        aclChangeEvictions.record(evicted.get());
+        log.debug("Evicted {} cached ACLs governed by the ACL of {}", evicted.get(), baseId);
+    }
+
     /**
      * Wrapper to call the referenceService updateReference method
      * @param transaction the transaction.
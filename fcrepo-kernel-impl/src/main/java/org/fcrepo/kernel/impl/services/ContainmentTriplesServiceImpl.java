@@ -34,10 +34,15 @@ public class ContainmentTriplesServiceImpl implements ContainmentTriplesService
 
     @Override
     public Stream<Triple> get(final Transaction tx, final FedoraResource resource) {
+        return get(tx, resource, null);
+    }
+
+    @Override
+    public Stream<Triple> get(final Transaction tx, final FedoraResource resource, final String after) {
         final var fedoraId = resource.getFedoraId();
         final var nodeUri = fedoraId.isMemento() ? fedoraId.getBaseId() : fedoraId.getFullId();
         final Node currentNode = createURI(nodeUri);
-        return containmentIndex.getContains(tx, fedoraId).map(c ->
+        return containmentIndex.getContains(tx, fedoraId, after).map(c ->
                 Triple.create(currentNode, CONTAINS.asNode(), createURI(c)));
     }
 
@@ -7,16 +7,20 @@ package org.fcrepo.kernel.impl.services;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Queue;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -26,8 +30,11 @@ import jakarta.inject.Inject;
 import javax.sql.DataSource;
 
 import org.fcrepo.common.db.DbPlatform;
+import org.fcrepo.config.FedoraPropsConfig;
 import org.fcrepo.kernel.api.Transaction;
+import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
 import org.fcrepo.kernel.api.identifiers.FedoraId;
+import org.fcrepo.kernel.impl.util.DbWriteBuffer;
 
 import org.apache.jena.graph.Node;
 import org.apache.jena.graph.NodeFactory;
@@ -35,10 +42,14 @@ import org.apache.jena.graph.Triple;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Role;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
 import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterUtils;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.JdbcUtils;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
@@ -77,17 +88,32 @@ public class MembershipIndexManager {
     private static final String OPERATION_PARAM = "operation";
     private static final String FORCE_PARAM = "forceFlag";
     private static final String LIMIT_PARAM = "limit";
-    private static final String OFFSET_PARAM = "offSet";
+    private static final String LAST_SUBJECT_ID_PARAM = "lastSubjectId";
+    private static final String LAST_PROPERTY_PARAM = "lastProperty";
+    private static final String LAST_OBJECT_ID_PARAM = "lastObjectId";
 
     private static final String SELECT_ALL_MEMBERSHIP = "SELECT * FROM membership";
 
     private static final String SELECT_ALL_OPERATIONS = "SELECT * FROM membership_tx_operations";
 
+    /*
+     * Membership is paged by keyset, each page resumes after the composite ordering key of the last row of the
+     * previous page. These conditions are applied to each branch of a query so they can use the subject/object index.
+     */
+    private static final String AFTER_LAST_PROPERTY_OBJECT =
+            " AND (property > :lastProperty OR (property = :lastProperty AND object_id > :lastObjectId))";
+
+    private static final String AFTER_LAST_SUBJECT_PROPERTY =
+            " AND (subject_id > :lastSubjectId OR (subject_id = :lastSubjectId AND property > :lastProperty))";
+
+    private static final String PAGE_LIMIT = " LIMIT :limit";
+
     private static final String SELECT_MEMBERSHIP_IN_TX =
             "SELECT property, object_id" +
             " FROM membership m" +
             " WHERE subject_id = :subjectId" +
                 " AND end_time = :noEndTime" +
+                AFTER_LAST_PROPERTY_OBJECT +
                 " AND NOT EXISTS (" +
                     " SELECT 1" +
                     " FROM membership_tx_operations mto" +
@@ -103,14 +129,15 @@ public class MembershipIndexManager {
                 " AND tx_id = :txId" +
                 " AND end_time = :noEndTime" +
                 " AND operation = :addOp" +
-            " ORDER BY property, object_id" +
-            " LIMIT :limit OFFSET :offSet";
+                AFTER_LAST_PROPERTY_OBJECT +
+            " ORDER BY property, object_id";
 
     private static final String SELECT_MEMBERSHIP_BY_OBJECT_IN_TX =
             "SELECT subject_id, property" +
                     " FROM membership m" +
                     " WHERE object_id = :objectId" +
                     " AND end_time = :noEndTime" +
+                    AFTER_LAST_SUBJECT_PROPERTY +
                     " AND NOT EXISTS (" +
                         " SELECT 1" +
                         " FROM membership_tx_operations mto" +
@@ -126,24 +153,24 @@ public class MembershipIndexManager {
                     " AND tx_id = :txId" +
                     " AND end_time = :noEndTime" +
                     " AND operation = :addOp" +
-                    " ORDER BY subject_id, property" +
-                    " LIMIT :limit OFFSET :offSet";
+                    AFTER_LAST_SUBJECT_PROPERTY +
+                    " ORDER BY subject_id, property";
 
     private static final String DIRECT_SELECT_MEMBERSHIP =
-            "SELECT property, object_id" +
+            "SELECT DISTINCT property, object_id" +
             " FROM membership" +
             " WHERE subject_id = :subjectId" +
                 " AND end_time = :noEndTime" +
-            " ORDER BY property, object_id" +
-            " LIMIT :limit OFFSET :offSet";
+                AFTER_LAST_PROPERTY_OBJECT +
+            " ORDER BY property, object_id";
 
     private static final String DIRECT_SELECT_MEMBERSHIP_BY_OBJECT =
-            "SELECT subject_id, property" +
+            "SELECT DISTINCT subject_id, property" +
                     " FROM membership" +
                     " WHERE object_id = :objectId" +
                     " AND end_time = :noEndTime" +
-                    " ORDER BY subject_id, property" +
-                    " LIMIT :limit OFFSET :offSet";
+                    AFTER_LAST_SUBJECT_PROPERTY +
+                    " ORDER BY subject_id, property";
 
     private static final String SELECT_MEMBERSHIP_MEMENTO_IN_TX =
             "SELECT property, object_id" +
@@ -151,6 +178,7 @@ public class MembershipIndexManager {
             " WHERE m.subject_id = :subjectId" +
                 " AND m.start_time <= :mementoTime" +
                 " AND m.end_time > :mementoTime" +
+                AFTER_LAST_PROPERTY_OBJECT +
                 " AND NOT EXISTS (" +
                     " SELECT 1" +
                     " FROM membership_tx_operations mto" +
@@ -169,8 +197,8 @@ public class MembershipIndexManager {
                 " AND start_time <= :mementoTime" +
                 " AND end_time > :mementoTime" +
                 " AND operation = :addOp" +
-            " ORDER BY property, object_id" +
-            " LIMIT :limit OFFSET :offSet";
+                AFTER_LAST_PROPERTY_OBJECT +
+            " ORDER BY property, object_id";
 
     private static final String SELECT_MEMBERSHIP_BY_OBJECT_MEMENTO_IN_TX =
             "SELECT subject_id, property" +
@@ -178,6 +206,7 @@ public class MembershipIndexManager {
                     " WHERE m.object_id = :objectId" +
                     " AND m.start_time <= :mementoTime" +
                     " AND m.end_time > :mementoTime" +
+                    AFTER_LAST_SUBJECT_PROPERTY +
                     " AND NOT EXISTS (" +
                         " SELECT 1" +
                         " FROM membership_tx_operations mto" +
@@ -196,26 +225,26 @@ public class MembershipIndexManager {
                     " AND start_time <= :mementoTime" +
                     " AND end_time > :mementoTime" +
                     " AND operation = :addOp" +
-                    " ORDER BY subject_id, property" +
-                    " LIMIT :limit OFFSET :offSet";
+                    AFTER_LAST_SUBJECT_PROPERTY +
+                    " ORDER BY subject_id, property";
 
     private static final String DIRECT_SELECT_MEMBERSHIP_MEMENTO =
-            "SELECT property, object_id" +
+            "SELECT DISTINCT property, object_id" +
             " FROM membership" +
             " WHERE subject_id = :subjectId" +
                 " AND start_time <= :mementoTime" +
                 " AND end_time > :mementoTime" +
-            " ORDER BY property, object_id" +
-            " LIMIT :limit OFFSET :offSet";
+                AFTER_LAST_PROPERTY_OBJECT +
+            " ORDER BY property, object_id";
 
     private static final String DIRECT_SELECT_MEMBERSHIP_BY_OBJECT_MEMENTO =
-            "SELECT subject_id, property" +
+            "SELECT DISTINCT subject_id, property" +
                     " FROM membership" +
                     " WHERE object_id = :objectId" +
                     " AND start_time <= :mementoTime" +
                     " AND end_time > :mementoTime" +
-                    " ORDER BY subject_id, property" +
-                    " LIMIT :limit OFFSET :offSet";
+                    AFTER_LAST_SUBJECT_PROPERTY +
+                    " ORDER BY subject_id, property";
 
     private static final String SELECT_LAST_UPDATED =
             "SELECT max(last_updated) as last_updated" +
@@ -480,12 +509,18 @@ public class MembershipIndexManager {
 
     private DbPlatform dbPlatform;
 
-    private static final int MEMBERSHIP_LIMIT = 50000;
+    private DbWriteBuffer writeBuffer;
+
+    private int membershipLimit = 50000;
+
+    @Inject
+    private FedoraPropsConfig fedoraPropsConfig;
 
     @PostConstruct
     public void setUp() {
         jdbcTemplate = new NamedParameterJdbcTemplate(getDataSource());
         dbPlatform = DbPlatform.fromDataSource(dataSource);
+        writeBuffer = new DbWriteBuffer(jdbcTemplate, fedoraPropsConfig.getDbWriteBatchSize());
     }
 
     /**
@@ -501,6 +536,7 @@ public class MembershipIndexManager {
             final Instant endTime) {
         tx.doInTx(() -> {
             if (!tx.isShortLived()) {
+                writeBuffer.flush(tx.getId());
                 final MapSqlParameterSource parameterSource = new MapSqlParameterSource();
                 parameterSource.addValue(TX_ID_PARAM, tx.getId());
                 parameterSource.addValue(SOURCE_ID_PARAM, sourceId.getFullId());
@@ -538,6 +574,7 @@ public class MembershipIndexManager {
             final var afterTimestamp = afterTime == null ? NO_START_TIMESTAMP : formatInstant(afterTime);
 
             if (!tx.isShortLived()) {
+                writeBuffer.flush(tx.getId());
                 // Clear all membership added in this transaction
                 final var parameterSource = Map.of(
                         TX_ID_PARAM, tx.getId(),
@@ -573,6 +610,7 @@ public class MembershipIndexManager {
     public void endMembershipForSource(final Transaction tx, final FedoraId sourceId, final Instant endTime) {
         tx.doInTx(() -> {
             if (!tx.isShortLived()) {
+                writeBuffer.flush(tx.getId());
                 final Map<String, Object> parameterSource = Map.of(
                         TX_ID_PARAM, tx.getId(),
                         SOURCE_ID_PARAM, sourceId.getFullId(),
@@ -608,6 +646,7 @@ public class MembershipIndexManager {
             final var afterTimestamp = afterTime == null ? NO_START_TIMESTAMP : formatInstant(afterTime);
 
             if (!tx.isShortLived()) {
+                writeBuffer.flush(tx.getId());
                 // Clear all membership added in this transaction
                 final Map<String, Object> parameterSource = Map.of(
                         TX_ID_PARAM, tx.getId(),
@@ -643,6 +682,7 @@ public class MembershipIndexManager {
                 TARGET_ID_PARAM, targetId.getFullId(),
                 TX_ID_PARAM, txId);
 
+        writeBuffer.flush(txId);
         jdbcTemplate.update(PURGE_ALL_REFERENCES_TRANSACTION, parameterSource);
         jdbcTemplate.update(PURGE_ALL_REFERENCES_MEMBERSHIP, parameterSource);
     }
@@ -700,7 +740,7 @@ public class MembershipIndexManager {
             if (!tx.isShortLived()) {
                 parameterSource.addValue(TX_ID_PARAM, tx.getId());
                 parameterSource.addValue(OPERATION_PARAM, ADD_OPERATION);
-                jdbcTemplate.update(INSERT_MEMBERSHIP_IN_TX, parameterSource);
+                writeBuffer.add(tx.getId(), INSERT_MEMBERSHIP_IN_TX, parameterSource);
             } else {
                 jdbcTemplate.update(DIRECT_INSERT_MEMBERSHIP, parameterSource);
             }
@@ -733,6 +773,7 @@ public class MembershipIndexManager {
         }
 
         if (tx.isOpenLongRunning()) {
+            writeBuffer.flush(tx.getId());
             parameterSource.addValue(TX_ID_PARAM, tx.getId());
 
             if (subjectId.isMemento()) {
@@ -748,7 +789,14 @@ public class MembershipIndexManager {
             }
         }
 
-        return StreamSupport.stream(new MembershipIterator(query, parameterSource, membershipMapper), false);
+        // Start before the first possible key, all URIs sort after the empty string
+        parameterSource.addValue(LAST_PROPERTY_PARAM, "");
+        parameterSource.addValue(LAST_OBJECT_ID_PARAM, "");
+
+        return queryMembership(query, parameterSource, membershipMapper, (triple, params) -> {
+            params.addValue(LAST_PROPERTY_PARAM, triple.getPredicate().getURI());
+            params.addValue(LAST_OBJECT_ID_PARAM, triple.getObject().getURI());
+        });
     }
 
     /**
@@ -778,6 +826,7 @@ public class MembershipIndexManager {
         }
 
         if (tx.isOpenLongRunning()) {
+            writeBuffer.flush(tx.getId());
             parameterSource.addValue(TX_ID_PARAM, tx.getId());
 
             if (objectId.isMemento()) {
@@ -793,7 +842,70 @@ public class MembershipIndexManager {
             }
         }
 
-        return StreamSupport.stream(new MembershipIterator(query, parameterSource, membershipMapper), false);
+        parameterSource.addValue(LAST_SUBJECT_ID_PARAM, "");
+        parameterSource.addValue(LAST_PROPERTY_PARAM, "");
+
+        return queryMembership(query, parameterSource, membershipMapper, (triple, params) -> {
+            params.addValue(LAST_SUBJECT_ID_PARAM, triple.getSubject().getURI());
+            params.addValue(LAST_PROPERTY_PARAM, triple.getPredicate().getURI());
+        });
+    }
+
+    /**
+     * Run a membership query, either streaming all rows through a database cursor when a fetch size is configured or
+     * otherwise retrieving it one keyset page at a time.
+     * @param query the membership query, without a limit
+     * @param parameterSource parameters for the query, including the keyset starting position
+     * @param rowMapper maps result rows to membership triples
+     * @param keysetUpdater sets the keyset parameters to resume after the given triple
+     * @return Stream of membership triples
+     */
+    private Stream<Triple> queryMembership(final String query, final MapSqlParameterSource parameterSource,
+                                           final RowMapper<Triple> rowMapper,
+                                           final BiConsumer<Triple, MapSqlParameterSource> keysetUpdater) {
+        parameterSource.addValue(ADD_OP_PARAM, ADD_OPERATION);
+        parameterSource.addValue(DELETE_OP_PARAM, DELETE_OPERATION);
+
+        final int fetchSize = fedoraPropsConfig.getMembershipFetchSize();
+        if (fetchSize > 0) {
+            return streamMembership(query, parameterSource, rowMapper, fetchSize);
+        }
+        return StreamSupport.stream(
+                new MembershipIterator(query + PAGE_LIMIT, parameterSource, rowMapper, keysetUpdater), false);
+    }
+
+    /**
+     * Stream the results of a membership query through a server side cursor, holding a database connection until
+     * the results are exhausted or the stream is closed.
+     * @param query the membership query
+     * @param parameterSource parameters for the query
+     * @param rowMapper maps result rows to membership triples
+     * @param fetchSize number of rows to fetch from the cursor at a time
+     * @return Stream of membership triples
+     */
+    private Stream<Triple> streamMembership(final String query, final MapSqlParameterSource parameterSource,
+                                            final RowMapper<Triple> rowMapper, final int fetchSize) {
+        final Connection connection = DataSourceUtils.getConnection(dataSource);
+        final var cursor = new MembershipCursor(connection, rowMapper);
+        try {
+            final var parsedSql = NamedParameterUtils.parseSqlStatement(query);
+            // PostgreSQL only fetches rows from a cursor in batches while outside of auto-commit mode
+            if (connection.getAutoCommit()) {
+                connection.setAutoCommit(false);
+                cursor.restoreAutoCommit = true;
+            }
+            cursor.statement = connection.prepareStatement(
+                    NamedParameterUtils.substituteNamedParameters(parsedSql, parameterSource),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            cursor.statement.setFetchSize(fetchSize);
+            new ArgumentPreparedStatementSetter(NamedParameterUtils.buildValueArray(parsedSql, parameterSource,
+                    null)).setValues(cursor.statement);
+            cursor.resultSet = cursor.statement.executeQuery();
+            return StreamSupport.stream(cursor, false).onClose(cursor::close);
+        } catch (final SQLException e) {
+            cursor.close();
+            throw new RepositoryRuntimeException("Unable to stream membership", e);
+        }
     }
 
     public Instant getLastUpdated(final Transaction transaction, final FedoraId subjectId) {
@@ -806,6 +918,7 @@ public class MembershipIndexManager {
             parameterSource.addValue(SUBJECT_ID_PARAM, subjectId.getBaseId());
             parameterSource.addValue(MEMENTO_TIME_PARAM, formatInstant(subjectId.getMementoInstant()));
         } else if (transaction.isOpenLongRunning()) {
+            writeBuffer.flush(transaction.getId());
             lastUpdatedQuery = SELECT_LAST_UPDATED_IN_TX;
             parameterSource.addValue(SUBJECT_ID_PARAM, subjectId.getFullId());
             parameterSource.addValue(TX_ID_PARAM, transaction.getId());
@@ -829,6 +942,7 @@ public class MembershipIndexManager {
     public void commitTransaction(final Transaction tx) {
         if (!tx.isShortLived()) {
             tx.ensureCommitting();
+            writeBuffer.flush(tx.getId());
             final Map<String, String> parameterSource = Map.of(
                     TX_ID_PARAM, tx.getId(),
                     ADD_OP_PARAM, ADD_OPERATION,
@@ -851,6 +965,7 @@ public class MembershipIndexManager {
     @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void deleteTransaction(final Transaction tx) {
         if (!tx.isShortLived()) {
+            writeBuffer.discard(tx.getId());
             final Map<String, String> parameterSource = Map.of(TX_ID_PARAM, tx.getId());
             jdbcTemplate.update(DELETE_TRANSACTION, parameterSource);
         }
@@ -872,11 +987,13 @@ public class MembershipIndexManager {
      * Clear all entries from the index
      */
     public void clearIndex() {
+        writeBuffer.discardAll();
         jdbcTemplate.update(TRUNCATE_MEMBERSHIP, Map.of());
         jdbcTemplate.update(TRUNCATE_MEMBERSHIP_TX, Map.of());
     }
 
     public void clearAllTransactions() {
+        writeBuffer.discardAll();
         jdbcTemplate.update(TRUNCATE_MEMBERSHIP_TX, Map.of());
     }
 
@@ -930,27 +1047,35 @@ public class MembershipIndexManager {
         return dataSource;
     }
 
+    void setMembershipLimit(final int limit) {
+        membershipLimit = limit;
+    }
+
     /**
      * Private class to back a stream with a paged DB query.
      *
+     * Pages are retrieved by keyset, each query resumes after the ordering key of the last triple of the previous
+     * page, so every page costs the same no matter how deep into the membership it is.
+     *
      * If this needs to be run in parallel we will have to override trySplit() and determine a good method to split on.
      */
     private class MembershipIterator extends Spliterators.AbstractSpliterator<Triple> {
         final Queue<Triple> children = new ConcurrentLinkedQueue<>();
-        int numOffsets = 0;
+        boolean exhausted = false;
         final String queryToUse;
         final MapSqlParameterSource parameterSource;
         final RowMapper<Triple> rowMapper;
+        final BiConsumer<Triple, MapSqlParameterSource> keysetUpdater;
 
         public MembershipIterator(final String query, final MapSqlParameterSource parameters,
-                                  final RowMapper<Triple> mapper) {
+                                  final RowMapper<Triple> mapper,
+                                  final BiConsumer<Triple, MapSqlParameterSource> keysetUpdater) {
             super(Long.MAX_VALUE, Spliterator.ORDERED);
             queryToUse = query;
             parameterSource = parameters;
             rowMapper = mapper;
-            parameterSource.addValue(ADD_OP_PARAM, ADD_OPERATION);
-            parameterSource.addValue(DELETE_OP_PARAM, DELETE_OPERATION);
-            parameterSource.addValue(LIMIT_PARAM, MEMBERSHIP_LIMIT);
+            this.keysetUpdater = keysetUpdater;
+            parameterSource.addValue(LIMIT_PARAM, membershipLimit);
         }
 
         @Override
@@ -958,16 +1083,80 @@ public class MembershipIndexManager {
             try {
                 action.accept(children.remove());
             } catch (final NoSuchElementException e) {
-                parameterSource.addValue(OFFSET_PARAM, numOffsets * MEMBERSHIP_LIMIT);
-                numOffsets += 1;
-                children.addAll(jdbcTemplate.query(queryToUse, parameterSource, rowMapper));
-                if (children.size() == 0) {
+                if (exhausted) {
+                    return false;
+                }
+                final List<Triple> page = jdbcTemplate.query(queryToUse, parameterSource, rowMapper);
+                if (page.isEmpty()) {
                     // no more elements.
+                    exhausted = true;
                     return false;
                 }
+                // A short page is the last page, no need to ask the database again.
+                exhausted = page.size() < membershipLimit;
+                keysetUpdater.accept(page.get(page.size() - 1), parameterSource);
+                children.addAll(page);
                 action.accept(children.remove());
             }
             return true;
         }
     }
+
+    /**
+     * Private class to back a stream with an open database cursor. The connection is released once the last row
+     * has been read or the stream is closed, whichever comes first.
+     */
+    private class MembershipCursor extends Spliterators.AbstractSpliterator<Triple> {
+        final Connection connection;
+        final RowMapper<Triple> rowMapper;
+        PreparedStatement statement;
+        ResultSet resultSet;
+        boolean restoreAutoCommit = false;
+        boolean closed = false;
+        int rowNum = 0;
+
+        public MembershipCursor(final Connection connection, final RowMapper<Triple> rowMapper) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED);
+            this.connection = connection;
+            this.rowMapper = rowMapper;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super Triple> action) {
+            if (closed) {
+                return false;
+            }
+            try {
+                if (!resultSet.next()) {
+                    close();
+                    return false;
+                }
+                action.accept(rowMapper.mapRow(resultSet, rowNum++));
+                return true;
+            } catch (final SQLException e) {
+                close();
+                throw new RepositoryRuntimeException("Unable to read membership from cursor", e);
+            }
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            JdbcUtils.closeResultSet(resultSet);
+            JdbcUtils.closeStatement(statement);
+            try {
+                if (restoreAutoCommit) {
+                    // Nothing was written, end the read only transaction before handing the connection back
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+            } catch (final SQLException e) {
+                log.warn("Unable to reset connection after streaming membership: {}", e.getMessage());
+            } finally {
+                DataSourceUtils.releaseConnection(connection, dataSource);
+            }
+        }
+    }
 }
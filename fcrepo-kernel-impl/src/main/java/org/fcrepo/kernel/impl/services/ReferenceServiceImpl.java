@@ -8,9 +8,13 @@ package org.fcrepo.kernel.impl.services;
 import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_ID_PREFIX;
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import jakarta.annotation.Nonnull;
@@ -19,6 +23,7 @@ import jakarta.inject.Inject;
 import javax.sql.DataSource;
 
 import org.fcrepo.common.db.DbPlatform;
+import org.fcrepo.config.FedoraPropsConfig;
 import org.fcrepo.kernel.api.ContainmentIndex;
 import org.fcrepo.kernel.api.RdfStream;
 import org.fcrepo.kernel.api.RepositoryInitializationStatus;
@@ -32,6 +37,7 @@ import org.fcrepo.kernel.api.rdf.DefaultRdfStream;
 import org.fcrepo.kernel.api.services.ReferenceService;
 import org.fcrepo.kernel.impl.operations.ReferenceOperation;
 import org.fcrepo.kernel.impl.operations.ReferenceOperationBuilder;
+import org.fcrepo.kernel.impl.util.DbWriteBuffer;
 
 import org.apache.jena.graph.Node;
 import org.apache.jena.graph.NodeFactory;
@@ -73,6 +79,9 @@ public class ReferenceServiceImpl implements ReferenceService {
     @Inject
     private RepositoryInitializationStatus initializationStatus;
 
+    @Inject
+    private FedoraPropsConfig fedoraPropsConfig;
+
     private NamedParameterJdbcTemplate jdbcTemplate;
 
     private static final String TABLE_NAME = "reference";
@@ -141,15 +150,13 @@ public class ReferenceServiceImpl implements ReferenceService {
             " = :property AND " + TARGET_COLUMN + " = :targetId AND " + TRANSACTION_COLUMN + " = :transactionId AND " +
             OPERATION_COLUMN + " = 'delete'";
 
-    private static final String IS_REFERENCE_ADDED_IN_TRANSACTION = "SELECT TRUE FROM " + TRANSACTION_TABLE + " WHERE "
-            + RESOURCE_COLUMN + " = :resourceId AND " + SUBJECT_COLUMN + " = :subjectId AND " + PROPERTY_COLUMN +
-            " = :property AND " + TARGET_COLUMN + " = :targetId AND " + TRANSACTION_COLUMN + " = :transactionId AND " +
-            OPERATION_COLUMN + " = 'add'";
-
-    private static final String IS_REFERENCE_DELETED_IN_TRANSACTION = "SELECT TRUE FROM " + TRANSACTION_TABLE +
-            " WHERE " + RESOURCE_COLUMN + " = :resourceId AND " + SUBJECT_COLUMN + " = :subjectId AND " +
-            PROPERTY_COLUMN + " = :property AND " + TARGET_COLUMN + " = :targetId AND " + TRANSACTION_COLUMN +
-            " = :transactionId AND " + OPERATION_COLUMN + " = 'delete'";
+    /*
+     * Get the operations on the references from these resources in this transaction.
+     */
+    private static final String SELECT_OPERATIONS_IN_TRANSACTION = "SELECT " + RESOURCE_COLUMN + ", " +
+            SUBJECT_COLUMN + ", " + PROPERTY_COLUMN + ", " + TARGET_COLUMN + ", " + OPERATION_COLUMN + " FROM " +
+            TRANSACTION_TABLE + " WHERE " + RESOURCE_COLUMN + " IN (:resourceIds) AND " + TRANSACTION_COLUMN +
+            " = :transactionId";
 
     private static final String COMMIT_ADD_RECORDS = "INSERT INTO " + TABLE_NAME + " ( " + RESOURCE_COLUMN + ", " +
             SUBJECT_COLUMN + ", " + PROPERTY_COLUMN + ", " + TARGET_COLUMN + " ) SELECT " + RESOURCE_COLUMN + ", " +
@@ -195,10 +202,13 @@ public class ReferenceServiceImpl implements ReferenceService {
 
     private DbPlatform dbPlatform;
 
+    private DbWriteBuffer writeBuffer;
+
     @PostConstruct
     public void setUp() {
         dbPlatform = DbPlatform.fromDataSource(dataSource);
         jdbcTemplate = new NamedParameterJdbcTemplate(getDataSource());
+        writeBuffer = new DbWriteBuffer(jdbcTemplate, fedoraPropsConfig.getDbWriteBatchSize());
     }
 
     @Override
@@ -233,6 +243,7 @@ public class ReferenceServiceImpl implements ReferenceService {
 
         if (tx.isOpenLongRunning()) {
             // we are in a transaction
+            writeBuffer.flush(tx.getId());
             parameterSource.addValue("transactionId", tx.getId());
             query = SELECT_INBOUND_IN_TRANSACTION;
         } else {
@@ -255,7 +266,7 @@ public class ReferenceServiceImpl implements ReferenceService {
             deleteReferences.addAll(getOutboundReferences(tx, resourceId.asBaseId()));
         }
         // Remove all the existing references.
-        deleteReferences.forEach(t -> removeReference(tx, t));
+        removeReferences(tx, deleteReferences);
     }
 
     /**
@@ -280,6 +291,7 @@ public class ReferenceServiceImpl implements ReferenceService {
 
         if (tx.isOpenLongRunning()) {
             // we are in a long-running transaction
+            writeBuffer.flush(tx.getId());
             parameterSource.addValue("transactionId", tx.getId());
             query = SELECT_OUTBOUND_IN_TRANSACTION;
         } else {
@@ -313,7 +325,7 @@ public class ReferenceServiceImpl implements ReferenceService {
                     existingReferences.addAll(getOutboundReferences(tx, resourceId.asBaseId()));
                 }
                 // Remove any existing references not being re-added.
-                existingReferences.stream().filter(notInAdds).forEach(t -> removeReference(tx, t));
+                removeReferences(tx, existingReferences.stream().filter(notInAdds).toList());
 
                 // This predicate checks for references that didn't already exist in the database.
                 final Predicate<Triple> alreadyExists =
@@ -321,8 +333,7 @@ public class ReferenceServiceImpl implements ReferenceService {
                 referencesStream = referencesStream.filter(alreadyExists);
             }
             // Add the new references.
-            referencesStream.forEach(r ->
-                    addReference(tx, Quad.create(resourceNode, r), userPrincipal));
+            addReferences(tx, referencesStream.map(r -> Quad.create(resourceNode, r)).toList(), userPrincipal);
         } catch (final Exception e) {
             LOGGER.warn("Unable to update reference index for resource {} in transaction {}: {}",
                     resourceId.getFullId(), tx.getId(), e.getMessage());
@@ -335,6 +346,7 @@ public class ReferenceServiceImpl implements ReferenceService {
         if (!tx.isShortLived()) {
             tx.ensureCommitting();
             try {
+                writeBuffer.flush(tx.getId());
                 final Map<String, String> parameterSource = Map.of("transactionId", tx.getId());
                 jdbcTemplate.update(COMMIT_DELETE_RECORD_MAP.get(dbPlatform), parameterSource);
                 jdbcTemplate.update(COMMIT_ADD_RECORDS, parameterSource);
@@ -351,6 +363,7 @@ public class ReferenceServiceImpl implements ReferenceService {
     public void rollbackTransaction(final Transaction tx) {
         if (!tx.isShortLived()) {
             try {
+                writeBuffer.discard(tx.getId());
                 final Map<String, String> parameterSource = Map.of("transactionId", tx.getId());
                 jdbcTemplate.update(DELETE_TRANSACTION, parameterSource);
             } catch (final Exception e) {
@@ -362,12 +375,14 @@ public class ReferenceServiceImpl implements ReferenceService {
 
     @Override
     public void clearAllTransactions() {
+        writeBuffer.discardAll();
         jdbcTemplate.update(TRUNCATE_TX_TABLE, Map.of());
     }
 
     @Override
     public void reset() {
         try {
+            writeBuffer.discardAll();
             jdbcTemplate.update(TRUNCATE_TABLE, Map.of());
             jdbcTemplate.update(TRUNCATE_TX_TABLE, Map.of());
         } catch (final Exception e) {
@@ -377,79 +392,129 @@ public class ReferenceServiceImpl implements ReferenceService {
     }
 
     /**
-     * Remove a reference.
+     * Remove references.
      * @param tx the transaction
-     * @param reference the quad with the reference, is Quad(resourceId, subjectId, propertyId, targetId)
+     * @param references the quads with the references, each is Quad(resourceId, subjectId, propertyId, targetId)
      */
-    private void removeReference(final Transaction tx, final Quad reference) {
+    private void removeReferences(final Transaction tx, final List<Quad> references) {
+        if (references.isEmpty()) {
+            return;
+        }
         tx.doInTx(() -> {
-            final var parameterSource = new MapSqlParameterSource();
-            parameterSource.addValue("resourceId", reference.getGraph().getURI());
-            parameterSource.addValue("subjectId", reference.getSubject().getURI());
-            parameterSource.addValue("property", reference.getPredicate().getURI());
-            parameterSource.addValue("targetId", reference.getObject().getURI());
-
             if (!tx.isShortLived()) {
-                parameterSource.addValue("transactionId", tx.getId());
-                final boolean addedInTx = !jdbcTemplate.queryForList(IS_REFERENCE_ADDED_IN_TRANSACTION, parameterSource)
-                        .isEmpty();
-                if (addedInTx) {
-                    jdbcTemplate.update(UNDO_INSERT_REFERENCE_IN_TRANSACTION, parameterSource);
-                } else {
-                    jdbcTemplate.update(DELETE_REFERENCE_IN_TRANSACTION, parameterSource);
+                final Set<Quad> addedInTx = new HashSet<>();
+                getOperationsInTransaction(tx, references, addedInTx, new HashSet<>());
+                for (final Quad reference : references) {
+                    final var parameterSource = getReferenceParameters(reference);
+                    parameterSource.addValue("transactionId", tx.getId());
+                    if (addedInTx.contains(reference)) {
+                        writeBuffer.add(tx.getId(), UNDO_INSERT_REFERENCE_IN_TRANSACTION, parameterSource);
+                    } else {
+                        writeBuffer.add(tx.getId(), DELETE_REFERENCE_IN_TRANSACTION, parameterSource);
+                    }
                 }
             } else {
-                jdbcTemplate.update(DELETE_REFERENCE_DIRECT, parameterSource);
+                references.forEach(reference ->
+                        jdbcTemplate.update(DELETE_REFERENCE_DIRECT, getReferenceParameters(reference)));
             }
         });
     }
 
     /**
-     * Add a reference
+     * Add references
      * @param transaction the transaction Id.
-     * @param reference the quad with the reference, is is Quad(resourceId, subjectId, propertyId, targetId)
-     * @param userPrincipal the user adding the reference.
+     * @param references the quads with the references, each is Quad(resourceId, subjectId, propertyId, targetId)
+     * @param userPrincipal the user adding the references.
      */
-    private void addReference(@Nonnull final Transaction transaction, final Quad reference,
-                              final String userPrincipal) {
+    private void addReferences(@Nonnull final Transaction transaction, final List<Quad> references,
+                               final String userPrincipal) {
+        if (references.isEmpty()) {
+            return;
+        }
         transaction.doInTx(() -> {
-            final String targetId = reference.getObject().getURI();
-
-            final var parameterSource = new MapSqlParameterSource();
-            parameterSource.addValue("resourceId", reference.getGraph().getURI());
-            parameterSource.addValue("subjectId", reference.getSubject().getURI());
-            parameterSource.addValue("property", reference.getPredicate().getURI());
-            parameterSource.addValue("targetId", targetId);
-
+            final List<FedoraId> targetIds = new ArrayList<>();
             if (!transaction.isShortLived()) {
-                parameterSource.addValue("transactionId", transaction.getId());
-                final boolean addedInTx = !jdbcTemplate.queryForList(
-                        IS_REFERENCE_DELETED_IN_TRANSACTION, parameterSource)
-                        .isEmpty();
-                if (addedInTx) {
-                    jdbcTemplate.update(UNDO_DELETE_REFERENCE_IN_TRANSACTION, parameterSource);
-                } else {
-                    jdbcTemplate.update(INSERT_REFERENCE_IN_TRANSACTION, parameterSource);
-                    recordEvent(transaction, targetId, userPrincipal);
+                final Set<Quad> deletedInTx = new HashSet<>();
+                getOperationsInTransaction(transaction, references, new HashSet<>(), deletedInTx);
+                for (final Quad reference : references) {
+                    final var parameterSource = getReferenceParameters(reference);
+                    parameterSource.addValue("transactionId", transaction.getId());
+                    if (deletedInTx.contains(reference)) {
+                        writeBuffer.add(transaction.getId(), UNDO_DELETE_REFERENCE_IN_TRANSACTION, parameterSource);
+                    } else {
+                        writeBuffer.add(transaction.getId(), INSERT_REFERENCE_IN_TRANSACTION, parameterSource);
+                        targetIds.add(FedoraId.create(reference.getObject().getURI()));
+                    }
                 }
             } else {
-                jdbcTemplate.update(INSERT_REFERENCE_DIRECT, parameterSource);
-                recordEvent(transaction, targetId, userPrincipal);
+                for (final Quad reference : references) {
+                    jdbcTemplate.update(INSERT_REFERENCE_DIRECT, getReferenceParameters(reference));
+                    targetIds.add(FedoraId.create(reference.getObject().getURI()));
+                }
             }
+            recordEvents(transaction, targetIds, userPrincipal);
         });
     }
 
     /**
-     * Record the inbound reference event if the target exists.
+     * Get the parameters identifying a reference.
+     * @param reference the quad with the reference, is Quad(resourceId, subjectId, propertyId, targetId)
+     * @return the parameters
+     */
+    private static MapSqlParameterSource getReferenceParameters(final Quad reference) {
+        final var parameterSource = new MapSqlParameterSource();
+        parameterSource.addValue("resourceId", reference.getGraph().getURI());
+        parameterSource.addValue("subjectId", reference.getSubject().getURI());
+        parameterSource.addValue("property", reference.getPredicate().getURI());
+        parameterSource.addValue("targetId", reference.getObject().getURI());
+        return parameterSource;
+    }
+
+    /**
+     * Find which of the references from the same resources as these have been added or deleted in the transaction,
+     * with a single query instead of one per reference.
+     * @param tx the transaction
+     * @param references the references
+     * @param added the references added in this transaction
+     * @param deleted the references deleted in this transaction
+     */
+    private void getOperationsInTransaction(final Transaction tx, final List<Quad> references, final Set<Quad> added,
+                                            final Set<Quad> deleted) {
+        writeBuffer.flush(tx.getId());
+        final Set<String> resourceIds = references.stream()
+                .map(q -> q.getGraph().getURI())
+                .collect(Collectors.toSet());
+        jdbcTemplate.query(SELECT_OPERATIONS_IN_TRANSACTION,
+                Map.of("resourceIds", resourceIds, "transactionId", tx.getId()), rs -> {
+                    final Quad quad = Quad.create(NodeFactory.createURI(rs.getString(RESOURCE_COLUMN)),
+                            NodeFactory.createURI(rs.getString(SUBJECT_COLUMN)),
+                            NodeFactory.createURI(rs.getString(PROPERTY_COLUMN)),
+                            NodeFactory.createURI(rs.getString(TARGET_COLUMN)));
+                    if ("add".equals(rs.getString(OPERATION_COLUMN))) {
+                        added.add(quad);
+                    } else {
+                        deleted.add(quad);
+                    }
+                });
+    }
+
+    /**
+     * Record the inbound reference events for the targets which exist.
      * @param transaction the transaction.
-     * @param resourceId the id of the target of the inbound reference.
-     * @param userPrincipal the user making the reference.
+     * @param targetIds the ids of the targets of the inbound references.
+     * @param userPrincipal the user making the references.
      */
-    private void recordEvent(final Transaction transaction, final String resourceId, final String userPrincipal) {
-        final FedoraId fedoraId = FedoraId.create(resourceId);
-        if (this.containmentIndex.resourceExists(transaction, fedoraId, false)) {
-            this.eventAccumulator.recordEventForOperation(transaction, fedoraId, getOperation(transaction, fedoraId,
-                    userPrincipal));
+    private void recordEvents(final Transaction transaction, final List<FedoraId> targetIds,
+                              final String userPrincipal) {
+        if (targetIds.isEmpty()) {
+            return;
+        }
+        final Set<FedoraId> existing = this.containmentIndex.resourcesExist(transaction, targetIds, false);
+        for (final FedoraId targetId : targetIds) {
+            if (existing.contains(targetId)) {
+                this.eventAccumulator.recordEventForOperation(transaction, targetId, getOperation(transaction,
+                        targetId, userPrincipal));
+            }
         }
     }
 
@@ -115,8 +115,8 @@ public class ReplacePropertiesServiceImpl extends AbstractService implements Rep
             recordEvent(tx, fedoraId, primaryOp);
             secondaryOp.ifPresent(operation -> updateBinaryHeaders(tx, pSession, operation));
             if (fedoraId.isAcl()) {
-                // Flush ACL cache on any ACL creation/update/deletion.
-                authHandleCache.invalidateAll();
+                // Flush cached ACLs of the subtree governed by the ACL on any ACL creation/update/deletion.
+                invalidateAclSubtree(tx, authHandleCache, fedoraId);
             }
         } catch (final PersistentStorageException ex) {
             throw new RepositoryRuntimeException(String.format("failed to replace resource %s",
@@ -51,6 +51,13 @@ public class ResourceTripleServiceImpl implements ResourceTripleService {
     @Override
     public Stream<Triple> getResourceTriples(final Transaction tx, final FedoraResource resource,
                                              final LdpTriplePreferences preferences, final int limit) {
+        return getResourceTriples(tx, resource, preferences, limit, null);
+    }
+
+    @Override
+    public Stream<Triple> getResourceTriples(final Transaction tx, final FedoraResource resource,
+                                             final LdpTriplePreferences preferences, final int limit,
+                                             final String after) {
         final List<Stream<Triple>> streams = new ArrayList<>();
 
         // Provide user RDF if we didn't ask for omit=ldp:PreferMinimalContainer.
@@ -65,10 +72,12 @@ public class ResourceTripleServiceImpl implements ResourceTripleService {
         // containment triples about this resource, return by default. Containment is server managed so also
         // check for that prefer tag.
         if (preferences.displayContainment()) {
+            final var containment = after != null ? this.containmentTriplesService.get(tx, resource, after) :
+                    this.containmentTriplesService.get(tx, resource);
             if (limit == -1) {
-                streams.add(this.containmentTriplesService.get(tx, resource));
+                streams.add(containment);
             } else {
-                streams.add(this.containmentTriplesService.get(tx, resource).limit(limit));
+                streams.add(containment.limit(limit));
             }
         }
 
@@ -87,8 +87,8 @@ public class WebacAclServiceImpl extends AbstractService implements WebacAclServ
         try {
             pSession.persist(createOp);
             recordEvent(transaction, fedoraId, createOp);
-            // Flush ACL cache on any ACL creation/update/deletion.
-            authHandleCache.invalidateAll();
+            // Flush cached ACLs of the subtree governed by the ACL on any ACL creation/update/deletion.
+            invalidateAclSubtree(transaction, authHandleCache, fedoraId);
         } catch (final PersistentStorageException exc) {
             throw new RepositoryRuntimeException(String.format("failed to create resource %s", fedoraId), exc);
         }
@@ -0,0 +1,206 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree.
+ */
+package org.fcrepo.kernel.impl.util;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Holds back single row writes to the transaction operation tables and sends them to the database with
+ * batchUpdate, either once enough have built up, when a read needs them, or just before the database transaction
+ * commits.
+ *
+ * Writes are buffered per database transaction and per Fedora transaction, so writes from a database transaction
+ * which rolls back are dropped along with it. Outside of a database transaction, or with a batch size of 1 or less,
+ * writes are made immediately.
+ *
+ * As the buffers don't outlive the database transaction, writes are only batched within a single request. A
+ * long-running Fedora transaction spans one database transaction per request made in it, so requests which each
+ * change a few rows get little from batching. It helps most with requests which change many rows at once, such as
+ * updating a resource with many references or a membership resource with many members.
+ */
+public class DbWriteBuffer {
+
+    private static final Logger LOGGER = getLogger(DbWriteBuffer.class);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final int batchSize;
+
+    /**
+     * Constructor
+     * @param jdbcTemplate the template to write with
+     * @param batchSize the number of writes to send in each batch
+     */
+    public DbWriteBuffer(final NamedParameterJdbcTemplate jdbcTemplate, final int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Add a write for a Fedora transaction, it is made immediately if it cannot be buffered.
+     * @param txId the Fedora transaction id
+     * @param sql the statement
+     * @param parameters the parameters of the statement
+     */
+    public void add(final String txId, final String sql, final SqlParameterSource parameters) {
+        final Map<String, List<PendingWrite>> buffers = getBuffers(true);
+        if (buffers == null) {
+            jdbcTemplate.update(sql, parameters);
+            return;
+        }
+        final List<PendingWrite> pending = buffers.computeIfAbsent(txId, k -> new ArrayList<>());
+        pending.add(new PendingWrite(sql, parameters));
+        if (pending.size() >= batchSize) {
+            flush(txId);
+        }
+    }
+
+    /**
+     * Write everything buffered for a Fedora transaction, must be called before reading its operations.
+     * @param txId the Fedora transaction id
+     */
+    public void flush(final String txId) {
+        final Map<String, List<PendingWrite>> buffers = getBuffers(false);
+        if (buffers != null) {
+            final List<PendingWrite> pending = buffers.remove(txId);
+            if (pending != null) {
+                write(pending);
+            }
+        }
+    }
+
+    /**
+     * Drop everything buffered for a Fedora transaction.
+     * @param txId the Fedora transaction id
+     */
+    public void discard(final String txId) {
+        final Map<String, List<PendingWrite>> buffers = getBuffers(false);
+        if (buffers != null) {
+            buffers.remove(txId);
+        }
+    }
+
+    /**
+     * Drop everything buffered for all Fedora transactions.
+     */
+    public void discardAll() {
+        final Map<String, List<PendingWrite>> buffers = getBuffers(false);
+        if (buffers != null) {
+            buffers.clear();
+        }
+    }
+
+    private void flushAll() {
+        final Map<String, List<PendingWrite>> buffers = getBuffers(false);
+        if (buffers != null) {
+            while (!buffers.isEmpty()) {
+                flush(buffers.keySet().iterator().next());
+            }
+        }
+    }
+
+    /**
+     * Send the writes in order, runs of the same statement go in a single batch.
+     */
+    private void write(final List<PendingWrite> pending) {
+        LOGGER.debug("Writing {} buffered operations", pending.size());
+        int start = 0;
+        while (start < pending.size()) {
+            final String sql = pending.get(start).sql;
+            int end = start + 1;
+            while (end < pending.size() && end - start < batchSize && pending.get(end).sql.equals(sql)) {
+                end += 1;
+            }
+            if (end - start == 1) {
+                jdbcTemplate.update(sql, pending.get(start).parameters);
+            } else {
+                jdbcTemplate.batchUpdate(sql, pending.subList(start, end).stream()
+                        .map(p -> p.parameters)
+                        .toArray(SqlParameterSource[]::new));
+            }
+            start = end;
+        }
+    }
+
+    /**
+     * Get the buffers bound to the current database transaction.
+     * @param create whether to create the buffers if they don't exist yet
+     * @return the buffers, or null if there is no database transaction or buffering is disabled
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, List<PendingWrite>> getBuffers(final boolean create) {
+        if (batchSize <= 1 || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        var buffers = (Map<String, List<PendingWrite>>) TransactionSynchronizationManager.getResource(this);
+        if (buffers == null && create) {
+            final Map<String, List<PendingWrite>> newBuffers = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, newBuffers);
+            TransactionSynchronizationManager.registerSynchronization(new BufferSynchronization(newBuffers));
+            buffers = newBuffers;
+        }
+        return buffers;
+    }
+
+    /**
+     * Flushes the buffers before the database transaction commits and unbinds them when it completes.
+     */
+    private class BufferSynchronization implements TransactionSynchronization {
+
+        private final Map<String, List<PendingWrite>> buffers;
+
+        BufferSynchronization(final Map<String, List<PendingWrite>> buffers) {
+            this.buffers = buffers;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResourceIfPossible(DbWriteBuffer.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(DbWriteBuffer.this, buffers);
+        }
+
+        @Override
+        public void beforeCommit(final boolean readOnly) {
+            flushAll();
+        }
+
+        @Override
+        public void afterCompletion(final int status) {
+            if (status != STATUS_COMMITTED && !buffers.isEmpty()) {
+                LOGGER.debug("Dropping buffered operations for {} transactions", buffers.size());
+            }
+            buffers.clear();
+            TransactionSynchronizationManager.unbindResourceIfPossible(DbWriteBuffer.this);
+        }
+    }
+
+    private static class PendingWrite {
+
+        private final String sql;
+
+        private final SqlParameterSource parameters;
+
+        PendingWrite(final String sql, final SqlParameterSource parameters) {
+            this.sql = sql;
+            this.parameters = parameters;
+        }
+    }
+}
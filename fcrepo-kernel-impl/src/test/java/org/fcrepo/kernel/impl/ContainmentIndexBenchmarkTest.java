@@ -0,0 +1,124 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree.
+ */
+package org.fcrepo.kernel.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.inject.Inject;
+import javax.sql.DataSource;
+
+import org.fcrepo.kernel.api.Transaction;
+import org.fcrepo.kernel.api.identifiers.FedoraId;
+
+import org.flywaydb.test.FlywayTestExecutionListener;
+import org.flywaydb.test.annotation.FlywayTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.Logger;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestExecutionListeners;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.support.DependencyInjectionTestExecutionListener;
+
+/**
+ * Lists a container with a million children from H2 and reports the time spent retrieving each page, and checks
+ * that it stays flat as the listing goes deeper into the container.
+ *
+ * Run with: mvn test -Dtest=ContainmentIndexBenchmarkTest -Dfcrepo.benchmark=true -Dfcrepo.log=INFO
+ */
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration("/containmentIndexTest.xml")
+@TestExecutionListeners({DependencyInjectionTestExecutionListener.class, FlywayTestExecutionListener.class })
+@EnabledIfSystemProperty(named = "fcrepo.benchmark", matches = "true")
+public class ContainmentIndexBenchmarkTest {
+
+    private static final Logger LOGGER = getLogger(ContainmentIndexBenchmarkTest.class);
+
+    private static final int NUMBER_OF_CHILDREN = 1_000_000;
+
+    private static final int PAGE_SIZE = 50_000;
+
+    private static final int INSERT_BATCH_SIZE = 10_000;
+
+    /**
+     * How much slower than the first page the last page may be, the first page is slowed by warming up as well.
+     */
+    private static final int LAST_PAGE_FACTOR = 2;
+
+    private static final long LAST_PAGE_MARGIN_MS = 100;
+
+    @Inject
+    private ContainmentIndexImpl containmentIndex;
+
+    @Inject
+    private DataSource dataSource;
+
+    @Test
+    @FlywayTest
+    public void testListingTimePerPage() {
+        final FedoraId parent = FedoraId.create("benchmark-parent");
+        loadChildren(parent);
+        containmentIndex.setContainsLimit(PAGE_SIZE);
+
+        final Transaction tx = TestTransactionHelper.mockTransaction("benchmark", true);
+        final List<Long> pageTimes = new ArrayList<>();
+        final long[] pageStart = {System.nanoTime()};
+        final long[] count = {0};
+        containmentIndex.getContains(tx, parent).forEach(child -> {
+            count[0] += 1;
+            if (count[0] % PAGE_SIZE == 0) {
+                final long now = System.nanoTime();
+                pageTimes.add((now - pageStart[0]) / 1_000_000);
+                pageStart[0] = now;
+            }
+        });
+
+        assertEquals(NUMBER_OF_CHILDREN, count[0]);
+        for (int i = 0; i < pageTimes.size(); i++) {
+            LOGGER.info("Page {} of {} children listed in {} ms", i + 1, PAGE_SIZE, pageTimes.get(i));
+        }
+        final long firstPage = pageTimes.get(0);
+        final long lastPage = pageTimes.get(pageTimes.size() - 1);
+        LOGGER.info("First page {} ms, last page {} ms", firstPage, lastPage);
+        assertTrue(lastPage <= firstPage * LAST_PAGE_FACTOR + LAST_PAGE_MARGIN_MS,
+                "The last page took " + lastPage + " ms, the first " + firstPage + " ms");
+    }
+
+    /**
+     * Insert the children straight into the containment table, going through the index would take far longer than
+     * the listing being measured.
+     */
+    private void loadChildren(final FedoraId parent) {
+        final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        final Timestamp now = Timestamp.from(Instant.now());
+        final List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int i = 0; i < NUMBER_OF_CHILDREN; i++) {
+            batch.add(new Object[]{parent.resolve(String.format("child-%07d", i)).getFullId(), parent.getFullId(),
+                    now});
+            if (batch.size() == INSERT_BATCH_SIZE) {
+                insert(jdbcTemplate, batch);
+            }
+        }
+        insert(jdbcTemplate, batch);
+    }
+
+    private void insert(final JdbcTemplate jdbcTemplate, final List<Object[]> batch) {
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO containment (fedora_id, parent, start_time) VALUES (?, ?, ?)",
+                    batch);
+            batch.clear();
+        }
+    }
+}
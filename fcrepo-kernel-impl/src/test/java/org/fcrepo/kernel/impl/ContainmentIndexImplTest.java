@@ -21,11 +21,13 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 import jakarta.inject.Inject;
 
+import org.fcrepo.config.FedoraPropsConfig;
 import org.fcrepo.kernel.api.Transaction;
 import org.fcrepo.kernel.api.identifiers.FedoraId;
 import org.fcrepo.kernel.api.models.FedoraResource;
@@ -43,6 +45,9 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestExecutionListeners;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.context.support.DependencyInjectionTestExecutionListener;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * @author peichman
@@ -75,6 +80,12 @@ public class ContainmentIndexImplTest {
     @Inject
     private ContainmentIndexImpl containmentIndex;
 
+    @Inject
+    private FedoraPropsConfig fedoraPropsConfig;
+
+    @Inject
+    private PlatformTransactionManager txManager;
+
     private final Map<String, FedoraResource> id_to_resource = new HashMap<>();
     private final Map<String, Transaction> id_to_transaction = new HashMap<>();
 
@@ -558,6 +569,101 @@ public class ContainmentIndexImplTest {
         assertTrue(containmentIndex.resourceExists(shortLivedTx, fedoraID, false));
     }
 
+    @Test
+    public void testBatchLookupsInTransaction() {
+        stubObject("parent1");
+        stubObject("child1");
+        stubObject("child2");
+        stubObject("transaction1");
+        final FedoraId missing = FedoraId.create(UUID.randomUUID().toString());
+        containmentIndex.addContainedBy(transaction1, parent1.getFedoraId(), child1.getFedoraId());
+        containmentIndex.addContainedBy(transaction1, parent1.getFedoraId(), child2.getFedoraId());
+        final List<FedoraId> ids = List.of(child1.getFedoraId(), child2.getFedoraId(), missing);
+
+        assertEquals(Set.of(child1.getFedoraId(), child2.getFedoraId()),
+                containmentIndex.resourcesExist(transaction1, ids, false));
+        // Not visible outside the transaction
+        assertTrue(containmentIndex.resourcesExist(shortLivedTx, ids, false).isEmpty());
+
+        containmentIndex.removeResource(transaction1, child2.getFedoraId());
+        assertEquals(Set.of(child1.getFedoraId()), containmentIndex.resourcesExist(transaction1, ids, false));
+    }
+
+    @Test
+    public void testBatchLookupsAfterCommit() {
+        stubObject("parent1");
+        stubObject("child1");
+        stubObject("child2");
+        stubObject("transaction1");
+        stubObject("transaction2");
+        final FedoraId missing = FedoraId.create(UUID.randomUUID().toString());
+        containmentIndex.addContainedBy(transaction1, parent1.getFedoraId(), child1.getFedoraId());
+        containmentIndex.addContainedBy(transaction1, parent1.getFedoraId(), child2.getFedoraId());
+        containmentIndex.commitTransaction(transaction1);
+        final List<FedoraId> ids = List.of(child1.getFedoraId(), child2.getFedoraId(), missing,
+                FedoraId.getRepositoryRootId());
+
+        assertEquals(Set.of(child1.getFedoraId(), child2.getFedoraId(), FedoraId.getRepositoryRootId()),
+                containmentIndex.resourcesExist(shortLivedTx, ids, false));
+        // Single lookups agree with the cached batch results
+        assertEquals(parent1.getFedoraId().getFullId(),
+                containmentIndex.getContainedBy(shortLivedTx, child2.getFedoraId()));
+        assertFalse(containmentIndex.resourceExists(shortLivedTx, missing, false));
+
+        containmentIndex.removeResource(transaction2, child2.getFedoraId());
+        containmentIndex.commitTransaction(transaction2);
+        assertEquals(Set.of(child1.getFedoraId(), FedoraId.getRepositoryRootId()),
+                containmentIndex.resourcesExist(shortLivedTx, ids, false));
+        assertEquals(Set.of(child1.getFedoraId(), child2.getFedoraId(), FedoraId.getRepositoryRootId()),
+                containmentIndex.resourcesExist(shortLivedTx, ids, true));
+    }
+
+    @Test
+    public void testGetContainerIdByPathSkipsMissingAncestors() {
+        stubObject("parent1");
+        stubObject("transaction1");
+        final FedoraId deepChild = parent1.getFedoraId().resolve("a/b/c");
+        containmentIndex.addContainedBy(transaction1, FedoraId.getRepositoryRootId(), parent1.getFedoraId());
+        containmentIndex.commitTransaction(transaction1);
+
+        assertEquals(parent1.getFedoraId(), containmentIndex.getContainerIdByPath(shortLivedTx, deepChild, false));
+        assertEquals(FedoraId.getRepositoryRootId(), containmentIndex.getContainerIdByPath(shortLivedTx,
+                FedoraId.create(UUID.randomUUID() + "/x/y"), false));
+    }
+
+    @Test
+    public void testBufferedWritesInDbTransaction() {
+        stubObject("parent1");
+        stubObject("transaction1");
+        final var template = new TransactionTemplate(txManager);
+        final List<FedoraId> children = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            children.add(parent1.getFedoraId().resolve("child" + i));
+        }
+        // Writes made in a database transaction which rolls back are dropped along with it.
+        template.executeWithoutResult(status -> {
+            containmentIndex.addContainedBy(transaction1, parent1.getFedoraId(), children.get(0));
+            status.setRollbackOnly();
+        });
+        assertEquals(0, containmentIndex.getContains(transaction1, parent1.getFedoraId()).count());
+
+        template.executeWithoutResult(status -> {
+            children.forEach(c -> containmentIndex.addContainedBy(transaction1, parent1.getFedoraId(), c));
+            // Buffered writes are seen by reads in the same database transaction.
+            assertEquals(250, containmentIndex.getContains(transaction1, parent1.getFedoraId()).count());
+            containmentIndex.addContainedBy(transaction1, FedoraId.getRepositoryRootId(), parent1.getFedoraId());
+        });
+        // The rest are written when the database transaction commits.
+        assertTrue(containmentIndex.resourceExists(transaction1, parent1.getFedoraId(), false));
+        template.executeWithoutResult(status -> {
+            containmentIndex.removeResource(transaction1, children.get(0));
+            containmentIndex.commitTransaction(transaction1);
+        });
+        assertEquals(249, containmentIndex.getContains(shortLivedTx, parent1.getFedoraId()).count());
+        assertEquals(parent1.getFedoraId().getFullId(),
+                containmentIndex.getContainedBy(shortLivedTx, children.get(1)));
+    }
+
     @Test
     public void clearIndexWhenReset() {
         stubObject("parent1");
@@ -661,6 +767,79 @@ public class ContainmentIndexImplTest {
         assertTrue(containmentIndex.hasResourcesStartingWith(transaction1, parent1.getFedoraId()));
     }
 
+    @Test
+    public void testHasResourcesStartingWithAncestors() {
+        stubObject("parent1");
+        stubObject("transaction1");
+        stubObject("transaction2");
+        final var committedId = parent1.getFedoraId().resolve("a/layer/down");
+        final var uncommittedId = parent1.getFedoraId().resolve("b/layer/down");
+        // Resources committed before the ancestors are enabled are filled in at startup.
+        containmentIndex.addContainedBy(transaction1, FedoraId.getRepositoryRootId(), committedId);
+        containmentIndex.commitTransaction(transaction1);
+        fedoraPropsConfig.setContainmentAncestorsEnabled(true);
+        try {
+            containmentIndex.setupAncestors().join();
+            assertTrue(containmentIndex.hasResourcesStartingWith(shortLivedTx, parent1.getFedoraId()));
+            assertTrue(containmentIndex.hasResourcesStartingWith(shortLivedTx, parent1.getFedoraId().resolve("a")));
+            assertFalse(containmentIndex.hasResourcesStartingWith(shortLivedTx, committedId));
+            assertFalse(containmentIndex.hasResourcesStartingWith(shortLivedTx, parent1.getFedoraId().resolve("b")));
+
+            // Uncommitted resources are only visible in their transaction.
+            containmentIndex.addContainedBy(transaction2, FedoraId.getRepositoryRootId(), uncommittedId);
+            assertTrue(containmentIndex.hasResourcesStartingWith(transaction2, parent1.getFedoraId().resolve("b")));
+            assertFalse(containmentIndex.hasResourcesStartingWith(shortLivedTx, parent1.getFedoraId().resolve("b")));
+            containmentIndex.commitTransaction(transaction2);
+            assertTrue(containmentIndex.hasResourcesStartingWith(shortLivedTx, parent1.getFedoraId().resolve("b")));
+
+            // Tombstones still count, purged resources do not.
+            containmentIndex.removeResource(transaction1, committedId);
+            containmentIndex.commitTransaction(transaction1);
+            assertTrue(containmentIndex.hasResourcesStartingWith(shortLivedTx, parent1.getFedoraId().resolve("a")));
+            containmentIndex.purgeResource(transaction1, committedId);
+            containmentIndex.commitTransaction(transaction1);
+            assertFalse(containmentIndex.hasResourcesStartingWith(shortLivedTx, parent1.getFedoraId().resolve("a")));
+        } finally {
+            fedoraPropsConfig.setContainmentAncestorsEnabled(false);
+            containmentIndex.setupAncestors().join();
+        }
+    }
+
+    @Test
+    public void testHasResourcesStartingWithAncestorsAfterInterruptedFill() {
+        stubObject("parent1");
+        stubObject("transaction1");
+        final var firstId = parent1.getFedoraId().resolve("a/layer/down");
+        final var secondId = parent1.getFedoraId().resolve("b/layer/down");
+        containmentIndex.addContainedBy(transaction1, FedoraId.getRepositoryRootId(), firstId);
+        containmentIndex.addContainedBy(transaction1, FedoraId.getRepositoryRootId(), secondId);
+        containmentIndex.commitTransaction(transaction1);
+        // A fill which stopped after the first resource leaves rows but no record of completion
+        final var jdbcTemplate = new NamedParameterJdbcTemplate(containmentIndex.getDataSource());
+        for (final String ancestor : ContainmentIndexImpl.getAncestorPaths(firstId.getFullId())) {
+            jdbcTemplate.update("INSERT INTO containment_ancestors (ancestor, fedora_id) VALUES (:ancestor, :child)",
+                    Map.of("ancestor", ancestor, "child", firstId.getFullId()));
+        }
+        fedoraPropsConfig.setContainmentAncestorsEnabled(true);
+        try {
+            containmentIndex.setupAncestors().join();
+            assertTrue(containmentIndex.hasResourcesStartingWith(shortLivedTx, parent1.getFedoraId().resolve("a")));
+            assertTrue(containmentIndex.hasResourcesStartingWith(shortLivedTx, parent1.getFedoraId().resolve("b")));
+            assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM containment_ancestors WHERE " +
+                    "ancestor = :ancestor", Map.of("ancestor", parent1.getFedoraId().getFullId()), Integer.class));
+        } finally {
+            fedoraPropsConfig.setContainmentAncestorsEnabled(false);
+            containmentIndex.setupAncestors().join();
+        }
+    }
+
+    @Test
+    public void testGetAncestorPaths() {
+        assertEquals(List.of("info:fedora/a", "info:fedora/a/b"),
+                ContainmentIndexImpl.getAncestorPaths("info:fedora/a/b/c"));
+        assertTrue(ContainmentIndexImpl.getAncestorPaths("info:fedora/a").isEmpty());
+    }
+
     @Test
     public void testDeletedResourceExists() {
         stubObject("parent1");
@@ -789,6 +968,67 @@ public class ContainmentIndexImplTest {
                 .collect(toList());
         assertEquals(10, foundChildren.size());
         assertEquals(expectedChildren, foundChildren);
+        // Listing resumes after the given child and the pages after it are read as usual
+        assertEquals(expectedChildren.subList(2, 10), containmentIndex.getContains(shortLivedTx,
+                parent1.getFedoraId(), expectedChildren.get(1)).collect(toList()));
+        assertEquals(expectedChildren.subList(7, 10), containmentIndex.getContains(shortLivedTx,
+                parent1.getFedoraId(), expectedChildren.get(6)).collect(toList()));
+        assertEquals(0, containmentIndex.getContains(shortLivedTx, parent1.getFedoraId(),
+                expectedChildren.get(9)).count());
+    }
+
+    @Test
+    public void testLargeContainmentInTransaction() {
+        stubObject("transaction1");
+        stubObject("transaction2");
+        stubObject("parent1");
+        containmentIndex.setContainsLimit(3);
+        final List<String> expectedChildren = new ArrayList<>(10);
+        for (var i = 0; i < 10; i += 2) {
+            final FedoraId childId = parent1.getFedoraId().resolve("child_" + i);
+            expectedChildren.add(childId.getFullId());
+            containmentIndex.addContainedBy(transaction1, parent1.getFedoraId(), childId);
+        }
+        containmentIndex.commitTransaction(transaction1);
+        // Interleave children added in the transaction with the committed ones, and remove one of each.
+        for (var i = 1; i < 10; i += 2) {
+            final FedoraId childId = parent1.getFedoraId().resolve("child_" + i);
+            expectedChildren.add(childId.getFullId());
+            containmentIndex.addContainedBy(transaction2, parent1.getFedoraId(), childId);
+        }
+        final FedoraId removedCommitted = parent1.getFedoraId().resolve("child_4");
+        final FedoraId removedAdded = parent1.getFedoraId().resolve("child_7");
+        containmentIndex.removeContainedBy(transaction2, parent1.getFedoraId(), removedCommitted);
+        containmentIndex.removeContainedBy(transaction2, parent1.getFedoraId(), removedAdded);
+        expectedChildren.remove(removedCommitted.getFullId());
+        expectedChildren.remove(removedAdded.getFullId());
+        expectedChildren.sort(String::compareTo);
+
+        final var foundChildren = containmentIndex.getContains(transaction2, parent1.getFedoraId())
+                .collect(toList());
+        assertEquals(expectedChildren, foundChildren);
+        assertEquals(expectedChildren.subList(4, expectedChildren.size()), containmentIndex.getContains(
+                transaction2, parent1.getFedoraId(), expectedChildren.get(3)).collect(toList()));
+        final var deletedChildren = containmentIndex.getContainsDeleted(transaction2, parent1.getFedoraId())
+                .collect(toList());
+        assertEquals(List.of(removedCommitted.getFullId()), deletedChildren);
+    }
+
+    @Test
+    public void testLargeDeletedContainment() {
+        stubObject("parent1");
+        containmentIndex.setContainsLimit(4);
+        final List<String> expectedChildren = new ArrayList<>(8);
+        for (var i = 0; i < 8; i += 1) {
+            final FedoraId childId = parent1.getFedoraId().resolve("child_" + i);
+            expectedChildren.add(childId.getFullId());
+            containmentIndex.addContainedBy(shortLivedTx, parent1.getFedoraId(), childId);
+            containmentIndex.removeContainedBy(shortLivedTx, parent1.getFedoraId(), childId);
+        }
+        assertEquals(0, containmentIndex.getContains(shortLivedTx, parent1.getFedoraId()).count());
+        final var foundChildren = containmentIndex.getContainsDeleted(shortLivedTx, parent1.getFedoraId())
+                .collect(toList());
+        assertEquals(expectedChildren, foundChildren);
     }
 
     @Test
@@ -42,12 +42,16 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
 
 import java.time.Duration;
 import java.time.Instant;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Phaser;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * <p>
@@ -132,6 +136,19 @@ public class TransactionImplTest {
         verify(psSession).commit();
     }
 
+    @Test
+    public void testCommitReleasesLocksAfterDbTransaction() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            testTx.commit();
+            verify(resourceLockManager, never()).releaseAll("123");
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            verify(resourceLockManager).releaseAll("123");
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
     @Test
     public void testCommitIfShortLived() throws Exception {
         testTx.setShortLived(true);
@@ -181,6 +198,20 @@ public class TransactionImplTest {
         verify(psSession).rollback();
     }
 
+    @Test
+    public void testCompletionActionsRunOnCommitAndRollback() throws Exception {
+        final var committed = new AtomicInteger();
+        testTx.afterCompletion(committed::incrementAndGet);
+        testTx.commit();
+        assertEquals(1, committed.get());
+
+        final var rolledBack = new AtomicInteger();
+        final var otherTx = new TransactionImpl("456", txManager, DEFAULT_SESSION_DURATION);
+        otherTx.afterCompletion(rolledBack::incrementAndGet);
+        otherTx.rollback();
+        assertEquals(1, rolledBack.get());
+    }
+
     @Test
     public void shouldRollbackAllWhenStorageThrowsException() throws Exception {
         doThrow(new PersistentStorageException("storage")).when(psSession).rollback();
@@ -272,6 +303,7 @@ public class TransactionImplTest {
         Thread.sleep(1000);
         testTx.refresh();
         assertTrue(testTx.getExpires().isAfter(previousExpiry));
+        verify(resourceLockManager).renewAll(testTx.getId(), testTx.getExpires());
     }
 
     @Test
@@ -444,7 +476,7 @@ public class TransactionImplTest {
 
         testTx.lockResource(resourceId);
 
-        verify(resourceLockManager).acquireExclusive(testTx.getId(), resourceId);
+        verify(resourceLockManager).acquireExclusive(testTx.getId(), resourceId, testTx.getExpires());
     }
 
     @Test
@@ -453,7 +485,7 @@ public class TransactionImplTest {
 
         testTx.lockResourceNonExclusive(resourceId);
 
-        verify(resourceLockManager).acquireNonExclusive(testTx.getId(), resourceId);
+        verify(resourceLockManager).acquireNonExclusive(testTx.getId(), resourceId, testTx.getExpires());
     }
 
     @Test
@@ -468,10 +500,11 @@ public class TransactionImplTest {
         testTx.lockResourceAndGhostNodes(resourceId);
 
         // Should lock the resource itself
-        verify(resourceLockManager).acquireExclusive(testTx.getId(), resourceId);
+        verify(resourceLockManager).acquireExclusive(testTx.getId(), resourceId, testTx.getExpires());
 
         // Should also lock ghost nodes
-        verify(resourceLockManager).acquireExclusive(testTx.getId(), FedoraId.create("test/nested"));
+        verify(resourceLockManager).acquireExclusive(testTx.getId(), FedoraId.create("test/nested"),
+                testTx.getExpires());
     }
 
     @Test
@@ -0,0 +1,258 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree.
+ */
+package org.fcrepo.kernel.impl.lock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.inject.Inject;
+import javax.sql.DataSource;
+
+import org.fcrepo.config.FedoraPropsConfig;
+import org.fcrepo.kernel.api.exception.ConcurrentUpdateException;
+import org.fcrepo.kernel.api.identifiers.FedoraId;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.test.FlywayTestExecutionListener;
+import org.flywaydb.test.annotation.FlywayTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestExecutionListeners;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.support.DependencyInjectionTestExecutionListener;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Tests the database lock manager with two lock managers sharing one database, as two nodes of a repository would.
+ */
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration("/containmentIndexTest.xml")
+@TestExecutionListeners({DependencyInjectionTestExecutionListener.class, FlywayTestExecutionListener.class})
+public class DbResourceLockManagerTest {
+
+    @Inject
+    private DataSource dataSource;
+
+    @Inject
+    private PlatformTransactionManager txManager;
+
+    private DbResourceLockManager node1;
+
+    private DbResourceLockManager node2;
+
+    private String txId1;
+    private String txId2;
+    private FedoraId resourceId;
+
+    @BeforeEach
+    @FlywayTest
+    public void setup() {
+        node1 = createNode();
+        node2 = createNode();
+        txId1 = UUID.randomUUID().toString();
+        txId2 = UUID.randomUUID().toString();
+        resourceId = FedoraId.create(UUID.randomUUID().toString());
+    }
+
+    private DbResourceLockManager createNode() {
+        return createNode(dataSource);
+    }
+
+    private DbResourceLockManager createNode(final DataSource nodeDataSource) {
+        final var propsConfig = new FedoraPropsConfig();
+        propsConfig.setSessionTimeout(Duration.ofMinutes(3));
+        propsConfig.setDbResourceLocksPoolSize(2);
+        final var lockManager = new DbResourceLockManager();
+        lockManager.setDataSource(nodeDataSource);
+        lockManager.setFedoraPropsConfig(propsConfig);
+        lockManager.setup();
+        return lockManager;
+    }
+
+    @Test
+    public void shouldReacquireLockItAlreadyHolds() {
+        node1.acquireExclusive(txId1, resourceId);
+        node1.acquireExclusive(txId1, resourceId);
+        node1.acquireNonExclusive(txId1, resourceId);
+    }
+
+    @Test
+    public void shouldFailToAcquireExclusiveLockHeldOnOtherNode() {
+        node1.acquireExclusive(txId1, resourceId);
+        assertThrows(ConcurrentUpdateException.class, () -> node2.acquireExclusive(txId2, resourceId));
+        assertThrows(ConcurrentUpdateException.class, () -> node2.acquireNonExclusive(txId2, resourceId));
+    }
+
+    @Test
+    public void shouldShareNonExclusiveLocksBetweenNodes() {
+        node1.acquireNonExclusive(txId1, resourceId);
+        node2.acquireNonExclusive(txId2, resourceId);
+        assertThrows(ConcurrentUpdateException.class, () -> node2.acquireExclusive(txId2, resourceId));
+        assertThrows(ConcurrentUpdateException.class, () -> node1.acquireExclusive(txId1, resourceId));
+    }
+
+    @Test
+    public void shouldKeepNonExclusiveLockWhenUpgradeFails() {
+        node1.acquireNonExclusive(txId1, resourceId);
+        node2.acquireNonExclusive(txId2, resourceId);
+        assertThrows(ConcurrentUpdateException.class, () -> node2.acquireExclusive(txId2, resourceId));
+
+        final var txId3 = UUID.randomUUID().toString();
+        node1.releaseAll(txId1);
+        assertThrows(ConcurrentUpdateException.class, () -> node1.acquireExclusive(txId3, resourceId));
+        node2.acquireExclusive(txId2, resourceId);
+    }
+
+    @Test
+    public void shouldAcquireLockAfterOtherNodeReleasesIt() {
+        node1.acquireExclusive(txId1, resourceId);
+        assertThrows(ConcurrentUpdateException.class, () -> node2.acquireExclusive(txId2, resourceId));
+        node1.releaseAll(txId1);
+        node2.acquireExclusive(txId2, resourceId);
+        assertThrows(ConcurrentUpdateException.class, () -> node1.acquireNonExclusive(txId1, resourceId));
+    }
+
+    @Test
+    public void shouldIgnoreExpiredLocks() {
+        node1.acquireExclusive(txId1, resourceId);
+        node1.renewAll(txId1, Instant.now().plusSeconds(60));
+        assertThrows(ConcurrentUpdateException.class, () -> node2.acquireExclusive(txId2, resourceId));
+
+        node1.renewAll(txId1, Instant.now().minusSeconds(60));
+        node2.acquireExclusive(txId2, resourceId);
+    }
+
+    @Test
+    public void shouldExpireLocksWithTheirTransaction() {
+        // the lock lasts as long as the transaction, not the three minute session timeout
+        node1.acquireExclusive(txId1, resourceId, Instant.now().plusSeconds(60));
+        assertThrows(ConcurrentUpdateException.class, () -> node2.acquireExclusive(txId2, resourceId));
+
+        final var resourceId2 = FedoraId.create(UUID.randomUUID().toString());
+        node1.acquireExclusive(txId1, resourceId2, Instant.now().minusSeconds(60));
+        node2.acquireExclusive(txId2, resourceId2);
+    }
+
+    @Test
+    public void shouldSeeLocksAcquiredWithinDatabaseTransaction() {
+        final var txTemplate = new TransactionTemplate(txManager);
+        txTemplate.executeWithoutResult(status -> {
+            node1.acquireExclusive(txId1, resourceId);
+            assertThrows(ConcurrentUpdateException.class, () -> node2.acquireExclusive(txId2, resourceId));
+            status.setRollbackOnly();
+        });
+        assertThrows(ConcurrentUpdateException.class, () -> node2.acquireExclusive(txId2, resourceId));
+    }
+
+    @Test
+    public void shouldNeverGrantConflictingLocksConcurrently() throws Exception {
+        final var nodes = List.of(node1, node2);
+        final int threads = 4;
+        final int rounds = 20;
+        final var barrier = new CyclicBarrier(threads);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < rounds; round++) {
+                final var roundResource = FedoraId.create("round-" + round);
+                final List<Future<String>> results = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    final var node = nodes.get(t % nodes.size());
+                    final var txId = UUID.randomUUID().toString();
+                    results.add(executor.submit(() -> {
+                        barrier.await(10, TimeUnit.SECONDS);
+                        try {
+                            node.acquireExclusive(txId, roundResource);
+                            return txId;
+                        } catch (final ConcurrentUpdateException e) {
+                            return null;
+                        }
+                    }));
+                }
+                int granted = 0;
+                for (final var result : results) {
+                    if (result.get() != null) {
+                        granted++;
+                    }
+                }
+                assertTrue(granted <= 1, "Only one transaction may hold an exclusive lock, but " + granted + " do");
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    @Test
+    public void shouldLockWithMoreWritersThanPooledConnections() throws Exception {
+        final var config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:index;DB_CLOSE_DELAY=-1");
+        config.setMaximumPoolSize(2);
+        config.setConnectionTimeout(5000);
+        final int writers = 8;
+        final ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try (final var pool = new HikariDataSource(config)) {
+            final var node = createNode(pool);
+            final var txTemplate = new TransactionTemplate(new DataSourceTransactionManager(pool));
+            final List<Future<?>> results = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                final var txId = UUID.randomUUID().toString();
+                results.add(executor.submit(() -> {
+                    // every writer locks its resources while holding a connection of the pool, as requests do
+                    txTemplate.executeWithoutResult(status -> {
+                        new JdbcTemplate(pool).queryForObject("SELECT 1", Integer.class);
+                        for (int r = 0; r < 10; r++) {
+                            node.acquireExclusive(txId, FedoraId.create(txId + "/" + r));
+                        }
+                    });
+                    node.releaseAll(txId);
+                }));
+            }
+            for (final var result : results) {
+                result.get(1, TimeUnit.MINUTES);
+            }
+            node.shutdown();
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(0, countLocks());
+    }
+
+    @Test
+    public void shouldReleaseLocksOfEveryResource() {
+        final var resourceId2 = FedoraId.create(UUID.randomUUID().toString());
+        node1.acquireExclusive(txId1, resourceId);
+        node1.acquireNonExclusive(txId1, resourceId2);
+        node1.releaseAll(txId1);
+        node2.acquireExclusive(txId2, resourceId);
+        node2.acquireExclusive(txId2, resourceId2);
+        node2.releaseAll(txId2);
+        assertEquals(0, countLocks());
+    }
+
+    private int countLocks() {
+        final var template = new JdbcTemplate(dataSource);
+        final Integer count = template.queryForObject("SELECT count(*) FROM resource_locks", Integer.class);
+        return count == null ? 0 : count;
+    }
+}
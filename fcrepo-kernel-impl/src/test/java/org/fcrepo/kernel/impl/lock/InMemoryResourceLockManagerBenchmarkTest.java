@@ -0,0 +1,211 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree.
+ */
+package org.fcrepo.kernel.impl.lock;
+
+import static org.fcrepo.kernel.api.lock.ResourceLockType.EXCLUSIVE;
+import static org.fcrepo.kernel.api.lock.ResourceLockType.NONEXCLUSIVE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.fcrepo.kernel.api.exception.ConcurrentUpdateException;
+import org.fcrepo.kernel.api.identifiers.FedoraId;
+import org.fcrepo.kernel.api.lock.ResourceLock;
+import org.fcrepo.kernel.api.lock.ResourceLockManager;
+import org.fcrepo.kernel.api.lock.ResourceLockType;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.collect.Sets;
+
+/**
+ * Compares the throughput of the lock manager with the implementation it replaced, for 1, 8 and 64 threads each
+ * running transactions shaped like a PUT: a non-exclusive lock on a parent shared with other threads, an exclusive
+ * lock on a new child which is then requested again, and releasing both.
+ *
+ * Run with: mvn test -Dtest=InMemoryResourceLockManagerBenchmarkTest -Dfcrepo.benchmark=true -Dfcrepo.log=INFO
+ */
+@EnabledIfSystemProperty(named = "fcrepo.benchmark", matches = "true")
+public class InMemoryResourceLockManagerBenchmarkTest {
+
+    private static final Logger LOGGER = getLogger(InMemoryResourceLockManagerBenchmarkTest.class);
+
+    private static final int[] THREADS = {1, 8, 64};
+
+    private static final int PARENTS = 16;
+
+    private static final long WARMUP_MILLIS = 2_000;
+
+    private static final long MEASURE_MILLIS = 5_000;
+
+    @Test
+    public void testThroughput() throws Exception {
+        final List<FedoraId> parents = new ArrayList<>();
+        for (int i = 0; i < PARENTS; i++) {
+            parents.add(FedoraId.create("benchmark-parent-" + i));
+        }
+        for (final int threads : THREADS) {
+            final long previous = measure(PreviousInMemoryResourceLockManager::new, parents, threads);
+            final long current = measure(InMemoryResourceLockManager::new, parents, threads);
+            LOGGER.info("{} threads: previous {} tx/s, current {} tx/s ({}x)", threads, previous, current,
+                    String.format("%.2f", (double) current / previous));
+        }
+    }
+
+    /**
+     * @return the number of transactions completed per second
+     */
+    private long measure(final Supplier<ResourceLockManager> lockManagerFactory, final List<FedoraId> parents,
+                         final int threads) throws Exception {
+        final ResourceLockManager lockManager = lockManagerFactory.get();
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final var start = new CountDownLatch(1);
+            final long[] window = new long[2];
+            final List<Future<long[]>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final int thread = t;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    long measured = 0;
+                    long failed = 0;
+                    long i = 0;
+                    while (true) {
+                        final long now = System.currentTimeMillis();
+                        if (now >= window[1]) {
+                            break;
+                        }
+                        final String txId = thread + "-" + i;
+                        final var child = parents.get((int) (i % PARENTS)).resolve(txId);
+                        try {
+                            lockManager.acquireNonExclusive(txId, parents.get((int) (i % PARENTS)));
+                            lockManager.acquireExclusive(txId, child);
+                            lockManager.acquireExclusive(txId, child);
+                            lockManager.acquireNonExclusive(txId, child);
+                        } catch (final ConcurrentUpdateException e) {
+                            failed++;
+                        } finally {
+                            lockManager.releaseAll(txId);
+                        }
+                        if (now >= window[0]) {
+                            measured++;
+                        }
+                        i++;
+                    }
+                    return new long[]{measured, failed};
+                }));
+            }
+            final long now = System.currentTimeMillis();
+            window[0] = now + WARMUP_MILLIS;
+            window[1] = window[0] + MEASURE_MILLIS;
+            start.countDown();
+            long total = 0;
+            for (final var result : results) {
+                final long[] counts = result.get();
+                assertEquals(0, counts[1], "No transaction should conflict with another");
+                total += counts[0];
+            }
+            return total * 1000 / MEASURE_MILLIS;
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * The lock manager before it was striped, kept as the baseline.
+     */
+    private static class PreviousInMemoryResourceLockManager implements ResourceLockManager {
+
+        private final Map<String, Set<ResourceLock>> transactionLocks = new ConcurrentHashMap<>();
+
+        private final Map<FedoraId, Set<ResourceLock>> resourceLocks = new ConcurrentHashMap<>();
+
+        private final Map<String, Object> internalResourceLocks = Caffeine.newBuilder()
+                .expireAfterAccess(10, TimeUnit.MINUTES)
+                .<String, Object>build()
+                .asMap();
+
+        @Override
+        public void acquireExclusive(final String txId, final FedoraId resourceId) {
+            acquireInternal(txId, resourceId, EXCLUSIVE);
+        }
+
+        @Override
+        public void acquireNonExclusive(final String txId, final FedoraId resourceId) {
+            acquireInternal(txId, resourceId, NONEXCLUSIVE);
+        }
+
+        private void acquireInternal(final String txId, final FedoraId resourceId, final ResourceLockType lockType) {
+            final var resourceLock = new ResourceLockImpl(lockType, txId, resourceId);
+            if (transactionHoldsAdequateLock(resourceLock)) {
+                return;
+            }
+            synchronized (acquireInternalLock(resourceId)) {
+                if (transactionHoldsAdequateLock(resourceLock)) {
+                    return;
+                }
+                final var locks = resourceLocks.get(resourceId);
+                if (locks != null) {
+                    for (final var lock : locks) {
+                        if ((lockType == EXCLUSIVE && !lock.getTransactionId().equals(txId))
+                                || lock.hasLockType(EXCLUSIVE)) {
+                            throw new ConcurrentUpdateException(resourceId.getResourceId(), txId,
+                                    lock.getTransactionId());
+                        }
+                    }
+                }
+                resourceLocks.computeIfAbsent(resourceId, key -> new HashSet<>()).add(resourceLock);
+                transactionLocks.computeIfAbsent(txId, key -> Sets.newConcurrentHashSet()).add(resourceLock);
+            }
+        }
+
+        @Override
+        public void releaseAll(final String txId) {
+            final var txLocks = transactionLocks.remove(txId);
+            if (txLocks != null) {
+                txLocks.forEach(lock -> {
+                    synchronized (acquireInternalLock(lock.getResourceId())) {
+                        final var locks = resourceLocks.get(lock.getResourceId());
+                        locks.remove(lock);
+                        if (locks.isEmpty()) {
+                            resourceLocks.remove(lock.getResourceId());
+                        }
+                    }
+                });
+            }
+        }
+
+        private Object acquireInternalLock(final FedoraId resourceId) {
+            return internalResourceLocks.computeIfAbsent(resourceId.getResourceId(), key -> new Object());
+        }
+
+        private boolean transactionHoldsAdequateLock(final ResourceLock requested) {
+            final var locks = transactionLocks.get(requested.getTransactionId());
+            if (locks == null) {
+                return false;
+            }
+            final var held = locks.stream().filter(l -> Objects.equals(requested, l)).findFirst();
+            return held.map(l -> l.isAdequate(requested.getLockType())).orElse(false);
+        }
+    }
+}
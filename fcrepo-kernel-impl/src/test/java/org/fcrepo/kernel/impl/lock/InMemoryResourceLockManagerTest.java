@@ -96,6 +96,26 @@ public class InMemoryResourceLockManagerTest {
         });
     }
 
+    @Test
+    public void shouldUpgradeNonExclusiveLockToExclusive() {
+        lockManager.acquireNonExclusive(txId1, resourceId);
+        lockManager.acquireExclusive(txId1, resourceId);
+        assertLockException(() -> {
+            lockManager.acquireNonExclusive(txId2, resourceId);
+        });
+    }
+
+    @Test
+    public void shouldFailToUpgradeLockWhenHeldByAnotherTxNonExclusive() {
+        lockManager.acquireNonExclusive(txId1, resourceId);
+        lockManager.acquireNonExclusive(txId2, resourceId);
+        assertLockException(() -> {
+            lockManager.acquireExclusive(txId1, resourceId);
+        });
+        lockManager.releaseAll(txId2);
+        lockManager.acquireExclusive(txId1, resourceId);
+    }
+
     @Test
     public void shouldSucceedToAcquireNonExclusiveLockWhenHeldByAnotherTxNonExclusive() {
         lockManager.acquireNonExclusive(txId1, resourceId);
@@ -13,9 +13,12 @@ import static org.apache.jena.vocabulary.RDF.type;
 import static org.fcrepo.kernel.api.FedoraTypes.FCR_VERSIONS;
 import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_ID_PREFIX;
 import static org.fcrepo.kernel.api.RdfLexicon.BASIC_CONTAINER;
+import static org.fcrepo.kernel.api.RdfLexicon.CONTAINER;
 import static org.fcrepo.kernel.api.RdfLexicon.FEDORA_BINARY;
+import static org.fcrepo.kernel.api.RdfLexicon.FEDORA_CONTAINER;
 import static org.fcrepo.kernel.api.RdfLexicon.FEDORA_RESOURCE;
 import static org.fcrepo.kernel.api.RdfLexicon.NON_RDF_SOURCE;
+import static org.fcrepo.kernel.api.RdfLexicon.RDF_SOURCE;
 import static org.fcrepo.kernel.api.RdfLexicon.RESOURCE;
 import static org.fcrepo.kernel.api.RdfLexicon.VERSIONED_RESOURCE;
 import static org.fcrepo.kernel.api.RdfLexicon.VERSIONING_TIMEGATE_TYPE;
@@ -149,12 +152,15 @@ public class FedoraResourceImplTest {
                 create(RESOURCE.toString()),
                 create(FEDORA_RESOURCE.toString()),
                 create(VERSIONED_RESOURCE.getURI()),
-                create(VERSIONING_TIMEGATE_TYPE)
+                create(VERSIONING_TIMEGATE_TYPE),
+                create(RDF_SOURCE.toString()),
+                create(CONTAINER.toString()),
+                create(FEDORA_CONTAINER.getURI())
         );
 
         when(transaction.isShortLived()).thenReturn(true);
 
-        final var resource = new FedoraResourceImpl(FEDORA_ID, transaction, sessionManager, resourceFactory, null);
+        final var resource = new ContainerImpl(FEDORA_ID, transaction, sessionManager, resourceFactory, null);
         resource.setInteractionModel(BASIC_CONTAINER.toString());
         resource.setIsArchivalGroup(false);
         final var resourceTypes = resource.getTypes();
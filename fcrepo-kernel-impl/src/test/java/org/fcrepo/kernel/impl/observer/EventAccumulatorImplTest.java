@@ -6,13 +6,16 @@
 
 package org.fcrepo.kernel.impl.observer;
 
+import static org.fcrepo.kernel.api.RdfLexicon.BASIC_CONTAINER;
 import static org.fcrepo.kernel.api.RdfLexicon.RDF_SOURCE;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasItems;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -20,23 +23,31 @@ import static org.springframework.test.util.ReflectionTestUtils.setField;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import com.google.common.eventbus.EventBus;
 import org.fcrepo.config.AuthPropsConfig;
+import org.fcrepo.config.FedoraPropsConfig;
 import org.fcrepo.config.ServerManagedPropsMode;
 import org.fcrepo.kernel.api.Transaction;
+import org.fcrepo.kernel.api.cache.UserTypesCache;
 import org.fcrepo.kernel.api.exception.PathNotFoundException;
 import org.fcrepo.kernel.api.identifiers.FedoraId;
 import org.fcrepo.kernel.api.models.FedoraResource;
 import org.fcrepo.kernel.api.models.ResourceFactory;
 import org.fcrepo.kernel.api.observer.Event;
+import org.fcrepo.kernel.api.observer.EventBatch;
 import org.fcrepo.kernel.api.observer.EventType;
 import org.fcrepo.kernel.api.operations.ResourceOperation;
 import org.fcrepo.kernel.impl.operations.DeleteResourceOperationFactoryImpl;
 import org.fcrepo.kernel.impl.operations.RdfSourceOperationFactoryImpl;
+import org.fcrepo.kernel.impl.operations.ReferenceOperationBuilder;
 import org.hamcrest.Description;
 import org.hamcrest.Matcher;
 import org.hamcrest.TypeSafeMatcher;
@@ -71,6 +82,9 @@ public class EventAccumulatorImplTest {
     @Mock
     private ResourceFactory resourceFactory;
 
+    @Mock
+    private UserTypesCache userTypesCache;
+
     @Mock
     private EventBus eventBus;
 
@@ -80,14 +94,19 @@ public class EventAccumulatorImplTest {
 
     private AuthPropsConfig authPropsConfig;
 
+    private FedoraPropsConfig fedoraPropsConfig;
+
     @BeforeEach
     public void setup() {
         authPropsConfig = new AuthPropsConfig();
         accumulator = new EventAccumulatorImpl();
         transaction = mockTransaction(TX_ID);
         setField(accumulator, "resourceFactory", resourceFactory);
+        setField(accumulator, "userTypesCache", userTypesCache);
         setField(accumulator, "eventBus", eventBus);
         setField(accumulator, "authPropsConfig", authPropsConfig);
+        fedoraPropsConfig = new FedoraPropsConfig();
+        setField(accumulator, "fedoraPropsConfig", fedoraPropsConfig);
         eventCaptor = ArgumentCaptor.forClass(Event.class);
     }
 
@@ -148,6 +167,109 @@ public class EventAccumulatorImplTest {
         ));
     }
 
+    @Test
+    public void emitEventsAsBatchWhenBatchEnabled() throws PathNotFoundException {
+        fedoraPropsConfig.setEventBatchEnabled(true);
+        final var fId1 = FedoraId.create("/test/1");
+        final var fId2 = FedoraId.create("/test/2");
+
+        accumulator.recordEventForOperation(transaction, fId1, createOp(fId1));
+        accumulator.recordEventForOperation(transaction, fId2, updateOp(fId2));
+
+        expectResource(fId1, CONTAINER_TYPE);
+        expectResource(fId2, CONTAINER_TYPE, RESOURCE_TYPE);
+
+        accumulator.emitEvents(transaction, BASE_URL, USER_AGENT);
+
+        final var batchCaptor = ArgumentCaptor.forClass(EventBatch.class);
+        verify(eventBus, times(1)).post(batchCaptor.capture());
+
+        final var batch = batchCaptor.getValue();
+        assertEquals(TX_ID, batch.getTransactionId());
+        assertThat(batch.getEvents(), containsInAnyOrder(
+                defaultEvent(fId1, Set.of(EventType.RESOURCE_CREATION), Set.of(CONTAINER_TYPE.toString())),
+                defaultEvent(fId2, Set.of(EventType.RESOURCE_MODIFICATION),
+                        Set.of(CONTAINER_TYPE.toString(), RESOURCE_TYPE.toString()))
+        ));
+    }
+
+    @Test
+    public void emitResourceTypesCapturedWhenRecorded() throws PathNotFoundException {
+        final var fId1 = FedoraId.create("/test/1");
+
+        expectResource(fId1, CONTAINER_TYPE);
+        accumulator.recordEventForOperation(transaction, fId1, createOp(fId1));
+        expectResource(fId1, RESOURCE_TYPE);
+
+        accumulator.emitEvents(transaction, BASE_URL, USER_AGENT);
+
+        verify(eventBus, times(1)).post(eventCaptor.capture());
+        assertThat(eventCaptor.getAllValues(), contains(
+                defaultEvent(fId1, Set.of(EventType.RESOURCE_CREATION), Set.of(CONTAINER_TYPE.toString()))
+        ));
+        verify(resourceFactory, times(1)).getResource(any(Transaction.class), eq(fId1));
+    }
+
+    @Test
+    public void emitTypesOfCreatedContainerWithoutLoadingIt() throws PathNotFoundException {
+        final var fId1 = FedoraId.create("/test/1");
+        final var userType = uri("http://example.com/Thing");
+        when(userTypesCache.getCachedUserTypes(fId1, TX_ID)).thenReturn(Optional.of(List.of(userType)));
+
+        accumulator.recordEventForOperation(transaction, fId1, new RdfSourceOperationFactoryImpl()
+                .createBuilder(transaction, fId1, BASIC_CONTAINER.toString(), ServerManagedPropsMode.RELAXED)
+                .userPrincipal(USER)
+                .build());
+        accumulator.emitEvents(transaction, BASE_URL, USER_AGENT);
+
+        verify(eventBus, times(1)).post(eventCaptor.capture());
+        final var types = eventCaptor.getValue().getResourceTypes();
+        assertThat(types, hasItems(BASIC_CONTAINER.toString(), CONTAINER_TYPE.toString(), RDF_TYPE.toString(),
+                "http://fedora.info/definitions/v4/repository#Container", userType.toString()));
+        verify(resourceFactory, never()).getResource(any(Transaction.class), any(FedoraId.class));
+    }
+
+    @Test
+    public void doNotLoadReferencedResourceWhenRecorded() throws PathNotFoundException {
+        final var fId1 = FedoraId.create("/test/1");
+        expectResource(fId1, CONTAINER_TYPE);
+
+        accumulator.recordEventForOperation(transaction, fId1, new ReferenceOperationBuilder(transaction, fId1)
+                .userPrincipal(USER)
+                .build());
+        verify(resourceFactory, never()).getResource(any(Transaction.class), any(FedoraId.class));
+
+        accumulator.emitEvents(transaction, BASE_URL, USER_AGENT);
+
+        verify(eventBus, times(1)).post(eventCaptor.capture());
+        assertEquals(Set.of(CONTAINER_TYPE.toString()), eventCaptor.getValue().getResourceTypes());
+    }
+
+    @Test
+    public void emitEventsOfLargeTransactionInParallel() throws PathNotFoundException {
+        fedoraPropsConfig.setEventEmitThreads(2);
+        accumulator.setUp();
+        try {
+            final List<FedoraId> fedoraIds = new ArrayList<>();
+            for (int i = 0; i < 1200; i++) {
+                final var fedoraId = FedoraId.create("/test/" + i);
+                fedoraIds.add(fedoraId);
+                accumulator.recordEventForOperation(transaction, fedoraId, createOp(fedoraId));
+                expectResource(fedoraId, CONTAINER_TYPE);
+            }
+
+            accumulator.emitEvents(transaction, BASE_URL, USER_AGENT);
+
+            verify(eventBus, times(fedoraIds.size())).post(eventCaptor.capture());
+            final var events = eventCaptor.getAllValues();
+            assertThat(events.stream().map(Event::getFedoraId).collect(Collectors.toList()),
+                    containsInAnyOrder(fedoraIds.toArray()));
+            events.forEach(event -> assertEquals(Set.of(CONTAINER_TYPE.toString()), event.getResourceTypes()));
+        } finally {
+            accumulator.shutdown();
+        }
+    }
+
     @Test
     public void onlyEmitEventsForSameSpecifiedTransaction() throws PathNotFoundException {
         final var fId1 = FedoraId.create("/test/1");
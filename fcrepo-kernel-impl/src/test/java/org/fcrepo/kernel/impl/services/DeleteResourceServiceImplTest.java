@@ -7,7 +7,9 @@ package org.fcrepo.kernel.impl.services;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -16,9 +18,11 @@ import static org.springframework.test.util.ReflectionTestUtils.setField;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import jakarta.inject.Inject;
 
+import org.fcrepo.config.FedoraPropsConfig;
 import org.fcrepo.kernel.api.ContainmentIndex;
 import org.fcrepo.kernel.api.Transaction;
 import org.fcrepo.kernel.api.auth.ACLHandle;
@@ -48,11 +52,13 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.MockitoAnnotations;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
 /**
  * DeleteResourceServiceTest
@@ -115,8 +121,8 @@ public class DeleteResourceServiceImplTest {
     @Mock
     private ResourceHeaders aclHeaders;
 
-    @Mock
-    private Cache<String, Optional<ACLHandle>> authHandleCache;
+    @Spy
+    private Cache<String, Optional<ACLHandle>> authHandleCache = Caffeine.newBuilder().build();
 
     @Captor
     private ArgumentCaptor<DeleteResourceOperation> operationCaptor;
@@ -192,6 +198,46 @@ public class DeleteResourceServiceImplTest {
         verify(tx).lockResource(CHILD_RESOURCE_ID);
     }
 
+    @Test
+    public void testRecursiveDeleteWithParallelLoading() throws Exception {
+        final FedoraId grandchildId = CHILD_RESOURCE_ID.resolve("test-resource-grandchild");
+        final FedoraId siblingId = RESOURCE_ID.resolve("test-resource-sibling");
+        final Container grandchild = mock(Container.class);
+        final Container sibling = mock(Container.class);
+        when(grandchild.getFedoraId()).thenReturn(grandchildId);
+        when(sibling.getFedoraId()).thenReturn(siblingId);
+        when(childContainer.getFedoraId()).thenReturn(CHILD_RESOURCE_ID);
+        when(resourceFactory.getResource(tx, CHILD_RESOURCE_ID)).thenReturn(childContainer);
+        when(resourceFactory.getResource(tx, grandchildId)).thenReturn(grandchild);
+        when(resourceFactory.getResource(tx, siblingId)).thenReturn(sibling);
+        when(pSession.getHeaders(grandchildId, null)).thenReturn(childHeaders);
+        when(pSession.getHeaders(siblingId, null)).thenReturn(childHeaders);
+        containmentIndex.addContainedBy(tx, RESOURCE_ID, CHILD_RESOURCE_ID);
+        containmentIndex.addContainedBy(tx, RESOURCE_ID, siblingId);
+        containmentIndex.addContainedBy(tx, CHILD_RESOURCE_ID, grandchildId);
+
+        final var propsConfig = new FedoraPropsConfig();
+        propsConfig.setDeleteParallelism(4);
+        setField(service, "fedoraPropsConfig", propsConfig);
+        service.setUp();
+        try {
+            service.perform(tx, container, USER);
+        } finally {
+            service.shutdown();
+        }
+
+        verify(pSession, times(4)).persist(operationCaptor.capture());
+        final List<FedoraId> deleted = operationCaptor.getAllValues().stream()
+                .map(DeleteResourceOperation::getResourceId)
+                .collect(Collectors.toList());
+        assertEquals(4, deleted.size());
+        assertTrue(deleted.indexOf(grandchildId) < deleted.indexOf(CHILD_RESOURCE_ID),
+                "Contained resources must be deleted before their container");
+        assertTrue(deleted.contains(siblingId));
+        assertEquals(RESOURCE_ID, deleted.get(3));
+        assertEquals(0, containmentIndex.getContains(tx, RESOURCE_ID).count());
+    }
+
     private void verifyResourceOperation(final FedoraId fedoraID,
                                          final ArgumentCaptor<DeleteResourceOperation> captor,
                                          final PersistentStorageSession pSession) throws Exception {
@@ -0,0 +1,144 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree.
+ */
+package org.fcrepo.kernel.impl.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import jakarta.inject.Inject;
+
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.fcrepo.config.FedoraPropsConfig;
+import org.fcrepo.kernel.api.ReadOnlyTransaction;
+import org.fcrepo.kernel.api.Transaction;
+import org.fcrepo.kernel.api.identifiers.FedoraId;
+import org.fcrepo.kernel.impl.TestTransactionHelper;
+import org.flywaydb.test.FlywayTestExecutionListener;
+import org.flywaydb.test.annotation.FlywayTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestExecutionListeners;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.support.DependencyInjectionTestExecutionListener;
+
+/**
+ * Tests of reading membership from the index across page boundaries.
+ */
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration("/membershipServiceTest.xml")
+@TestExecutionListeners({DependencyInjectionTestExecutionListener.class, FlywayTestExecutionListener.class })
+public class MembershipIndexManagerTest {
+
+    private static final int PAGE_SIZE = 3;
+
+    private static final String HAS_MEMBER = "http://example.com/hasMember";
+
+    private static final String HAS_PART = "http://example.com/hasPart";
+
+    @Inject
+    private MembershipIndexManager indexManager;
+
+    @Inject
+    private FedoraPropsConfig fedoraPropsConfig;
+
+    private Transaction transaction;
+
+    private final FedoraId sourceId = FedoraId.create("source");
+
+    @BeforeEach
+    @FlywayTest
+    public void setup() {
+        transaction = TestTransactionHelper.mockTransaction(UUID.randomUUID().toString(), false);
+        indexManager.setMembershipLimit(PAGE_SIZE);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        indexManager.setMembershipLimit(50000);
+        fedoraPropsConfig.setMembershipFetchSize(0);
+    }
+
+    @Test
+    public void testGetMembershipAcrossPages() {
+        final var subjectId = FedoraId.create("subject");
+        final Set<Triple> expected = new HashSet<>();
+        // Every property has more objects than fit in a page, so pages end between rows with the same property
+        for (int i = 0; i < 7; i++) {
+            final var memberId = FedoraId.create("member" + i);
+            expected.add(addMembership(subjectId, HAS_MEMBER, memberId));
+            expected.add(addMembership(subjectId, HAS_PART, memberId));
+        }
+
+        assertMembership(expected, indexManager.getMembership(transaction, subjectId));
+
+        indexManager.commitTransaction(transaction);
+
+        assertMembership(expected, indexManager.getMembership(ReadOnlyTransaction.INSTANCE, subjectId));
+    }
+
+    @Test
+    public void testGetMembershipByObjectAcrossPages() {
+        final var objectId = FedoraId.create("object");
+        final Set<Triple> expected = new HashSet<>();
+        // Every subject has two properties, so pages end between rows with the same subject
+        for (int i = 0; i < 5; i++) {
+            final var subjectId = FedoraId.create("subject" + i);
+            expected.add(addMembership(subjectId, HAS_MEMBER, objectId));
+            expected.add(addMembership(subjectId, HAS_PART, objectId));
+        }
+
+        assertMembership(expected, indexManager.getMembershipByObject(transaction, objectId));
+
+        indexManager.commitTransaction(transaction);
+
+        assertMembership(expected, indexManager.getMembershipByObject(ReadOnlyTransaction.INSTANCE, objectId));
+    }
+
+    @Test
+    public void testGetMembershipThroughCursor() {
+        final var subjectId = FedoraId.create("subject");
+        final Set<Triple> expected = new HashSet<>();
+        for (int i = 0; i < 7; i++) {
+            expected.add(addMembership(subjectId, HAS_MEMBER, FedoraId.create("member" + i)));
+        }
+        indexManager.commitTransaction(transaction);
+        fedoraPropsConfig.setMembershipFetchSize(2);
+
+        // A partly read stream releases its cursor when closed
+        try (final var membership = indexManager.getMembership(ReadOnlyTransaction.INSTANCE, subjectId)) {
+            assertEquals(2, membership.limit(2).count());
+        }
+
+        assertMembership(expected, indexManager.getMembership(ReadOnlyTransaction.INSTANCE, subjectId));
+    }
+
+    private Triple addMembership(final FedoraId subjectId, final String property, final FedoraId objectId) {
+        final var membership = Triple.create(NodeFactory.createURI(subjectId.getFullId()),
+                NodeFactory.createURI(property), NodeFactory.createURI(objectId.getFullId()));
+        indexManager.addMembership(transaction, sourceId, objectId, membership, Instant.now());
+        return membership;
+    }
+
+    private void assertMembership(final Set<Triple> expected, final Stream<Triple> membership) {
+        final List<Triple> triples;
+        try (membership) {
+            triples = membership.collect(Collectors.toList());
+        }
+        assertEquals(expected.size(), triples.size(), "Each membership triple is returned exactly once");
+        assertEquals(expected, new HashSet<>(triples));
+    }
+}
@@ -30,6 +30,7 @@ import java.util.stream.Stream;
 
 import jakarta.inject.Inject;
 
+import org.fcrepo.config.FedoraPropsConfig;
 import org.fcrepo.config.OcflPropsConfig;
 import org.fcrepo.kernel.api.ContainmentIndex;
 import org.fcrepo.kernel.api.RdfLexicon;
@@ -108,6 +109,8 @@ public class MembershipServiceImplTest {
     private ContainmentIndex containmentIndex;
     @Inject
     private OcflPropsConfig propsConfig;
+    @Inject
+    private FedoraPropsConfig fedoraPropsConfig;
 
     private Transaction transaction;
 
@@ -199,6 +202,41 @@ public class MembershipServiceImplTest {
                 "Last updated timestamp should not change during commit");
     }
 
+    @Test
+    public void getMembers_WithDC_AddedMembers_StreamedFromCursor() throws Exception {
+        fedoraPropsConfig.setMembershipFetchSize(1);
+        try {
+            mockGetHeaders(populateHeaders(membershipRescId, BASIC_CONTAINER));
+            membershipService.resourceCreated(transaction, membershipRescId);
+
+            final var dcId = createDirectContainer(membershipRescId, RdfLexicon.LDP_MEMBER, false);
+            membershipService.resourceCreated(transaction, dcId);
+            final var isMemberOfDcId = createDirectContainer(membershipRescId, MEMBER_OF, true);
+            membershipService.resourceCreated(transaction, isMemberOfDcId);
+
+            final var member1Id = createDCMember(dcId, BASIC_CONTAINER);
+            final var member2Id = createDCMember(dcId, RdfLexicon.NON_RDF_SOURCE);
+            final var member3Id = createDCMember(dcId, BASIC_CONTAINER);
+            final var member4Id = createDCMember(isMemberOfDcId, BASIC_CONTAINER);
+
+            assertHasMembers(transaction, membershipRescId, RdfLexicon.LDP_MEMBER, member1Id, member2Id, member3Id);
+            assertIsMemberOf(transaction, member4Id, MEMBER_OF, membershipRescId);
+            assertEquals(1, getMembershipListByObject(transaction, member1Id).size());
+
+            membershipService.commitTransaction(transaction);
+
+            assertHasMembersNoTx(membershipRescId, RdfLexicon.LDP_MEMBER, member1Id, member2Id, member3Id);
+            assertIsMemberOfNoTx(member4Id, MEMBER_OF, membershipRescId);
+            // A partially consumed stream releases its cursor when closed
+            try (var membership = membershipService.getMembership(shortLivedTx, membershipRescId)) {
+                assertTrue(membership.findFirst().isPresent());
+            }
+            assertEquals(1, getMembershipListByObject(shortLivedTx, member2Id).size());
+        } finally {
+            fedoraPropsConfig.setMembershipFetchSize(0);
+        }
+    }
+
     @Test
     public void getMembers_WithDC_AddedMembers_DefaultHasMemberRelation() throws Exception {
         mockGetHeaders(populateHeaders(membershipRescId, BASIC_CONTAINER));
@@ -43,6 +43,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
@@ -51,6 +52,7 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
 /**
  * PurgeResourceServiceTest
@@ -108,8 +110,8 @@ public class PurgeResourceServiceImplTest {
     private ResourceHeaders descHeaders;
     @Mock
     private ResourceHeaders aclHeaders;
-    @Mock
-    private Cache<String, Optional<ACLHandle>> authHandleCache;
+    @Spy
+    private Cache<String, Optional<ACLHandle>> authHandleCache = Caffeine.newBuilder().build();
 
     @Captor
     private ArgumentCaptor<PurgeResourceOperation> operationCaptor;
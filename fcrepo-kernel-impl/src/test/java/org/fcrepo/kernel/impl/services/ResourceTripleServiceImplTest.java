@@ -235,6 +235,24 @@ public class ResourceTripleServiceImplTest {
         verify(containmentTriplesService).get(transaction, resource);
     }
 
+    @Test
+    public void testGetResourceTriples_WithAfter() {
+        when(preferences.displayUserRdf()).thenReturn(false);
+        when(preferences.displayServerManaged()).thenReturn(false);
+        when(preferences.displayContainment()).thenReturn(true);
+        when(preferences.displayMembership()).thenReturn(false);
+        when(preferences.displayReferences()).thenReturn(false);
+
+        // The containment service resumes after the given child
+        final String after = containmentTriple1.getObject().getURI();
+        when(containmentTriplesService.get(transaction, resource, after)).thenReturn(of(containmentTriple2));
+
+        final Stream<Triple> resultStream = service.getResourceTriples(transaction, resource, preferences, 1, after);
+
+        assertEquals(List.of(containmentTriple2), resultStream.collect(Collectors.toList()));
+        verify(containmentTriplesService).get(transaction, resource, after);
+    }
+
     @Test
     public void testGetResourceTriples_NoTriples() {
         // Setup preferences - shouldn't matter as all services return empty
@@ -11,12 +11,14 @@ import static org.fcrepo.kernel.api.RdfLexicon.WEBAC_ACCESS_TO;
 import static org.fcrepo.kernel.api.RdfLexicon.WEBAC_ACCESS_TO_CLASS;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.Resource;
 import org.fcrepo.config.FedoraPropsConfig;
@@ -46,11 +48,13 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -77,8 +81,8 @@ public class WebacAclServiceImplTest {
     @Mock
     private FedoraPropsConfig fedoraPropsConfig;
 
-    @Mock
-    private Cache<String, Optional<ACLHandle>> authHandleCache;
+    @Spy
+    private Cache<String, Optional<ACLHandle>> authHandleCache = Caffeine.newBuilder().build();
 
     @Mock
     private Transaction transaction;
@@ -169,6 +173,13 @@ public class WebacAclServiceImplTest {
                 aclModel.createProperty("http://www.w3.org/ns/auth/acl#Authorization"),
                 authResource);
 
+        final var childId = resourceId.resolve("child");
+        final var siblingId = FedoraId.create(resourceId.getResourceId() + "-sibling");
+        authHandleCache.put(resourceId.getResourceId(), Optional.empty());
+        authHandleCache.put(childId.getResourceId(), Optional.empty());
+        authHandleCache.put(childId.getResourceId() + "/", Optional.empty());
+        authHandleCache.put(siblingId.getResourceId(), Optional.empty());
+
         service.create(transaction, aclId, userPrincipal, aclModel);
 
         // Verify operation created correctly
@@ -184,8 +195,31 @@ public class WebacAclServiceImplTest {
         // Verify operation persisted
         verify(psSession).persist(operation);
 
-        // Verify auth handle cache invalidated
-        verify(authHandleCache).invalidateAll();
+        // Verify cached ACLs invalidated only for the resource and its descendants
+        assertEquals(Set.of(siblingId.getResourceId()), authHandleCache.asMap().keySet());
+    }
+
+    @Test
+    public void testCreate_ThenRollback() throws Exception {
+        final Resource authResource = aclModel.createResource("info:fedora/auth1/fcr:acl#");
+        authResource.addProperty(
+                aclModel.createProperty("http://www.w3.org/ns/auth/acl#mode"),
+                aclModel.createResource("http://www.w3.org/ns/auth/acl#Read"));
+        aclResource.addProperty(
+                aclModel.createProperty("http://www.w3.org/ns/auth/acl#Authorization"),
+                authResource);
+
+        service.create(transaction, aclId, userPrincipal, aclModel);
+
+        // A request outside of the transaction caches the ACL from before it was created
+        final var childId = resourceId.resolve("child");
+        authHandleCache.put(childId.getResourceId(), Optional.empty());
+
+        // The cache is invalidated again when the transaction rolls back
+        final var completion = ArgumentCaptor.forClass(Runnable.class);
+        verify(transaction).afterCompletion(completion.capture());
+        completion.getValue().run();
+        assertTrue(authHandleCache.asMap().isEmpty());
     }
 
     @Test
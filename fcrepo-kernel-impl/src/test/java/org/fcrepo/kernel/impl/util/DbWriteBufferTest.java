@@ -0,0 +1,108 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree.
+ */
+package org.fcrepo.kernel.impl.util;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+/**
+ * Unit tests for DbWriteBuffer
+ */
+@ExtendWith(MockitoExtension.class)
+public class DbWriteBufferTest {
+
+    private static final String INSERT = "INSERT INTO test (id) VALUES (:id)";
+
+    private static final String DELETE = "DELETE FROM test WHERE id = :id";
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private DbWriteBuffer buffer;
+
+    @BeforeEach
+    public void setUp() {
+        buffer = new DbWriteBuffer(jdbcTemplate, 3);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_UNKNOWN);
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    public void testWritesImmediatelyOutsideDbTransaction() {
+        TransactionSynchronizationManager.clearSynchronization();
+        buffer.add("tx1", INSERT, params("a"));
+        verify(jdbcTemplate).update(eq(INSERT), any(SqlParameterSource.class));
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @Test
+    public void testFlushOnBatchSize() {
+        buffer.add("tx1", INSERT, params("a"));
+        buffer.add("tx1", INSERT, params("b"));
+        verifyNoInteractions(jdbcTemplate);
+        buffer.add("tx1", INSERT, params("c"));
+        verify(jdbcTemplate).batchUpdate(eq(INSERT), argThat((SqlParameterSource[] p) -> p.length == 3));
+    }
+
+    @Test
+    public void testFlushKeepsOrderAndTransactions() {
+        buffer.add("tx1", INSERT, params("a"));
+        buffer.add("tx2", INSERT, params("b"));
+        buffer.add("tx1", DELETE, params("a"));
+        buffer.flush("tx1");
+        verify(jdbcTemplate).update(eq(INSERT), argThat((SqlParameterSource p) -> "a".equals(p.getValue("id"))));
+        verify(jdbcTemplate).update(eq(DELETE), argThat((SqlParameterSource p) -> "a".equals(p.getValue("id"))));
+        verify(jdbcTemplate, never()).update(eq(INSERT),
+                argThat((SqlParameterSource p) -> "b".equals(p.getValue("id"))));
+    }
+
+    @Test
+    public void testFlushBeforeCommit() {
+        buffer.add("tx1", INSERT, params("a"));
+        buffer.add("tx2", INSERT, params("b"));
+        TransactionSynchronizationUtils.triggerBeforeCommit(false);
+        verify(jdbcTemplate, times(2)).update(eq(INSERT), any(SqlParameterSource.class));
+    }
+
+    @Test
+    public void testDiscard() {
+        buffer.add("tx1", INSERT, params("a"));
+        buffer.add("tx2", INSERT, params("b"));
+        buffer.discard("tx1");
+        buffer.flush("tx1");
+        verifyNoInteractions(jdbcTemplate);
+        buffer.discardAll();
+        TransactionSynchronizationUtils.triggerBeforeCommit(false);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private static SqlParameterSource params(final String id) {
+        return new MapSqlParameterSource("id", id);
+    }
+}
@@ -6,8 +6,10 @@
 package org.fcrepo.persistence.api;
 
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 import org.fcrepo.kernel.api.RdfStream;
 import org.fcrepo.kernel.api.identifiers.FedoraId;
@@ -75,6 +77,19 @@ public interface PersistentStorageSession {
     InputStream getBinaryContent(final FedoraId identifier, final Instant version)
             throws PersistentStorageException;
 
+    /**
+     * Get the file holding the persisted binary content for the provided resource, when the content is stored as
+     * a plain file that can be read directly instead of through {@link #getBinaryContent(FedoraId, Instant)}.
+     *
+     * @param identifier identifier for the resource.
+     * @param version instant identifying the version of the resource to read from. If null, then the head version is
+     *        used.
+     * @return the content file, or empty if the content cannot be read directly.
+     * @throws PersistentStorageException  Either a PersistentItemNotFoundException or PersistentSessionClosedException
+     */
+    Optional<Path> getBinaryContentFile(final FedoraId identifier, final Instant version)
+            throws PersistentStorageException;
+
     /**
      * Get a range of bytes from the binary content for the provided resource.
      * @param identifier identifier for the resource.
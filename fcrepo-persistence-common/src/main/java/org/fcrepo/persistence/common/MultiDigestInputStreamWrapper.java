@@ -37,7 +37,7 @@ import org.fcrepo.config.DigestAlgorithm;
  */
 public class MultiDigestInputStreamWrapper {
 
-    private static final int BUFFER_SIZE = 8192;
+    private static final int BUFFER_SIZE = 64 * 1024;
 
     private final InputStream sourceStream;
 
@@ -45,6 +45,8 @@ public class MultiDigestInputStreamWrapper {
 
     private final Map<String, DigestInputStream> algToDigestStream;
 
+    private ParallelDigestInputStream parallelDigestStream;
+
     private boolean streamRetrieved;
 
     private Map<String, String> computedDigests;
@@ -87,6 +89,11 @@ public class MultiDigestInputStreamWrapper {
      */
     public InputStream getInputStream() {
         streamRetrieved = true;
+        if (algToDigest.size() > 1) {
+            // Compute each digest on its own thread rather than one after another on the reading thread
+            parallelDigestStream = new ParallelDigestInputStream(sourceStream, algToDigest.keySet());
+            return parallelDigestStream;
+        }
         InputStream digestStream = sourceStream;
         for (final String algorithm : algToDigest.keySet()) {
             try {
@@ -177,6 +184,11 @@ public class MultiDigestInputStreamWrapper {
         }
 
         computedDigests = new HashMap<>();
+        if (parallelDigestStream != null) {
+            parallelDigestStream.getDigests().forEach((algorithm, digest) -> {
+                computedDigests.put(algorithm, encodeHexString(digest.digest()));
+            });
+        }
         algToDigestStream.forEach((algorithm, digestStream) -> {
             final String computed = encodeHexString(digestStream.getMessageDigest().digest());
             computedDigests.put(algorithm, computed);
@@ -0,0 +1,334 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree.
+ */
+package org.fcrepo.persistence.common;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
+import org.fcrepo.kernel.api.exception.UnsupportedAlgorithmException;
+
+/**
+ * InputStream which computes several digests of the content read through it, each on its own thread.
+ *
+ * The first block of content is digested on the calling thread as it is read, so content smaller than a block
+ * never starts the workers or allocates a block. Past that, content is copied into blocks taken from a small ring,
+ * and every full block is handed to one worker per algorithm, so reading is held up by the slowest digest rather than
+ * by all of them in turn. When every digest thread is busy, the rest of the content is digested on the calling
+ * thread instead.
+ *
+ * The stream must be closed once it is no longer read, which stops the workers. They wait for content for as long
+ * as the stream is open, however slowly it is read.
+ */
+class ParallelDigestInputStream extends FilterInputStream {
+
+    /**
+     * The number of bytes handed to the workers at a time.
+     */
+    static final int BLOCK_SIZE = 1024 * 1024;
+
+    /**
+     * The number of blocks which may be read ahead of the slowest worker.
+     */
+    private static final int RING_SIZE = 4;
+
+    /**
+     * The most threads digesting content at once, across all streams.
+     */
+    private static final int MAX_DIGEST_THREADS = Runtime.getRuntime().availableProcessors() * 2;
+
+    /**
+     * How often the reader checks that the workers are still running while it waits for a block to be digested.
+     */
+    private static final long WORKER_CHECK_SECONDS = 1;
+
+    private static final ExecutorService digestExecutor = new ThreadPoolExecutor(0, MAX_DIGEST_THREADS,
+            60, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+                final var thread = new Thread(runnable, "fcrepo-digest");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private static final Block END = new Block(new byte[0], 0, 0);
+
+    private final Map<String, MessageDigest> digests = new LinkedHashMap<>();
+
+    private final BlockingQueue<byte[]> freeBlocks = new ArrayBlockingQueue<>(RING_SIZE);
+
+    private int allocatedBlocks;
+
+    private long digestedInline;
+
+    private boolean inline;
+
+    private byte[] block;
+
+    private int blockLength;
+
+    private List<Worker> workers;
+
+    private boolean finished;
+
+    /**
+     * @param in the stream to digest
+     * @param algorithms the digest algorithms to compute
+     */
+    ParallelDigestInputStream(final InputStream in, final Collection<String> algorithms) {
+        super(in);
+        for (final String algorithm : algorithms) {
+            try {
+                digests.put(algorithm, MessageDigest.getInstance(algorithm));
+            } catch (final NoSuchAlgorithmException e) {
+                throw new UnsupportedAlgorithmException("Unsupported digest algorithm: " + algorithm, e);
+            }
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        final int b = in.read();
+        if (b != -1) {
+            append(new byte[] { (byte) b }, 0, 1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        final int read = in.read(b, off, len);
+        if (read > 0) {
+            append(b, off, read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+        // Skipped content must still be digested
+        final var buffer = new byte[(int) Math.min(n, 8192)];
+        long skipped = 0;
+        while (skipped < n) {
+            final int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+            if (read == -1) {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            // Don't leave the workers waiting for content which will never come
+            finish();
+        }
+    }
+
+    /**
+     * Wait for the workers to digest everything read so far.
+     *
+     * @return the digests by algorithm, which must not be updated any further
+     */
+    Map<String, MessageDigest> getDigests() {
+        finish();
+        return digests;
+    }
+
+    private void append(final byte[] b, final int off, final int len) throws IOException {
+        if (finished) {
+            throw new IOException("Stream has already been digested");
+        }
+        int copied = 0;
+        if (workers == null) {
+            copied = inline ? len : (int) Math.min(len, BLOCK_SIZE - digestedInline);
+            digestInline(b, off, copied);
+            if (copied < len && !startWorkers()) {
+                digestInline(b, off + copied, len - copied);
+                copied = len;
+            }
+        }
+        while (copied < len) {
+            if (block == null) {
+                block = takeBlock();
+            }
+            final int length = Math.min(len - copied, BLOCK_SIZE - blockLength);
+            System.arraycopy(b, off + copied, block, blockLength, length);
+            blockLength += length;
+            copied += length;
+            if (blockLength == BLOCK_SIZE) {
+                dispatch();
+            }
+        }
+    }
+
+    private byte[] takeBlock() throws IOException {
+        final byte[] free = freeBlocks.poll();
+        if (free != null) {
+            return free;
+        }
+        if (allocatedBlocks < RING_SIZE) {
+            allocatedBlocks += 1;
+            return new byte[BLOCK_SIZE];
+        }
+        try {
+            while (true) {
+                final byte[] next = freeBlocks.poll(WORKER_CHECK_SECONDS, TimeUnit.SECONDS);
+                if (next != null) {
+                    return next;
+                }
+                // A stopped worker never hands back the blocks it holds
+                for (final Worker worker : workers) {
+                    if (worker.done.isDone()) {
+                        throw new IOException("Stopped digesting content before all of it was read");
+                    }
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for content to be digested");
+        }
+    }
+
+    private void digestInline(final byte[] b, final int off, final int len) {
+        if (len > 0) {
+            digests.values().forEach(digest -> digest.update(b, off, len));
+            digestedInline += len;
+        }
+    }
+
+    /**
+     * Start a worker for each algorithm, unless there aren't enough digest threads free for all of them.
+     *
+     * @return true if the workers were started
+     */
+    private boolean startWorkers() {
+        final List<Worker> started = new ArrayList<>(digests.size());
+        try {
+            for (final MessageDigest digest : digests.values()) {
+                started.add(new Worker(digest));
+            }
+        } catch (final RejectedExecutionException e) {
+            // The workers have not been handed anything yet, stopping them leaves the digests as they are
+            started.forEach(worker -> worker.blocks.offer(END));
+            inline = true;
+            return false;
+        }
+        workers = started;
+        return true;
+    }
+
+    private void dispatch() throws InterruptedIOException {
+        final var full = new Block(block, blockLength, workers.size());
+        try {
+            for (final Worker worker : workers) {
+                worker.blocks.put(full);
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted handing content to be digested");
+        }
+        block = null;
+        blockLength = 0;
+    }
+
+    private void finish() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        if (workers == null) {
+            // Everything read was digested as it was read
+            return;
+        }
+        try {
+            if (blockLength > 0) {
+                dispatch();
+            }
+            for (final Worker worker : workers) {
+                worker.blocks.put(END);
+            }
+            for (final Worker worker : workers) {
+                worker.done.get();
+            }
+        } catch (final InterruptedException | InterruptedIOException e) {
+            Thread.currentThread().interrupt();
+            throw new RepositoryRuntimeException("Interrupted while calculating digests", e);
+        } catch (final ExecutionException e) {
+            throw new RepositoryRuntimeException("Failed to calculate digests", e.getCause());
+        }
+    }
+
+    /**
+     * A block of content shared by the workers, it goes back to the ring once every worker has digested it.
+     */
+    private static class Block {
+
+        private final byte[] data;
+
+        private final int length;
+
+        private final AtomicInteger pending;
+
+        Block(final byte[] data, final int length, final int workers) {
+            this.data = data;
+            this.length = length;
+            this.pending = new AtomicInteger(workers);
+        }
+    }
+
+    /**
+     * Digests the blocks handed to it, in order, with a single algorithm.
+     */
+    private class Worker {
+
+        private final BlockingQueue<Block> blocks = new ArrayBlockingQueue<>(RING_SIZE + 1);
+
+        private final CompletableFuture<Void> done;
+
+        Worker(final MessageDigest digest) {
+            done = CompletableFuture.runAsync(() -> {
+                try {
+                    for (var next = blocks.take(); next != END; next = blocks.take()) {
+                        digest.update(next.data, 0, next.length);
+                        if (next.pending.decrementAndGet() == 0) {
+                            freeBlocks.offer(next.data);
+                        }
+                    }
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RepositoryRuntimeException("Interrupted while calculating digest", e);
+                }
+            }, digestExecutor);
+        }
+    }
+}
@@ -8,13 +8,17 @@ package org.fcrepo.persistence.common;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
+import static org.apache.commons.codec.binary.Hex.encodeHexString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.net.URI;
+import java.security.MessageDigest;
 import java.util.Collection;
+import java.util.Random;
 import org.apache.commons.io.IOUtils;
 import org.fcrepo.kernel.api.exception.InvalidChecksumException;
 import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
@@ -214,4 +218,43 @@ public class MultiDigestInputStreamWrapperTest {
         final var computed = wrapper.getDigests();
         assertTrue(computed.contains(SHA512_URI));
     }
+
+    @Test
+    public void getDigests_MultiDigestsSpanningBlocks() throws Exception {
+        // Several full blocks plus a partial one, so the digests are computed by the workers
+        final int blockSize = ParallelDigestInputStream.BLOCK_SIZE;
+        final var content = new byte[blockSize * 3 + blockSize / 2];
+        new Random(42).nextBytes(content);
+        final var wantDigests = asList(DigestAlgorithm.MD5, DigestAlgorithm.SHA1, DigestAlgorithm.SHA512);
+        final var wrapper = new MultiDigestInputStreamWrapper(new ByteArrayInputStream(content), null, wantDigests);
+
+        IOUtils.consume(wrapper.getInputStream());
+
+        for (final DigestAlgorithm algorithm : wantDigests) {
+            final String expected = encodeHexString(
+                    MessageDigest.getInstance(algorithm.getAlgorithm()).digest(content));
+            assertEquals(expected, wrapper.getDigest(algorithm));
+        }
+    }
+
+    @Test
+    public void getDigests_MultiDigestsOfStreamClosedPartWay() throws Exception {
+        // A write which fails part way closes the stream, which must still let the workers finish
+        final int blockSize = ParallelDigestInputStream.BLOCK_SIZE;
+        final var content = new byte[blockSize * 3];
+        new Random(42).nextBytes(content);
+        final int readLength = blockSize * 2 + 10;
+        final var wantDigests = asList(DigestAlgorithm.MD5, DigestAlgorithm.SHA512);
+        final var wrapper = new MultiDigestInputStreamWrapper(new ByteArrayInputStream(content), null, wantDigests);
+
+        try (final var stream = wrapper.getInputStream()) {
+            IOUtils.readFully(stream, new byte[readLength]);
+        }
+
+        for (final DigestAlgorithm algorithm : wantDigests) {
+            final var digest = MessageDigest.getInstance(algorithm.getAlgorithm());
+            digest.update(content, 0, readLength);
+            assertEquals(encodeHexString(digest.digest()), wrapper.getDigest(algorithm));
+        }
+    }
 }
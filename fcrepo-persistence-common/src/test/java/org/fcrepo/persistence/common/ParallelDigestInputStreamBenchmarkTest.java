@@ -0,0 +1,117 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree.
+ */
+package org.fcrepo.persistence.common;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+
+/**
+ * Compares the throughput of digesting content with several algorithms in parallel with digesting it through a
+ * chain of digest streams, as was done before, for content smaller than a block, of a single block, and of many
+ * blocks.
+ *
+ * Run with: mvn test -Dtest=ParallelDigestInputStreamBenchmarkTest -Dfcrepo.benchmark=true -Dfcrepo.log=INFO
+ */
+@EnabledIfSystemProperty(named = "fcrepo.benchmark", matches = "true")
+public class ParallelDigestInputStreamBenchmarkTest {
+
+    private static final Logger LOGGER = getLogger(ParallelDigestInputStreamBenchmarkTest.class);
+
+    private static final List<String> ALGORITHMS = List.of("MD5", "SHA-1", "SHA-512");
+
+    private static final int[] CONTENT_SIZES = {4 * 1024, ParallelDigestInputStream.BLOCK_SIZE, 64 * 1024 * 1024};
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private static final long WARMUP_MILLIS = 2_000;
+
+    private static final long MEASURE_MILLIS = 5_000;
+
+    @Test
+    public void testThroughput() throws Exception {
+        for (final int size : CONTENT_SIZES) {
+            final var content = new byte[size];
+            new Random(42).nextBytes(content);
+            assertArrayEquals(chained(content), parallel(content), "Both ways must compute the same digests");
+
+            final double previous = measure(content, false);
+            final double current = measure(content, true);
+            LOGGER.info("{} bytes: chained {} MB/s, parallel {} MB/s ({}x)", size, String.format("%.1f", previous),
+                    String.format("%.1f", current), String.format("%.2f", current / previous));
+        }
+    }
+
+    /**
+     * @return the megabytes of content digested per second
+     */
+    private double measure(final byte[] content, final boolean parallel) throws IOException {
+        final long warmupEnd = System.currentTimeMillis() + WARMUP_MILLIS;
+        while (System.currentTimeMillis() < warmupEnd) {
+            digest(content, parallel);
+        }
+        long digested = 0;
+        final long start = System.nanoTime();
+        final long end = start + MEASURE_MILLIS * 1_000_000;
+        while (System.nanoTime() < end) {
+            digest(content, parallel);
+            digested += content.length;
+        }
+        return digested / 1024.0 / 1024.0 / ((System.nanoTime() - start) / 1_000_000_000.0);
+    }
+
+    private byte[][] digest(final byte[] content, final boolean parallel) throws IOException {
+        return parallel ? parallel(content) : chained(content);
+    }
+
+    private byte[][] parallel(final byte[] content) throws IOException {
+        try (final var stream = new ParallelDigestInputStream(new ByteArrayInputStream(content), ALGORITHMS)) {
+            consume(stream);
+            return stream.getDigests().values().stream()
+                    .map(MessageDigest::digest)
+                    .toArray(byte[][]::new);
+        }
+    }
+
+    private byte[][] chained(final byte[] content) throws IOException {
+        InputStream stream = new ByteArrayInputStream(content);
+        final List<MessageDigest> digests = new ArrayList<>();
+        for (final String algorithm : ALGORITHMS) {
+            try {
+                final var digest = MessageDigest.getInstance(algorithm);
+                digests.add(digest);
+                stream = new DigestInputStream(stream, digest);
+            } catch (final NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        try (final var chain = stream) {
+            consume(chain);
+        }
+        return digests.stream()
+                .map(MessageDigest::digest)
+                .toArray(byte[][]::new);
+    }
+
+    private static void consume(final InputStream stream) throws IOException {
+        final var buffer = new byte[READ_BUFFER_SIZE];
+        while (stream.read(buffer) != -1) {
+        }
+    }
+}
@@ -20,6 +20,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.util.CollectionUtils;
 
 import java.io.BufferedInputStream;
+import java.io.IOException;
 import java.util.Collections;
 
 import static org.fcrepo.kernel.api.operations.ResourceOperationType.CREATE;
@@ -84,9 +85,12 @@ abstract class AbstractNonRdfSourcePersister extends AbstractPersister {
                     nonRdfSourceOperation.getContentStream(),
                     providedDigests,
                     Collections.emptyList());
-            final var contentStream = multiDigestWrapper.getInputStream();
-
-            objectSession.writeResource(headers.asStorageHeaders(), new BufferedInputStream(contentStream));
+            // Closing the stream also stops any threads digesting it if the write fails part way
+            try (final var contentStream = multiDigestWrapper.getInputStream()) {
+                objectSession.writeResource(headers.asStorageHeaders(), new BufferedInputStream(contentStream));
+            } catch (final IOException e) {
+                throw new PersistentStorageException("Failed to close content stream of " + resourceId, e);
+            }
 
             // Verify that the content matches the provided digests
             if (!CollectionUtils.isEmpty(providedDigests)) {
@@ -0,0 +1,400 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree.
+ */
+package org.fcrepo.persistence.ocfl.impl;
+
+import static org.fcrepo.kernel.api.FedoraTypes.FCR_ACL;
+import static org.fcrepo.kernel.api.FedoraTypes.FCR_METADATA;
+import static org.fcrepo.kernel.api.RdfLexicon.NON_RDF_SOURCE;
+import static org.fcrepo.kernel.api.models.ExternalContent.PROXY;
+import static org.fcrepo.kernel.api.models.ExternalContent.REDIRECT;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.inject.Inject;
+import javax.sql.DataSource;
+
+import org.fcrepo.common.db.DbPlatform;
+import org.fcrepo.config.ConditionOnPropertyTrue;
+import org.fcrepo.config.FedoraPropsConfig;
+import org.fcrepo.kernel.api.RepositoryInitializationStatus;
+import org.fcrepo.kernel.api.exception.InvalidChecksumException;
+import org.fcrepo.kernel.api.identifiers.FedoraId;
+import org.fcrepo.persistence.api.PersistentStorageSessionManager;
+import org.fcrepo.persistence.api.exceptions.PersistentItemNotFoundException;
+import org.fcrepo.persistence.common.MultiDigestInputStreamWrapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Role;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Periodically verifies the fixity of every binary stored in the repository, when fcrepo.fixity.audit.enabled is
+ * true.
+ * <p>
+ * Each pass walks the resources in the ocfl_id_map table in chunks, in order of their ids, and checks every binary
+ * which has not been verified within the audit interval against the digests recorded for it. Content is read no
+ * faster than the configured bandwidth, so the audit does not starve requests of I/O. The time and result of the
+ * last check of each binary is kept in the fixity_audit table, so a pass interrupted by a restart starts again
+ * without checking the binaries it already verified.
+ * <p>
+ * Binaries whose content is held outside the repository, as proxied or redirected external content, are not checked.
+ * Binaries without any recorded digest can't be checked, they are recorded as skipped without reading their content.
+ * Other resources are recorded as skipped too, so their headers are not read again until the interval has elapsed.
+ * Descriptions and ACLs, which are never binaries, are not selected at all.
+ */
+@Component
+@Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+@Conditional(FixityAuditor.FixityAuditEnabled.class)
+public class FixityAuditor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FixityAuditor.class);
+
+    static class FixityAuditEnabled extends ConditionOnPropertyTrue {
+        FixityAuditEnabled() {
+            super(FedoraPropsConfig.FCREPO_FIXITY_AUDIT_ENABLED, false);
+        }
+    }
+
+    /**
+     * The outcome of checking the fixity of a binary.
+     */
+    enum Result {
+        SUCCESS, BAD_CHECKSUM, ERROR, SKIPPED
+    }
+
+    private static final String AUDIT_TABLE = "fixity_audit";
+
+    private static final String MAPPING_TABLE = "ocfl_id_map";
+
+    private static final String FEDORA_ID_PARAM = "fedoraId";
+    private static final String VERIFIED_PARAM = "verified";
+    private static final String RESULT_PARAM = "result";
+    private static final String DETAILS_PARAM = "details";
+    private static final String AFTER_PARAM = "after";
+    private static final String DUE_PARAM = "due";
+    private static final String LIMIT_PARAM = "limit";
+
+    /*
+     * The next chunk of resources, after the last one seen, which have not been checked within the interval. A
+     * reindexed repository maps descriptions and ACLs too, they are left out as they can't be binaries.
+     */
+    private static final String SELECT_DUE = "SELECT m.fedora_id FROM " + MAPPING_TABLE + " m LEFT JOIN " +
+            AUDIT_TABLE + " a ON a.fedora_id = m.fedora_id WHERE m.fedora_id > :" + AFTER_PARAM +
+            " AND m.fedora_id NOT LIKE '%/" + FCR_METADATA + "' AND m.fedora_id NOT LIKE '%/" + FCR_ACL + "'" +
+            " AND (a.verified IS NULL OR a.verified < :" + DUE_PARAM + ") ORDER BY m.fedora_id LIMIT :" + LIMIT_PARAM;
+
+    private static final String UPSERT_RESULT_H2 = "MERGE INTO " + AUDIT_TABLE +
+            " (fedora_id, verified, result, details) KEY (fedora_id) VALUES (:" + FEDORA_ID_PARAM + ", :" +
+            VERIFIED_PARAM + ", :" + RESULT_PARAM + ", :" + DETAILS_PARAM + ")";
+
+    private static final String INSERT_RESULT = "INSERT INTO " + AUDIT_TABLE +
+            " (fedora_id, verified, result, details) VALUES (:" + FEDORA_ID_PARAM + ", :" + VERIFIED_PARAM + ", :" +
+            RESULT_PARAM + ", :" + DETAILS_PARAM + ")";
+
+    private static final String UPSERT_RESULT_POSTGRESQL = INSERT_RESULT + " ON CONFLICT (fedora_id)" +
+            " DO UPDATE SET verified = EXCLUDED.verified, result = EXCLUDED.result, details = EXCLUDED.details";
+
+    private static final String UPSERT_RESULT_MYSQL_MARIA = INSERT_RESULT + " ON DUPLICATE KEY UPDATE" +
+            " verified = VALUES(verified), result = VALUES(result), details = VALUES(details)";
+
+    private static final Map<DbPlatform, String> UPSERT_RESULT_MAP = Map.of(
+            DbPlatform.H2, UPSERT_RESULT_H2,
+            DbPlatform.MYSQL, UPSERT_RESULT_MYSQL_MARIA,
+            DbPlatform.MARIADB, UPSERT_RESULT_MYSQL_MARIA,
+            DbPlatform.POSTGRESQL, UPSERT_RESULT_POSTGRESQL
+    );
+
+    /*
+     * Results of resources which are no longer in the repository.
+     */
+    private static final String DELETE_ORPHANED = "DELETE FROM " + AUDIT_TABLE + " WHERE NOT EXISTS (SELECT 1 FROM " +
+            MAPPING_TABLE + " m WHERE m.fedora_id = " + AUDIT_TABLE + ".fedora_id)";
+
+    private static final String COUNT_FAILED = "SELECT COUNT(*) FROM " + AUDIT_TABLE + " WHERE result IN (:" +
+            RESULT_PARAM + ")";
+
+    private static final int MAX_DETAILS_LENGTH = 1024;
+
+    private static final String METRIC_NAME = "fcrepo.fixity.audit";
+
+    private static final Counter successCounter = Metrics.counter(METRIC_NAME + ".resources",
+            RESULT_PARAM, Result.SUCCESS.name());
+    private static final Counter badChecksumCounter = Metrics.counter(METRIC_NAME + ".resources",
+            RESULT_PARAM, Result.BAD_CHECKSUM.name());
+    private static final Counter errorCounter = Metrics.counter(METRIC_NAME + ".resources",
+            RESULT_PARAM, Result.ERROR.name());
+    private static final Counter skippedCounter = Metrics.counter(METRIC_NAME + ".resources",
+            RESULT_PARAM, Result.SKIPPED.name());
+    private static final Counter bytesCounter = Metrics.counter(METRIC_NAME + ".bytes");
+    private static final Timer checkTimer = Metrics.timer(METRIC_NAME + ".check");
+
+    /**
+     * The number of binaries checked in the current, or last, pass.
+     */
+    private static final AtomicLong passChecked = Metrics.gauge(METRIC_NAME + ".pass.checked", new AtomicLong());
+
+    /**
+     * The number of binaries whose last check found a bad checksum or an error, as of the end of the last pass.
+     */
+    private static final AtomicLong failedResources = Metrics.gauge(METRIC_NAME + ".failed", new AtomicLong());
+
+    @Inject
+    private DataSource dataSource;
+
+    @Inject
+    private FedoraPropsConfig fedoraPropsConfig;
+
+    @Inject
+    private PersistentStorageSessionManager sessionManager;
+
+    @Inject
+    private RepositoryInitializationStatus initializationStatus;
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private DbPlatform dbPlatform;
+
+    @PostConstruct
+    void setup() {
+        jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        dbPlatform = DbPlatform.fromDataSource(dataSource);
+    }
+
+    /**
+     * Check every binary which is due, then wait for the audit delay before looking again.
+     */
+    @Scheduled(fixedDelayString = "#{fedoraPropsConfig.fixityAuditDelay}",
+            initialDelayString = "#{fedoraPropsConfig.fixityAuditDelay}")
+    public void audit() {
+        if (!initializationStatus.isInitializationComplete()) {
+            LOGGER.debug("Repository is not initialized, skipping fixity audit");
+            return;
+        }
+
+        final var start = Instant.now();
+        final var due = Timestamp.from(start.minus(fedoraPropsConfig.getFixityAuditInterval()));
+        final var throttle = new Throttle(fedoraPropsConfig.getFixityAuditMaxBytesPerSecond());
+        LOGGER.info("Starting fixity audit of binaries last verified before {}", due);
+        passChecked.set(0);
+
+        var after = "";
+        while (!Thread.currentThread().isInterrupted()) {
+            final List<String> chunk = jdbcTemplate.queryForList(SELECT_DUE, new MapSqlParameterSource()
+                    .addValue(AFTER_PARAM, after)
+                    .addValue(DUE_PARAM, due)
+                    .addValue(LIMIT_PARAM, fedoraPropsConfig.getFixityAuditChunkSize()), String.class);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            for (final String fedoraId : chunk) {
+                audit(FedoraId.create(fedoraId), throttle);
+            }
+            after = chunk.get(chunk.size() - 1);
+        }
+
+        jdbcTemplate.update(DELETE_ORPHANED, Map.of());
+        failedResources.set(jdbcTemplate.queryForObject(COUNT_FAILED,
+                Map.of(RESULT_PARAM, List.of(Result.BAD_CHECKSUM.name(), Result.ERROR.name())), Long.class));
+        LOGGER.info("Finished fixity audit of {} binaries in {}, {} binaries failed their last check",
+                passChecked.get(), Duration.between(start, Instant.now()), failedResources.get());
+    }
+
+    /**
+     * Check the fixity of a resource, if it is a binary held by the repository, and record the result.
+     *
+     * @param fedoraId the resource to check
+     * @param throttle limits how fast content is read
+     */
+    void audit(final FedoraId fedoraId, final Throttle throttle) {
+        final var session = sessionManager.getReadOnlySession();
+        final var sample = Timer.start();
+        Result result;
+        String details = null;
+        try {
+            final var headers = session.getHeaders(fedoraId, null);
+            if (headers.isDeleted() || !NON_RDF_SOURCE.toString().equals(headers.getInteractionModel())
+                    || PROXY.equals(headers.getExternalHandling())
+                    || REDIRECT.equals(headers.getExternalHandling())) {
+                // recorded, so the resource is not selected again until it is due
+                record(fedoraId, Result.SKIPPED, "Not a binary held by the repository");
+                return;
+            }
+            if (headers.getDigests() == null || headers.getDigests().isEmpty()) {
+                LOGGER.warn("Fixity of {} can't be checked, no digest is recorded for it", fedoraId);
+                result = Result.SKIPPED;
+                details = "No digest recorded";
+            } else {
+                try (final var content = new ThrottledInputStream(session.getBinaryContent(fedoraId, null),
+                        throttle)) {
+                    new MultiDigestInputStreamWrapper(content, headers.getDigests(), null).checkFixity();
+                }
+                result = Result.SUCCESS;
+            }
+        } catch (final PersistentItemNotFoundException e) {
+            LOGGER.debug("Resource {} was removed before its fixity was checked", fedoraId);
+            return;
+        } catch (final InvalidChecksumException e) {
+            LOGGER.error("Fixity check of {} failed: {}", fedoraId, e.getMessage());
+            result = Result.BAD_CHECKSUM;
+            details = e.getMessage();
+        } catch (final IOException | RuntimeException e) {
+            LOGGER.error("Unable to check fixity of {}", fedoraId, e);
+            result = Result.ERROR;
+            details = e.toString();
+        }
+        sample.stop(checkTimer);
+
+        switch (result) {
+            case SUCCESS:
+                successCounter.increment();
+                break;
+            case BAD_CHECKSUM:
+                badChecksumCounter.increment();
+                break;
+            case SKIPPED:
+                skippedCounter.increment();
+                break;
+            default:
+                errorCounter.increment();
+        }
+        passChecked.incrementAndGet();
+
+        record(fedoraId, result, details);
+    }
+
+    private void record(final FedoraId fedoraId, final Result result, final String details) {
+        jdbcTemplate.update(UPSERT_RESULT_MAP.get(dbPlatform), new MapSqlParameterSource()
+                .addValue(FEDORA_ID_PARAM, fedoraId.getResourceId())
+                .addValue(VERIFIED_PARAM, Timestamp.from(Instant.now()))
+                .addValue(RESULT_PARAM, result.name())
+                .addValue(DETAILS_PARAM, details == null || details.length() <= MAX_DETAILS_LENGTH ? details :
+                        details.substring(0, MAX_DETAILS_LENGTH)));
+    }
+
+    /**
+     * @param dataSource the data source holding the fixity audit table
+     */
+    public void setDataSource(final DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * @param fedoraPropsConfig the configuration of the audit
+     */
+    public void setFedoraPropsConfig(final FedoraPropsConfig fedoraPropsConfig) {
+        this.fedoraPropsConfig = fedoraPropsConfig;
+    }
+
+    /**
+     * @param sessionManager the session manager used to read binaries
+     */
+    public void setSessionManager(final PersistentStorageSessionManager sessionManager) {
+        this.sessionManager = sessionManager;
+    }
+
+    /**
+     * @param initializationStatus the status of the repository's initialization
+     */
+    public void setInitializationStatus(final RepositoryInitializationStatus initializationStatus) {
+        this.initializationStatus = initializationStatus;
+    }
+
+    /**
+     * Limits the rate content is read at with a token bucket, sleeping whenever more has been read than the bucket
+     * holds. The bucket holds at most one second of the rate, so time spent not reading, such as checking
+     * containers, can't be saved up for a longer burst.
+     */
+    static class Throttle {
+
+        private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+        private final long bytesPerSecond;
+
+        private double available;
+
+        private long lastNanos = System.nanoTime();
+
+        /**
+         * @param bytesPerSecond the maximum rate, or 0 for no limit
+         */
+        Throttle(final long bytesPerSecond) {
+            this.bytesPerSecond = bytesPerSecond;
+            this.available = bytesPerSecond;
+        }
+
+        void acquire(final long read) throws InterruptedIOException {
+            bytesCounter.increment(read);
+            if (bytesPerSecond <= 0) {
+                return;
+            }
+            final long now = System.nanoTime();
+            available = Math.min(bytesPerSecond, available + (now - lastNanos) / NANOS_PER_SECOND * bytesPerSecond);
+            lastNanos = now;
+            available -= read;
+            if (available < 0) {
+                // the time slept refills the bucket when the next content is read
+                try {
+                    TimeUnit.NANOSECONDS.sleep((long) (-available * NANOS_PER_SECOND / bytesPerSecond));
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while throttling fixity audit");
+                }
+            }
+        }
+    }
+
+    /**
+     * Content stream read no faster than its throttle allows.
+     */
+    private static class ThrottledInputStream extends FilterInputStream {
+
+        private final Throttle throttle;
+
+        ThrottledInputStream(final InputStream in, final Throttle throttle) {
+            super(in);
+            this.throttle = throttle;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = in.read();
+            if (b != -1) {
+                throttle.acquire(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int read = in.read(b, off, len);
+            if (read > 0) {
+                throttle.acquire(read);
+            }
+            return read;
+        }
+    }
+}
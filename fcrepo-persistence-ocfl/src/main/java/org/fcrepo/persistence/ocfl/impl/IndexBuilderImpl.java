@@ -98,6 +98,7 @@ public class IndexBuilderImpl implements IndexBuilder {
             final var startTime = Instant.now();
             try {
                 reindexManager.start();
+                reindexService.rebuildStatistics();
             } catch (final InterruptedException e) {
                 throw new RuntimeException(e);
             } finally {
@@ -0,0 +1,87 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree.
+ */
+package org.fcrepo.persistence.ocfl.impl;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.TreeSet;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.ocfl.api.OcflRepository;
+import io.ocfl.api.model.ObjectVersionId;
+
+/**
+ * Resolves the files holding the content of resources in an OCFL repository on the filesystem, so that the content
+ * can be read directly from the file instead of through the OCFL object session.
+ *
+ * Describing an OCFL version lists every file in it, so resolved files are cached by the digests of their content.
+ * The same content is held in the same file in every version of an object which has it, and a cached file which is
+ * gone, because its version was purged or its mutable head committed, is resolved again.
+ */
+public class OcflContentFileResolver {
+
+    private final OcflRepository ocflRepository;
+
+    private final Path ocflRoot;
+
+    private final Cache<String, Path> contentFiles;
+
+    /**
+     * @param ocflRepository the OCFL repository
+     * @param ocflRoot the storage root of the OCFL repository
+     * @param cacheSize the maximum number of resolved files to cache
+     */
+    public OcflContentFileResolver(final OcflRepository ocflRepository, final Path ocflRoot, final long cacheSize) {
+        this.ocflRepository = ocflRepository;
+        this.ocflRoot = ocflRoot;
+        this.contentFiles = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .build();
+    }
+
+    /**
+     * Resolve the file holding a content file of an OCFL object.
+     *
+     * @param ocflObjectId the id of the OCFL object
+     * @param versionNumber the OCFL version to read from, or null for the head version
+     * @param logicalPath the logical path of the content within the OCFL object
+     * @param digests the digests of the content, the file is not cached if there are none
+     * @return the file, or empty if the object version has no such content file
+     */
+    public Optional<Path> resolve(final String ocflObjectId, final String versionNumber, final String logicalPath,
+                                  final Collection<URI> digests) {
+        if (digests == null || digests.isEmpty()) {
+            return describe(ocflObjectId, versionNumber, logicalPath);
+        }
+        final var key = ocflObjectId + "\n" + logicalPath + "\n" + new TreeSet<>(digests);
+        final var cached = contentFiles.getIfPresent(key);
+        if (cached != null) {
+            if (Files.isRegularFile(cached)) {
+                return Optional.of(cached);
+            }
+            contentFiles.invalidate(key);
+        }
+        final var resolved = describe(ocflObjectId, versionNumber, logicalPath);
+        resolved.ifPresent(path -> contentFiles.put(key, path));
+        return resolved;
+    }
+
+    private Optional<Path> describe(final String ocflObjectId, final String versionNumber, final String logicalPath) {
+        final var versionId = versionNumber == null ? ObjectVersionId.head(ocflObjectId)
+                : ObjectVersionId.version(ocflObjectId, versionNumber);
+        final var file = ocflRepository.describeVersion(versionId).getFile(logicalPath);
+        if (file == null) {
+            return Optional.empty();
+        }
+        final var path = ocflRoot.resolve(file.getStorageRelativePath());
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+}
@@ -6,12 +6,14 @@
 package org.fcrepo.persistence.ocfl.impl;
 
 import org.fcrepo.config.OcflPropsConfig;
+import org.fcrepo.config.Storage;
 import org.fcrepo.kernel.api.ReadOnlyTransaction;
 import org.fcrepo.kernel.api.Transaction;
 import org.fcrepo.persistence.api.PersistentStorageSession;
 import org.fcrepo.persistence.api.PersistentStorageSessionManager;
 import org.fcrepo.persistence.ocfl.api.FedoraToOcflObjectIndex;
 import org.fcrepo.storage.ocfl.OcflObjectSessionFactory;
+import io.ocfl.api.OcflRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,6 +21,8 @@ import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Role;
 import org.springframework.stereotype.Component;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.inject.Inject;
 import java.io.IOException;
 import java.nio.file.FileVisitResult;
@@ -28,6 +32,8 @@ import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * OCFL implementation of PersistentStorageSessionManager
@@ -58,6 +64,13 @@ public class OcflPersistentSessionManager implements PersistentStorageSessionMan
     @Inject
     private OcflPropsConfig ocflPropsConfig;
 
+    @Inject
+    private OcflRepository ocflRepository;
+
+    private ExecutorService commitExecutor;
+
+    private OcflContentFileResolver contentFileResolver;
+
     /**
      * Default constructor
      */
@@ -66,6 +79,33 @@ public class OcflPersistentSessionManager implements PersistentStorageSessionMan
         this.sessionMap = new ConcurrentHashMap<>();
     }
 
+    /**
+     * Start the executor which commits the OCFL objects of transactions, if more than one thread is configured, and
+     * the resolver of content files, if binaries are served directly from a filesystem repository.
+     */
+    @PostConstruct
+    public void setUp() {
+        final int commitThreads = ocflPropsConfig.getCommitThreads();
+        LOGGER.info("Fedora OCFL commit threads: {}", commitThreads);
+        if (commitThreads > 1) {
+            commitExecutor = Executors.newFixedThreadPool(commitThreads);
+        }
+        if (ocflPropsConfig.isZeroCopyEnabled() && ocflPropsConfig.getStorage() == Storage.OCFL_FILESYSTEM) {
+            contentFileResolver = new OcflContentFileResolver(ocflRepository, ocflPropsConfig.getOcflRepoRoot(),
+                    ocflPropsConfig.getResourceHeadersCacheMaxSize());
+        }
+    }
+
+    /**
+     * Stop the commit executor.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (commitExecutor != null) {
+            commitExecutor.shutdown();
+        }
+    }
+
     @Override
     public PersistentStorageSession getSession(final Transaction transaction) {
         if (transaction == null) {
@@ -79,7 +119,8 @@ public class OcflPersistentSessionManager implements PersistentStorageSessionMan
                             transaction,
                             ocflIndex,
                             objectSessionFactory,
-                            reindexService));
+                            reindexService,
+                            commitExecutor));
         });
     }
 
@@ -91,9 +132,10 @@ public class OcflPersistentSessionManager implements PersistentStorageSessionMan
             synchronized (this) {
                 localSession = this.readOnlySession;
                 if (localSession == null) {
-                    this.readOnlySession = new OcflPersistentStorageSessionMetrics(
-                            new OcflPersistentStorageSession(ReadOnlyTransaction.INSTANCE,
-                                    ocflIndex, objectSessionFactory, reindexService));
+                    final var session = new OcflPersistentStorageSession(ReadOnlyTransaction.INSTANCE,
+                            ocflIndex, objectSessionFactory, reindexService);
+                    session.setContentFileResolver(contentFileResolver);
+                    this.readOnlySession = new OcflPersistentStorageSessionMetrics(session);
                     localSession = this.readOnlySession;
                 }
             }
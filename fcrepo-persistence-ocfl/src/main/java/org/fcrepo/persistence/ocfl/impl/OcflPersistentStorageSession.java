@@ -12,17 +12,24 @@ import static org.apache.jena.rdf.model.ModelFactory.createDefaultModel;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Phaser;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.fcrepo.kernel.api.RdfStream;
@@ -48,6 +55,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
 
 /**
  * OCFL Persistent Storage class.
@@ -61,6 +70,14 @@ public class OcflPersistentStorageSession implements PersistentStorageSession {
 
     private static final long AWAIT_TIMEOUT = 30000L;
 
+    private static final String METRIC_NAME = "fcrepo.storage.ocfl.session";
+
+    private static final DistributionSummary commitObjectsSummary =
+            Metrics.summary(METRIC_NAME, "operation", "commitObjects");
+
+    private static final AtomicInteger objectCommitsInProgress =
+            Metrics.gauge(METRIC_NAME + ".objectCommitsInProgress", new AtomicInteger());
+
     /**
      * Externally generated Transaction for the session.
      */
@@ -82,6 +99,10 @@ public class OcflPersistentStorageSession implements PersistentStorageSession {
 
     private final OcflObjectSessionFactory objectSessionFactory;
 
+    private final ExecutorService commitExecutor;
+
+    private OcflContentFileResolver contentFileResolver;
+
     private enum State {
         COMMIT_NOT_STARTED(true),
         PREPARE_STARTED(false),
@@ -113,7 +134,24 @@ public class OcflPersistentStorageSession implements PersistentStorageSession {
                                            final FedoraToOcflObjectIndex fedoraOcflIndex,
                                            final OcflObjectSessionFactory objectSessionFactory,
                                            final ReindexService reindexService) {
+        this(tx, fedoraOcflIndex, objectSessionFactory, reindexService, null);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param tx                   the transaction.
+     * @param fedoraOcflIndex      the index
+     * @param objectSessionFactory the session factory
+     * @param commitExecutor       the executor to commit the OCFL objects on, or null to commit them one at a time
+     */
+    protected OcflPersistentStorageSession(final Transaction tx,
+                                           final FedoraToOcflObjectIndex fedoraOcflIndex,
+                                           final OcflObjectSessionFactory objectSessionFactory,
+                                           final ReindexService reindexService,
+                                           final ExecutorService commitExecutor) {
         this.transaction = tx;
+        this.commitExecutor = commitExecutor;
         this.fedoraOcflIndex = fedoraOcflIndex;
         this.objectSessionFactory = objectSessionFactory;
         this.reindexSerivce = reindexService;
@@ -262,6 +300,36 @@ public class OcflPersistentStorageSession implements PersistentStorageSession {
                         + identifier.getFullId()));
     }
 
+    @Override
+    public Optional<Path> getBinaryContentFile(final FedoraId identifier, final Instant version)
+            throws PersistentStorageException {
+        // Content written in a transaction is staged until it is committed, so only the read-only session, which
+        // sees committed content, resolves content files
+        if (contentFileResolver == null || !isReadOnly()) {
+            return Optional.empty();
+        }
+        ensureCommitNotStarted();
+
+        final var mapping = getFedoraOcflMapping(identifier);
+        final var objSession = findOrCreateSession(mapping.getOcflObjectId());
+
+        final var versionNumber = resolveVersionNumber(objSession, identifier, version);
+        final var headers = objSession.readHeaders(identifier.getResourceId(), versionNumber);
+        if (headers.getContentPath() == null) {
+            return Optional.empty();
+        }
+        return contentFileResolver.resolve(mapping.getOcflObjectId(), versionNumber, headers.getContentPath(),
+                headers.getDigests());
+    }
+
+    /**
+     * @param contentFileResolver resolves the files holding binary content, null if content is only read through
+     *                            the OCFL object sessions
+     */
+    public void setContentFileResolver(final OcflContentFileResolver contentFileResolver) {
+        this.contentFileResolver = contentFileResolver;
+    }
+
     @Override
     public InputStream getBinaryRange(final FedoraId identifier, final Instant version,
                                       final long start, final long end) throws PersistentStorageException {
@@ -318,7 +386,12 @@ public class OcflPersistentStorageSession implements PersistentStorageSession {
 
         // order map for testing
         final var sessions = new TreeMap<>(sessionMap);
-        commitObjectSessions(sessions);
+        commitObjectsSummary.record(sessions.size());
+        if (commitExecutor == null || sessions.size() < 2) {
+            commitObjectSessions(sessions);
+        } else {
+            commitObjectSessionsInParallel(sessions);
+        }
 
         LOGGER.debug("Committed storage session {}", transaction);
     }
@@ -328,21 +401,77 @@ public class OcflPersistentStorageSession implements PersistentStorageSession {
         this.sessionsToRollback = new HashMap<>(sessionMap.size());
 
         for (final var entry : sessions.entrySet()) {
-            final var id = entry.getKey();
-            final var session = entry.getValue();
             try {
-                session.commit();
-                sessionsToRollback.put(id, session);
-            } catch (final Exception e) {
+                commitObjectSession(entry.getKey(), entry.getValue());
+            } catch (final PersistentStorageException e) {
                 this.state = State.COMMIT_FAILED;
-                throw new PersistentStorageException(String.format("Failed to commit object <%s> in session <%s>",
-                        id, transaction), e);
+                throw e;
             }
         }
 
         state = State.COMMITTED;
     }
 
+    /**
+     * Commit the OCFL objects on the commit executor. Once one of them fails, the objects which have not started
+     * committing are left uncommitted, and the failure is thrown after the commits in progress finish, so that
+     * every committed object is in sessionsToRollback.
+     */
+    private void commitObjectSessionsInParallel(final Map<String, OcflObjectSession> sessions)
+            throws PersistentStorageException {
+        this.sessionsToRollback = new ConcurrentHashMap<>(sessionMap.size());
+
+        final var failed = new AtomicBoolean(false);
+        final var commits = new ArrayList<CompletableFuture<Void>>(sessions.size());
+        for (final var entry : sessions.entrySet()) {
+            commits.add(CompletableFuture.runAsync(() -> {
+                if (failed.get()) {
+                    return;
+                }
+                try {
+                    commitObjectSession(entry.getKey(), entry.getValue());
+                } catch (final PersistentStorageException e) {
+                    failed.set(true);
+                    throw e;
+                }
+            }, commitExecutor));
+        }
+
+        PersistentStorageException failure = null;
+        for (final var commit : commits) {
+            try {
+                commit.join();
+            } catch (final CompletionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof PersistentStorageException ?
+                            (PersistentStorageException) e.getCause() :
+                            new PersistentStorageException(String.format("Failed to commit session <%s>",
+                                    transaction), e.getCause());
+                }
+            }
+        }
+
+        if (failure != null) {
+            this.state = State.COMMIT_FAILED;
+            throw failure;
+        }
+        state = State.COMMITTED;
+    }
+
+    private void commitObjectSession(final String id, final OcflObjectSession session)
+            throws PersistentStorageException {
+        objectCommitsInProgress.incrementAndGet();
+        try {
+            session.commit();
+            sessionsToRollback.put(id, session);
+        } catch (final Exception e) {
+            throw new PersistentStorageException(String.format("Failed to commit object <%s> in session <%s>",
+                    id, transaction), e);
+        } finally {
+            objectCommitsInProgress.decrementAndGet();
+        }
+    }
+
     @Override
     public void rollback() throws PersistentStorageException {
         if (isReadOnly()) {
@@ -7,8 +7,10 @@
 package org.fcrepo.persistence.ocfl.impl;
 
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 import org.fcrepo.common.metrics.MetricsHelper;
 import org.fcrepo.kernel.api.RdfStream;
@@ -36,6 +38,7 @@ public class OcflPersistentStorageSessionMetrics implements PersistentStorageSes
     private static final Timer listVersionsTimer = Metrics.timer(METRIC_NAME, OPERATION, "listVersions");
     private static final Timer getContentTimer = Metrics.timer(METRIC_NAME, OPERATION, "getContent");
     private static final Timer getRangeTimer = Metrics.timer(METRIC_NAME, OPERATION, "getRange");
+    private static final Timer getContentFileTimer = Metrics.timer(METRIC_NAME, OPERATION, "getContentFile");
     private static final Timer prepareTimer = Metrics.timer(METRIC_NAME, OPERATION, "prepare");
     private static final Timer commitTimer = Metrics.timer(METRIC_NAME, OPERATION, "commit");
     private static final Timer rollbackTimer = Metrics.timer(METRIC_NAME, OPERATION, "rollback");
@@ -89,6 +92,14 @@ public class OcflPersistentStorageSessionMetrics implements PersistentStorageSes
         });
     }
 
+    @Override
+    public Optional<Path> getBinaryContentFile(final FedoraId identifier, final Instant version)
+            throws PersistentStorageException {
+        return MetricsHelper.time(getContentFileTimer, () -> {
+            return delegate.getBinaryContentFile(identifier, version);
+        });
+    }
+
     @Override
     public List<Instant> listVersions(final FedoraId identifier) throws PersistentStorageException {
         return MetricsHelper.time(listVersionsTimer, () -> {
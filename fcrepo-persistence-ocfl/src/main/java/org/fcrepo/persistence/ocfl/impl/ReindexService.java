@@ -250,6 +250,13 @@ public class ReindexService {
         membershipService.reset();
     }
 
+    /**
+     * Recompute the repository statistics kept by the search index.
+     */
+    public void rebuildStatistics() {
+        searchIndex.rebuildStatistics();
+    }
+
     /**
      * Index all membership properties by querying for Direct and Indirect containers, and then
      * trying population of the membership index for each one
@@ -265,25 +272,21 @@ public class ReindexService {
         final var fields = List.of(Condition.Field.FEDORA_ID);
         final var conditions = List.of(Condition.fromEnums(Condition.Field.RDF_TYPE, Condition.Operator.EQ,
                 containerType.getURI()));
-        int offset = 0;
+        String cursor = SearchParameters.FIRST_PAGE_CURSOR;
 
         try {
-            int numResults;
-            do {
+            // Results are paged, so step through pages until there is no next page
+            while (cursor != null) {
                 final var params = new SearchParameters(fields, conditions, membershipPageSize,
-                        offset, Condition.Field.FEDORA_ID, "asc", false);
+                        0, Condition.Field.FEDORA_ID, "asc", false, cursor);
 
                 final var searchResult = searchIndex.doSearch(params);
-                final var resultList = searchResult.getItems();
-                numResults = resultList.size();
-
-                resultList.stream()
+                searchResult.getItems().stream()
                         .map(entry -> FedoraId.create((String) entry.get(Condition.Field.FEDORA_ID.toString())))
                         .forEach(containerId -> membershipService.populateMembershipHistory(transaction, containerId));
 
-                // Results are paged, so step through pages until we reach the last one
-                offset += membershipPageSize;
-            } while (numResults == membershipPageSize);
+                cursor = searchResult.getPagination().getNextCursor();
+            }
 
         } catch (final InvalidQueryException e) {
             throw new RepositoryRuntimeException("Failed to repopulate membership history", e);
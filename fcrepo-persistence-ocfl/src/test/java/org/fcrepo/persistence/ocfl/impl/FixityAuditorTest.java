@@ -0,0 +1,193 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree.
+ */
+package org.fcrepo.persistence.ocfl.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.commons.codec.binary.Hex.encodeHexString;
+import static org.fcrepo.kernel.api.RdfLexicon.BASIC_CONTAINER;
+import static org.fcrepo.kernel.api.RdfLexicon.NON_RDF_SOURCE;
+import static org.fcrepo.kernel.api.models.ExternalContent.PROXY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.fcrepo.config.FedoraPropsConfig;
+import org.fcrepo.config.FlywayFactory;
+import org.fcrepo.kernel.api.RepositoryInitializationStatus;
+import org.fcrepo.kernel.api.identifiers.FedoraId;
+import org.fcrepo.kernel.api.models.ResourceHeaders;
+import org.fcrepo.persistence.api.PersistentStorageSession;
+import org.fcrepo.persistence.api.PersistentStorageSessionManager;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Tests of the fixity auditor against an in-memory database.
+ */
+public class FixityAuditorTest {
+
+    private static final String CONTENT = "Some binary content";
+
+    private static final FedoraId GOOD_BINARY = FedoraId.create("good");
+    private static final FedoraId BAD_BINARY = FedoraId.create("bad");
+    private static final FedoraId CONTAINER = FedoraId.create("container");
+    private static final FedoraId PROXIED_BINARY = FedoraId.create("proxied");
+    private static final FedoraId UNDIGESTED_BINARY = FedoraId.create("undigested");
+
+    private static DriverManagerDataSource dataSource;
+
+    private static NamedParameterJdbcTemplate jdbcTemplate;
+
+    private PersistentStorageSession session;
+
+    private FixityAuditor auditor;
+
+    @BeforeAll
+    public static void beforeClass() {
+        dataSource = new DriverManagerDataSource();
+        dataSource.setDriverClassName("org.h2.jdbcx.JdbcDataSource");
+        dataSource.setUrl("jdbc:h2:mem:fixity;DB_CLOSE_DELAY=-1");
+        FlywayFactory.create().setDataSource(dataSource).setDatabaseType("h2").getObject();
+        jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    @BeforeEach
+    public void setup() throws Exception {
+        jdbcTemplate.update("DELETE FROM ocfl_id_map", Map.of());
+        jdbcTemplate.update("DELETE FROM fixity_audit", Map.of());
+        for (final var id : List.of(GOOD_BINARY, BAD_BINARY, CONTAINER, PROXIED_BINARY,
+                UNDIGESTED_BINARY)) {
+            jdbcTemplate.update("INSERT INTO ocfl_id_map (fedora_id, fedora_root_id, ocfl_id)" +
+                    " VALUES (:id, :id, :id)", Map.of("id", id.getResourceId()));
+        }
+
+        final var sha512 = encodeHexString(MessageDigest.getInstance("SHA-512").digest(CONTENT.getBytes(UTF_8)));
+        session = mock(PersistentStorageSession.class);
+        mockBinary(GOOD_BINARY, URI.create("urn:sha-512:" + sha512));
+        mockBinary(BAD_BINARY, URI.create("urn:sha-512:" + "0".repeat(128)));
+        final var containerHeaders = mock(ResourceHeaders.class);
+        when(containerHeaders.getInteractionModel()).thenReturn(BASIC_CONTAINER.toString());
+        when(session.getHeaders(eq(CONTAINER), isNull())).thenReturn(containerHeaders);
+        final var proxiedHeaders = mockBinary(PROXIED_BINARY, URI.create("urn:sha-512:" + sha512));
+        when(proxiedHeaders.getExternalHandling()).thenReturn(PROXY);
+        final var undigestedHeaders = mockBinary(UNDIGESTED_BINARY, URI.create("urn:sha-512:" + sha512));
+        when(undigestedHeaders.getDigests()).thenReturn(List.of());
+
+        final var sessionManager = mock(PersistentStorageSessionManager.class);
+        when(sessionManager.getReadOnlySession()).thenReturn(session);
+        final var initializationStatus = mock(RepositoryInitializationStatus.class);
+        when(initializationStatus.isInitializationComplete()).thenReturn(true);
+
+        final var propsConfig = new FedoraPropsConfig();
+        propsConfig.setFixityAuditChunkSize(2);
+        propsConfig.setFixityAuditInterval(Duration.ofDays(30));
+
+        auditor = new FixityAuditor();
+        auditor.setDataSource(dataSource);
+        auditor.setFedoraPropsConfig(propsConfig);
+        auditor.setSessionManager(sessionManager);
+        auditor.setInitializationStatus(initializationStatus);
+        auditor.setup();
+    }
+
+    @Test
+    public void testAuditRecordsResultOfEachBinary() {
+        auditor.audit();
+
+        assertEquals(FixityAuditor.Result.SUCCESS.name(), getResult(GOOD_BINARY));
+        assertEquals(FixityAuditor.Result.BAD_CHECKSUM.name(), getResult(BAD_BINARY));
+        assertEquals(FixityAuditor.Result.SKIPPED.name(), getResult(CONTAINER));
+        assertEquals(FixityAuditor.Result.SKIPPED.name(), getResult(PROXIED_BINARY));
+        assertEquals(FixityAuditor.Result.SKIPPED.name(), getResult(UNDIGESTED_BINARY));
+    }
+
+    @Test
+    public void testAuditSkipsRecentlyVerifiedBinaries() throws Exception {
+        auditor.audit();
+        auditor.audit();
+
+        verify(session, times(1)).getBinaryContent(eq(GOOD_BINARY), isNull());
+        verify(session, times(1)).getBinaryContent(eq(BAD_BINARY), isNull());
+        verify(session, never()).getBinaryContent(eq(PROXIED_BINARY), isNull());
+        verify(session, never()).getBinaryContent(eq(UNDIGESTED_BINARY), isNull());
+    }
+
+    @Test
+    public void testAuditSkipsRecentlyVisitedResourcesWhichAreNotChecked() throws Exception {
+        jdbcTemplate.update("INSERT INTO ocfl_id_map (fedora_id, fedora_root_id, ocfl_id)" +
+                " VALUES (:id, :root, :root)", Map.of("id", CONTAINER.asDescription().getResourceId(),
+                "root", CONTAINER.getResourceId()));
+
+        auditor.audit();
+        auditor.audit();
+
+        verify(session, times(1)).getHeaders(eq(CONTAINER), isNull());
+        verify(session, times(1)).getHeaders(eq(PROXIED_BINARY), isNull());
+        verify(session, never()).getHeaders(eq(CONTAINER.asDescription()), isNull());
+    }
+
+    @Test
+    public void testThrottleDoesNotSaveUpIdleTime() throws Exception {
+        final var throttle = new FixityAuditor.Throttle(1000);
+        // Idle for two seconds of the rate, of which only one second may be used as a burst
+        TimeUnit.SECONDS.sleep(2);
+
+        final long start = System.nanoTime();
+        throttle.acquire(2000);
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(900),
+                "Reading two seconds of content after idling must wait for about a second");
+    }
+
+    @Test
+    public void testAuditRemovesResultsOfRemovedResources() {
+        auditor.audit();
+        jdbcTemplate.update("DELETE FROM ocfl_id_map WHERE fedora_id = :id",
+                Map.of("id", GOOD_BINARY.getResourceId()));
+
+        auditor.audit();
+
+        assertNull(getResult(GOOD_BINARY));
+        assertEquals(FixityAuditor.Result.BAD_CHECKSUM.name(), getResult(BAD_BINARY));
+    }
+
+    private ResourceHeaders mockBinary(final FedoraId id, final URI digest) throws Exception {
+        final var headers = mock(ResourceHeaders.class);
+        when(headers.getInteractionModel()).thenReturn(NON_RDF_SOURCE.toString());
+        when(headers.getDigests()).thenReturn(List.of(digest));
+        when(session.getHeaders(eq(id), isNull())).thenReturn(headers);
+        when(session.getBinaryContent(eq(id), isNull()))
+                .thenAnswer(invocation -> new ByteArrayInputStream(CONTENT.getBytes(UTF_8)));
+        return headers;
+    }
+
+    private String getResult(final FedoraId id) {
+        try {
+            return jdbcTemplate.queryForObject("SELECT result FROM fixity_audit WHERE fedora_id = :id",
+                    Map.of("id", id.getResourceId()), String.class);
+        } catch (final EmptyResultDataAccessException e) {
+            return null;
+        }
+    }
+}
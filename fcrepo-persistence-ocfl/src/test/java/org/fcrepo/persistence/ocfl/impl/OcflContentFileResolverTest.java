@@ -0,0 +1,100 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree.
+ */
+package org.fcrepo.persistence.ocfl.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.fcrepo.persistence.ocfl.impl.OcflPersistentStorageUtils.createFilesystemRepository;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.fcrepo.config.DigestAlgorithm;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.ocfl.api.MutableOcflRepository;
+import io.ocfl.api.OcflOption;
+import io.ocfl.api.model.ObjectVersionId;
+import io.ocfl.api.model.VersionInfo;
+
+/**
+ * Tests of resolving content files against a filesystem OCFL repository.
+ */
+public class OcflContentFileResolverTest {
+
+    private static final String OBJECT_ID = "info:fedora/binary";
+
+    private static final List<URI> DIGESTS = List.of(URI.create("urn:sha-512:0123456789abcdef"));
+
+    @TempDir
+    public Path tempDir;
+
+    private MutableOcflRepository repository;
+
+    private OcflContentFileResolver resolver;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        final var repoDir = Files.createDirectories(tempDir.resolve("ocfl-repo"));
+        final var workDir = Files.createDirectories(tempDir.resolve("ocfl-work"));
+        repository = spy(createFilesystemRepository(repoDir, workDir, DigestAlgorithm.SHA512, false, true));
+        resolver = new OcflContentFileResolver(repository, repoDir, 100);
+    }
+
+    @Test
+    public void testResolveHeadAndPreviousVersions() throws Exception {
+        writeContent("first");
+        writeContent("second");
+
+        assertEquals("second", Files.readString(
+                resolver.resolve(OBJECT_ID, null, "binary", List.of()).orElseThrow(), UTF_8));
+        assertEquals("first", Files.readString(
+                resolver.resolve(OBJECT_ID, "v1", "binary", List.of()).orElseThrow(), UTF_8));
+    }
+
+    @Test
+    public void testResolveCachesFileOfContent() {
+        writeContent("first");
+
+        final var file = resolver.resolve(OBJECT_ID, null, "binary", DIGESTS).orElseThrow();
+        assertEquals(file, resolver.resolve(OBJECT_ID, null, "binary", DIGESTS).orElseThrow());
+
+        verify(repository, times(1)).describeVersion(any());
+    }
+
+    @Test
+    public void testResolveAgainWhenCachedFileIsGone() throws Exception {
+        writeContent("first");
+        final var file = resolver.resolve(OBJECT_ID, null, "binary", DIGESTS).orElseThrow();
+        Files.delete(file);
+
+        assertTrue(resolver.resolve(OBJECT_ID, null, "binary", DIGESTS).isEmpty());
+        verify(repository, times(2)).describeVersion(any());
+    }
+
+    @Test
+    public void testResolveMissingLogicalPath() {
+        writeContent("first");
+
+        assertTrue(resolver.resolve(OBJECT_ID, null, "other", DIGESTS).isEmpty());
+    }
+
+    private void writeContent(final String content) {
+        repository.updateObject(ObjectVersionId.head(OBJECT_ID), new VersionInfo(), updater ->
+                updater.writeFile(new ByteArrayInputStream(content.getBytes(UTF_8)), "binary",
+                        OcflOption.OVERWRITE));
+    }
+}
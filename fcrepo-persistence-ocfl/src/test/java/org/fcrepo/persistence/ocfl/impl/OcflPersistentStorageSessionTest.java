@@ -72,6 +72,7 @@ import java.nio.file.Path;
 import java.time.Instant;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
@@ -436,6 +437,46 @@ public class OcflPersistentStorageSessionTest {
         verify(index).rollback(any(Transaction.class));
     }
 
+    @Test
+    public void parallelCommitRollsBackCommittedObjectsOnFailure() throws Exception {
+        mockNoIndex(RESOURCE_ID);
+        mockResourceOperation(rdfSourceOperation, RESOURCE_ID);
+
+        mockNoIndex(RESOURCE_ID2);
+        mockResourceOperation(rdfSourceOperation2, RESOURCE_ID2);
+
+        when(mockSessionFactory.newSession(eq(OCFL_RESOURCE_ID))).thenReturn(objectSession1);
+        when(mockSessionFactory.newSession(eq(OCFL_RESOURCE_ID2))).thenReturn(objectSession2);
+        //fail the second object only once the first has committed
+        final CountDownLatch firstCommitted = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            firstCommitted.countDown();
+            return null;
+        }).when(objectSession1).commit();
+        doAnswer(invocation -> {
+            firstCommitted.await(5, TimeUnit.SECONDS);
+            throw new RuntimeException("commit failed");
+        }).when(objectSession2).commit();
+
+        final var commitExecutor = Executors.newFixedThreadPool(2);
+        try {
+            final PersistentStorageSession session1 = new OcflPersistentStorageSession(mockTransaction(), index,
+                    mockSessionFactory, reindexService, commitExecutor);
+            session1.persist(rdfSourceOperation);
+            session1.persist(rdfSourceOperation2);
+            session1.prepare();
+            assertThrows(PersistentStorageException.class, session1::commit);
+
+            session1.rollback();
+        } finally {
+            commitExecutor.shutdown();
+        }
+
+        verify(objectSession1).rollback();
+        verify(objectSession2).abort();
+        verify(index).rollback(any(Transaction.class));
+    }
+
     @Test
     public void getTriplesFailsIfCommitHasAlreadyStarted() throws Exception {
         final var ocflId = OCFL_RESOURCE_ID;
@@ -34,6 +34,7 @@ import org.fcrepo.kernel.api.models.ResourceHeaders;
 import org.fcrepo.kernel.impl.models.ResourceFactoryImpl;
 import org.fcrepo.persistence.ocfl.api.FedoraOcflMappingNotFoundException;
 import org.fcrepo.search.api.Condition;
+import org.fcrepo.search.api.PaginationInfo;
 import org.fcrepo.search.api.SearchParameters;
 import org.fcrepo.storage.ocfl.exception.ValidationException;
 import org.fcrepo.storage.ocfl.validation.ObjectValidator;
@@ -108,6 +109,7 @@ public class ReindexServiceTest extends AbstractReindexerTest {
         setField(reindexService, "config", fedoraConfig);
         setField(reindexService, "initializationStatus", initializationStatus);
         when(searchIndex.doSearch(any(SearchParameters.class))).thenReturn(containerResult);
+        when(containerResult.getPagination()).thenReturn(new PaginationInfo());
 
 
         when(propsConfig.getReindexingThreads()).thenReturn(2L);
@@ -5,6 +5,7 @@
  */
 package org.fcrepo.search.api;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 /**
@@ -19,6 +20,12 @@ public class PaginationInfo {
     private int maxResults = -1;
     @JsonProperty
     private int totalResults;
+    @JsonProperty
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+    @JsonProperty
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private boolean totalResultsEstimated;
 
     /**
      * Default constructor
@@ -38,6 +45,34 @@ public class PaginationInfo {
         this.totalResults = totalResults;
     }
 
+    /**
+     * Constructor for a page of a cursor paged search
+     *
+     * @param maxResults max results asked off
+     * @param offset     offset of the first result item
+     * @param totalResults The total number of results
+     * @param nextCursor The cursor for the next page, or null if this is the last page
+     */
+    public PaginationInfo(final int maxResults, final int offset, final int totalResults, final String nextCursor) {
+        this(maxResults, offset, totalResults);
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Constructor for a page whose total number of results may be an estimate
+     *
+     * @param maxResults max results asked off
+     * @param offset     offset of the first result item
+     * @param totalResults The total number of results
+     * @param nextCursor The cursor for the next page, or null if this is the last page
+     * @param totalResultsEstimated Whether the total number of results is an estimate
+     */
+    public PaginationInfo(final int maxResults, final int offset, final int totalResults, final String nextCursor,
+                          final boolean totalResultsEstimated) {
+        this(maxResults, offset, totalResults, nextCursor);
+        this.totalResultsEstimated = totalResultsEstimated;
+    }
+
     /**
      * @return The max results of the original query
      */
@@ -58,4 +93,19 @@ public class PaginationInfo {
     public int getTotalResults() {
         return this.totalResults;
     }
+
+    /**
+     * @return Whether the total number of results is an estimate rather than an exact count.
+     */
+    public boolean isTotalResultsEstimated() {
+        return totalResultsEstimated;
+    }
+
+    /**
+     * @return The cursor to request the next page with, null if there are no more results or the search was not
+     *         paged with a cursor.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
 }
@@ -51,11 +51,27 @@ public interface SearchIndex {
      */
     SearchResult doSearch(SearchParameters parameters) throws InvalidQueryException;
 
+    /**
+     * Prepares a search whose results are read from the index as they are consumed, without holding the whole result
+     * in memory. The query is checked here, so an invalid query is rejected before any result is read. The offset,
+     * max results and cursor of the parameters are ignored.
+     *
+     * @param parameters The parameters defining the search
+     * @return The search, ready to read its results
+     */
+    SearchStream streamSearch(SearchParameters parameters) throws InvalidQueryException;
+
     /**
      * Remove all persistent state associated with the index.
      */
     void reset();
 
+    /**
+     * Recompute the repository statistics kept alongside the index from the indexed resources, such as after the
+     * index has been rebuilt. Does nothing if the index does not keep statistics.
+     */
+    void rebuildStatistics();
+
     /**
      * Commit the changes made in the transaction.
      *
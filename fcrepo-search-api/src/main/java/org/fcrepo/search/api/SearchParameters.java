@@ -16,6 +16,11 @@ import java.util.List;
  */
 public class SearchParameters {
 
+    /**
+     * The cursor value which requests the first page of a cursor paged search.
+     */
+    public static final String FIRST_PAGE_CURSOR = "*";
+
     private final List<Condition> conditions;
 
     private final List<Condition.Field> fields;
@@ -29,6 +34,9 @@ public class SearchParameters {
     private final String order;
 
     private final boolean includeTotalResultCount;
+
+    private final String cursor;
+
     /**
      * Constructoor
      *
@@ -43,6 +51,25 @@ public class SearchParameters {
     public SearchParameters(final List<Condition.Field> fields, final List<Condition> conditions, final int maxResults,
                             final int offset, final Condition.Field orderBy, final String order,
                             final boolean includeTotalResultCount) {
+        this(fields, conditions, maxResults, offset, orderBy, order, includeTotalResultCount, null);
+    }
+
+    /**
+     * Constructor for a search which may be paged with a continuation cursor rather than an offset.
+     *
+     * @param fields     The fields to be returned in the results
+     * @param conditions The conditions
+     * @param maxResults The max results
+     * @param offset     The offset, ignored when a cursor is provided
+     * @param orderBy    The field by which to order the results
+     * @param order      The order: ie "asc" or "desc"
+     * @param includeTotalResultCount A flag indicating whether or not to return the total result count.
+     * @param cursor     The cursor returned with the previous page, {@link #FIRST_PAGE_CURSOR} for the first page or
+     *                   null to page by offset
+     */
+    public SearchParameters(final List<Condition.Field> fields, final List<Condition> conditions, final int maxResults,
+                            final int offset, final Condition.Field orderBy, final String order,
+                            final boolean includeTotalResultCount, final String cursor) {
         this.fields = fields;
         this.conditions = conditions;
         this.maxResults = maxResults;
@@ -50,6 +77,7 @@ public class SearchParameters {
         this.orderBy = orderBy;
         this.order = order;
         this.includeTotalResultCount = includeTotalResultCount;
+        this.cursor = cursor;
     }
 
     /**
@@ -114,6 +142,22 @@ public class SearchParameters {
         return includeTotalResultCount;
     }
 
+    /**
+     * Returns the continuation cursor of the page to return, or null if the search is paged by offset.
+     * @return
+     */
+    public String getCursor() {
+        return cursor;
+    }
+
+    /**
+     * Returns flag indicating whether the search is paged with a continuation cursor rather than an offset.
+     * @return
+     */
+    public boolean isCursorPaging() {
+        return cursor != null;
+    }
+
     @Override
     public String toString() {
         final MoreObjects.ToStringHelper helper = MoreObjects.toStringHelper(this);
@@ -124,6 +168,7 @@ public class SearchParameters {
         helper.add("orderBy", orderBy);
         helper.add("order", order);
         helper.add("includeTotalResultCount", includeTotalResultCount);
+        helper.add("cursor", cursor);
         return helper.toString();
     }
 }
@@ -0,0 +1,23 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree.
+ */
+package org.fcrepo.search.api;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A search whose query has already been built and checked, ready to read its results from the index.
+ */
+@FunctionalInterface
+public interface SearchStream {
+
+    /**
+     * Read every result of the search, passing each to the consumer as it is read.
+     *
+     * @param consumer The consumer of the result items, in the order defined by the search parameters
+     */
+    void forEach(Consumer<Map<String, Object>> consumer);
+}
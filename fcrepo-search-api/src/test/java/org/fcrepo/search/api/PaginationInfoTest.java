@@ -6,6 +6,9 @@
 package org.fcrepo.search.api;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
 
@@ -20,6 +23,7 @@ public class PaginationInfoTest {
         assertEquals(-1, info.getMaxResults());
         assertEquals(-1, info.getOffset());
         assertEquals(0, info.getTotalResults());
+        assertNull(info.getNextCursor());
     }
 
     @Test
@@ -34,4 +38,23 @@ public class PaginationInfoTest {
         assertEquals(offset, info.getOffset());
         assertEquals(totalResults, info.getTotalResults());
     }
+
+    @Test
+    public void testCursorConstructor() {
+        final PaginationInfo info = new PaginationInfo(25, -1, 100, "next");
+
+        assertEquals(25, info.getMaxResults());
+        assertEquals(-1, info.getOffset());
+        assertEquals(100, info.getTotalResults());
+        assertEquals("next", info.getNextCursor());
+        assertFalse(info.isTotalResultsEstimated());
+    }
+
+    @Test
+    public void testEstimatedConstructor() {
+        final PaginationInfo info = new PaginationInfo(25, 0, 1000, null, true);
+
+        assertEquals(1000, info.getTotalResults());
+        assertTrue(info.isTotalResultsEstimated());
+    }
 }
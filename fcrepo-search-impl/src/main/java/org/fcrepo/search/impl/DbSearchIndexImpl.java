@@ -7,6 +7,7 @@ package org.fcrepo.search.impl;
 
 import static java.time.format.DateTimeFormatter.ISO_INSTANT;
 import static java.util.stream.Collectors.toList;
+import static org.fcrepo.common.db.DbPlatform.MYSQL;
 import static org.fcrepo.common.db.DbPlatform.POSTGRESQL;
 import static org.fcrepo.common.db.DbPlatform.H2;
 import static org.fcrepo.search.api.Condition.Field.CONTENT_SIZE;
@@ -19,6 +20,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.sql.Types;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
@@ -35,6 +37,7 @@ import javax.sql.DataSource;
 
 import com.google.common.collect.Sets;
 import org.fcrepo.common.db.DbPlatform;
+import org.fcrepo.config.FedoraPropsConfig;
 import org.fcrepo.kernel.api.RepositoryInitializationStatus;
 import org.fcrepo.kernel.api.Transaction;
 import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
@@ -47,18 +50,25 @@ import org.fcrepo.search.api.PaginationInfo;
 import org.fcrepo.search.api.SearchIndex;
 import org.fcrepo.search.api.SearchParameters;
 import org.fcrepo.search.api.SearchResult;
+import org.fcrepo.search.api.SearchStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Role;
 import org.springframework.dao.CannotAcquireLockException;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterUtils;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * An implementation of the {@link SearchIndex}
@@ -400,8 +410,36 @@ public class DbSearchIndexImpl implements SearchIndex {
             DbPlatform.POSTGRESQL, DELETE_RDF_TYPE_ASSOCIATIONS_POSTGRES
     );
 
+    /*
+     * Select the resource in simple_search, aliased a, which a direct write changes.
+     */
+    private static final String DIRECT_STATISTICS_SCOPE = "a." + FEDORA_ID_COLUMN + " = :" + FEDORA_ID_PARAM;
+
+    /*
+     * Select the resources in simple_search, aliased a, which the commit of a transaction changes.
+     */
+    private static final String TRANSACTION_STATISTICS_SCOPE = "a." + FEDORA_ID_COLUMN + " IN (SELECT " +
+            FEDORA_ID_COLUMN + " FROM " + SIMPLE_SEARCH_TRANSACTIONS_TABLE + " WHERE " + TRANSACTION_ID_COLUMN +
+            " = :" + TRANSACTION_ID_PARAM + ")";
+
     private static final List<String> COUNT_QUERY_COLUMNS = List.of("count(0) as count");
 
+    private static final String CURSOR_ID_PARAM = "cursor_id";
+    private static final String CURSOR_VALUE_PARAM = "cursor_value";
+
+    /*
+     * The number of rows to fetch at a time when streaming search results.
+     */
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    /*
+     * The kinds of query built from search parameters. An estimate query selects the matching rows without ordering
+     * or paging, for the database to estimate the number of.
+     */
+    private enum QueryType {
+        PAGE, COUNT, ESTIMATE, EXPORT
+    }
+
     @Inject
     private DataSource dataSource;
 
@@ -413,6 +451,17 @@ public class DbSearchIndexImpl implements SearchIndex {
     @Inject
     private RepositoryInitializationStatus initializationStatus;
 
+    @Inject
+    private FedoraPropsConfig fedoraPropsConfig;
+
+    private SearchResultCounter resultCounter;
+
+    private SearchStatistics statistics;
+
+    private boolean useStatistics;
+
+    private TransactionTemplate statisticsTxTemplate;
+
     private DbPlatform dbPlatForm;
 
     private final Map<URI, Long> rdfTypeIdCache;
@@ -424,6 +473,29 @@ public class DbSearchIndexImpl implements SearchIndex {
     public void setup() {
         this.dbPlatForm = DbPlatform.fromDataSource(this.dataSource);
         this.jdbcTemplate = new NamedParameterJdbcTemplate(this.dataSource);
+        this.resultCounter = new SearchResultCounter(jdbcTemplate, dbPlatForm,
+                fedoraPropsConfig.getSearchCountStrategy(), fedoraPropsConfig.getSearchCountCacheSize(),
+                Duration.ofSeconds(fedoraPropsConfig.getSearchCountCacheTimeout()));
+        this.statistics = new SearchStatistics(jdbcTemplate, dbPlatForm);
+        this.statisticsTxTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.statisticsTxTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        setupStatistics();
+    }
+
+    /**
+     * Compute the statistics from the index if they have been enabled since the last start, or remove them if they
+     * have been disabled so they are not out of date if enabled again later.
+     */
+    void setupStatistics() {
+        useStatistics = fedoraPropsConfig.isSearchStatsCountersEnabled();
+        final boolean hasStatistics = !statistics.isEmpty();
+        if (useStatistics && !hasStatistics) {
+            LOGGER.info("Computing the search index statistics");
+            statistics.rebuild();
+        } else if (!useStatistics && hasStatistics) {
+            LOGGER.info("Search index statistics are disabled, removing them");
+            statistics.clear();
+        }
     }
 
     public DbSearchIndexImpl() {
@@ -435,26 +507,92 @@ public class DbSearchIndexImpl implements SearchIndex {
         //translate parameters into a SQL query
         final MapSqlParameterSource parameterSource = new MapSqlParameterSource();
         final var fields = parameters.getFields().stream().map(Condition.Field::toString).collect(toList());
-        final var selectQuery = createSearchQuery(parameters, parameterSource, fields, false);
+        final var selectQuery = createSearchQuery(parameters, parameterSource, fields, QueryType.PAGE);
         final RowMapper<Map<String, Object>> rowMapper = createRowMapper(fields);
 
-        Integer totalResults = -1;
+        int totalResults = -1;
+        boolean totalResultsEstimated = false;
         if (parameters.isIncludeTotalResultCount()) {
-            final var countQuery = createSearchQuery(parameters, parameterSource, Collections.emptyList(), true);
-            LOGGER.debug("countQuery={}, parameterSource={}", countQuery, parameterSource);
-            totalResults = jdbcTemplate.queryForObject(countQuery.toString(), parameterSource, Integer.class);
+            final var countQuery = createSearchQuery(parameters, parameterSource, Collections.emptyList(),
+                    QueryType.COUNT);
+            final var estimateQuery = createSearchQuery(parameters, parameterSource, Collections.emptyList(),
+                    QueryType.ESTIMATE);
+            final var count = resultCounter.count(parameters.getConditions(), countQuery.toString(),
+                    estimateQuery.toString(), parameterSource);
+            totalResults = count.getValue();
+            totalResultsEstimated = count.isEstimated();
         }
 
         final var selectQueryStr = selectQuery.toString();
         LOGGER.debug("selectQueryStr={}, parameterSource={}", selectQueryStr, parameterSource);
 
-        final List<Map<String, Object>> items = jdbcTemplate.query(selectQueryStr, parameterSource, rowMapper);
-        final var pagination = new PaginationInfo(parameters.getMaxResults(), parameters.getOffset(),
-                (totalResults != null ? totalResults : 0));
+        final PaginationInfo pagination;
+        final List<Map<String, Object>> items;
+        if (parameters.isCursorPaging()) {
+            // one more row than asked for is selected to find out whether there is a next page
+            final int maxResults = parameters.getMaxResults();
+            final SearchCursor[] lastOnPage = new SearchCursor[1];
+            final List<Map<String, Object>> rows = jdbcTemplate.query(selectQueryStr, parameterSource,
+                    (rs, rowNum) -> {
+                        if (rowNum == maxResults - 1) {
+                            lastOnPage[0] = SearchCursor.fromRow(rs, parameters);
+                        }
+                        return rowMapper.mapRow(rs, rowNum);
+                    });
+            final boolean hasNextPage = rows.size() > maxResults && lastOnPage[0] != null;
+            items = hasNextPage ? new ArrayList<>(rows.subList(0, maxResults)) : rows;
+            pagination = new PaginationInfo(maxResults, -1, totalResults,
+                    hasNextPage ? lastOnPage[0].encode() : null, totalResultsEstimated);
+        } else {
+            items = jdbcTemplate.query(selectQueryStr, parameterSource, rowMapper);
+            pagination = new PaginationInfo(parameters.getMaxResults(), parameters.getOffset(), totalResults, null,
+                    totalResultsEstimated);
+        }
         LOGGER.debug("Search query with parameters: {} - {}", selectQuery, parameters);
         return new SearchResult(items, pagination);
     }
 
+    @Override
+    public SearchStream streamSearch(final SearchParameters parameters) throws InvalidQueryException {
+        final MapSqlParameterSource parameterSource = new MapSqlParameterSource();
+        final var fields = parameters.getFields().stream().map(Condition.Field::toString).collect(toList());
+        final var selectQueryStr = createSearchQuery(parameters, parameterSource, fields, QueryType.EXPORT)
+                .toString();
+        final RowMapper<Map<String, Object>> rowMapper = createRowMapper(fields);
+        LOGGER.debug("Streaming search selectQueryStr={}, parameterSource={}", selectQueryStr, parameterSource);
+
+        final var parsedSql = NamedParameterUtils.parseSqlStatement(selectQueryStr);
+        final var sql = NamedParameterUtils.substituteNamedParameters(parsedSql, parameterSource);
+        final var argumentSetter = new ArgumentPreparedStatementSetter(
+                NamedParameterUtils.buildValueArray(parsedSql, parameterSource, null));
+        return consumer -> jdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<Void>) connection -> {
+            // PostgreSQL only fetches rows from a cursor in batches while outside of auto-commit mode
+            final boolean restoreAutoCommit = connection.getAutoCommit();
+            if (restoreAutoCommit) {
+                connection.setAutoCommit(false);
+            }
+            try (final var statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY)) {
+                // MySQL Connector/J only streams rows one at a time rather than reading the whole result
+                statement.setFetchSize(dbPlatForm == MYSQL ? Integer.MIN_VALUE : STREAM_FETCH_SIZE);
+                argumentSetter.setValues(statement);
+                try (final var rs = statement.executeQuery()) {
+                    int rowNum = 0;
+                    while (rs.next()) {
+                        consumer.accept(rowMapper.mapRow(rs, rowNum++));
+                    }
+                }
+            } finally {
+                if (restoreAutoCommit) {
+                    // Nothing was written, end the read only transaction before handing the connection back
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+            }
+            return null;
+        });
+    }
+
     private RowMapper<Map<String, Object>> createRowMapper(final List<String> fields) {
         return new RowMapper<Map<String, Object>>() {
             @Override
@@ -478,20 +616,39 @@ public class DbSearchIndexImpl implements SearchIndex {
 
     private StringBuilder createSearchQuery(final SearchParameters parameters,
                                             final MapSqlParameterSource parameterSource,
-                                            final List<String> selectedFields, final boolean isCountQuery)
+                                            final List<String> selectedFields, final QueryType queryType)
             throws InvalidQueryException {
 
         final List<String> queryFields = new ArrayList<>(selectedFields);
         final String fedoraIdStr = FEDORA_ID.toString();
+        final boolean isCountQuery = queryType == QueryType.COUNT || queryType == QueryType.ESTIMATE;
+        final boolean isKeysetQuery = queryType == QueryType.EXPORT ||
+                (queryType == QueryType.PAGE && parameters.isCursorPaging());
+        final Condition.Field orderBy = parameters.getOrderBy();
+        if (isKeysetQuery && orderBy == RDF_TYPE) {
+            throw new InvalidQueryException("Results cannot be ordered by " + RDF_TYPE + " when paging with a cursor" +
+                    " or exporting");
+        }
+        if (queryType == QueryType.PAGE && parameters.isCursorPaging() && parameters.getMaxResults() <= 0) {
+            throw new InvalidQueryException("The maximum number of results must be greater than 0 when paging" +
+                    " with a cursor");
+        }
 
-        if (isCountQuery) {
+        if (queryType == QueryType.COUNT) {
             queryFields.clear();
             queryFields.add("count(0)");
+        } else if (queryType == QueryType.ESTIMATE) {
+            queryFields.clear();
+            queryFields.add("s." + ID_COLUMN);
         } else {
             if (!queryFields.contains(fedoraIdStr)) {
                 queryFields.addFirst(fedoraIdStr);
             }
             queryFields.addFirst("id");
+            // the order by value is needed to position a cursor and to order the rdf type wrapper query by
+            if (orderBy != null && orderBy != RDF_TYPE && !queryFields.contains(orderBy.toString())) {
+                queryFields.add(orderBy.toString());
+            }
         }
 
         final List<String> whereClauses = new ArrayList<>();
@@ -521,12 +678,25 @@ public class DbSearchIndexImpl implements SearchIndex {
             addWhereClause(i, parameterSource, whereClauses, conditions.get(i));
         }
 
+        if (isKeysetQuery && queryType == QueryType.PAGE) {
+            final var cursor = SearchCursor.decode(parameters);
+            if (cursor != null) {
+                whereClauses.add(createCursorClause(parameters, cursor, parameterSource));
+            }
+        }
+
         if (!whereClauses.isEmpty()) {
             sql.append(" WHERE ");
             sql.append(String.join(" AND ", whereClauses));
         }
 
-        if (!isCountQuery) {
+        if (isKeysetQuery) {
+            sql.append(createKeysetOrderBy(parameters));
+            if (queryType == QueryType.PAGE) {
+                sql.append(" LIMIT :limit");
+                parameterSource.addValue("limit", parameters.getMaxResults() + 1);
+            }
+        } else if (!isCountQuery) {
             if (parameters.getOrderBy() != null) {
                 sql.append(" ORDER BY ").append(parameters.getOrderBy())
                         .append(" ").append(parameters.getOrder());
@@ -550,7 +720,9 @@ public class DbSearchIndexImpl implements SearchIndex {
                     .append(" rt WHERE rrt.rdf_type_id = rt.id) b ON a.id = b.resource_id GROUP BY ")
                     .append(String.join(", ", returnFields));
 
-            if (parameters.getOrderBy() != null) {
+            if (isKeysetQuery) {
+                rdfTypeWrapperSql.append(createKeysetOrderBy(parameters));
+            } else if (parameters.getOrderBy() != null) {
                 //add order by limit and offset to selectquery.
                 rdfTypeWrapperSql.append(" ORDER BY ").append(parameters.getOrderBy()).append(" ")
                         .append(parameters.getOrder());
@@ -560,6 +732,62 @@ public class DbSearchIndexImpl implements SearchIndex {
         }
     }
 
+    /**
+     * Order by the order by field and then the row id, so that every row has a unique position a cursor can seek
+     * past. Nulls sort after all values in ascending order and before them in descending order on every platform.
+     */
+    private String createKeysetOrderBy(final SearchParameters parameters) {
+        final var orderBy = parameters.getOrderBy();
+        final var order = parameters.getOrder();
+        final var orderByClause = new StringBuilder(" ORDER BY ");
+        if (orderBy != null) {
+            if (isNullable(orderBy)) {
+                orderByClause.append("CASE WHEN ").append(orderBy).append(" IS NULL THEN 1 ELSE 0 END ")
+                        .append(order).append(", ");
+            }
+            orderByClause.append(orderBy).append(" ").append(order).append(", ");
+        }
+        return orderByClause.append(ID_COLUMN).append(" ").append(order).toString();
+    }
+
+    /**
+     * Create the where clause selecting the rows which come after the cursor in the order of
+     * {@link #createKeysetOrderBy(SearchParameters)}.
+     */
+    private String createCursorClause(final SearchParameters parameters, final SearchCursor cursor,
+                                      final MapSqlParameterSource parameterSource) {
+        final var orderBy = parameters.getOrderBy();
+        final var after = parameters.getOrder().equalsIgnoreCase("desc") ? " < " : " > ";
+        final var idAfter = "s." + ID_COLUMN + after + ":" + CURSOR_ID_PARAM;
+        parameterSource.addValue(CURSOR_ID_PARAM, cursor.getId());
+        if (orderBy == null) {
+            return idAfter;
+        }
+
+        final var column = "s." + orderBy;
+        final var value = cursor.getValue();
+        if (value == null) {
+            // nulls are last in ascending order and first in descending order
+            return after.equals(" > ") ? "(" + column + " IS NULL AND " + idAfter + ")" :
+                    "(" + column + " IS NOT NULL OR " + idAfter + ")";
+        }
+        if (value instanceof Timestamp) {
+            parameterSource.addValue(CURSOR_VALUE_PARAM, value, Types.TIMESTAMP);
+        } else {
+            parameterSource.addValue(CURSOR_VALUE_PARAM, value);
+        }
+        final var clause = column + after + ":" + CURSOR_VALUE_PARAM + " OR (" + column + " = :" +
+                CURSOR_VALUE_PARAM + " AND " + idAfter + ")";
+        if (isNullable(orderBy) && after.equals(" > ")) {
+            return "(" + clause + " OR " + column + " IS NULL)";
+        }
+        return "(" + clause + ")";
+    }
+
+    private static boolean isNullable(final Condition.Field field) {
+        return field == CONTENT_SIZE || field == MIME_TYPE;
+    }
+
     private void addRdfTypeParam(final MapSqlParameterSource parameterSource, final List<Condition> conditions) {
         var rdfTypeUriParamValue = "*";
         for (final Condition condition : conditions) {
@@ -661,14 +889,17 @@ public class DbSearchIndexImpl implements SearchIndex {
                 rdfTypes = new ArrayList<>(Sets.newHashSet(fedoraResource.getTypes()));
             }
 
-            final Long searchId = doUpsertIntoSimpleSearch(fedoraId, resourceHeaders);
-            insertRdfTypes(rdfTypes);
+            final var scopeParams = new MapSqlParameterSource(FEDORA_ID_PARAM, fullId);
+            writeWithStatistics(DIRECT_STATISTICS_SCOPE, scopeParams, () -> {
+                final Long searchId = doUpsertIntoSimpleSearch(fedoraId, resourceHeaders);
+                insertRdfTypes(rdfTypes);
 
-            // Only need to delete existing type associations for live indexing
-            if (initializationStatus.isInitializationComplete()) {
-                deleteRdfTypeAssociations(fedoraId);
-            }
-            insertRdfTypeAssociations(rdfTypes, searchId);
+                // Only need to delete existing type associations for live indexing
+                if (initializationStatus.isInitializationComplete()) {
+                    deleteRdfTypeAssociations(fedoraId);
+                }
+                insertRdfTypeAssociations(rdfTypes, searchId);
+            });
         } catch (final Exception e) {
             throw new RepositoryRuntimeException("Failed add/updated the search index for : " + fullId, e);
         }
@@ -857,8 +1088,41 @@ public class DbSearchIndexImpl implements SearchIndex {
     }
 
     private void doDirectRemove(final FedoraId fedoraId) {
-        deleteRdfTypeAssociations(fedoraId);
-        deleteResource(fedoraId);
+        final var scopeParams = new MapSqlParameterSource(FEDORA_ID_PARAM, fedoraId.getFullId());
+        writeWithStatistics(DIRECT_STATISTICS_SCOPE, scopeParams, () -> {
+            deleteRdfTypeAssociations(fedoraId);
+            deleteResource(fedoraId);
+        });
+    }
+
+    /**
+     * Run a write to the index and, if statistics are enabled, update them by what the resources changed by the
+     * write add to them after it compared to before it. The change is added to the statistics just before the
+     * database transaction, which the write joins, commits.
+     *
+     * @param scope a condition on simple_search selecting the resources
+     * @param parameterSource the parameters of the condition
+     * @param write the write
+     */
+    private void writeWithStatistics(final String scope, final MapSqlParameterSource parameterSource,
+                                     final Runnable write) {
+        if (!useStatistics) {
+            write.run();
+            return;
+        }
+        statisticsTxTemplate.executeWithoutResult(status -> {
+            final var before = statistics.snapshot(scope, parameterSource);
+            write.run();
+            statistics.update(before, statistics.snapshot(scope, parameterSource));
+        });
+    }
+
+    @Override
+    public void rebuildStatistics() {
+        if (useStatistics) {
+            LOGGER.info("Recomputing the search index statistics");
+            statistics.rebuild();
+        }
     }
 
     private void deleteResource(final FedoraId fedoraId) {
@@ -870,13 +1134,15 @@ public class DbSearchIndexImpl implements SearchIndex {
     @Override
     public void reset() {
         rdfTypeIdCache.clear();
+        resultCounter.invalidate();
 
         executeTruncationBatches(
                 SEARCH_RESOURCE_RDF_TYPE_TABLE,
                 SEARCH_RDF_TYPE_TABLE,
                 SIMPLE_SEARCH_TABLE,
                 SEARCH_RESOURCE_RDF_TYPE_TRANSACTIONS_TABLE,
-                SIMPLE_SEARCH_TRANSACTIONS_TABLE
+                SIMPLE_SEARCH_TRANSACTIONS_TABLE,
+                SearchStatistics.STATS_TABLE
         );
     }
 
@@ -917,23 +1183,26 @@ public class DbSearchIndexImpl implements SearchIndex {
             try {
                 final MapSqlParameterSource parameterSource = new MapSqlParameterSource();
                 parameterSource.addValue(TRANSACTION_ID_PARAM, txId);
-                final int deletedAssociations = jdbcTemplate.update(
-                        COMMIT_DELETE_RDF_TYPE_ASSOCIATIONS_MAP.get(dbPlatForm),
-                        parameterSource);
-                final int deletedResources = jdbcTemplate.update(
-                        COMMIT_DELETE_RESOURCES_IN_TRANSACTION_MAP.get(dbPlatForm),
-                        parameterSource);
-                final int addedRdfTypes = jdbcTemplate.update(
-                        COMMIT_RDF_TYPES_MAP.get(dbPlatForm),
-                        parameterSource);
-                final int addedResources = jdbcTemplate.update(UPSERT_COMMIT_MAPPING.get(dbPlatForm),
-                        parameterSource);
-                final int addRdfTypeAssociations = jdbcTemplate.update(COMMIT_RDF_TYPE_ASSOCIATIONS, parameterSource);
+                writeWithStatistics(TRANSACTION_STATISTICS_SCOPE, parameterSource, () -> {
+                    final int deletedAssociations = jdbcTemplate.update(
+                            COMMIT_DELETE_RDF_TYPE_ASSOCIATIONS_MAP.get(dbPlatForm),
+                            parameterSource);
+                    final int deletedResources = jdbcTemplate.update(
+                            COMMIT_DELETE_RESOURCES_IN_TRANSACTION_MAP.get(dbPlatForm),
+                            parameterSource);
+                    final int addedRdfTypes = jdbcTemplate.update(
+                            COMMIT_RDF_TYPES_MAP.get(dbPlatForm),
+                            parameterSource);
+                    final int addedResources = jdbcTemplate.update(UPSERT_COMMIT_MAPPING.get(dbPlatForm),
+                            parameterSource);
+                    final int addRdfTypeAssociations = jdbcTemplate.update(COMMIT_RDF_TYPE_ASSOCIATIONS,
+                            parameterSource);
+                    LOGGER.debug("Commit of tx {} complete with {} resource adds, {} resource associations adds, " +
+                                    "{} rdf types adds{},  resource deletes, {} resource/rdf type associations " +
+                                    "deletes", txId, addedResources, addRdfTypeAssociations, addedRdfTypes,
+                            deletedResources, deletedAssociations);
+                });
                 cleanupTransaction(txId);
-                LOGGER.debug("Commit of tx {} complete with {} resource adds, {} resource associations adds, " +
-                                "{} rdf types adds{},  resource deletes, {} resource/rdf type associations deletes",
-                        txId, addedResources, addRdfTypeAssociations, addedRdfTypes, deletedResources,
-                        deletedAssociations);
             } catch (final Exception e) {
                 LOGGER.warn("Unable to commit search index transaction {}: {}", txId, e.getMessage());
                 throw new RepositoryRuntimeException("Unable to commit search index transaction", e);
@@ -0,0 +1,147 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree.
+ */
+package org.fcrepo.search.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.fcrepo.search.api.Condition.Field.CONTENT_SIZE;
+import static org.fcrepo.search.api.Condition.Field.CREATED;
+import static org.fcrepo.search.api.Condition.Field.MODIFIED;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Objects;
+
+import org.fcrepo.search.api.Condition;
+import org.fcrepo.search.api.InvalidQueryException;
+import org.fcrepo.search.api.SearchParameters;
+
+/**
+ * The position of the last result on a page of a cursor paged search, which the next page starts after. It is made
+ * up of the value of the order by field and the id of the row, and is handed to clients as an opaque token.
+ */
+final class SearchCursor {
+
+    private static final String SEPARATOR = "\n";
+
+    private static final String NULL_VALUE = "-";
+
+    private static final String NON_NULL_VALUE = "v";
+
+    private final Condition.Field orderBy;
+
+    private final String order;
+
+    private final long id;
+
+    private final Object value;
+
+    private SearchCursor(final Condition.Field orderBy, final String order, final long id, final Object value) {
+        this.orderBy = orderBy;
+        this.order = order;
+        this.id = id;
+        this.value = value;
+    }
+
+    /**
+     * Create a cursor positioned on the current row of a search result set.
+     *
+     * @param rs the result set
+     * @param parameters the parameters of the search
+     * @return the cursor
+     * @throws SQLException if the row cannot be read
+     */
+    static SearchCursor fromRow(final ResultSet rs, final SearchParameters parameters) throws SQLException {
+        final var orderBy = parameters.getOrderBy();
+        Object value = null;
+        if (orderBy != null) {
+            final var column = orderBy.toString();
+            if (orderBy == CREATED || orderBy == MODIFIED) {
+                value = rs.getTimestamp(column);
+            } else if (orderBy == CONTENT_SIZE) {
+                final long size = rs.getLong(column);
+                value = rs.wasNull() ? null : size;
+            } else {
+                value = rs.getString(column);
+            }
+        }
+        return new SearchCursor(orderBy, parameters.getOrder(), rs.getLong(DbSearchIndexImpl.ID_COLUMN), value);
+    }
+
+    /**
+     * Decode the cursor of a search.
+     *
+     * @param parameters the parameters of the search
+     * @return the cursor, or null if the first page was requested
+     * @throws InvalidQueryException if the cursor is malformed or was issued for a search with a different order
+     */
+    static SearchCursor decode(final SearchParameters parameters) throws InvalidQueryException {
+        final var token = parameters.getCursor();
+        if (token == null || token.equals(SearchParameters.FIRST_PAGE_CURSOR)) {
+            return null;
+        }
+        final String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), UTF_8).split(SEPARATOR, 5);
+        } catch (final IllegalArgumentException e) {
+            throw new InvalidQueryException("The cursor \"" + token + "\" is not valid");
+        }
+        if (parts.length != 5 || !parts[0].equals(Objects.toString(parameters.getOrderBy(), "")) ||
+                !parts[1].equalsIgnoreCase(parameters.getOrder())) {
+            throw new InvalidQueryException("The cursor \"" + token + "\" does not belong to a search with order_by " +
+                    parameters.getOrderBy() + " and order " + parameters.getOrder());
+        }
+        try {
+            final long id = Long.parseLong(parts[2]);
+            final var orderBy = parameters.getOrderBy();
+            Object value = null;
+            if (orderBy != null && parts[3].equals(NON_NULL_VALUE)) {
+                if (orderBy == CREATED || orderBy == MODIFIED) {
+                    value = Timestamp.from(Instant.parse(parts[4]));
+                } else if (orderBy == CONTENT_SIZE) {
+                    value = Long.parseLong(parts[4]);
+                } else {
+                    value = parts[4];
+                }
+            }
+            return new SearchCursor(orderBy, parameters.getOrder(), id, value);
+        } catch (final RuntimeException e) {
+            throw new InvalidQueryException("The cursor \"" + token + "\" is not valid");
+        }
+    }
+
+    /**
+     * @return the cursor as an opaque token
+     */
+    String encode() {
+        final String valueStr;
+        if (value instanceof Timestamp) {
+            // keep the full precision of the timestamp, or the row would be returned again on the next page
+            valueStr = ((Timestamp) value).toInstant().toString();
+        } else {
+            valueStr = Objects.toString(value, "");
+        }
+        final var token = String.join(SEPARATOR, Objects.toString(orderBy, ""), order, Long.toString(id),
+                value == null ? NULL_VALUE : NON_NULL_VALUE, valueStr);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(UTF_8));
+    }
+
+    /**
+     * @return the id of the row
+     */
+    long getId() {
+        return id;
+    }
+
+    /**
+     * @return the value of the order by field of the row, null if there is no order by field or the value is null
+     */
+    Object getValue() {
+        return value;
+    }
+}
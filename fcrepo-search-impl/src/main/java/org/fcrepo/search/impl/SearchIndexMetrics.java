@@ -16,6 +16,7 @@ import org.fcrepo.search.api.InvalidQueryException;
 import org.fcrepo.search.api.SearchIndex;
 import org.fcrepo.search.api.SearchParameters;
 import org.fcrepo.search.api.SearchResult;
+import org.fcrepo.search.api.SearchStream;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.config.BeanDefinition;
@@ -45,12 +46,16 @@ public class SearchIndexMetrics implements SearchIndex {
             DB, SEARCH, OPERATION, "removeFromIndex");
     private static final Timer doSearchTimer = Metrics.timer(METRIC_NAME,
             DB, SEARCH, OPERATION, "doSearch");
+    private static final Timer streamSearchTimer = Metrics.timer(METRIC_NAME,
+            DB, SEARCH, OPERATION, "streamSearch");
     private static final Timer resetTimer = Metrics.timer(METRIC_NAME,
             DB, SEARCH, OPERATION, "reset");
     private static final Timer commitTransactionTimer = Metrics.timer(METRIC_NAME,
             DB, SEARCH, OPERATION, "commitTransaction");
     private static final Timer rollbackTransactionTimer = Metrics.timer(METRIC_NAME,
             DB, SEARCH, OPERATION, "rollbackTransaction");
+    private static final Timer rebuildStatisticsTimer = Metrics.timer(METRIC_NAME,
+            DB, SEARCH, OPERATION, "rebuildStatistics");
     private static final Timer clearAllTransactionsTimer = Metrics.timer(METRIC_NAME,
             DB, SEARCH, OPERATION, "clearAllTransactions");
 
@@ -91,6 +96,19 @@ public class SearchIndexMetrics implements SearchIndex {
         }
     }
 
+    @Override
+    public SearchStream streamSearch(final SearchParameters parameters) throws InvalidQueryException {
+        final var search = searchIndexImpl.streamSearch(parameters);
+        return consumer -> {
+            final var stopwatch = Timer.start();
+            try {
+                search.forEach(consumer);
+            } finally {
+                stopwatch.stop(streamSearchTimer);
+            }
+        };
+    }
+
     @Override
     public void reset() {
         resetTimer.record(() -> {
@@ -98,6 +116,13 @@ public class SearchIndexMetrics implements SearchIndex {
         });
     }
 
+    @Override
+    public void rebuildStatistics() {
+        rebuildStatisticsTimer.record(() -> {
+            searchIndexImpl.rebuildStatistics();
+        });
+    }
+
     @Override
     public void commitTransaction(final Transaction tx) {
         commitTransactionTimer.record(() -> {
@@ -0,0 +1,199 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree.
+ */
+package org.fcrepo.search.impl;
+
+import static java.util.stream.Collectors.toList;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.fcrepo.common.db.DbPlatform;
+import org.fcrepo.config.SearchCountStrategy;
+import org.fcrepo.search.api.Condition;
+import org.slf4j.Logger;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+/**
+ * Counts the total number of results of a search according to a {@link SearchCountStrategy}.
+ */
+class SearchResultCounter {
+
+    private static final Logger LOGGER = getLogger(SearchResultCounter.class);
+
+    /*
+     * The row estimate of the top node of a PostgreSQL JSON query plan, which is the first one in the plan.
+     */
+    private static final Pattern POSTGRES_PLAN_ROWS = Pattern.compile("\"Plan Rows\":\\s*(\\d+)");
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final DbPlatform dbPlatform;
+
+    private final SearchCountStrategy strategy;
+
+    private final Cache<List<String>, Integer> countCache;
+
+    /**
+     * Constructor
+     * @param jdbcTemplate the template to query with
+     * @param dbPlatform the database platform
+     * @param strategy how to count the results
+     * @param cacheSize the maximum number of counts to cache with the cached strategy
+     * @param cacheTimeout how long a count is cached for with the cached strategy
+     */
+    SearchResultCounter(final NamedParameterJdbcTemplate jdbcTemplate, final DbPlatform dbPlatform,
+                        final SearchCountStrategy strategy, final long cacheSize, final Duration cacheTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dbPlatform = dbPlatform;
+        this.strategy = strategy;
+        this.countCache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTimeout)
+                .build();
+    }
+
+    /**
+     * Count the results of a search.
+     *
+     * @param conditions the conditions of the search
+     * @param countQuery a query selecting the exact number of results
+     * @param selectQuery a query selecting the results without ordering or paging, for the query planner to estimate
+     * @param parameterSource the parameters of both queries
+     * @return the count
+     */
+    Count count(final List<Condition> conditions, final String countQuery, final String selectQuery,
+                final MapSqlParameterSource parameterSource) {
+        switch (strategy) {
+            case ESTIMATED:
+                final var estimate = estimate(selectQuery, parameterSource);
+                if (estimate != null) {
+                    return new Count(estimate, true);
+                }
+                return new Count(countExact(countQuery, parameterSource), false);
+            case CACHED:
+                // the count only depends on the conditions, not on the order in which they were given
+                final var key = conditions.stream().map(Condition::toString).sorted().collect(toList());
+                return new Count(countCache.get(key, k -> countExact(countQuery, parameterSource)), false);
+            default:
+                return new Count(countExact(countQuery, parameterSource), false);
+        }
+    }
+
+    /**
+     * Drop all cached counts.
+     */
+    void invalidate() {
+        countCache.invalidateAll();
+    }
+
+    private int countExact(final String countQuery, final MapSqlParameterSource parameterSource) {
+        LOGGER.debug("countQuery={}, parameterSource={}", countQuery, parameterSource);
+        final Integer count = jdbcTemplate.queryForObject(countQuery, parameterSource, Integer.class);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Ask the database for its estimate of the number of rows a query returns.
+     *
+     * @return the estimate, or null if the database cannot provide one
+     */
+    private Integer estimate(final String selectQuery, final MapSqlParameterSource parameterSource) {
+        try {
+            switch (dbPlatform) {
+                case POSTGRESQL:
+                    return estimatePostgres(selectQuery, parameterSource);
+                case MYSQL:
+                case MARIADB:
+                    return estimateMysql(selectQuery, parameterSource);
+                default:
+                    return null;
+            }
+        } catch (final DataAccessException e) {
+            LOGGER.warn("Unable to estimate the number of search results, counting them instead: {}",
+                    e.getMessage());
+            return null;
+        }
+    }
+
+    private Integer estimatePostgres(final String selectQuery, final MapSqlParameterSource parameterSource) {
+        final var plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + selectQuery, parameterSource,
+                String.class);
+        final var matcher = POSTGRES_PLAN_ROWS.matcher(plan == null ? "" : plan);
+        if (!matcher.find()) {
+            return null;
+        }
+        return (int) Math.min(Long.parseLong(matcher.group(1)), Integer.MAX_VALUE);
+    }
+
+    /**
+     * The rows and filtered columns of the EXPLAIN output are taken from the index and table statistics. The
+     * estimate of a join is the product of the estimates of the tables of the outer select. MariaDB does not report
+     * filtered in a plain EXPLAIN, so its row estimates are used as they are.
+     */
+    private Integer estimateMysql(final String selectQuery, final MapSqlParameterSource parameterSource) {
+        final double[] estimate = {1};
+        jdbcTemplate.query("EXPLAIN " + selectQuery, parameterSource, rs -> {
+            if (rs.getInt("id") != 1) {
+                return;
+            }
+            double rows = rs.getDouble("rows");
+            if (rs.wasNull()) {
+                return;
+            }
+            if (hasColumn(rs.getMetaData(), "filtered")) {
+                rows = rows * rs.getDouble("filtered") / 100;
+            }
+            estimate[0] *= rows;
+        });
+        return (int) Math.min(Math.round(estimate[0]), Integer.MAX_VALUE);
+    }
+
+    private static boolean hasColumn(final ResultSetMetaData metaData, final String column) throws SQLException {
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            if (metaData.getColumnLabel(i).equalsIgnoreCase(column)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The total number of results of a search.
+     */
+    static class Count {
+
+        private final int value;
+
+        private final boolean estimated;
+
+        Count(final int value, final boolean estimated) {
+            this.value = value;
+            this.estimated = estimated;
+        }
+
+        /**
+         * @return the number of results
+         */
+        int getValue() {
+            return value;
+        }
+
+        /**
+         * @return whether the number of results is an estimate
+         */
+        boolean isEstimated() {
+            return estimated;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree.
+ */
+package org.fcrepo.search.impl;
+
+import static org.fcrepo.common.db.DbPlatform.H2;
+import static org.fcrepo.common.db.DbPlatform.MARIADB;
+import static org.fcrepo.common.db.DbPlatform.MYSQL;
+import static org.fcrepo.common.db.DbPlatform.POSTGRESQL;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import org.fcrepo.common.db.DbPlatform;
+import org.fcrepo.kernel.api.RdfLexicon;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps running totals of the number and size of the resources in the search index in the search_stats table: in
+ * total, per mime type of binaries and per rdf type. The totals are updated with the difference between the indexed
+ * state of the resources touched by a write before and after it, so reading them never has to group the whole index.
+ * <p>
+ * The differences are added up per database transaction and only written, as atomic increments of each total, just
+ * before it commits. The rows of the totals are then only locked for the end of the commit, and not while the rest
+ * of the transaction, such as the OCFL commit, runs. Two writers never compute their difference from the same state
+ * of a resource, as Fedora holds the lock on a resource until after the database transaction which wrote it has
+ * committed.
+ */
+class SearchStatistics {
+
+    static final String STATS_TABLE = "search_stats";
+
+    static final String TOTAL = "total";
+
+    static final String MIME_TYPE = "mime_type";
+
+    static final String RDF_TYPE = "rdf_type";
+
+    private static final String STAT_TYPE_PARAM = "stat_type";
+    private static final String STAT_KEY_PARAM = "stat_key";
+    private static final String RESOURCE_COUNT_PARAM = "resource_count";
+    private static final String BYTE_COUNT_PARAM = "byte_count";
+    private static final String NON_RDF_SOURCE_PARAM = "non_rdf_source";
+
+    private static final String COLUMNS = "stat_type, stat_key, resource_count, byte_count";
+
+    private static final String VALUES = ":" + STAT_TYPE_PARAM + ", :" + STAT_KEY_PARAM + ", :" +
+            RESOURCE_COUNT_PARAM + ", :" + BYTE_COUNT_PARAM;
+
+    private static final String ADD_H2 = "MERGE INTO " + STATS_TABLE + " t USING (SELECT" +
+            " CAST(:" + STAT_TYPE_PARAM + " AS VARCHAR(16)) AS stat_type," +
+            " CAST(:" + STAT_KEY_PARAM + " AS VARCHAR(255)) AS stat_key," +
+            " CAST(:" + RESOURCE_COUNT_PARAM + " AS BIGINT) AS resource_count," +
+            " CAST(:" + BYTE_COUNT_PARAM + " AS BIGINT) AS byte_count) s" +
+            " ON (t.stat_type = s.stat_type AND t.stat_key = s.stat_key)" +
+            " WHEN MATCHED THEN UPDATE SET resource_count = t.resource_count + s.resource_count," +
+            " byte_count = t.byte_count + s.byte_count" +
+            " WHEN NOT MATCHED THEN INSERT (" + COLUMNS + ")" +
+            " VALUES (s.stat_type, s.stat_key, s.resource_count, s.byte_count)";
+
+    private static final String ADD_MYSQL_MARIA = "INSERT INTO " + STATS_TABLE + " (" + COLUMNS + ") VALUES (" +
+            VALUES + ") ON DUPLICATE KEY UPDATE resource_count = resource_count + VALUES(resource_count), " +
+            "byte_count = byte_count + VALUES(byte_count)";
+
+    private static final String ADD_POSTGRESQL = "INSERT INTO " + STATS_TABLE + " AS t (" + COLUMNS + ") VALUES (" +
+            VALUES + ") ON CONFLICT (stat_type, stat_key) DO UPDATE SET " +
+            "resource_count = t.resource_count + EXCLUDED.resource_count, " +
+            "byte_count = t.byte_count + EXCLUDED.byte_count";
+
+    private static final Map<DbPlatform, String> ADD_MAPPING = Map.of(
+            H2, ADD_H2,
+            MYSQL, ADD_MYSQL_MARIA,
+            MARIADB, ADD_MYSQL_MARIA,
+            POSTGRESQL, ADD_POSTGRESQL
+    );
+
+    private static final String SELECT_TOTAL = "SELECT count(*), COALESCE(SUM(a.content_size), 0) " +
+            "FROM simple_search a WHERE ";
+
+    private static final String SELECT_BY_RDF_TYPE = "SELECT c.rdf_type_uri, a.mime_type, count(*), " +
+            "COALESCE(SUM(a.content_size), 0) FROM simple_search a " +
+            "JOIN search_resource_rdf_type b ON a.id = b.resource_id " +
+            "JOIN search_rdf_type c ON b.rdf_type_id = c.id WHERE ";
+
+    private static final String GROUP_BY_RDF_TYPE = " GROUP BY c.rdf_type_uri, a.mime_type";
+
+    private static final String DELETE_ALL = "DELETE FROM " + STATS_TABLE;
+
+    private static final String SELECT_ANY = "SELECT stat_type FROM " + STATS_TABLE + " LIMIT 1";
+
+    private static final String REBUILD_TOTAL = "INSERT INTO " + STATS_TABLE + " (" + COLUMNS + ") " +
+            "SELECT '" + TOTAL + "', '', count(*), COALESCE(SUM(content_size), 0) FROM simple_search";
+
+    private static final String REBUILD_MIME_TYPE = "INSERT INTO " + STATS_TABLE + " (" + COLUMNS + ") " +
+            "SELECT '" + MIME_TYPE + "', COALESCE(a.mime_type, ''), count(*), " +
+            "COALESCE(SUM(a.content_size), 0) FROM simple_search a " +
+            "JOIN search_resource_rdf_type b ON a.id = b.resource_id " +
+            "JOIN search_rdf_type c ON b.rdf_type_id = c.id " +
+            "WHERE c.rdf_type_uri = :" + NON_RDF_SOURCE_PARAM + " GROUP BY COALESCE(a.mime_type, '')";
+
+    private static final String REBUILD_RDF_TYPE = "INSERT INTO " + STATS_TABLE + " (" + COLUMNS + ") " +
+            "SELECT '" + RDF_TYPE + "', c.rdf_type_uri, count(*), COALESCE(SUM(a.content_size), 0) " +
+            "FROM simple_search a " +
+            "JOIN search_resource_rdf_type b ON a.id = b.resource_id " +
+            "JOIN search_rdf_type c ON b.rdf_type_id = c.id GROUP BY c.rdf_type_uri";
+
+    private static final String NON_RDF_SOURCE = RdfLexicon.NON_RDF_SOURCE.getURI();
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final DbPlatform dbPlatform;
+
+    /**
+     * Constructor
+     * @param jdbcTemplate the template to query with
+     * @param dbPlatform the database platform
+     */
+    SearchStatistics(final NamedParameterJdbcTemplate jdbcTemplate, final DbPlatform dbPlatform) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dbPlatform = dbPlatform;
+    }
+
+    /**
+     * Read what a set of indexed resources currently add to the totals.
+     *
+     * @param scope a condition on simple_search, aliased a, selecting the resources
+     * @param parameterSource the parameters of the condition
+     * @return the share of the totals
+     */
+    Snapshot snapshot(final String scope, final MapSqlParameterSource parameterSource) {
+        final var snapshot = new Snapshot();
+        jdbcTemplate.query(SELECT_TOTAL + scope, parameterSource, rs -> {
+            snapshot.add(TOTAL, "", rs.getLong(1), rs.getLong(2));
+        });
+        jdbcTemplate.query(SELECT_BY_RDF_TYPE + scope + GROUP_BY_RDF_TYPE, parameterSource, rs -> {
+            final var rdfType = rs.getString(1);
+            final var mimeType = rs.getString(2);
+            final long count = rs.getLong(3);
+            final long bytes = rs.getLong(4);
+            snapshot.add(RDF_TYPE, rdfType, count, bytes);
+            if (NON_RDF_SOURCE.equals(rdfType)) {
+                snapshot.add(MIME_TYPE, Objects.toString(mimeType, ""), count, bytes);
+            }
+        });
+        return snapshot;
+    }
+
+    /**
+     * Update the totals by the difference between two snapshots of the same resources. Within a database
+     * transaction the difference is written just before it commits, and dropped if it rolls back.
+     *
+     * @param before the share of the totals before the write
+     * @param after the share of the totals after the write
+     */
+    void update(final Snapshot before, final Snapshot after) {
+        final var pending = getPending();
+        final var changes = pending != null ? pending : new Snapshot();
+        changes.addDifference(before, after);
+        if (pending == null) {
+            write(changes);
+        }
+    }
+
+    /**
+     * Add the changes to their totals, in the order of their keys so concurrent commits lock the rows in the same
+     * order.
+     */
+    private void write(final Snapshot changes) {
+        final List<MapSqlParameterSource> params = new ArrayList<>();
+        changes.totals.forEach((key, change) -> {
+            if (change[0] != 0 || change[1] != 0) {
+                final var parts = key.split(Snapshot.SEPARATOR, 2);
+                params.add(change(parts[0], parts[1], change[0], change[1]));
+            }
+        });
+        if (!params.isEmpty()) {
+            jdbcTemplate.batchUpdate(addSql(), params.toArray(new MapSqlParameterSource[0]));
+        }
+    }
+
+    /**
+     * @return the changes pending in the current database transaction, or null if there is none
+     */
+    private Snapshot getPending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        var pending = (Snapshot) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new Snapshot();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(new PendingSynchronization(pending));
+        }
+        return pending;
+    }
+
+    private String addSql() {
+        return ADD_MAPPING.get(dbPlatform);
+    }
+
+    private static MapSqlParameterSource change(final String type, final String key, final long count,
+                                                final long bytes) {
+        return new MapSqlParameterSource()
+                .addValue(STAT_TYPE_PARAM, type)
+                .addValue(STAT_KEY_PARAM, key)
+                .addValue(RESOURCE_COUNT_PARAM, count)
+                .addValue(BYTE_COUNT_PARAM, bytes);
+    }
+
+    /**
+     * Recompute the totals from the whole index. Writes made to the index while this runs may not be counted.
+     */
+    void rebuild() {
+        clear();
+        jdbcTemplate.update(REBUILD_TOTAL, Collections.emptyMap());
+        jdbcTemplate.update(REBUILD_MIME_TYPE, Map.of(NON_RDF_SOURCE_PARAM, NON_RDF_SOURCE));
+        jdbcTemplate.update(REBUILD_RDF_TYPE, Collections.emptyMap());
+    }
+
+    /**
+     * Remove all totals.
+     */
+    void clear() {
+        jdbcTemplate.update(DELETE_ALL, Collections.emptyMap());
+    }
+
+    /**
+     * @return whether any totals are stored
+     */
+    boolean isEmpty() {
+        return jdbcTemplate.queryForList(SELECT_ANY, Collections.emptyMap(), String.class).isEmpty();
+    }
+
+    /**
+     * Writes the pending changes before the database transaction commits and unbinds them when it completes.
+     */
+    private class PendingSynchronization implements TransactionSynchronization {
+
+        private final Snapshot pending;
+
+        PendingSynchronization(final Snapshot pending) {
+            this.pending = pending;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResourceIfPossible(SearchStatistics.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(SearchStatistics.this, pending);
+        }
+
+        @Override
+        public void beforeCommit(final boolean readOnly) {
+            write(pending);
+            pending.totals.clear();
+        }
+
+        @Override
+        public void afterCompletion(final int status) {
+            pending.totals.clear();
+            TransactionSynchronizationManager.unbindResourceIfPossible(SearchStatistics.this);
+        }
+    }
+
+    /**
+     * The share of the totals of a set of resources, or changes to the totals, keyed by statistic type and key.
+     */
+    static class Snapshot {
+
+        private static final String SEPARATOR = "\n";
+
+        private final Map<String, long[]> totals = new TreeMap<>();
+
+        private void add(final String type, final String key, final long count, final long bytes) {
+            add(type + SEPARATOR + key, count, bytes);
+        }
+
+        private void addDifference(final Snapshot before, final Snapshot after) {
+            after.totals.forEach((key, total) -> add(key, total[0], total[1]));
+            before.totals.forEach((key, total) -> add(key, -total[0], -total[1]));
+        }
+
+        private void add(final String key, final long count, final long bytes) {
+            final long[] total = totals.computeIfAbsent(key, k -> new long[2]);
+            total[0] += count;
+            total[1] += bytes;
+        }
+    }
+}
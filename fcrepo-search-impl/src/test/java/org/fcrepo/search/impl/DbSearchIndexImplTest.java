@@ -13,18 +13,30 @@ import static org.fcrepo.kernel.api.RdfLexicon.NON_RDF_SOURCE;
 import static org.fcrepo.kernel.api.RdfLexicon.RDF_SOURCE;
 import static org.fcrepo.kernel.api.RdfLexicon.RESOURCE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.util.ReflectionTestUtils.setField;
 
 import java.net.URI;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import jakarta.inject.Inject;
+import javax.sql.DataSource;
 
+import org.fcrepo.config.FedoraPropsConfig;
+import org.fcrepo.config.SearchCountStrategy;
 import org.fcrepo.kernel.api.RepositoryInitializationStatus;
 import org.fcrepo.kernel.api.Transaction;
 import org.fcrepo.kernel.api.exception.PathNotFoundException;
@@ -37,6 +49,7 @@ import org.fcrepo.search.api.Condition;
 import org.fcrepo.search.api.InvalidConditionExpressionException;
 import org.fcrepo.search.api.InvalidQueryException;
 import org.fcrepo.search.api.SearchParameters;
+import org.fcrepo.search.api.SearchResult;
 import org.fcrepo.search.impl.utils.SearchTestConfiguration;
 import org.fcrepo.search.impl.utils.TestTransaction;
 
@@ -49,6 +62,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestExecutionListeners;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
@@ -72,6 +86,12 @@ public class DbSearchIndexImplTest {
     @Inject
     private RepositoryInitializationStatus initializationStatus;
 
+    @Inject
+    private FedoraPropsConfig fedoraPropsConfig;
+
+    @Inject
+    private DataSource dataSource;
+
     private ResourceHeaders resourceHeaders1;
 
     private ResourceHeaders resourceHeaders2;
@@ -802,4 +822,265 @@ public class DbSearchIndexImplTest {
         final var results = searchIndex.doSearch(parameters);
         assertEquals(2, results.getPagination().getTotalResults());
     }
+
+    /**
+     * Test paging through results with a cursor, for fields with and without nulls and in both directions.
+     */
+    @Test
+    public void testCursorPaging() throws Exception {
+        final var expectedIds = indexResourcesForPaging();
+
+        for (final var orderBy : List.of(Condition.Field.FEDORA_ID, Condition.Field.CONTENT_SIZE,
+                Condition.Field.MIME_TYPE, Condition.Field.CREATED)) {
+            for (final var order : List.of("asc", "desc")) {
+                for (final var fields : List.of(List.of(Condition.Field.FEDORA_ID),
+                        List.of(Condition.Field.FEDORA_ID, Condition.Field.RDF_TYPE))) {
+                    final var offsetIds = getIds(searchIndex.doSearch(new SearchParameters(fields,
+                            List.of(Condition.fromExpression("fedora_id=*")), 100, 0, orderBy, order, true)));
+                    assertEquals(expectedIds.size(), offsetIds.size());
+
+                    final List<String> cursorIds = new ArrayList<>();
+                    String cursor = SearchParameters.FIRST_PAGE_CURSOR;
+                    int pages = 0;
+                    while (cursor != null) {
+                        final var result = searchIndex.doSearch(new SearchParameters(fields,
+                                List.of(Condition.fromExpression("fedora_id=*")), 4, 0, orderBy, order, true,
+                                cursor));
+                        assertEquals(expectedIds.size(), result.getPagination().getTotalResults());
+                        assertTrue(result.getItems().size() <= 4);
+                        cursorIds.addAll(getIds(result));
+                        cursor = result.getPagination().getNextCursor();
+                        pages++;
+                    }
+                    assertEquals(4, pages, "Unexpected pages ordering by " + orderBy + " " + order);
+                    assertEquals(new HashSet<>(expectedIds), new HashSet<>(cursorIds));
+                    assertEquals(expectedIds.size(), cursorIds.size());
+                    assertOrdered(cursorIds, orderBy, order);
+                }
+            }
+        }
+    }
+
+    /**
+     * Test that a search which cannot be streamed is rejected before any result is read.
+     */
+    @Test
+    public void testStreamSearchRejectsRdfTypeOrder() throws Exception {
+        assertThrows(InvalidQueryException.class, () -> searchIndex.streamSearch(new SearchParameters(
+                List.of(Condition.Field.FEDORA_ID), List.of(Condition.fromExpression("fedora_id=*")), 1, 0,
+                Condition.Field.RDF_TYPE, "asc", false)));
+    }
+
+    /**
+     * Test that a cursor can only be used with the ordering it was issued for.
+     */
+    @Test
+    public void testCursorMismatch() throws Exception {
+        indexResourcesForPaging();
+        final var fields = List.of(Condition.Field.FEDORA_ID);
+        final var conditions = List.of(Condition.fromExpression("fedora_id=*"));
+        final var cursor = searchIndex.doSearch(new SearchParameters(fields, conditions, 4, 0,
+                Condition.Field.CREATED, "asc", false, SearchParameters.FIRST_PAGE_CURSOR))
+                .getPagination().getNextCursor();
+        assertNotNull(cursor);
+        assertThrows(InvalidQueryException.class, () -> searchIndex.doSearch(new SearchParameters(fields,
+                conditions, 4, 0, Condition.Field.CREATED, "desc", false, cursor)));
+        assertThrows(InvalidQueryException.class, () -> searchIndex.doSearch(new SearchParameters(fields,
+                conditions, 4, 0, Condition.Field.MODIFIED, "asc", false, cursor)));
+        assertThrows(InvalidQueryException.class, () -> searchIndex.doSearch(new SearchParameters(fields,
+                conditions, 4, 0, Condition.Field.CREATED, "asc", false, "not a cursor")));
+    }
+
+    /**
+     * Test that a page of a cursor paged search must hold at least one result.
+     */
+    @Test
+    public void testCursorPagingRejectsNoMaxResults() throws Exception {
+        final var fields = List.of(Condition.Field.FEDORA_ID);
+        final var conditions = List.of(Condition.fromExpression("fedora_id=*"));
+        for (final int maxResults : new int[]{0, -1}) {
+            assertThrows(InvalidQueryException.class, () -> searchIndex.doSearch(new SearchParameters(fields,
+                    conditions, maxResults, 0, Condition.Field.CREATED, "asc", false,
+                    SearchParameters.FIRST_PAGE_CURSOR)));
+        }
+    }
+
+    /**
+     * Test streaming every result of a search.
+     */
+    @Test
+    public void testStreamSearch() throws Exception {
+        final var expectedIds = indexResourcesForPaging();
+        final List<Map<String, Object>> items = new ArrayList<>();
+        searchIndex.streamSearch(new SearchParameters(
+                List.of(Condition.Field.FEDORA_ID, Condition.Field.CONTENT_SIZE, Condition.Field.RDF_TYPE),
+                List.of(Condition.fromExpression("fedora_id=*")), 1, 0, Condition.Field.CONTENT_SIZE, "desc",
+                false)).forEach(items::add);
+
+        final var ids = items.stream().map(item -> (String) item.get(Condition.Field.FEDORA_ID.toString()))
+                .collect(Collectors.toList());
+        assertEquals(expectedIds.size(), ids.size());
+        assertEquals(new HashSet<>(expectedIds), new HashSet<>(ids));
+        assertOrdered(ids, Condition.Field.CONTENT_SIZE, "desc");
+        items.forEach(item -> assertTrue(((String[]) item.get(Condition.Field.RDF_TYPE.toString())).length > 0));
+    }
+
+    /**
+     * Test that counts are reused for the same conditions with the cached count strategy.
+     */
+    @Test
+    public void testCachedCount() throws Exception {
+        fedoraPropsConfig.setSearchCountStrategy(SearchCountStrategy.CACHED);
+        searchIndex.setup();
+        try {
+            searchIndex.addUpdateIndex(transaction, resourceHeaders1);
+            final var fedoraIdCondition = Condition.fromExpression("fedora_id=" + parentId.getFullId() + "*");
+            final var createdCondition = Condition.fromExpression("created>=2020-01-01T00:00:00+00:00");
+            final var parameters = new SearchParameters(List.of(Condition.Field.FEDORA_ID),
+                    List.of(fedoraIdCondition, createdCondition), 10, 0, Condition.Field.FEDORA_ID, "asc", true);
+            assertEquals(1, searchIndex.doSearch(parameters).getPagination().getTotalResults());
+
+            final var id2 = parentId.resolve(UUID.randomUUID().toString());
+            searchIndex.addUpdateIndex(transaction, buildBinaryResourceHeaders(id2, parentId),
+                    List.of(URI.create(NON_RDF_SOURCE.getURI())));
+            final var result = searchIndex.doSearch(new SearchParameters(List.of(Condition.Field.FEDORA_ID),
+                    List.of(createdCondition, fedoraIdCondition), 10, 0, null, "asc", true));
+            assertEquals(2, result.getItems().size());
+            assertEquals(1, result.getPagination().getTotalResults());
+            assertFalse(result.getPagination().isTotalResultsEstimated());
+
+            final var otherParameters = new SearchParameters(List.of(Condition.Field.FEDORA_ID),
+                    List.of(fedoraIdCondition), 10, 0, null, "asc", true);
+            assertEquals(2, searchIndex.doSearch(otherParameters).getPagination().getTotalResults());
+        } finally {
+            fedoraPropsConfig.setSearchCountStrategy(SearchCountStrategy.EXACT);
+            searchIndex.setup();
+        }
+    }
+
+    /**
+     * Test that H2, which cannot estimate, falls back to an exact count with the estimated count strategy.
+     */
+    @Test
+    public void testEstimatedCountFallsBackToExact() throws Exception {
+        fedoraPropsConfig.setSearchCountStrategy(SearchCountStrategy.ESTIMATED);
+        searchIndex.setup();
+        try {
+            searchIndex.addUpdateIndex(transaction, resourceHeaders1);
+            final var result = searchIndex.doSearch(new SearchParameters(List.of(Condition.Field.FEDORA_ID),
+                    List.of(Condition.fromExpression("rdf_type=" + RDF_SOURCE.getURI())), 10, 0, null, "asc",
+                    true));
+            assertEquals(1, result.getPagination().getTotalResults());
+            assertFalse(result.getPagination().isTotalResultsEstimated());
+        } finally {
+            fedoraPropsConfig.setSearchCountStrategy(SearchCountStrategy.EXACT);
+            searchIndex.setup();
+        }
+    }
+
+    /**
+     * Test that the statistics follow direct writes and transaction commits, and match recomputing them.
+     */
+    @Test
+    public void testStatisticsMaintained() throws Exception {
+        fedoraPropsConfig.setSearchStatsCountersEnabled(true);
+        searchIndex.setup();
+        try {
+            searchIndex.addUpdateIndex(transaction, resourceHeaders1);
+            final var binaryId = parentId.resolve("binary");
+            final var binaryHeaders = buildBinaryResourceHeaders(binaryId, parentId);
+            mockBinaryResource(resource2, binaryId.getResourceId());
+            when(resourceFactory.getResource(transaction, binaryHeaders)).thenReturn(resource2);
+            searchIndex.addUpdateIndex(transaction, binaryHeaders);
+
+            // add a second binary and remove the container in a transaction
+            final var longTx = makeTransaction(true);
+            final var otherBinaryHeaders = buildBinaryResourceHeaders(parentId.resolve("other"), parentId);
+            when(resourceFactory.getResource(longTx, otherBinaryHeaders)).thenReturn(resource2);
+            searchIndex.addUpdateIndex(longTx, otherBinaryHeaders);
+            searchIndex.removeFromIndex(longTx, testId);
+            searchIndex.commitTransaction(longTx);
+
+            // shrink the first binary
+            final var updatedHeaders = (ResourceHeadersImpl) buildBinaryResourceHeaders(binaryId, parentId);
+            updatedHeaders.setContentSize(100L);
+            when(resourceFactory.getResource(transaction, updatedHeaders)).thenReturn(resource2);
+            searchIndex.addUpdateIndex(transaction, updatedHeaders);
+
+            final var maintained = readStatistics();
+            assertEquals(List.of(2L, 12445L), maintained.get("total/"));
+            assertEquals(List.of(2L, 12445L), maintained.get("mime_type/text/plain"));
+            assertEquals(List.of(2L, 12445L), maintained.get("rdf_type/" + NON_RDF_SOURCE.getURI()));
+            assertEquals(List.of(0L, 0L), maintained.get("rdf_type/" + BASIC_CONTAINER.getURI()));
+
+            searchIndex.rebuildStatistics();
+            final var rebuilt = readStatistics();
+            maintained.values().removeIf(totals -> totals.get(0) == 0);
+            assertEquals(rebuilt, maintained);
+        } finally {
+            fedoraPropsConfig.setSearchStatsCountersEnabled(false);
+            searchIndex.setup();
+        }
+    }
+
+    /**
+     * @return the resource count and byte count of each statistic
+     */
+    private Map<String, List<Long>> readStatistics() {
+        final Map<String, List<Long>> statistics = new HashMap<>();
+        new JdbcTemplate(dataSource).query("SELECT stat_type, stat_key, resource_count, byte_count " +
+                "FROM search_stats", rs -> {
+                    statistics.put(rs.getString(1) + "/" + rs.getString(2), List.of(rs.getLong(3), rs.getLong(4)));
+                });
+        return statistics;
+    }
+
+    /**
+     * Index containers without a content size or mime type and binaries sharing sizes and mime types.
+     *
+     * @return the ids of the indexed resources
+     */
+    private List<String> indexResourcesForPaging() {
+        final List<String> ids = new ArrayList<>();
+        final var types = List.of(URI.create(RDF_SOURCE.getURI()), URI.create(RESOURCE.getURI()));
+        for (int i = 0; i < 7; i++) {
+            final var id = parentId.resolve("container" + i);
+            searchIndex.addUpdateIndex(transaction, buildContainerResourceHeaders(id, parentId), types);
+            ids.add(id.getFullId());
+        }
+        for (int i = 0; i < 6; i++) {
+            final var id = parentId.resolve("binary" + i);
+            final var headers = (ResourceHeadersImpl) buildBinaryResourceHeaders(id, parentId);
+            headers.setContentSize(100L * (i % 3));
+            headers.setMimeType(i % 2 == 0 ? "text/plain" : "image/png");
+            searchIndex.addUpdateIndex(transaction, headers, types);
+            ids.add(id.getFullId());
+        }
+        return ids;
+    }
+
+    private static List<String> getIds(final SearchResult result) {
+        return result.getItems().stream().map(item -> (String) item.get(Condition.Field.FEDORA_ID.toString()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Check the ids are ordered by the field, resources without a value for the field are last in ascending order.
+     */
+    private void assertOrdered(final List<String> ids, final Condition.Field orderBy, final String order)
+            throws Exception {
+        final Map<String, Map<String, Object>> values = new HashMap<>();
+        searchIndex.streamSearch(new SearchParameters(List.of(Condition.Field.FEDORA_ID, orderBy),
+                List.of(Condition.fromExpression("fedora_id=*")), 100, 0, null, "asc", false))
+                .forEach(item -> values.put((String) item.get(Condition.Field.FEDORA_ID.toString()), item));
+        final Comparator<String> comparator = Comparator.comparing(
+                id -> (Comparable<Object>) values.get(id).get(orderBy.toString()),
+                Comparator.nullsLast(Comparator.naturalOrder()));
+        final var expected = new ArrayList<>(ids);
+        expected.sort(order.equals("asc") ? comparator : comparator.reversed());
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(values.get(expected.get(i)).get(orderBy.toString()),
+                    values.get(ids.get(i)).get(orderBy.toString()), "Out of order at " + i + ": " + ids);
+        }
+    }
 }
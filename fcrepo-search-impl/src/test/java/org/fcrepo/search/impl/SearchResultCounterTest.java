@@ -0,0 +1,153 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree.
+ */
+package org.fcrepo.search.impl;
+
+import static org.fcrepo.common.db.DbPlatform.H2;
+import static org.fcrepo.common.db.DbPlatform.MARIADB;
+import static org.fcrepo.common.db.DbPlatform.MYSQL;
+import static org.fcrepo.common.db.DbPlatform.POSTGRESQL;
+import static org.fcrepo.config.SearchCountStrategy.ESTIMATED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+import org.fcrepo.common.db.DbPlatform;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+/**
+ * Tests of the estimated counts of {@link SearchResultCounter} on each database platform.
+ */
+public class SearchResultCounterTest {
+
+    private static final String COUNT_QUERY = "SELECT count(0) as count FROM simple_search";
+
+    private static final String SELECT_QUERY = "SELECT fedora_id FROM simple_search";
+
+    private static final int EXACT_COUNT = 42;
+
+    private final MapSqlParameterSource parameterSource = new MapSqlParameterSource();
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(eq(COUNT_QUERY), any(SqlParameterSource.class), eq(Integer.class)))
+                .thenReturn(EXACT_COUNT);
+    }
+
+    @Test
+    public void testEstimatePostgres() {
+        // The estimate of the whole query is the one of the top node, not of the nodes below it
+        when(jdbcTemplate.queryForObject(eq("EXPLAIN (FORMAT JSON) " + SELECT_QUERY), any(SqlParameterSource.class),
+                eq(String.class))).thenReturn("[{\"Plan\": {\"Node Type\": \"Hash Join\", \"Plan Rows\": 1234, " +
+                "\"Plans\": [{\"Node Type\": \"Seq Scan\", \"Plan Rows\": 99}]}}]");
+
+        final var count = count(POSTGRESQL);
+        assertTrue(count.isEstimated());
+        assertEquals(1234, count.getValue());
+    }
+
+    @Test
+    public void testEstimatePostgresWithoutPlanRows() {
+        when(jdbcTemplate.queryForObject(eq("EXPLAIN (FORMAT JSON) " + SELECT_QUERY), any(SqlParameterSource.class),
+                eq(String.class))).thenReturn("[]");
+
+        assertExact(count(POSTGRESQL));
+    }
+
+    @Test
+    public void testEstimateMysql() throws Exception {
+        // The rows of the outer select are filtered and multiplied, the subquery with id 2 is left out
+        stubExplain(true, new double[][] {{1, 200, 50}, {1, 3, 100}, {2, 1000, 100}});
+
+        final var count = count(MYSQL);
+        assertTrue(count.isEstimated());
+        assertEquals(300, count.getValue());
+    }
+
+    @Test
+    public void testEstimateMariaDb() throws Exception {
+        // A plain EXPLAIN has no filtered column in MariaDB
+        stubExplain(false, new double[][] {{1, 200}, {1, 3}});
+
+        final var count = count(MARIADB);
+        assertTrue(count.isEstimated());
+        assertEquals(600, count.getValue());
+    }
+
+    @Test
+    public void testEstimateH2() {
+        assertExact(count(H2));
+        verify(jdbcTemplate, never()).query(anyString(), any(SqlParameterSource.class),
+                any(RowCallbackHandler.class));
+    }
+
+    @Test
+    public void testEstimateFailure() {
+        when(jdbcTemplate.queryForObject(eq("EXPLAIN (FORMAT JSON) " + SELECT_QUERY), any(SqlParameterSource.class),
+                eq(String.class))).thenThrow(new DataAccessResourceFailureException("no plan"));
+
+        assertExact(count(POSTGRESQL));
+    }
+
+    private SearchResultCounter.Count count(final DbPlatform platform) {
+        final var counter = new SearchResultCounter(jdbcTemplate, platform, ESTIMATED, 10, Duration.ofSeconds(30));
+        return counter.count(Collections.emptyList(), COUNT_QUERY, SELECT_QUERY, parameterSource);
+    }
+
+    private void assertExact(final SearchResultCounter.Count count) {
+        assertFalse(count.isEstimated());
+        assertEquals(EXACT_COUNT, count.getValue());
+    }
+
+    /**
+     * Make the EXPLAIN of the select query return rows of id, rows and, if present, filtered.
+     */
+    private void stubExplain(final boolean hasFiltered, final double[][] rows) throws Exception {
+        final var metaData = mock(ResultSetMetaData.class);
+        final var columns = hasFiltered ? List.of("id", "rows", "filtered") : List.of("id", "rows");
+        when(metaData.getColumnCount()).thenReturn(columns.size());
+        for (int i = 0; i < columns.size(); i++) {
+            when(metaData.getColumnLabel(i + 1)).thenReturn(columns.get(i));
+        }
+        doAnswer(invocation -> {
+            final RowCallbackHandler handler = invocation.getArgument(2);
+            for (final double[] row : rows) {
+                final var rs = mock(ResultSet.class);
+                when(rs.getMetaData()).thenReturn(metaData);
+                when(rs.getInt("id")).thenReturn((int) row[0]);
+                when(rs.getDouble("rows")).thenReturn(row[1]);
+                if (hasFiltered) {
+                    when(rs.getDouble("filtered")).thenReturn(row[2]);
+                }
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(eq("EXPLAIN " + SELECT_QUERY), any(SqlParameterSource.class),
+                any(RowCallbackHandler.class));
+    }
+}
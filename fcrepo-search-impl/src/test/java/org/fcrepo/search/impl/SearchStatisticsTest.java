@@ -0,0 +1,171 @@
+/*
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree.
+ */
+package org.fcrepo.search.impl;
+
+import static org.fcrepo.common.db.DbPlatform.H2;
+import static org.fcrepo.common.db.DbPlatform.MARIADB;
+import static org.fcrepo.common.db.DbPlatform.MYSQL;
+import static org.fcrepo.common.db.DbPlatform.POSTGRESQL;
+import static org.fcrepo.kernel.api.RdfLexicon.NON_RDF_SOURCE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.fcrepo.common.db.DbPlatform;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+/**
+ * Tests of the SQL {@link SearchStatistics} runs on each database platform.
+ */
+public class SearchStatisticsTest {
+
+    private static final String SCOPE = "a.fedora_id = :fedora_id";
+
+    @Test
+    public void testUpdateH2() throws Exception {
+        assertTrue(updateSql(H2).startsWith("MERGE INTO search_stats t USING (SELECT"));
+    }
+
+    @Test
+    public void testUpdateMysql() throws Exception {
+        assertTrue(updateSql(MYSQL).endsWith("ON DUPLICATE KEY UPDATE " +
+                "resource_count = resource_count + VALUES(resource_count), " +
+                "byte_count = byte_count + VALUES(byte_count)"));
+    }
+
+    @Test
+    public void testUpdateMariaDb() throws Exception {
+        assertEquals(updateSql(MYSQL), updateSql(MARIADB));
+    }
+
+    @Test
+    public void testUpdatePostgres() throws Exception {
+        assertTrue(updateSql(POSTGRESQL).endsWith("ON CONFLICT (stat_type, stat_key) DO UPDATE SET " +
+                "resource_count = t.resource_count + EXCLUDED.resource_count, " +
+                "byte_count = t.byte_count + EXCLUDED.byte_count"));
+    }
+
+    @Test
+    public void testUpdateWrittenBeforeCommit() throws Exception {
+        final var jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+        final var statistics = new SearchStatistics(jdbcTemplate, H2);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            recordBinary(jdbcTemplate, statistics);
+            recordBinary(jdbcTemplate, statistics);
+            verify(jdbcTemplate, never()).batchUpdate(anyString(), any(SqlParameterSource[].class));
+
+            TransactionSynchronizationUtils.triggerBeforeCommit(false);
+            assertEquals(Map.of(
+                    SearchStatistics.TOTAL + " ", "2/20",
+                    SearchStatistics.RDF_TYPE + " " + NON_RDF_SOURCE.getURI(), "2/20",
+                    SearchStatistics.MIME_TYPE + " text/plain", "2/20"), writtenCounts(jdbcTemplate));
+        } finally {
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testUpdateDroppedOnRollback() throws Exception {
+        final var jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+        final var statistics = new SearchStatistics(jdbcTemplate, H2);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            recordBinary(jdbcTemplate, statistics);
+        } finally {
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(SqlParameterSource[].class));
+        assertNull(TransactionSynchronizationManager.getResource(statistics));
+    }
+
+    /**
+     * Record the addition of a binary outside of a transaction and return the SQL its totals were added with, after
+     * checking the changes.
+     */
+    private String updateSql(final DbPlatform platform) throws Exception {
+        final var jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+        recordBinary(jdbcTemplate, new SearchStatistics(jdbcTemplate, platform));
+
+        final var sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).batchUpdate(sql.capture(), any(SqlParameterSource[].class));
+        assertEquals(Map.of(
+                SearchStatistics.TOTAL + " ", "1/10",
+                SearchStatistics.RDF_TYPE + " " + NON_RDF_SOURCE.getURI(), "1/10",
+                SearchStatistics.MIME_TYPE + " text/plain", "1/10"), writtenCounts(jdbcTemplate));
+        return sql.getValue();
+    }
+
+    /**
+     * Record the addition of a binary of 10 bytes.
+     */
+    private void recordBinary(final NamedParameterJdbcTemplate jdbcTemplate, final SearchStatistics statistics)
+            throws Exception {
+        final var scopeParams = new MapSqlParameterSource("fedora_id", "info:fedora/binary");
+        stubSnapshot(jdbcTemplate, false);
+        final var before = statistics.snapshot(SCOPE, scopeParams);
+        stubSnapshot(jdbcTemplate, true);
+        final var after = statistics.snapshot(SCOPE, scopeParams);
+        statistics.update(before, after);
+    }
+
+    /**
+     * @return the changes written in the single batch update, keyed by statistic type and key
+     */
+    private Map<String, Object> writtenCounts(final NamedParameterJdbcTemplate jdbcTemplate) {
+        final var changes = ArgumentCaptor.forClass(SqlParameterSource[].class);
+        verify(jdbcTemplate).batchUpdate(anyString(), changes.capture());
+        return Arrays.stream(changes.getValue()).collect(Collectors.toMap(
+                c -> c.getValue("stat_type") + " " + c.getValue("stat_key"),
+                c -> c.getValue("resource_count") + "/" + c.getValue("byte_count")));
+    }
+
+    /**
+     * Make the snapshot queries find either nothing or a single binary of 10 bytes.
+     */
+    private void stubSnapshot(final NamedParameterJdbcTemplate jdbcTemplate, final boolean indexed)
+            throws Exception {
+        doAnswer(invocation -> {
+            final String sql = invocation.getArgument(0);
+            final RowCallbackHandler handler = invocation.getArgument(2);
+            final var rs = mock(ResultSet.class);
+            if (sql.startsWith("SELECT count(*)")) {
+                when(rs.getLong(1)).thenReturn(indexed ? 1L : 0L);
+                when(rs.getLong(2)).thenReturn(indexed ? 10L : 0L);
+                handler.processRow(rs);
+            } else if (indexed) {
+                when(rs.getString(1)).thenReturn(NON_RDF_SOURCE.getURI());
+                when(rs.getString(2)).thenReturn("text/plain");
+                when(rs.getLong(3)).thenReturn(1L);
+                when(rs.getLong(4)).thenReturn(10L);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(SqlParameterSource.class), any(RowCallbackHandler.class));
+    }
+}
@@ -47,7 +47,7 @@ public class SearchTestConfiguration {
     }
 
     @Bean
-    @DependsOn({"fedoraPropsConfig", "dataSource"})
+    @DependsOn({"fedoraPropsConfig", "dataSource", "flywayFactory"})
     public ContainmentIndexImpl containmentIndex() {
         return new ContainmentIndexImpl();
     }
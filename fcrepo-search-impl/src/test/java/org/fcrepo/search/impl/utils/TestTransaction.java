@@ -107,6 +107,11 @@ public class TestTransaction implements Transaction {
         // no-op
     }
 
+    @Override
+    public void afterCompletion(final Runnable action) {
+        // no-op
+    }
+
     @Override
     public void commit() {
         // no-op
@@ -12,6 +12,7 @@ import jakarta.annotation.PostConstruct;
 import jakarta.inject.Inject;
 import javax.sql.DataSource;
 
+import org.fcrepo.config.FedoraPropsConfig;
 import org.fcrepo.kernel.api.RdfLexicon;
 import org.fcrepo.stats.api.MimeTypeStatsResult;
 import org.fcrepo.stats.api.RdfTypeStatsResult;
@@ -28,7 +29,8 @@ import org.springframework.util.CollectionUtils;
 
 /**
  * A database-backed implementation of the <code>RepositoryStats</code> interface.
- * It depends on the tables that drive the search index.
+ * It depends on the tables that drive the search index, or on the running totals the search index keeps when
+ * fcrepo.search.stats.counters.enabled is set.
  *
  * @author dbernstein
  */
@@ -37,9 +39,15 @@ public class DbRepositoryStatsImpl implements RepositoryStats {
 
     private static final String SELECT_COUNT_FROM_SIMPLE_SEARCH = "select count(*) from simple_search";
 
+    private static final String SELECT_COUNT_FROM_SEARCH_STATS =
+            "select coalesce(sum(resource_count), 0) from search_stats where stat_type = 'total'";
+
     @Inject
     private DataSource dataSource;
 
+    @Inject
+    private FedoraPropsConfig fedoraPropsConfig;
+
     private NamedParameterJdbcTemplate jdbcTemplate;
 
     /**
@@ -54,7 +62,9 @@ public class DbRepositoryStatsImpl implements RepositoryStats {
     @Override
     public RepositoryStatsResult getResourceCount(final RepositoryStatsParameters statsParams) {
         final var parameterSource = new MapSqlParameterSource();
-        final var results = jdbcTemplate.queryForRowSet(SELECT_COUNT_FROM_SIMPLE_SEARCH, parameterSource);
+        final var query = fedoraPropsConfig.isSearchStatsCountersEnabled() ? SELECT_COUNT_FROM_SEARCH_STATS :
+                SELECT_COUNT_FROM_SIMPLE_SEARCH;
+        final var results = jdbcTemplate.queryForRowSet(query, parameterSource);
         results.first();
         final var result = new RepositoryStatsResult();
         result.setResourceCount(results.getLong(1));
@@ -66,7 +76,9 @@ public class DbRepositoryStatsImpl implements RepositoryStats {
         final var results = new RepositoryStatsByMimeTypeResults();
         final var mimeTypes = statsParams.getMimeTypes();
         final var parameterSource = new MapSqlParameterSource();
-        final var mimeTypesQuery = formatMimetypeQuery(mimeTypes, parameterSource);
+        final var mimeTypesQuery = fedoraPropsConfig.isSearchStatsCountersEnabled() ?
+                formatStatsQuery("mime_type", "mime_types", mimeTypes, parameterSource) :
+                formatMimetypeQuery(mimeTypes, parameterSource);
         final var mimetypeResults = jdbcTemplate.queryForRowSet(mimeTypesQuery, parameterSource);
         marshallMimeTypeResults(results, mimetypeResults);
         return results;
@@ -76,7 +88,9 @@ public class DbRepositoryStatsImpl implements RepositoryStats {
     public RepositoryStatsByRdfTypeResults getByRdfType(final RepositoryStatsParameters statsParams) {
         final var results = new RepositoryStatsByRdfTypeResults();
         final var parameterSource = new MapSqlParameterSource();
-        final var query = formatRdfTypeQuery(statsParams.getRdfTypes(), parameterSource);
+        final var query = fedoraPropsConfig.isSearchStatsCountersEnabled() ?
+                formatStatsQuery("rdf_type", "rdf_types", statsParams.getRdfTypes(), parameterSource) :
+                formatRdfTypeQuery(statsParams.getRdfTypes(), parameterSource);
         final var rdfTypeResults = jdbcTemplate.queryForRowSet(query, parameterSource);
         marshallRdfTypeResults(results, rdfTypeResults);
         return results;
@@ -139,4 +153,22 @@ public class DbRepositoryStatsImpl implements RepositoryStats {
         rdfTypesQuery.append("group by c.rdf_type_uri");
         return rdfTypesQuery.toString();
     }
+
+    /**
+     * Build a query reading the running totals of one type. Binaries without a mime type are counted
+     * under an empty key, which is returned as null like the grouped query does.
+     */
+    private String formatStatsQuery(final String statType, final String keysParam, final List<String> keys,
+                                    final MapSqlParameterSource parameterSource) {
+        final var statsQuery = new StringBuilder(
+                "select nullif(stat_key, ''), resource_count, byte_count from search_stats ");
+        statsQuery.append("where stat_type = :stat_type ");
+        parameterSource.addValue("stat_type", statType);
+        if (!CollectionUtils.isEmpty(keys)) {
+            statsQuery.append("and stat_key in (:").append(keysParam).append(") ");
+            parameterSource.addValue(keysParam, keys);
+        }
+        statsQuery.append("and resource_count > 0 order by stat_key");
+        return statsQuery.toString();
+    }
 }
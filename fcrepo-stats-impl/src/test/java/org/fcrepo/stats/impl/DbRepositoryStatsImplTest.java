@@ -7,8 +7,10 @@ package org.fcrepo.stats.impl;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import org.fcrepo.config.FedoraPropsConfig;
 import org.fcrepo.kernel.api.RdfLexicon;
 import org.fcrepo.stats.api.MimeTypeStatsResult;
 import org.fcrepo.stats.api.RdfTypeStatsResult;
@@ -49,6 +51,9 @@ public class DbRepositoryStatsImplTest {
     @Inject
     private DataSource dataSource;
 
+    @Inject
+    private FedoraPropsConfig fedoraPropsConfig;
+
     private JdbcTemplate jdbcTemplate;
 
     private int nextId;
@@ -64,6 +69,7 @@ public class DbRepositoryStatsImplTest {
         jdbcTemplate.update("DELETE FROM simple_search");
         jdbcTemplate.update("DELETE FROM search_resource_rdf_type");
         jdbcTemplate.update("DELETE FROM search_rdf_type");
+        jdbcTemplate.update("DELETE FROM search_stats");
 
         // Insert test RDF types
         jdbcTemplate.update("INSERT INTO search_rdf_type (id, rdf_type_uri) VALUES (1, ?)",
@@ -242,6 +248,43 @@ public class DbRepositoryStatsImplTest {
         assertTrue(results.getRdfTypes().isEmpty());
     }
 
+    @Test
+    public void testStatsCounters() {
+        // totals which dropped to zero are left in the table
+        insertStats("total", "", 5, 3584);
+        insertStats("mime_type", "text/plain", 2, 1536);
+        insertStats("mime_type", "image/jpeg", 1, 2048);
+        insertStats("mime_type", "", 1, 10);
+        insertStats("mime_type", "text/html", 0, 0);
+        insertStats("rdf_type", RdfLexicon.NON_RDF_SOURCE.getURI(), 4, 3594);
+        insertStats("rdf_type", RdfLexicon.BASIC_CONTAINER.getURI(), 1, 0);
+
+        fedoraPropsConfig.setSearchStatsCountersEnabled(true);
+        try {
+            final var params = new RepositoryStatsParameters();
+            assertEquals(5, repositoryStats.getResourceCount(params).getResourceCount());
+
+            final var mimeTypes = repositoryStats.getByMimeTypes(params).getMimeTypes();
+            assertEquals(3, mimeTypes.size());
+            assertNull(mimeTypes.get(0).getMimeType());
+            assertEquals(2048L, findMimeTypeResult(mimeTypes, "image/jpeg").getByteCount());
+            assertEquals(2, findMimeTypeResult(mimeTypes, "text/plain").getResourceCount());
+
+            params.setRdfTypes(List.of(RdfLexicon.NON_RDF_SOURCE.getURI()));
+            final var rdfTypes = repositoryStats.getByRdfType(params).getRdfTypes();
+            assertEquals(1, rdfTypes.size());
+            assertEquals(4, rdfTypes.get(0).getResourceCount());
+            assertEquals(3594L, rdfTypes.get(0).getByteCount());
+        } finally {
+            fedoraPropsConfig.setSearchStatsCountersEnabled(false);
+        }
+    }
+
+    private void insertStats(final String type, final String key, final long count, final long bytes) {
+        jdbcTemplate.update("INSERT INTO search_stats (stat_type, stat_key, resource_count, byte_count)" +
+                " VALUES (?, ?, ?, ?)", type, key, count, bytes);
+    }
+
     /**
      * Helper method to find a MimeTypeStatsResult by mime type
      */
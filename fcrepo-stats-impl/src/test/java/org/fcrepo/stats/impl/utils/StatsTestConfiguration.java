@@ -5,6 +5,7 @@
  */
 package org.fcrepo.stats.impl.utils;
 
+import org.fcrepo.config.FedoraPropsConfig;
 import org.fcrepo.config.FlywayFactory;
 import org.fcrepo.stats.api.RepositoryStats;
 import org.fcrepo.stats.impl.DbRepositoryStatsImpl;
@@ -36,6 +37,11 @@ public class StatsTestConfiguration {
         return flywayFactory;
     }
 
+    @Bean
+    public FedoraPropsConfig fedoraPropsConfig() {
+        return new FedoraPropsConfig();
+    }
+
     @Bean
     public RepositoryStats repositoryStats() {
         return new DbRepositoryStatsImpl();
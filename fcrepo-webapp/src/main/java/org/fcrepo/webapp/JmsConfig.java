@@ -49,18 +49,22 @@ public class JmsConfig {
     }
 
     /**
-     * Creates a queue or topic publisher based on the property fcrepo.jms.destination.type. By default, this is a topic
+     * Creates a queue or topic publisher based on the property fcrepo.jms.destination.type. By default, this is a topic.
+     * When event batching is enabled, the publisher sends the events of each transaction in one JMS transaction.
      *
      * @param propsConfig config properties
      * @return jms publisher
      */
     @Bean
     public AbstractJMSPublisher jmsPublisher(final FedoraPropsConfig propsConfig) {
+        final AbstractJMSPublisher publisher;
         if (propsConfig.getJmsDestinationType() == JmsDestination.QUEUE) {
-            return new JMSQueuePublisher(propsConfig.getJmsDestinationName());
+            publisher = new JMSQueuePublisher(propsConfig.getJmsDestinationName());
         } else {
-            return new JMSTopicPublisher(propsConfig.getJmsDestinationName());
+            publisher = new JMSTopicPublisher(propsConfig.getJmsDestinationName());
         }
+        publisher.setTransacted(propsConfig.isEventBatchEnabled());
+        return publisher;
     }
 
     /**
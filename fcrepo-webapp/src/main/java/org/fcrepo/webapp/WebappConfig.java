@@ -6,6 +6,7 @@
 
 package org.fcrepo.webapp;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -15,6 +16,7 @@ import jakarta.inject.Inject;
 import jakarta.servlet.Filter;
 
 import org.fcrepo.config.FedoraPropsConfig;
+import org.fcrepo.config.MetricsConfig;
 import org.fcrepo.http.api.ExternalContentHandlerFactory;
 import org.fcrepo.http.api.ExternalContentPathValidator;
 import org.fcrepo.kernel.api.auth.ACLHandle;
@@ -37,6 +39,9 @@ import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.common.eventbus.AsyncEventBus;
 import com.google.common.eventbus.EventBus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 
 /**
  * Spring config for the webapp
@@ -54,15 +59,22 @@ public class WebappConfig {
     @Inject
     private FedoraPropsConfig fedoraPropsConfig;
 
+    @Inject
+    private MetricsConfig metricsConfig;
+
+    @Inject
+    private MeterRegistry meterRegistry;
+
     /**
-     * Task scheduler used for cleaning up transactions
+     * Task scheduler used for cleaning up transactions and auditing fixity. It has a thread for each, so a long
+     * fixity audit does not hold up the cleanup.
      *
      * @return scheduler
      */
     @Bean
     public ThreadPoolTaskScheduler taskScheduler() {
         final var scheduler = new ThreadPoolTaskScheduler();
-        scheduler.setPoolSize(1);
+        scheduler.setPoolSize(2);
         scheduler.setThreadNamePrefix("ScheduledTask");
         return scheduler;
     }
@@ -80,24 +92,33 @@ public class WebappConfig {
     /**
      * Fedora's lightweight internal event bus. Currently memory-resident.
      *
-     * @param propsConfig config
+     * @param eventBusExecutor executor delivering events to subscribers
      * @return event bus
      */
     @Bean
     @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
-    public static EventBus eventBus(final FedoraPropsConfig propsConfig) {
-        return new AsyncEventBus(eventBusExecutor(propsConfig));
+    public static EventBus eventBus(final ExecutorService eventBusExecutor) {
+        return new AsyncEventBus(eventBusExecutor);
     }
 
     /**
      * @param propsConfig config
+     * @param metricsConfig metrics config
+     * @param meterRegistry registry the executor metrics are bound to
      * @return executor intended to be used by the Guava event bus
      */
     @Bean
     @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
-    public static ExecutorService eventBusExecutor(final FedoraPropsConfig propsConfig) {
+    public static ExecutorService eventBusExecutor(final FedoraPropsConfig propsConfig,
+                                                   final MetricsConfig metricsConfig,
+                                                   final MeterRegistry meterRegistry) {
         LOGGER.debug("Event bus threads: {}", propsConfig);
-        return Executors.newFixedThreadPool(propsConfig.getEventBusThreads());
+        final var executor = Executors.newFixedThreadPool(propsConfig.getEventBusThreads());
+        if (metricsConfig.isMetricsEnabled()) {
+            // Exposes the number of events waiting to be delivered to subscribers, such as the JMS publisher
+            new ExecutorServiceMetrics(executor, "fcrepo.event.bus", List.of()).bindTo(meterRegistry);
+        }
+        return executor;
     }
 
     /**
@@ -143,9 +164,21 @@ public class WebappConfig {
     @Bean
     @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
     public Cache<String, Optional<ACLHandle>> authHandleCache() {
-        return Caffeine.newBuilder().weakValues()
+        final var builder = Caffeine.newBuilder();
+
+        if (metricsConfig.isMetricsEnabled()) {
+            builder.recordStats();
+        }
+
+        final Cache<String, Optional<ACLHandle>> cache = builder.weakValues()
                 .expireAfterAccess(fedoraPropsConfig.getWebacCacheTimeout(), TimeUnit.MINUTES)
                 .maximumSize(fedoraPropsConfig.getWebacCacheSize()).build();
+
+        if (metricsConfig.isMetricsEnabled()) {
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "authHandleCache");
+        }
+
+        return cache;
     }
 
     /**